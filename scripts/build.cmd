@@ -2,11 +2,11 @@
 setlocal
 
 REM (JDBC 3 version removed as of 2015-09-30)
-REM invoke the 1.6+ jvm for the JDBC 4 version
+REM invoke a 9+ jvm for the JDBC 4 version (log4jdbc 1.4 needs JDK 9+ for StackWalker)
 
 SET ANT_HOME=C:\JavaDev\apache-ant-1.10.12
-SET JAVA_HOME=C:\JavaDev\jdk8u332-b09
+SET JAVA_HOME=C:\JavaDev\jdk-11.0.22+7
 SET PATH=%JAVA_HOME%\BIN;%ANT_HOME%\BIN
 
 call java -version
-call ant -Djdbc.level=4 -Djvm.ver=1.8 all
+call ant -Djdbc.level=4 -Djvm.ver=9 all
@@ -0,0 +1,929 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A SpyLogDelegator that moves all log formatting and logging off of the application thread.
+ *
+ * Each event is captured as raw data (the Spy, the MethodCall, the SQL, the return value or
+ * Exception and the timing in nanoseconds) into a preallocated ring buffer that any number of
+ * application threads can write to without locking.  A single background thread reads the events
+ * back out and passes them on to another SpyLogDelegator (by default the Slf4jSpyLogDelegator) so
+ * that SQL processing, bind value rendering, debug info lookup and appender I/O no longer add to
+ * the time the application spends in a JDBC call.
+ *
+ * To use it, set the log4jdbc.spylogdelegator property to net.sf.log4jdbc.AsyncSpyLogDelegator.
+ * The following properties are also read:
+ *
+ * <ul>
+ * <li>log4jdbc.async.spylogdelegator - class name of the SpyLogDelegator that events are passed
+ * on to (default net.sf.log4jdbc.Slf4jSpyLogDelegator.)</li>
+ * <li>log4jdbc.async.buffersize - number of events the ring buffer can hold, rounded up to a power
+ * of 2 (default 8192.)</li>
+ * <li>log4jdbc.async.fullpolicy - what to do when the ring buffer is full: block (wait for room,
+ * the default), drop (drop the newest event) or sample (drop all but every Nth event, which waits
+ * for room.)</li>
+ * <li>log4jdbc.async.samplerate - N for the sample policy (default 100.)</li>
+ * </ul>
+ *
+ * Things to be aware of: Object return values and the arguments in a MethodCall are converted to
+ * Strings on the background thread, so a mutable object that is changed right after the call may
+ * be logged with its newer state.  The open connections dump shown at debug level on the
+ * jdbc.connection logger shows the connections that are open when the event is logged.  When the
+ * events are passed on to the Slf4jSpyLogDelegator and any logger is at debug level, the debug
+ * info (the application call site, which is cached) is looked up on the application thread so that
+ * it still shows where the application called into JDBC.
+ *
+ * @author Arthur Blake
+ */
+public class AsyncSpyLogDelegator implements SpyLogDelegator
+{
+  /**
+   * What to do with a new event when the ring buffer is full.
+   */
+  public enum FullBufferPolicy
+  {
+    /**
+     * Wait for the background thread to make room for the event.  No events are lost, but the
+     * application thread is slowed down to the speed of the logging.
+     */
+    BLOCK,
+
+    /**
+     * Drop the new event and count it as dropped.  The application thread never waits.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Drop all but every Nth event that finds the buffer full, which waits for room as in BLOCK.
+     * This keeps a sample of what is going on in the log while bounding how often the application
+     * thread waits.
+     */
+    SAMPLE
+  }
+
+  // kinds of events that can be held in the ring buffer
+
+  private static final int EXCEPTION = 1;
+  private static final int EXCEPTION_NANOS = 2;
+  private static final int RETURN_MSG = 3;
+  private static final int RETURN_BOOLEAN = 4;
+  private static final int RETURN_INT = 5;
+  private static final int RETURN_LONG = 6;
+  private static final int RETURN_FLOAT = 7;
+  private static final int RETURN_DOUBLE = 8;
+  private static final int RETURN_OBJECT = 9;
+  private static final int CONSTRUCTOR = 10;
+  private static final int SQL = 11;
+  private static final int SQL_TIMING = 12;
+  private static final int SQL_TIMING_NANOS = 13;
+  private static final int CONNECTION_OPENED = 14;
+  private static final int CONNECTION_CLOSED = 15;
+  private static final int DEBUG = 16;
+  private static final int SQL_FETCH = 17;
+  private static final int SQL_REPEAT = 18;
+  private static final int SQL_DUPLICATE = 19;
+  private static final int TRANSACTION_ENDED = 20;
+  private static final int CONNECTION_LEAK = 21;
+  private static final int STATEMENT_LEAK = 22;
+
+  /**
+   * How long the background thread sleeps when there is nothing in the ring buffer.
+   */
+  private static final long IDLE_PARK_NANOS = 1000000L;
+
+  /**
+   * How long an application thread sleeps between attempts to get room in a full ring buffer.
+   */
+  private static final long FULL_PARK_NANOS = 10000L;
+
+  /**
+   * How long an application thread waits for the background thread to finish logging the events
+   * still in the ring buffer, after it's been stopped, before logging its own event directly.
+   */
+  private static final long DRAIN_WAIT_MSEC = 5000L;
+
+  /**
+   * One preallocated entry in the ring buffer.  The fields are only written by the application
+   * thread that claimed the entry, and are made visible to the background thread by the volatile
+   * write of sequence.
+   */
+  private static final class Slot
+  {
+    /**
+     * Equal to the position of the slot when it is free for writing, position + 1 when it holds an
+     * event that is ready to be read.
+     */
+    volatile long sequence;
+
+    int kind;
+    Spy spy;
+    Object methodCall;
+
+    /**
+     * The SQL (a String or a DumpedSql) or other text for the event.
+     */
+    Object text;
+    Object value;
+    long primitive;
+    String debugInfo;
+
+    Slot(long sequence)
+    {
+      this.sequence = sequence;
+    }
+
+    void clear()
+    {
+      spy = null;
+      methodCall = null;
+      text = null;
+      value = null;
+      debugInfo = null;
+    }
+  }
+
+  private final SpyLogDelegator delegate;
+
+  private final Slot[] ring;
+
+  private final int mask;
+
+  private final FullBufferPolicy fullBufferPolicy;
+
+  private final int sampleRate;
+
+  /**
+   * Next position to be claimed by an application thread.
+   */
+  private final AtomicLong tail = new AtomicLong();
+
+  /**
+   * Next position to be read by the background thread.
+   */
+  private volatile long head;
+
+  private final LongAdder droppedEvents = new LongAdder();
+
+  /**
+   * Number of events that found the buffer full under the SAMPLE policy.
+   */
+  private final AtomicLong fullBufferEvents = new AtomicLong();
+
+  private volatile boolean running = true;
+
+  /**
+   * Set once the background thread has finished (or been given up on) after it was stopped, so
+   * events can be logged directly on the application thread without getting ahead of the events
+   * still in the ring buffer.
+   */
+  private volatile boolean drained;
+
+  private final Thread writer;
+
+  /**
+   * Create an AsyncSpyLogDelegator configured from the log4jdbc properties.  This is the
+   * constructor used when it is chosen with the log4jdbc.spylogdelegator property.
+   */
+  public AsyncSpyLogDelegator()
+  {
+    this(createDelegate(Log4JdbcProps.props),
+      getIntOption(Log4JdbcProps.props, "log4jdbc.async.buffersize", 8192),
+      getPolicyOption(Log4JdbcProps.props),
+      getIntOption(Log4JdbcProps.props, "log4jdbc.async.samplerate", 100));
+  }
+
+  /**
+   * Create an AsyncSpyLogDelegator that passes events on to the given SpyLogDelegator.  This can be
+   * used together with SpyLogFactory.overrideSpyLogDelegator.
+   *
+   * @param delegate         SpyLogDelegator to pass events on to from the background thread.
+   * @param bufferSize       number of events the ring buffer can hold.  Rounded up to a power of 2.
+   * @param fullBufferPolicy what to do with new events when the ring buffer is full.
+   * @param sampleRate       for the SAMPLE policy, one out of this many events that find the ring
+   *                         buffer full is kept.
+   */
+  public AsyncSpyLogDelegator(SpyLogDelegator delegate, int bufferSize,
+    FullBufferPolicy fullBufferPolicy, int sampleRate)
+  {
+    this.delegate = delegate;
+    int size = 2;
+    while (size < bufferSize && size < (1 << 30))
+    {
+      size <<= 1;
+    }
+    ring = new Slot[size];
+    for (int i = 0; i < size; i++)
+    {
+      ring[i] = new Slot(i);
+    }
+    mask = size - 1;
+    this.fullBufferPolicy = fullBufferPolicy;
+    this.sampleRate = Math.max(1, sampleRate);
+
+    delegate.debug("AsyncSpyLogDelegator passing events to " + delegate.getClass().getName() +
+      " with a ring buffer of " + size + " events, full buffer policy " + fullBufferPolicy +
+      (fullBufferPolicy == FullBufferPolicy.SAMPLE ? " (1 in " + this.sampleRate + ")" : ""));
+
+    writer = new Thread(this::writeEvents, "log4jdbc-async-writer");
+    writer.setDaemon(true);
+    writer.start();
+    Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "log4jdbc-async-shutdown"));
+  }
+
+  private static SpyLogDelegator createDelegate(Properties props)
+  {
+    String className = props.getProperty("log4jdbc.async.spylogdelegator");
+    if (className != null && className.length() > 0)
+    {
+      try
+      {
+        return (SpyLogDelegator) Class.forName(className).getDeclaredConstructor().newInstance();
+      }
+      catch (Exception e)
+      {
+        SpyLogDelegator fallback = new Slf4jSpyLogDelegator();
+        fallback.debug("Failed instantiating async delegator class: " + className + " ; " +
+          e.getMessage());
+        return fallback;
+      }
+    }
+    return new Slf4jSpyLogDelegator();
+  }
+
+  private static int getIntOption(Properties props, String propName, int defaultValue)
+  {
+    String propValue = props.getProperty(propName);
+    if (propValue != null)
+    {
+      try
+      {
+        return Integer.parseInt(propValue.trim());
+      }
+      catch (NumberFormatException n)
+      {
+        Log4JdbcProps.queue.add("x " + propName + " \"" + propValue +
+          "\" is not a valid number (using default of " + defaultValue + ")");
+      }
+    }
+    return defaultValue;
+  }
+
+  private static FullBufferPolicy getPolicyOption(Properties props)
+  {
+    String propValue = props.getProperty("log4jdbc.async.fullpolicy");
+    if (propValue != null)
+    {
+      propValue = propValue.trim().toLowerCase();
+      if ("drop".equals(propValue) || "drop-newest".equals(propValue))
+      {
+        return FullBufferPolicy.DROP_NEWEST;
+      }
+      if ("sample".equals(propValue))
+      {
+        return FullBufferPolicy.SAMPLE;
+      }
+    }
+    return FullBufferPolicy.BLOCK;
+  }
+
+  /**
+   * Get the SpyLogDelegator that events are passed on to.
+   *
+   * @return the SpyLogDelegator that events are passed on to.
+   */
+  public SpyLogDelegator getDelegate()
+  {
+    return delegate;
+  }
+
+  /**
+   * Get the number of events that were dropped because the ring buffer was full.
+   *
+   * @return the number of events dropped since this SpyLogDelegator was created.
+   */
+  public long getDroppedEventCount()
+  {
+    return droppedEvents.sum();
+  }
+
+  /**
+   * Get the number of events waiting in the ring buffer to be logged.
+   *
+   * @return the number of events waiting to be logged.
+   */
+  public long getPendingEventCount()
+  {
+    return Math.max(0L, tail.get() - head);
+  }
+
+  /**
+   * Wait until all the events put into the ring buffer before this call have been logged.
+   */
+  public void flush()
+  {
+    long target = tail.get();
+    while (head < target && writer.isAlive())
+    {
+      LockSupport.unpark(writer);
+      LockSupport.parkNanos(FULL_PARK_NANOS);
+    }
+  }
+
+  /**
+   * Stop the background thread after it logs the events still in the ring buffer.  Events that
+   * occur after this are logged directly on the application thread, once the background thread is
+   * done.  This is called automatically when the JVM shuts down.
+   */
+  public void shutdown()
+  {
+    running = false;
+    LockSupport.unpark(writer);
+    try
+    {
+      writer.join(5000L);
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Claim a slot in the ring buffer for a new event.
+   *
+   * @return the claimed slot, which must be published with publish(), or null if the event should
+   *         not be put in the ring buffer (it was dropped, or the background thread is stopped and
+   *         the caller should log it directly.)
+   */
+  private Slot claim()
+  {
+    boolean waitForRoom = false;
+    while (running && writer.isAlive())
+    {
+      long pos = tail.get();
+      Slot slot = ring[(int) pos & mask];
+      long dif = slot.sequence - pos;
+      if (dif == 0)
+      {
+        if (tail.compareAndSet(pos, pos + 1))
+        {
+          return slot;
+        }
+      }
+      else if (dif < 0)
+      {
+        // the ring buffer is full
+        if (!waitForRoom)
+        {
+          if (fullBufferPolicy == FullBufferPolicy.DROP_NEWEST ||
+            (fullBufferPolicy == FullBufferPolicy.SAMPLE &&
+            fullBufferEvents.getAndIncrement() % sampleRate != 0))
+          {
+            droppedEvents.increment();
+            return null;
+          }
+          waitForRoom = true;
+        }
+        LockSupport.unpark(writer);
+        LockSupport.parkNanos(FULL_PARK_NANOS);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Fill in a claimed slot and make it ready to be read by the background thread.
+   *
+   * @return the sequence of the slot while it holds the event.
+   */
+  private long publish(Slot slot, int kind, Spy spy, Object methodCall, Object text, Object value,
+    long primitive)
+  {
+    slot.kind = kind;
+    slot.spy = spy;
+    slot.methodCall = methodCall;
+    slot.text = text;
+    slot.value = value;
+    slot.primitive = primitive;
+    slot.debugInfo = captureDebugInfo();
+    long sequence = slot.sequence + 1;
+    slot.sequence = sequence;
+    return sequence;
+  }
+
+  /**
+   * Capture the debug info (the call site in the application) on the application thread, if the
+   * delegate might show debug info for the event.  Call sites are cached, so this is usually cheap.
+   */
+  private String captureDebugInfo()
+  {
+    if (delegate instanceof Slf4jSpyLogDelegator &&
+      ((Slf4jSpyLogDelegator) delegate).isDebugInfoEnabled())
+    {
+      return Slf4jSpyLogDelegator.getDebugInfo();
+    }
+    return null;
+  }
+
+  /**
+   * Put an event into the ring buffer, or if the background thread isn't running, log it now.
+   */
+  private void enqueue(int kind, Spy spy, Object methodCall, Object text, Object value,
+    long primitive)
+  {
+    Slot slot = claim();
+    if (slot != null)
+    {
+      long sequence = publish(slot, kind, spy, methodCall, text, value, primitive);
+      if (!running)
+      {
+        // the background thread may have seen the ring buffer empty and stopped between the
+        // claim and the publish: once it's done, log the event here if it's still in the buffer
+        awaitDrained();
+        if (!writer.isAlive() && slot.sequence == sequence)
+        {
+          slot.clear();
+          dispatch(kind, spy, methodCall, text, value, primitive);
+        }
+      }
+    }
+    else if (!running || !writer.isAlive())
+    {
+      awaitDrained();
+      dispatch(kind, spy, methodCall, text, value, primitive);
+    }
+  }
+
+  /**
+   * Wait for the background thread to log the events that are still in the ring buffer, so that
+   * an event logged directly on the application thread isn't logged ahead of them.  If the
+   * background thread doesn't finish within DRAIN_WAIT_MSEC it's given up on.
+   */
+  private void awaitDrained()
+  {
+    if (drained || Thread.currentThread() == writer)
+    {
+      return;
+    }
+    try
+    {
+      writer.join(DRAIN_WAIT_MSEC);
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    drained = true;
+  }
+
+  /**
+   * Main loop of the background thread: read events from the ring buffer and pass them on to the
+   * delegate.  If the thread dies anyway, it's marked as stopped so that events are logged directly
+   * instead of waiting for room in the ring buffer forever.
+   */
+  private void writeEvents()
+  {
+    try
+    {
+      readEvents();
+    }
+    finally
+    {
+      running = false;
+    }
+  }
+
+  private void readEvents()
+  {
+    long reportedDrops = 0L;
+    while (true)
+    {
+      long pos = head;
+      Slot slot = ring[(int) pos & mask];
+      if (slot.sequence == pos + 1)
+      {
+        try
+        {
+          Slf4jSpyLogDelegator.setDeferredDebugInfo(slot.debugInfo);
+          dispatch(slot.kind, slot.spy, slot.methodCall, slot.text, slot.value, slot.primitive);
+        }
+        catch (Throwable t)
+        {
+          // never let a problem logging one event (even an Error) stop the background thread
+        }
+        finally
+        {
+          Slf4jSpyLogDelegator.setDeferredDebugInfo(null);
+          slot.clear();
+          slot.sequence = pos + ring.length;
+          head = pos + 1;
+        }
+      }
+      else
+      {
+        long drops = droppedEvents.sum();
+        if (drops != reportedDrops)
+        {
+          long newDrops = drops - reportedDrops;
+          reportedDrops = drops;
+          try
+          {
+            delegate.debug("AsyncSpyLogDelegator dropped " + newDrops +
+              " events because the ring buffer was full (" + drops + " total)");
+          }
+          catch (Throwable t)
+          {
+            // as above
+          }
+        }
+        if (!running && tail.get() == pos)
+        {
+          return;
+        }
+        LockSupport.parkNanos(IDLE_PARK_NANOS);
+      }
+    }
+  }
+
+  private void dispatch(int kind, Spy spy, Object methodCall, Object text, Object value,
+    long primitive)
+  {
+    switch (kind)
+    {
+      case EXCEPTION:
+        if (methodCall instanceof MethodCall)
+        {
+          delegate.exceptionOccured(spy, (MethodCall) methodCall, (Exception) value,
+            (String) text, primitive);
+        }
+        else
+        {
+          delegate.exceptionOccured(spy, (String) methodCall, (Exception) value, (String) text,
+            primitive);
+        }
+        break;
+      case EXCEPTION_NANOS:
+        if (text instanceof DumpedSql)
+        {
+          delegate.exceptionOccuredNanos(spy, (MethodCall) methodCall, (Exception) value,
+            (DumpedSql) text, primitive);
+        }
+        else
+        {
+          delegate.exceptionOccuredNanos(spy, (MethodCall) methodCall, (Exception) value,
+            (String) text, primitive);
+        }
+        break;
+      case RETURN_MSG:
+        if (methodCall instanceof MethodCall)
+        {
+          delegate.methodReturned(spy, (MethodCall) methodCall, (String) text);
+        }
+        else
+        {
+          delegate.methodReturned(spy, (String) methodCall, (String) text);
+        }
+        break;
+      case RETURN_BOOLEAN:
+        delegate.methodReturned(spy, (MethodCall) methodCall, primitive != 0L);
+        break;
+      case RETURN_INT:
+        delegate.methodReturned(spy, (MethodCall) methodCall, (int) primitive);
+        break;
+      case RETURN_LONG:
+        delegate.methodReturned(spy, (MethodCall) methodCall, primitive);
+        break;
+      case RETURN_FLOAT:
+        delegate.methodReturned(spy, (MethodCall) methodCall,
+          Float.intBitsToFloat((int) primitive));
+        break;
+      case RETURN_DOUBLE:
+        delegate.methodReturned(spy, (MethodCall) methodCall, Double.longBitsToDouble(primitive));
+        break;
+      case RETURN_OBJECT:
+        delegate.methodReturned(spy, (MethodCall) methodCall, value);
+        break;
+      case CONSTRUCTOR:
+        delegate.constructorReturned(spy, (String) text);
+        break;
+      case SQL:
+        if (text instanceof DumpedSql)
+        {
+          delegate.sqlOccured(spy, (MethodCall) methodCall, (DumpedSql) text);
+        }
+        else if (methodCall instanceof MethodCall)
+        {
+          delegate.sqlOccured(spy, (MethodCall) methodCall, (String) text);
+        }
+        else
+        {
+          delegate.sqlOccured(spy, (String) methodCall, (String) text);
+        }
+        break;
+      case SQL_TIMING:
+        if (methodCall instanceof MethodCall)
+        {
+          delegate.sqlTimingOccured(spy, primitive, (MethodCall) methodCall, (String) text);
+        }
+        else
+        {
+          delegate.sqlTimingOccured(spy, primitive, (String) methodCall, (String) text);
+        }
+        break;
+      case SQL_TIMING_NANOS:
+        if (text instanceof DumpedSql)
+        {
+          delegate.sqlTimingOccuredNanos(spy, primitive, (MethodCall) methodCall,
+            (DumpedSql) text);
+        }
+        else
+        {
+          delegate.sqlTimingOccuredNanos(spy, primitive, (MethodCall) methodCall, (String) text);
+        }
+        break;
+      case SQL_FETCH:
+        if (text instanceof DumpedSql)
+        {
+          delegate.sqlFetchOccured(spy, (FetchSummary) value, (DumpedSql) text);
+        }
+        else
+        {
+          delegate.sqlFetchOccured(spy, (FetchSummary) value, (String) text);
+        }
+        break;
+      case SQL_REPEAT:
+        delegate.sqlRepeatOccured(spy, (String) text, ((Integer) value).intValue(), primitive);
+        break;
+      case SQL_DUPLICATE:
+        if (text instanceof DumpedSql)
+        {
+          delegate.sqlDuplicateOccured(spy, ((Integer) value).intValue(), primitive,
+            (DumpedSql) text);
+        }
+        else
+        {
+          delegate.sqlDuplicateOccured(spy, ((Integer) value).intValue(), primitive,
+            (String) text);
+        }
+        break;
+      case TRANSACTION_ENDED:
+        delegate.transactionEnded(spy, (TransactionSummary) value);
+        break;
+      case CONNECTION_LEAK:
+        delegate.connectionLeakOccured((ConnectionLeak) value);
+        break;
+      case STATEMENT_LEAK:
+        delegate.statementLeakOccured((StatementLeak) value);
+        break;
+      case CONNECTION_OPENED:
+        delegate.connectionOpened(spy);
+        break;
+      case CONNECTION_CLOSED:
+        delegate.connectionClosed(spy);
+        break;
+      case DEBUG:
+        delegate.debug((String) text);
+        break;
+      default:
+        break;
+    }
+  }
+
+  // SpyLogDelegator implementation: the enabled checks are answered directly by the delegate,
+  // everything else is put into the ring buffer (SQL and exceptions only if the delegate would log
+  // them, so that they don't take up room in the ring buffer for nothing.)
+
+  public boolean isJdbcLoggingEnabled()
+  {
+    return delegate.isJdbcLoggingEnabled();
+  }
+
+  public boolean isMethodReturnedEnabled(Spy spy)
+  {
+    return delegate.isMethodReturnedEnabled(spy);
+  }
+
+  public boolean isSqlLoggingEnabled()
+  {
+    return delegate.isSqlLoggingEnabled();
+  }
+
+  public void exceptionOccured(Spy spy, String methodCall, Exception e, String sql, long execTime)
+  {
+    if (delegate.isJdbcLoggingEnabled())
+    {
+      enqueue(EXCEPTION, spy, methodCall, sql, e, execTime);
+    }
+  }
+
+  public void exceptionOccured(Spy spy, MethodCall methodCall, Exception e, String sql,
+    long execTime)
+  {
+    if (delegate.isJdbcLoggingEnabled())
+    {
+      enqueue(EXCEPTION, spy, methodCall, sql, e, execTime);
+    }
+  }
+
+  public void exceptionOccuredNanos(Spy spy, MethodCall methodCall, Exception e, String sql,
+    long execTimeNanos)
+  {
+    if (delegate.isJdbcLoggingEnabled())
+    {
+      enqueue(EXCEPTION_NANOS, spy, methodCall, sql, e, execTimeNanos);
+    }
+  }
+
+  public void exceptionOccuredNanos(Spy spy, MethodCall methodCall, Exception e, DumpedSql sql,
+    long execTimeNanos)
+  {
+    if (delegate.isJdbcLoggingEnabled())
+    {
+      enqueue(EXCEPTION_NANOS, spy, methodCall, sql, e, execTimeNanos);
+    }
+  }
+
+  public void methodReturned(Spy spy, String methodCall, String returnMsg)
+  {
+    enqueue(RETURN_MSG, spy, methodCall, returnMsg, null, 0L);
+  }
+
+  public void methodReturned(Spy spy, MethodCall methodCall, String returnMsg)
+  {
+    enqueue(RETURN_MSG, spy, methodCall, returnMsg, null, 0L);
+  }
+
+  public void methodReturned(Spy spy, MethodCall methodCall, boolean returnValue)
+  {
+    enqueue(RETURN_BOOLEAN, spy, methodCall, null, null, returnValue ? 1L : 0L);
+  }
+
+  public void methodReturned(Spy spy, MethodCall methodCall, int returnValue)
+  {
+    enqueue(RETURN_INT, spy, methodCall, null, null, returnValue);
+  }
+
+  public void methodReturned(Spy spy, MethodCall methodCall, long returnValue)
+  {
+    enqueue(RETURN_LONG, spy, methodCall, null, null, returnValue);
+  }
+
+  public void methodReturned(Spy spy, MethodCall methodCall, float returnValue)
+  {
+    enqueue(RETURN_FLOAT, spy, methodCall, null, null, Float.floatToRawIntBits(returnValue));
+  }
+
+  public void methodReturned(Spy spy, MethodCall methodCall, double returnValue)
+  {
+    enqueue(RETURN_DOUBLE, spy, methodCall, null, null, Double.doubleToRawLongBits(returnValue));
+  }
+
+  public void methodReturned(Spy spy, MethodCall methodCall, Object returnValue)
+  {
+    enqueue(RETURN_OBJECT, spy, methodCall, null, returnValue, 0L);
+  }
+
+  public void constructorReturned(Spy spy, String constructionInfo)
+  {
+    enqueue(CONSTRUCTOR, spy, null, constructionInfo, null, 0L);
+  }
+
+  public void sqlOccured(Spy spy, String methodCall, String sql)
+  {
+    if (delegate.isSqlLoggingEnabled())
+    {
+      enqueue(SQL, spy, methodCall, sql, null, 0L);
+    }
+  }
+
+  public void sqlOccured(Spy spy, MethodCall methodCall, String sql)
+  {
+    if (delegate.isSqlLoggingEnabled())
+    {
+      enqueue(SQL, spy, methodCall, sql, null, 0L);
+    }
+  }
+
+  public void sqlOccured(Spy spy, MethodCall methodCall, DumpedSql sql)
+  {
+    if (delegate.isSqlLoggingEnabled())
+    {
+      enqueue(SQL, spy, methodCall, sql, null, 0L);
+    }
+  }
+
+  public void sqlTimingOccured(Spy spy, long execTime, String methodCall, String sql)
+  {
+    if (delegate.isSqlLoggingEnabled())
+    {
+      enqueue(SQL_TIMING, spy, methodCall, sql, null, execTime);
+    }
+  }
+
+  public void sqlTimingOccured(Spy spy, long execTime, MethodCall methodCall, String sql)
+  {
+    if (delegate.isSqlLoggingEnabled())
+    {
+      enqueue(SQL_TIMING, spy, methodCall, sql, null, execTime);
+    }
+  }
+
+  public void sqlTimingOccuredNanos(Spy spy, long execTimeNanos, MethodCall methodCall,
+    String sql)
+  {
+    if (delegate.isSqlLoggingEnabled())
+    {
+      enqueue(SQL_TIMING_NANOS, spy, methodCall, sql, null, execTimeNanos);
+    }
+  }
+
+  public void sqlTimingOccuredNanos(Spy spy, long execTimeNanos, MethodCall methodCall,
+    DumpedSql sql)
+  {
+    if (delegate.isSqlLoggingEnabled())
+    {
+      enqueue(SQL_TIMING_NANOS, spy, methodCall, sql, null, execTimeNanos);
+    }
+  }
+
+  public void sqlFetchOccured(Spy spy, FetchSummary fetch, String sql)
+  {
+    if (delegate.isSqlLoggingEnabled())
+    {
+      enqueue(SQL_FETCH, spy, null, sql, fetch, 0L);
+    }
+  }
+
+  public void sqlFetchOccured(Spy spy, FetchSummary fetch, DumpedSql sql)
+  {
+    if (delegate.isSqlLoggingEnabled())
+    {
+      enqueue(SQL_FETCH, spy, null, sql, fetch, 0L);
+    }
+  }
+
+  public void sqlRepeatOccured(Spy spy, String fingerprint, int count, long elapsedNanos)
+  {
+    enqueue(SQL_REPEAT, spy, null, fingerprint, Integer.valueOf(count), elapsedNanos);
+  }
+
+  public void sqlDuplicateOccured(Spy spy, int count, long wastedNanos, String sql)
+  {
+    enqueue(SQL_DUPLICATE, spy, null, sql, Integer.valueOf(count), wastedNanos);
+  }
+
+  public void sqlDuplicateOccured(Spy spy, int count, long wastedNanos, DumpedSql sql)
+  {
+    enqueue(SQL_DUPLICATE, spy, null, sql, Integer.valueOf(count), wastedNanos);
+  }
+
+  public void transactionEnded(Spy spy, TransactionSummary transaction)
+  {
+    enqueue(TRANSACTION_ENDED, spy, null, null, transaction, 0L);
+  }
+
+  public void connectionLeakOccured(ConnectionLeak leak)
+  {
+    enqueue(CONNECTION_LEAK, null, null, null, leak, 0L);
+  }
+
+  public void statementLeakOccured(StatementLeak leak)
+  {
+    enqueue(STATEMENT_LEAK, null, null, null, leak, 0L);
+  }
+
+  public void connectionOpened(Spy spy)
+  {
+    enqueue(CONNECTION_OPENED, spy, null, null, null, 0L);
+  }
+
+  public void connectionClosed(Spy spy)
+  {
+    enqueue(CONNECTION_CLOSED, spy, null, null, null, 0L);
+  }
+
+  public void debug(String msg)
+  {
+    enqueue(DEBUG, null, null, msg, null, 0L);
+  }
+}
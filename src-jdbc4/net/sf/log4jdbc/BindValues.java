@@ -0,0 +1,486 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * The bind variables set on a PreparedStatement, kept as the raw values that were set so that they
+ * are only formatted for display (with RdbmsSpecifics.formatParameterObject) if the SQL is actually
+ * dumped to the log.
+ *
+ * int, long, float, double and boolean values are kept in a primitive slot so that setting them
+ * doesn't box them.  The slots are held in plain arrays that grow to fit the highest parameter
+ * index set, without any locking: like the PreparedStatement itself, a BindValues is only meant to
+ * be used by one thread at a time.  snapshot() is used to hand the current values off to a
+ * DumpedSql (which may be rendered later on another thread) without copying them: the arrays are
+ * shared with the snapshot until the next value is set, at which point they are copied.  Values
+ * that the application could change after setting them (dates, calendars and arrays) are copied
+ * when they are set, so that a snapshot always shows the value that was bound.
+ *
+ * @author Arthur Blake
+ */
+final class BindValues
+{
+  // kinds of values held in a slot
+
+  private static final byte UNSET = 0;
+  private static final byte OBJECT = 1;
+  private static final byte INT = 2;
+  private static final byte LONG = 3;
+  private static final byte FLOAT = 4;
+  private static final byte DOUBLE = 5;
+  private static final byte BOOLEAN = 6;
+  private static final byte BYTES = 7;
+  private static final byte STREAM = 8;
+
+  private static final byte[] NO_KINDS = new byte[0];
+
+  private byte[] kinds = NO_KINDS;
+
+  private long[] primitives;
+
+  private Object[] objects;
+
+  /**
+   * Optional type information shown in front of each value, only allocated if one is set.
+   */
+  private String[] typeHelpers;
+
+  /**
+   * Number of slots in use (1 more than the highest 0 based index set.)
+   */
+  private int size;
+
+  /**
+   * True when the arrays are shared with a snapshot, and must be copied before they are changed.
+   */
+  private boolean shared;
+
+  /**
+   * Get a slot ready to be set, growing or copying the arrays as needed.
+   *
+   * @param i          1 based parameter index.
+   * @param kind       kind of value that will be set in the slot.
+   * @param typeHelper optional type information to show in front of the value.
+   * @return 0 based index of the slot.
+   */
+  private int slot(int i, byte kind, String typeHelper)
+  {
+    i--;  // make the index 0 based
+    if (i < 0)
+    {
+      // an invalid index that the real PreparedStatement will reject, nothing to trace
+      return -1;
+    }
+    if (i >= kinds.length)
+    {
+      int capacity = Math.max(i + 1, Math.max(8, kinds.length * 2));
+      kinds = Arrays.copyOf(kinds, capacity);
+      primitives = primitives == null ? new long[capacity] : Arrays.copyOf(primitives, capacity);
+      objects = objects == null ? new Object[capacity] : Arrays.copyOf(objects, capacity);
+      if (typeHelpers != null)
+      {
+        typeHelpers = Arrays.copyOf(typeHelpers, capacity);
+      }
+      shared = false;
+    }
+    else if (shared)
+    {
+      kinds = kinds.clone();
+      primitives = primitives.clone();
+      objects = objects.clone();
+      if (typeHelpers != null)
+      {
+        typeHelpers = typeHelpers.clone();
+      }
+      shared = false;
+    }
+    if (typeHelper != null && typeHelpers == null)
+    {
+      typeHelpers = new String[kinds.length];
+    }
+    if (typeHelpers != null)
+    {
+      typeHelpers[i] = typeHelper;
+    }
+    if (i >= size)
+    {
+      size = i + 1;
+    }
+    kinds[i] = kind;
+    objects[i] = null;
+    return i;
+  }
+
+  /**
+   * Set an Object value.  A mutable value is copied, since an application may reuse one Date or
+   * Calendar for each row of a batch and change it between rows.
+   */
+  void setObject(int i, String typeHelper, Object value)
+  {
+    i = slot(i, OBJECT, typeHelper);
+    if (i >= 0)
+    {
+      objects[i] = copyIfMutable(value);
+    }
+  }
+
+  /**
+   * Copy a java.util.Date (including java.sql.Date, Time and Timestamp), Calendar or array, so that
+   * later changes to it don't change the value that is shown.
+   *
+   * @param value value that was set.
+   * @return a copy of the value, or the value itself if it's immutable (or can't be copied.)
+   */
+  private static Object copyIfMutable(Object value)
+  {
+    try
+    {
+      if (value instanceof Date)
+      {
+        return ((Date) value).clone();
+      }
+      if (value instanceof Calendar)
+      {
+        return ((Calendar) value).clone();
+      }
+      if (value instanceof Object[])
+      {
+        return ((Object[]) value).clone();
+      }
+      if (value != null && value.getClass().isArray())
+      {
+        int length = Array.getLength(value);
+        Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+        System.arraycopy(value, 0, copy, 0, length);
+        return copy;
+      }
+    }
+    catch (RuntimeException e)
+    {
+      // a subclass that can't be cloned, show it as it is when it's dumped
+    }
+    return value;
+  }
+
+  void setInt(int i, String typeHelper, int value)
+  {
+    i = slot(i, INT, typeHelper);
+    if (i >= 0)
+    {
+      primitives[i] = value;
+    }
+  }
+
+  void setLong(int i, String typeHelper, long value)
+  {
+    i = slot(i, LONG, typeHelper);
+    if (i >= 0)
+    {
+      primitives[i] = value;
+    }
+  }
+
+  void setFloat(int i, String typeHelper, float value)
+  {
+    i = slot(i, FLOAT, typeHelper);
+    if (i >= 0)
+    {
+      primitives[i] = Float.floatToRawIntBits(value);
+    }
+  }
+
+  void setDouble(int i, String typeHelper, double value)
+  {
+    i = slot(i, DOUBLE, typeHelper);
+    if (i >= 0)
+    {
+      primitives[i] = Double.doubleToRawLongBits(value);
+    }
+  }
+
+  void setBoolean(int i, String typeHelper, boolean value)
+  {
+    i = slot(i, BOOLEAN, typeHelper);
+    if (i >= 0)
+    {
+      primitives[i] = value ? 1L : 0L;
+    }
+  }
+
+  /**
+   * Set a byte array value.  The array is copied, since the application is free to reuse it as
+   * soon as the set method returns, but it isn't formatted until it's dumped.
+   */
+  void setBytes(int i, String typeHelper, byte[] value)
+  {
+    i = slot(i, BYTES, typeHelper);
+    if (i >= 0)
+    {
+      objects[i] = value == null ? null : value.clone();
+    }
+  }
+
+  /**
+   * Set a stream (or other value that can't be shown) of a known length, which is shown as
+   * &lt;description of length N&gt;.
+   */
+  void setStream(int i, String typeHelper, String description, long length)
+  {
+    i = slot(i, STREAM, typeHelper);
+    if (i >= 0)
+    {
+      objects[i] = description;
+      primitives[i] = length;
+    }
+  }
+
+  /**
+   * Forget all the values that have been set.
+   */
+  void clear()
+  {
+    if (shared)
+    {
+      kinds = NO_KINDS;
+      primitives = null;
+      objects = null;
+      typeHelpers = null;
+      shared = false;
+    }
+    else
+    {
+      Arrays.fill(kinds, 0, size, UNSET);
+      if (objects != null)
+      {
+        Arrays.fill(objects, 0, size, null);
+      }
+      if (typeHelpers != null)
+      {
+        Arrays.fill(typeHelpers, 0, size, null);
+      }
+    }
+    size = 0;
+  }
+
+  /**
+   * Get the values as they are right now, to be formatted later.  No copy is made unless and
+   * until another value is set on this BindValues.
+   *
+   * @return a BindValues that is never changed.
+   */
+  BindValues snapshot()
+  {
+    BindValues snapshot = new BindValues();
+    snapshot.kinds = kinds;
+    snapshot.primitives = primitives;
+    snapshot.objects = objects;
+    snapshot.typeHelpers = typeHelpers;
+    snapshot.size = size;
+    snapshot.shared = true;
+    shared = true;
+    return snapshot;
+  }
+
+  /**
+   * Get a hash of the values, for telling whether the same SQL was run again with the same values
+   * (see DuplicateSqlTracker.)  Streams can't be compared, so any values that include one hash to
+   * 0, as do values that can't be hashed.
+   *
+   * @return a hash of the values, or 0 if they can't be compared.
+   */
+  long hash()
+  {
+    long h = size;
+    try
+    {
+      for (int i = 0; i < size; i++)
+      {
+        long v;
+        switch (kinds[i])
+        {
+          case UNSET:
+            v = 0L;
+            break;
+          case OBJECT:
+            v = objects[i] == null ? 0L : objects[i].hashCode();
+            break;
+          case BYTES:
+            v = Arrays.hashCode((byte[]) objects[i]);
+            break;
+          case STREAM:
+            return 0L;
+          default:
+            v = primitives[i];
+            break;
+        }
+        h = (h * 31L + kinds[i]) * 0x100000001b3L + v;
+      }
+    }
+    catch (RuntimeException e)
+    {
+      return 0L;
+    }
+    return h == 0L ? 1L : h;
+  }
+
+  /**
+   * Check whether another BindValues holds the same values as this one, for telling whether the
+   * same SQL was run again with the same values (see DuplicateSqlTracker.)  Streams can't be
+   * compared, so values that include one are never the same, and neither are values that can't be
+   * compared.
+   *
+   * @param other the other values.
+   * @return true if the values are the same.
+   */
+  boolean sameValues(BindValues other)
+  {
+    if (size != other.size)
+    {
+      return false;
+    }
+    try
+    {
+      for (int i = 0; i < size; i++)
+      {
+        byte kind = kinds[i];
+        if (kind != other.kinds[i])
+        {
+          return false;
+        }
+        switch (kind)
+        {
+          case UNSET:
+            break;
+          case OBJECT:
+            if (objects[i] == null ? other.objects[i] != null : !objects[i].equals(
+              other.objects[i]))
+            {
+              return false;
+            }
+            break;
+          case BYTES:
+            if (!Arrays.equals((byte[]) objects[i], (byte[]) other.objects[i]))
+            {
+              return false;
+            }
+            break;
+          case STREAM:
+            return false;
+          default:
+            if (primitives[i] != other.primitives[i])
+            {
+              return false;
+            }
+            break;
+        }
+      }
+    }
+    catch (RuntimeException e)
+    {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Format each of the values for display.
+   *
+   * @param rdbmsSpecifics formats the values for the database in use.
+   * @return the formatted values in order, with null for any parameter that was never set.
+   */
+  String[] format(RdbmsSpecifics rdbmsSpecifics)
+  {
+    String[] formatted = new String[size];
+    for (int i = 0; i < size; i++)
+    {
+      if (kinds[i] != UNSET)
+      {
+        String value = format(rdbmsSpecifics, i);
+        if (typeHelpers != null && typeHelpers[i] != null)
+        {
+          value = typeHelpers[i] + value;
+        }
+        formatted[i] = value;
+      }
+    }
+    return formatted;
+  }
+
+  private String format(RdbmsSpecifics rdbmsSpecifics, int i)
+  {
+    Object arg;
+    switch (kinds[i])
+    {
+      case INT:
+        arg = Integer.valueOf((int) primitives[i]);
+        break;
+      case LONG:
+        arg = Long.valueOf(primitives[i]);
+        break;
+      case FLOAT:
+        arg = Float.valueOf(Float.intBitsToFloat((int) primitives[i]));
+        break;
+      case DOUBLE:
+        arg = Double.valueOf(Double.longBitsToDouble(primitives[i]));
+        break;
+      case BOOLEAN:
+        arg = Boolean.valueOf(primitives[i] != 0L);
+        break;
+      case BYTES:
+        arg = objects[i] == null ? null : toHex((byte[]) objects[i]);
+        break;
+      case STREAM:
+        arg = "<" + objects[i] + " of length " + primitives[i] + ">";
+        break;
+      default:
+        arg = objects[i];
+        break;
+    }
+    try
+    {
+      return rdbmsSpecifics.formatParameterObject(arg);
+    }
+    catch (Throwable t)
+    {
+      // rdbmsSpecifics should NEVER EVER throw an exception!!
+      // but just in case it does, we trap it.
+      DriverSpy.log.debug("rdbmsSpecifics threw an exception while trying to format a " +
+        "parameter object [" + arg + "] this is very bad!!! (" +
+        t.getMessage() + ")");
+
+      // backup - so that at least we won't harm the application using us
+      return arg==null?"null":arg.toString();
+    }
+  }
+
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  private static String toHex(byte[] bytes)
+  {
+    char[] hex = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; i++)
+    {
+      hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+      hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+    }
+    return new String(hex);
+  }
+}
@@ -0,0 +1,221 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.lang.StackWalker.StackFrame;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/**
+ * Finds the place in the application that called into JDBC, for the debugging info that is shown
+ * when the log4jdbc loggers are at debug level.
+ *
+ * The stack is walked with a StackWalker, which only decodes as many frames as it has to: the walk
+ * stops at the first frame that called into log4jdbc (or, when log4jdbc.debug.stack.prefix is set,
+ * at the first frame from the application.)  The description of the frame (class, method, file and
+ * line number) is cached by class name, method name and bytecode index, so that after the first
+ * time a call site is seen it costs a map lookup instead of a line number lookup and a String
+ * concatenation.  The cache holds up to 10000 call sites, after which an arbitrary call site is
+ * dropped each time a new one is added.
+ *
+ * A CallSite is the key for the cache.  A CallSite can also be captured on its own (see capture())
+ * as a cheap token for where something happened, which is only described if it's reported.
+ *
+ * @author Arthur Blake
+ */
+final class CallSite
+{
+  private static final String LOG4JDBC_PACKAGE = "net.sf.log4jdbc";
+
+  private static final int MAX_CACHE_SIZE = 10000;
+
+  private static final StackWalker walker =
+    StackWalker.getInstance(StackWalker.Option.SHOW_REFLECT_FRAMES);
+
+  private static final ConcurrentMap<CallSite, String> cache = new ConcurrentHashMap<>();
+
+  private static final String nl = System.getProperty("line.separator");
+
+  /**
+   * Describe the call site in the application that called into JDBC, in the form
+   * <code>class.method(file:line)</code>.
+   *
+   * @return the call site, or null if it couldn't be found.
+   */
+  static String describe()
+  {
+    StackFrame frame = walker.walk(CallSite::findCaller);
+    return frame == null ? null : describe(frame);
+  }
+
+  /**
+   * Find the call site in the application that called into JDBC, like describe(), but skipping
+   * any frames in the java.sql and javax.sql packages (such as DriverManager.getConnection) too,
+   * and without describing it yet.
+   *
+   * @return the call site, or null if it couldn't be found.
+   */
+  static CallSite capture()
+  {
+    StackFrame frame = walker.walk(frames -> findCaller(frames.filter(f ->
+      !f.getClassName().startsWith("java.sql.") && !f.getClassName().startsWith("javax.sql."))));
+    return frame == null ? null : new CallSite(frame);
+  }
+
+  private static String describe(StackFrame frame)
+  {
+    CallSite key = new CallSite(frame.getClassName(), frame.getMethodName(),
+      frame.getByteCodeIndex());
+    String description = cache.get(key);
+    if (description == null)
+    {
+      description = frame.getClassName() + "." + frame.getMethodName() + "(" +
+        frame.getFileName() + ":" + frame.getLineNumber() + ")";
+      while (cache.size() >= MAX_CACHE_SIZE)
+      {
+        Iterator<CallSite> it = cache.keySet().iterator();
+        if (!it.hasNext())
+        {
+          break;
+        }
+        it.next();
+        it.remove();
+      }
+      cache.putIfAbsent(key, description);
+    }
+    return description;
+  }
+
+  /**
+   * Find the frame that called into log4jdbc or, if log4jdbc.debug.stack.prefix is set, the first
+   * frame from the application (falling back to the frame that called into log4jdbc if there isn't
+   * one.)
+   */
+  private static StackFrame findCaller(Stream<StackFrame> frames)
+  {
+    // read once: the prefix can be changed (or cleared) over JMX while the stack is walked
+    String prefix = DriverSpy.TraceFromApplication ? DriverSpy.DebugStackPrefix : null;
+    StackFrame caller = null;
+    Iterator<StackFrame> it = frames.iterator();
+    while (it.hasNext())
+    {
+      StackFrame frame = it.next();
+      String className = frame.getClassName();
+      if (className.startsWith(LOG4JDBC_PACKAGE))
+      {
+        continue;
+      }
+      if (caller == null)
+      {
+        caller = frame;
+        if (prefix == null)
+        {
+          break;
+        }
+      }
+      if (className.startsWith(prefix))
+      {
+        return frame;
+      }
+    }
+    return caller;
+  }
+
+  /**
+   * Describe every frame on the stack that isn't in log4jdbc, one per line.  This walks the whole
+   * stack and isn't cached: it's for the log4jdbc.dump.fulldebugstacktrace option.
+   *
+   * @return the stack, with each frame on its own line.
+   */
+  static String describeStack()
+  {
+    return walker.walk(frames ->
+    {
+      StringBuilder dump = new StringBuilder();
+      Iterator<StackFrame> it = frames.iterator();
+      while (it.hasNext())
+      {
+        StackFrame frame = it.next();
+        if (!frame.getClassName().startsWith(LOG4JDBC_PACKAGE))
+        {
+          if (dump.length() > 0)
+          {
+            dump.append("  ");
+          }
+          dump.append("at ").append(frame.toStackTraceElement()).append(nl);
+        }
+      }
+      return dump.toString();
+    });
+  }
+
+  private final String className;
+
+  private final String methodName;
+
+  private final int byteCodeIndex;
+
+  /**
+   * The frame, for a CallSite from capture(), or null for a cache key.
+   */
+  private final StackFrame frame;
+
+  private CallSite(String className, String methodName, int byteCodeIndex)
+  {
+    this.className = className;
+    this.methodName = methodName;
+    this.byteCodeIndex = byteCodeIndex;
+    this.frame = null;
+  }
+
+  private CallSite(StackFrame frame)
+  {
+    this.className = frame.getClassName();
+    this.methodName = frame.getMethodName();
+    this.byteCodeIndex = frame.getByteCodeIndex();
+    this.frame = frame;
+  }
+
+  public boolean equals(Object o)
+  {
+    if (this == o)
+    {
+      return true;
+    }
+    if (!(o instanceof CallSite))
+    {
+      return false;
+    }
+    CallSite other = (CallSite) o;
+    return byteCodeIndex == other.byteCodeIndex && className.equals(other.className) &&
+      methodName.equals(other.methodName);
+  }
+
+  public int hashCode()
+  {
+    return (className.hashCode() * 31 + methodName.hashCode()) * 31 + byteCodeIndex;
+  }
+
+  /**
+   * @return the call site, in the form <code>class.method(file:line)</code>.
+   */
+  public String toString()
+  {
+    return frame != null ? describe(frame) : className + "." + methodName;
+  }
+}
@@ -87,248 +87,310 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public Date getDate(int parameterIndex) throws SQLException
   {
-    String methodCall = "getDate(" + parameterIndex + ")";
     try
     {
-      return (Date) reportReturn(methodCall, realCallableStatement.getDate(parameterIndex));
+      Date result = realCallableStatement.getDate(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getDate", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getDate", parameterIndex), s);
       throw s;
     }
   }
 
   public Date getDate(int parameterIndex, Calendar cal) throws SQLException
   {
-    String methodCall = "getDate(" + parameterIndex + ", " + cal + ")";
     try
     {
-      return (Date) reportReturn(methodCall, realCallableStatement.getDate(parameterIndex, cal));
+      Date result = realCallableStatement.getDate(parameterIndex, cal);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getDate", parameterIndex, cal), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getDate", parameterIndex, cal), s);
       throw s;
     }
   }
 
   public Ref getRef(String parameterName) throws SQLException
   {
-    String methodCall = "getRef(" + parameterName + ")";
     try
     {
-      return (Ref) reportReturn(methodCall, realCallableStatement.getRef(parameterName));
+      Ref result = realCallableStatement.getRef(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getRef", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getRef", parameterName), s);
       throw s;
     }
   }
 
   public Time getTime(String parameterName) throws SQLException
   {
-    String methodCall = "getTime(" + parameterName + ")";
     try
     {
-      return (Time) reportReturn(methodCall, realCallableStatement.getTime(parameterName));
+      Time result = realCallableStatement.getTime(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getTime", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getTime", parameterName), s);
       throw s;
     }
   }
 
   public void setTime(String parameterName, Time x) throws SQLException
   {
-    String methodCall = "setTime(" + parameterName + ", " + x + ")";
     try
     {
       realCallableStatement.setTime(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setTime", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setTime", parameterName, x));
+    }
   }
 
   public Blob getBlob(int i) throws SQLException
   {
-    String methodCall = "getBlob(" + i + ")";
     try
     {
-      return (Blob) reportReturn(methodCall, realCallableStatement.getBlob(i));
+      Blob result = realCallableStatement.getBlob(i);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBlob", i), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBlob", i), s);
       throw s;
     }
   }
 
   public Clob getClob(int i) throws SQLException
   {
-    String methodCall = "getClob(" + i + ")";
     try
     {
-      return (Clob) reportReturn(methodCall, realCallableStatement.getClob(i));
+      Clob result = realCallableStatement.getClob(i);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getClob", i), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getClob", i), s);
       throw s;
     }
   }
 
   public Array getArray(int i) throws SQLException
   {
-    String methodCall = "getArray(" + i + ")";
     try
     {
-      return (Array) reportReturn(methodCall, realCallableStatement.getArray(i));
+      Array result = realCallableStatement.getArray(i);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getArray", i), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getArray", i), s);
       throw s;
     }
   }
 
   public byte[] getBytes(int parameterIndex) throws SQLException
   {
-    String methodCall = "getBytes(" + parameterIndex + ")";
     try
     {
-      return (byte[]) reportReturn(methodCall, realCallableStatement.getBytes(parameterIndex));
+      byte[] result = realCallableStatement.getBytes(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBytes", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBytes", parameterIndex), s);
       throw s;
     }
   }
 
   public double getDouble(int parameterIndex) throws SQLException
   {
-    String methodCall = "getDouble(" + parameterIndex + ")";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.getDouble(parameterIndex));
+      double result = realCallableStatement.getDouble(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getDouble", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getDouble", parameterIndex), s);
       throw s;
     }
   }
 
   public int getInt(int parameterIndex) throws SQLException
   {
-    String methodCall = "getInt(" + parameterIndex + ")";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.getInt(parameterIndex));
+      int result = realCallableStatement.getInt(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getInt", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getInt", parameterIndex), s);
       throw s;
     }
   }
 
   public boolean wasNull() throws SQLException
   {
-    String methodCall = "wasNull()";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.wasNull());
+      boolean result = realCallableStatement.wasNull();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("wasNull"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("wasNull"), s);
       throw s;
     }
   }
 
   public Time getTime(int parameterIndex) throws SQLException
   {
-    String methodCall = "getTime(" + parameterIndex + ")";
     try
     {
-      return (Time) reportReturn(methodCall, realCallableStatement.getTime(parameterIndex));
+      Time result = realCallableStatement.getTime(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getTime", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getTime", parameterIndex), s);
       throw s;
     }
   }
 
   public Time getTime(int parameterIndex, Calendar cal) throws SQLException
   {
-    String methodCall = "getTime(" + parameterIndex + ", " + cal + ")";
     try
     {
-      return (Time) reportReturn(methodCall, realCallableStatement.getTime(parameterIndex, cal));
+      Time result = realCallableStatement.getTime(parameterIndex, cal);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getTime", parameterIndex, cal), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getTime", parameterIndex, cal), s);
       throw s;
     }
   }
 
   public Timestamp getTimestamp(String parameterName) throws SQLException
   {
-    String methodCall = "getTimestamp(" + parameterName + ")";
     try
     {
-      return (Timestamp) reportReturn(methodCall,
-        realCallableStatement.getTimestamp(parameterName));
+      Timestamp result = realCallableStatement.getTimestamp(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getTimestamp", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getTimestamp", parameterName), s);
       throw s;
     }
   }
 
   public void setTimestamp(String parameterName, Timestamp x) throws SQLException
   {
-    String methodCall = "setTimestamp(" + parameterName + ", " + x + ")";
     try
     {
       realCallableStatement.setTimestamp(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setTimestamp", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setTimestamp", parameterName, x));
+    }
   }
 
   public String getString(int parameterIndex) throws SQLException
   {
-    String methodCall = "getString(" + parameterIndex + ")";
     try
     {
-      return (String) reportReturn(methodCall, realCallableStatement.getString(parameterIndex));
+      String result = realCallableStatement.getString(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getString", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getString", parameterIndex), s);
       throw s;
     }
   }
 
   public void registerOutParameter(int parameterIndex, int sqlType) throws SQLException
   {
-    String methodCall = "registerOutParameter(" + parameterIndex + ", " + sqlType + ")";
     argTraceSet(parameterIndex, null, "<OUT>");
     try
     {
@@ -336,16 +398,17 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("registerOutParameter", parameterIndex, sqlType), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("registerOutParameter", parameterIndex, sqlType));
+    }
   }
 
   public void registerOutParameter(int parameterIndex, int sqlType, int scale) throws SQLException
   {
-    String methodCall =
-      "registerOutParameter(" + parameterIndex + ", " + sqlType + ", " + scale + ")";
     argTraceSet(parameterIndex, null, "<OUT>");
     try
     {
@@ -353,16 +416,17 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("registerOutParameter", parameterIndex, sqlType, scale), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("registerOutParameter", parameterIndex, sqlType, scale));
+    }
   }
 
   public void registerOutParameter(int paramIndex, int sqlType, String typeName) throws SQLException
   {
-    String methodCall =
-      "registerOutParameter(" + paramIndex + ", " + sqlType + ", " + typeName + ")";
     argTraceSet(paramIndex, null, "<OUT>");
     try
     {
@@ -370,582 +434,696 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("registerOutParameter", paramIndex, sqlType, typeName), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("registerOutParameter", paramIndex, sqlType, typeName));
+    }
   }
 
   public byte getByte(String parameterName) throws SQLException
   {
-    String methodCall = "getByte(" + parameterName + ")";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.getByte(parameterName));
+      byte result = realCallableStatement.getByte(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getByte", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getByte", parameterName), s);
       throw s;
     }
   }
 
   public double getDouble(String parameterName) throws SQLException
   {
-    String methodCall = "getDouble(" + parameterName + ")";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.getDouble(parameterName));
+      double result = realCallableStatement.getDouble(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getDouble", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getDouble", parameterName), s);
       throw s;
     }
   }
 
   public float getFloat(String parameterName) throws SQLException
   {
-    String methodCall = "getFloat(" + parameterName + ")";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.getFloat(parameterName));
+      float result = realCallableStatement.getFloat(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getFloat", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getFloat", parameterName), s);
       throw s;
     }
   }
 
   public int getInt(String parameterName) throws SQLException
   {
-    String methodCall = "getInt(" + parameterName + ")";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.getInt(parameterName));
+      int result = realCallableStatement.getInt(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getInt", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getInt", parameterName), s);
       throw s;
     }
   }
 
   public long getLong(String parameterName) throws SQLException
   {
-    String methodCall = "getLong(" + parameterName + ")";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.getLong(parameterName));
+      long result = realCallableStatement.getLong(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getLong", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getLong", parameterName), s);
       throw s;
     }
   }
 
   public short getShort(String parameterName) throws SQLException
   {
-    String methodCall = "getShort(" + parameterName + ")";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.getShort(parameterName));
+      short result = realCallableStatement.getShort(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getShort", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getShort", parameterName), s);
       throw s;
     }
   }
 
   public boolean getBoolean(String parameterName) throws SQLException
   {
-    String methodCall = "getBoolean(" + parameterName + ")";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.getBoolean(parameterName));
+      boolean result = realCallableStatement.getBoolean(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBoolean", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBoolean", parameterName), s);
       throw s;
     }
   }
 
   public byte[] getBytes(String parameterName) throws SQLException
   {
-    String methodCall = "getBytes(" + parameterName + ")";
     try
     {
-      return (byte[]) reportReturn(methodCall, realCallableStatement.getBytes(parameterName));
+      byte[] result = realCallableStatement.getBytes(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBytes", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBytes", parameterName), s);
       throw s;
     }
   }
 
   public void setByte(String parameterName, byte x) throws SQLException
   {
-    String methodCall = "setByte(" + parameterName + ", " + x + ")";
     try
     {
       realCallableStatement.setByte(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setByte", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setByte", parameterName, x));
+    }
   }
 
   public void setDouble(String parameterName, double x) throws SQLException
   {
-    String methodCall = "setDouble(" + parameterName + ", " + x + ")";
     try
     {
       realCallableStatement.setDouble(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setDouble", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setDouble", parameterName, x));
+    }
   }
 
   public void setFloat(String parameterName, float x) throws SQLException
   {
-    String methodCall = "setFloat(" + parameterName + ", " + x + ")";
     try
     {
       realCallableStatement.setFloat(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setFloat", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setFloat", parameterName, x));
+    }
   }
 
   public void registerOutParameter(String parameterName, int sqlType) throws SQLException
   {
-    String methodCall = "registerOutParameter(" + parameterName + ", " + sqlType + ")";
     try
     {
       realCallableStatement.registerOutParameter(parameterName, sqlType);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("registerOutParameter", parameterName, sqlType), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("registerOutParameter", parameterName, sqlType));
+    }
   }
 
   public void setInt(String parameterName, int x) throws SQLException
   {
-    String methodCall = "setInt(" + parameterName + ", " + x + ")";
     try
     {
       realCallableStatement.setInt(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setInt", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setInt", parameterName, x));
+    }
   }
 
   public void setNull(String parameterName, int sqlType) throws SQLException
   {
-    String methodCall = "setNull(" + parameterName + ", " + sqlType + ")";
     try
     {
       realCallableStatement.setNull(parameterName, sqlType);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setNull", parameterName, sqlType), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setNull", parameterName, sqlType));
+    }
   }
 
   public void registerOutParameter(String parameterName, int sqlType, int scale) throws SQLException
   {
-    String methodCall =
-      "registerOutParameter(" + parameterName + ", " + sqlType + ", " + scale + ")";
     try
     {
       realCallableStatement.registerOutParameter(parameterName, sqlType, scale);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("registerOutParameter", parameterName, sqlType, scale), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("registerOutParameter", parameterName, sqlType, scale));
+    }
   }
 
   public void setLong(String parameterName, long x) throws SQLException
   {
-    String methodCall = "setLong(" + parameterName + ", " + x + ")";
     try
     {
       realCallableStatement.setLong(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setLong", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setLong", parameterName, x));
+    }
   }
 
   public void setShort(String parameterName, short x) throws SQLException
   {
-    String methodCall = "setShort(" + parameterName + ", " + x + ")";
     try
     {
       realCallableStatement.setShort(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setShort", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setShort", parameterName, x));
+    }
   }
 
   public void setBoolean(String parameterName, boolean x) throws SQLException
   {
-    String methodCall = "setBoolean(" + parameterName + ", " + x + ")";
     try
     {
       realCallableStatement.setBoolean(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setBoolean", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setBoolean", parameterName, x));
+    }
   }
 
   public void setBytes(String parameterName, byte[] x) throws SQLException
   {
     //todo: dump byte array?
-    String methodCall = "setBytes(" + parameterName + ", " + x + ")";
     try
     {
       realCallableStatement.setBytes(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setBytes", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setBytes", parameterName, x));
+    }
   }
 
   public boolean getBoolean(int parameterIndex) throws SQLException
   {
-    String methodCall = "getBoolean(" + parameterIndex + ")";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.getBoolean(parameterIndex));
+      boolean result = realCallableStatement.getBoolean(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBoolean", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBoolean", parameterIndex), s);
       throw s;
     }
   }
 
   public Timestamp getTimestamp(int parameterIndex) throws SQLException
   {
-    String methodCall = "getTimestamp(" + parameterIndex + ")";
     try
     {
-      return (Timestamp)
-        reportReturn(methodCall, realCallableStatement.getTimestamp(parameterIndex));
+      Timestamp result = realCallableStatement.getTimestamp(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getTimestamp", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getTimestamp", parameterIndex), s);
       throw s;
     }
   }
 
   public void setAsciiStream(String parameterName, InputStream x, int length) throws SQLException
   {
-    String methodCall = "setAsciiStream(" + parameterName + ", " + x + ", " + length + ")";
     try
     {
       realCallableStatement.setAsciiStream(parameterName, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setAsciiStream", parameterName, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setAsciiStream", parameterName, x, length));
+    }
   }
 
   public void setBinaryStream(String parameterName, InputStream x, int length) throws SQLException
   {
-    String methodCall = "setBinaryStream(" + parameterName + ", " + x + ", " + length + ")";
     try
     {
       realCallableStatement.setBinaryStream(parameterName, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setBinaryStream", parameterName, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setBinaryStream", parameterName, x, length));
+    }
   }
 
   public void setCharacterStream(String parameterName, Reader reader, int length)
     throws SQLException
   {
-    String methodCall = "setCharacterStream(" + parameterName + ", " + reader + ", " + length + ")";
     try
     {
       realCallableStatement.setCharacterStream(parameterName, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setCharacterStream", parameterName, reader, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setCharacterStream", parameterName, reader, length));
+    }
   }
 
   public Object getObject(String parameterName) throws SQLException
   {
-    String methodCall = "getObject(" + parameterName + ")";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.getObject(parameterName));
+      Object result = realCallableStatement.getObject(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getObject", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getObject", parameterName), s);
       throw s;
     }
   }
 
   public void setObject(String parameterName, Object x) throws SQLException
   {
-    String methodCall = "setObject(" + parameterName + ", " + x + ")";
     try
     {
       realCallableStatement.setObject(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setObject", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setObject", parameterName, x));
+    }
   }
 
   public void setObject(String parameterName, Object x, int targetSqlType) throws SQLException
   {
-    String methodCall = "setObject(" + parameterName + ", " + x + ", " + targetSqlType + ")";
     try
     {
       realCallableStatement.setObject(parameterName, x, targetSqlType);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setObject", parameterName, x, targetSqlType), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setObject", parameterName, x, targetSqlType));
+    }
   }
 
   public void setObject(String parameterName, Object x, int targetSqlType, int scale)
     throws SQLException
   {
-    String methodCall =
-      "setObject(" + parameterName + ", " + x + ", " + targetSqlType + ", " + scale + ")";
     try
     {
       realCallableStatement.setObject(parameterName, x, targetSqlType, scale);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setObject", parameterName, x, targetSqlType, scale), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setObject", parameterName, x, targetSqlType, scale));
+    }
   }
 
   public Timestamp getTimestamp(int parameterIndex, Calendar cal) throws SQLException
   {
-    String methodCall = "getTimestamp(" + parameterIndex + ", " + cal + ")";
     try
     {
-      return (Timestamp)
-        reportReturn(methodCall, realCallableStatement.getTimestamp(parameterIndex, cal));
+      Timestamp result = realCallableStatement.getTimestamp(parameterIndex, cal);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getTimestamp", parameterIndex, cal), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getTimestamp", parameterIndex, cal), s);
       throw s;
     }
   }
 
   public Date getDate(String parameterName, Calendar cal) throws SQLException
   {
-    String methodCall = "getDate(" + parameterName + ", " + cal + ")";
     try
     {
-      return (Date) reportReturn(methodCall, realCallableStatement.getDate(parameterName, cal));
+      Date result = realCallableStatement.getDate(parameterName, cal);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getDate", parameterName, cal), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getDate", parameterName, cal), s);
       throw s;
     }
   }
 
   public Time getTime(String parameterName, Calendar cal) throws SQLException
   {
-    String methodCall = "getTime(" + parameterName + ", " + cal + ")";
     try
     {
-      return (Time) reportReturn(methodCall, realCallableStatement.getTime(parameterName, cal));
+      Time result = realCallableStatement.getTime(parameterName, cal);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getTime", parameterName, cal), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getTime", parameterName, cal), s);
       throw s;
     }
   }
 
   public Timestamp getTimestamp(String parameterName, Calendar cal) throws SQLException
   {
-    String methodCall = "getTimestamp(" + parameterName + ", " + cal + ")";
     try
     {
-      return (Timestamp)
-        reportReturn(methodCall, realCallableStatement.getTimestamp(parameterName, cal));
+      Timestamp result = realCallableStatement.getTimestamp(parameterName, cal);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getTimestamp", parameterName, cal), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getTimestamp", parameterName, cal), s);
       throw s;
     }
   }
 
   public void setDate(String parameterName, Date x, Calendar cal) throws SQLException
   {
-    String methodCall = "setDate(" + parameterName + ", " + x + ", " + cal + ")";
     try
     {
       realCallableStatement.setDate(parameterName, x, cal);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setDate", parameterName, x, cal), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setDate", parameterName, x, cal));
+    }
   }
 
   public void setTime(String parameterName, Time x, Calendar cal) throws SQLException
   {
-    String methodCall = "setTime(" + parameterName + ", " + x + ", " + cal + ")";
     try
     {
       realCallableStatement.setTime(parameterName, x, cal);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setTime", parameterName, x, cal), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setTime", parameterName, x, cal));
+    }
   }
 
   public void setTimestamp(String parameterName, Timestamp x, Calendar cal) throws SQLException
   {
-    String methodCall = "setTimestamp(" + parameterName + ", " + x + ", " + cal + ")";
     try
     {
       realCallableStatement.setTimestamp(parameterName, x, cal);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setTimestamp", parameterName, x, cal), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setTimestamp", parameterName, x, cal));
+    }
   }
 
   public short getShort(int parameterIndex) throws SQLException
   {
-    String methodCall = "getShort(" + parameterIndex + ")";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.getShort(parameterIndex));
+      short result = realCallableStatement.getShort(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getShort", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getShort", parameterIndex), s);
       throw s;
     }
   }
 
   public long getLong(int parameterIndex) throws SQLException
   {
-    String methodCall = "getLong(" + parameterIndex + ")";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.getLong(parameterIndex));
+      long result = realCallableStatement.getLong(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getLong", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getLong", parameterIndex), s);
       throw s;
     }
   }
 
   public float getFloat(int parameterIndex) throws SQLException
   {
-    String methodCall = "getFloat(" + parameterIndex + ")";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.getFloat(parameterIndex));
+      float result = realCallableStatement.getFloat(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getFloat", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getFloat", parameterIndex), s);
       throw s;
     }
   }
 
   public Ref getRef(int i) throws SQLException
   {
-    String methodCall = "getRef(" + i + ")";
     try
     {
-      return (Ref) reportReturn(methodCall, realCallableStatement.getRef(i));
+      Ref result = realCallableStatement.getRef(i);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getRef", i), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getRef", i), s);
       throw s;
     }
   }
@@ -953,29 +1131,36 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
   @SuppressWarnings("deprecation")
   public BigDecimal getBigDecimal(int parameterIndex, int scale) throws SQLException
   {
-    String methodCall = "getBigDecimal(" + parameterIndex + ", " + scale + ")";
     try
     {
-      return (BigDecimal)
-        reportReturn(methodCall, realCallableStatement.getBigDecimal(parameterIndex, scale));
+      BigDecimal result = realCallableStatement.getBigDecimal(parameterIndex, scale);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBigDecimal", parameterIndex, scale), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBigDecimal", parameterIndex, scale), s);
       throw s;
     }
   }
 
   public URL getURL(int parameterIndex) throws SQLException
   {
-    String methodCall = "getURL(" + parameterIndex + ")";
     try
     {
-      return (URL) reportReturn(methodCall, realCallableStatement.getURL(parameterIndex));
+      URL result = realCallableStatement.getURL(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getURL", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getURL", parameterIndex), s);
       throw s;
     }
 
@@ -983,71 +1168,90 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public BigDecimal getBigDecimal(int parameterIndex) throws SQLException
   {
-    String methodCall = "getBigDecimal(" + parameterIndex + ")";
     try
     {
-      return (BigDecimal)
-        reportReturn(methodCall, realCallableStatement.getBigDecimal(parameterIndex));
+      BigDecimal result = realCallableStatement.getBigDecimal(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBigDecimal", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBigDecimal", parameterIndex), s);
       throw s;
     }
   }
 
   public byte getByte(int parameterIndex) throws SQLException
   {
-    String methodCall = "getByte(" + parameterIndex + ")";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.getByte(parameterIndex));
+      byte result = realCallableStatement.getByte(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getByte", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getByte", parameterIndex), s);
       throw s;
     }
   }
 
   public Object getObject(int parameterIndex) throws SQLException
   {
-    String methodCall = "getObject(" + parameterIndex + ")";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.getObject(parameterIndex));
+      Object result = realCallableStatement.getObject(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getObject", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getObject", parameterIndex), s);
       throw s;
     }
   }
 
   public Object getObject(int i, Map map) throws SQLException
   {
-    String methodCall = "getObject(" + i + ", " + map + ")";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.getObject(i, map));
+      Object result = realCallableStatement.getObject(i, map);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getObject", i, map), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getObject", i, map), s);
       throw s;
     }
   }
 
   public String getString(String parameterName) throws SQLException
   {
-    String methodCall = "getString(" + parameterName + ")";
     try
     {
-      return (String) reportReturn(methodCall, realCallableStatement.getString(parameterName));
+      String result = realCallableStatement.getString(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getString", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getString", parameterName), s);
       throw s;
     }
   }
@@ -1055,310 +1259,366 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
   public void registerOutParameter(
     String parameterName, int sqlType, String typeName) throws SQLException
   {
-    String methodCall =
-      "registerOutParameter(" + parameterName + ", " + sqlType + ", " + typeName + ")";
     try
     {
       realCallableStatement.registerOutParameter(parameterName, sqlType, typeName);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("registerOutParameter", parameterName, sqlType, typeName), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("registerOutParameter", parameterName, sqlType, typeName));
+    }
   }
 
   public void setNull(String parameterName, int sqlType, String typeName) throws SQLException
   {
-    String methodCall = "setNull(" + parameterName + ", " + sqlType + ", " + typeName + ")";
     try
     {
       realCallableStatement.setNull(parameterName, sqlType, typeName);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setNull", parameterName, sqlType, typeName), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setNull", parameterName, sqlType, typeName));
+    }
   }
 
   public void setString(String parameterName, String x) throws SQLException
   {
-    String methodCall = "setString(" + parameterName + ", " + x + ")";
-
     try
     {
       realCallableStatement.setString(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setString", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setString", parameterName, x));
+    }
   }
 
   public BigDecimal getBigDecimal(String parameterName) throws SQLException
   {
-    String methodCall = "getBigDecimal(" + parameterName + ")";
     try
     {
-      return (BigDecimal)
-        reportReturn(methodCall, realCallableStatement.getBigDecimal(parameterName));
+      BigDecimal result = realCallableStatement.getBigDecimal(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBigDecimal", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBigDecimal", parameterName), s);
       throw s;
     }
   }
 
   public Object getObject(String parameterName, Map<String, Class<?>> map) throws SQLException
   {
-    String methodCall = "getObject(" + parameterName + ", " + map + ")";
     try
     {
-      return reportReturn(methodCall, realCallableStatement.getObject(parameterName, map));
+      Object result = realCallableStatement.getObject(parameterName, map);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getObject", parameterName, map), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getObject", parameterName, map), s);
       throw s;
     }
   }
 
   public void setBigDecimal(String parameterName, BigDecimal x) throws SQLException
   {
-    String methodCall = "setBigDecimal(" + parameterName + ", " + x + ")";
     try
     {
       realCallableStatement.setBigDecimal(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setBigDecimal", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setBigDecimal", parameterName, x));
+    }
   }
 
   public URL getURL(String parameterName) throws SQLException
   {
-    String methodCall = "getURL(" + parameterName + ")";
     try
     {
-      return (URL) reportReturn(methodCall, realCallableStatement.getURL(parameterName));
+      URL result = realCallableStatement.getURL(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getURL", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getURL", parameterName), s);
       throw s;
     }
   }
 
   public RowId getRowId(int parameterIndex) throws SQLException
   {
-    String methodCall = "getRowId(" + parameterIndex + ")";
     try
     {
-      return (RowId) reportReturn(methodCall, realCallableStatement.getRowId(parameterIndex));
+      RowId result = realCallableStatement.getRowId(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getRowId", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getRowId", parameterIndex), s);
       throw s;
     }
   }
 
   public RowId getRowId(String parameterName) throws SQLException
   {
-    String methodCall = "getRowId(" + parameterName + ")";
     try
     {
-      return (RowId) reportReturn(methodCall, realCallableStatement.getRowId(parameterName));
+      RowId result = realCallableStatement.getRowId(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getRowId", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getRowId", parameterName), s);
       throw s;
     }
   }
 
   public void setRowId(String parameterName, RowId x) throws SQLException {
-    String methodCall = "setRowId(" + parameterName + ", " + x + ")";
     try
     {
       realCallableStatement.setRowId(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setRowId", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setRowId", parameterName, x));
+    }
   }
 
   public void setNString(String parameterName, String value) throws SQLException {
-    String methodCall = "setNString(" + parameterName + ", " + value + ")";
     try
     {
       realCallableStatement.setNString(parameterName, value);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setNString", parameterName, value), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setNString", parameterName, value));
+    }
   }
 
   public void setNCharacterStream(String parameterName, Reader reader, long length)
     throws SQLException
   {
-    String methodCall =
-      "setNCharacterStream(" + parameterName + ", " + reader + ", " + length + ")";
     try
     {
       realCallableStatement.setNCharacterStream(parameterName, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setNCharacterStream", parameterName, reader, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setNCharacterStream", parameterName, reader, length));
+    }
   }
 
   public void setNClob(String parameterName, NClob value) throws SQLException
   {
-    String methodCall = "setNClob(" + parameterName + ", " + value + ")";
     try
     {
       realCallableStatement.setNClob(parameterName, value);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setNClob", parameterName, value), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setNClob", parameterName, value));
+    }
   }
 
   public void setClob(String parameterName, Reader reader, long length) throws SQLException
   {
-    String methodCall = "setClob(" + parameterName + ", " + reader + ", " + length + ")";
     try
     {
       realCallableStatement.setClob(parameterName, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setClob", parameterName, reader, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setClob", parameterName, reader, length));
+    }
   }
 
   public void setBlob(String parameterName, InputStream inputStream, long length)
     throws SQLException
   {
-    String methodCall = "setBlob(" + parameterName + ", " + inputStream + ", " + length + ")";
     try
     {
       realCallableStatement.setBlob(parameterName, inputStream, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setBlob", parameterName, inputStream, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setBlob", parameterName, inputStream, length));
+    }
   }
 
   public void setNClob(String parameterName, Reader reader, long length) throws SQLException
   {
-    String methodCall = "setNClob(" + parameterName + ", " + reader + ", " + length + ")";
     try
     {
       realCallableStatement.setNClob(parameterName, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setNClob", parameterName, reader, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setNClob", parameterName, reader, length));
+    }
   }
 
   public NClob getNClob(int parameterIndex) throws SQLException
   {
-    String methodCall = "getNClob(" + parameterIndex + ")";
     try
     {
-      return (NClob) reportReturn(methodCall, realCallableStatement.getNClob(parameterIndex));
+      NClob result = realCallableStatement.getNClob(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getNClob", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getNClob", parameterIndex), s);
       throw s;
     }
   }
 
   public NClob getNClob(String parameterName) throws SQLException
   {
-    String methodCall = "getNClob(" + parameterName + ")";
     try
     {
-      return (NClob) reportReturn(methodCall, realCallableStatement.getNClob(parameterName));
+      NClob result = realCallableStatement.getNClob(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getNClob", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getNClob", parameterName), s);
       throw s;
     }
   }
 
   public void setSQLXML(String parameterName, SQLXML xmlObject) throws SQLException
   {
-    String methodCall = "setSQLXML(" + parameterName + ", " + xmlObject + ")";
     try
     {
       realCallableStatement.setSQLXML(parameterName, xmlObject);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setSQLXML", parameterName, xmlObject), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setSQLXML", parameterName, xmlObject));
+    }
   }
 
   public SQLXML getSQLXML(int parameterIndex) throws SQLException
   {
-    String methodCall = "getSQLXML(" + parameterIndex + ")";
     try
     {
-      return (SQLXML) reportReturn(methodCall, realCallableStatement.getSQLXML(parameterIndex));
+      SQLXML result = realCallableStatement.getSQLXML(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getSQLXML", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getSQLXML", parameterIndex), s);
       throw s;
     }
   }
 
   public SQLXML getSQLXML(String parameterName) throws SQLException
   {
-    String methodCall = "getSQLXML(" + parameterName + ")";
     try
     {
-      return (SQLXML) reportReturn(methodCall, realCallableStatement.getSQLXML(parameterName));
+      SQLXML result = realCallableStatement.getSQLXML(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getSQLXML", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getSQLXML", parameterName), s);
       throw s;
     }
 
@@ -1366,370 +1626,433 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public String getNString(int parameterIndex) throws SQLException
   {
-    String methodCall = "getNString(" + parameterIndex + ")";
     try
     {
-      return (String) reportReturn(methodCall, realCallableStatement.getNString(parameterIndex));
+      String result = realCallableStatement.getNString(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getNString", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getNString", parameterIndex), s);
       throw s;
     }
   }
 
   public String getNString(String parameterName) throws SQLException
   {
-    String methodCall = "getNString(" + parameterName + ")";
     try
     {
-      return (String) reportReturn(methodCall, realCallableStatement.getNString(parameterName));
+      String result = realCallableStatement.getNString(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getNString", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getNString", parameterName), s);
       throw s;
     }
   }
 
   public Reader getNCharacterStream(int parameterIndex) throws SQLException
   {
-    String methodCall = "getNCharacterStream(" + parameterIndex + ")";
     try
     {
-      return (Reader) reportReturn(methodCall,
-        realCallableStatement.getNCharacterStream(parameterIndex));
+      Reader result = realCallableStatement.getNCharacterStream(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getNCharacterStream", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getNCharacterStream", parameterIndex), s);
       throw s;
     }
   }
 
   public Reader getNCharacterStream(String parameterName) throws SQLException
   {
-    String methodCall = "getNCharacterStream(" + parameterName + ")";
     try
     {
-      return (Reader) reportReturn(methodCall,
-        realCallableStatement.getNCharacterStream(parameterName));
+      Reader result = realCallableStatement.getNCharacterStream(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getNCharacterStream", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getNCharacterStream", parameterName), s);
       throw s;
     }
   }
 
   public Reader getCharacterStream(int parameterIndex) throws SQLException
   {
-    String methodCall = "getCharacterStream(" + parameterIndex + ")";
     try
     {
-      return (Reader) reportReturn(methodCall,
-        realCallableStatement.getCharacterStream(parameterIndex));
+      Reader result = realCallableStatement.getCharacterStream(parameterIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getCharacterStream", parameterIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getCharacterStream", parameterIndex), s);
       throw s;
     }
   }
 
   public Reader getCharacterStream(String parameterName) throws SQLException
   {
-    String methodCall = "getCharacterStream(" + parameterName + ")";
     try
     {
-      return (Reader) reportReturn(methodCall,
-        realCallableStatement.getCharacterStream(parameterName));
+      Reader result = realCallableStatement.getCharacterStream(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getCharacterStream", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getCharacterStream", parameterName), s);
       throw s;
     }
   }
 
   public void setBlob(String parameterName, Blob x) throws SQLException
   {
-    String methodCall = "setBlob(" + parameterName + ", " + x + ")";
     try
     {
       realCallableStatement.setBlob(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setBlob", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setBlob", parameterName, x));
+    }
   }
 
   public void setClob(String parameterName, Clob x) throws SQLException
   {
-    String methodCall = "setClob(" + parameterName + ", " + x + ")";
     try
     {
       realCallableStatement.setClob(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setClob", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setClob", parameterName, x));
+    }
   }
 
   public void setAsciiStream(String parameterName, InputStream x, long length) throws SQLException
   {
-    String methodCall = "setAsciiStream(" + parameterName + ", " + x + ", " + length + ")";
     try
     {
       realCallableStatement.setAsciiStream(parameterName, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setAsciiStream", parameterName, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setAsciiStream", parameterName, x, length));
+    }
   }
 
   public void setBinaryStream(String parameterName, InputStream x, long length) throws SQLException
   {
-    String methodCall = "setBinaryStream(" + parameterName + ", " + x + ", " + length + ")";
     try
     {
       realCallableStatement.setBinaryStream(parameterName, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setBinaryStream", parameterName, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setBinaryStream", parameterName, x, length));
+    }
   }
 
   public void setCharacterStream(String parameterName, Reader reader, long length)
     throws SQLException
   {
-    String methodCall = "setCharacterStream(" + parameterName + ", " + reader + ", " + length + ")";
     try
     {
       realCallableStatement.setCharacterStream(parameterName, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setCharacterStream", parameterName, reader, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setCharacterStream", parameterName, reader, length));
+    }
   }
 
   public void setAsciiStream(String parameterName, InputStream x) throws SQLException
   {
-    String methodCall = "setAsciiStream(" + parameterName + ", " + x + ")";
     try
     {
       realCallableStatement.setAsciiStream(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setAsciiStream", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setAsciiStream", parameterName, x));
+    }
   }
 
   public void setBinaryStream(String parameterName, InputStream x) throws SQLException
   {
-    String methodCall = "setBinaryStream(" + parameterName + ", " + x + ")";
     try
     {
       realCallableStatement.setBinaryStream(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setBinaryStream", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setBinaryStream", parameterName, x));
+    }
   }
 
   public void setCharacterStream(String parameterName, Reader reader) throws SQLException
   {
-    String methodCall = "setCharacterStream(" + parameterName + ", " + reader + ")";
     try
     {
       realCallableStatement.setCharacterStream(parameterName, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setCharacterStream", parameterName, reader), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setCharacterStream", parameterName, reader));
+    }
   }
 
   public void setNCharacterStream(String parameterName, Reader reader) throws SQLException
   {
-    String methodCall = "setNCharacterStream(" + parameterName + ", " + reader + ")";
     try
     {
       realCallableStatement.setNCharacterStream(parameterName, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setNCharacterStream", parameterName, reader), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setNCharacterStream", parameterName, reader));
+    }
   }
 
   public void setClob(String parameterName, Reader reader) throws SQLException
   {
-    String methodCall = "setClob(" + parameterName + ", " + reader + ")";
     try
     {
       realCallableStatement.setClob(parameterName, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setClob", parameterName, reader), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setClob", parameterName, reader));
+    }
   }
 
   public void setBlob(String parameterName, InputStream inputStream) throws SQLException
   {
-    String methodCall = "setBlob(" + parameterName + ", " + inputStream + ")";
     try
     {
       realCallableStatement.setBlob(parameterName, inputStream);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setBlob", parameterName, inputStream), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setBlob", parameterName, inputStream));
+    }
   }
 
   public void setNClob(String parameterName, Reader reader) throws SQLException
   {
-    String methodCall = "setNClob(" + parameterName + ", " + reader + ")";
     try
     {
       realCallableStatement.setNClob(parameterName, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setNClob", parameterName, reader), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setNClob", parameterName, reader));
+    }
   }
 
   public void setURL(String parameterName, URL val) throws SQLException
   {
-    String methodCall = "setURL(" + parameterName + ", " + val + ")";
     try
     {
       realCallableStatement.setURL(parameterName, val);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setURL", parameterName, val), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setURL", parameterName, val));
+    }
   }
 
   public Array getArray(String parameterName) throws SQLException
   {
-    String methodCall = "getArray(" + parameterName + ")";
     try
     {
-      return (Array) reportReturn(methodCall, realCallableStatement.getArray(parameterName));
+      Array result = realCallableStatement.getArray(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getArray", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getArray", parameterName), s);
       throw s;
     }
   }
 
   public Blob getBlob(String parameterName) throws SQLException
   {
-    String methodCall = "getBlob(" + parameterName + ")";
     try
     {
-      return (Blob) reportReturn(methodCall, realCallableStatement.getBlob(parameterName));
+      Blob result = realCallableStatement.getBlob(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBlob", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBlob", parameterName), s);
       throw s;
     }
   }
 
   public Clob getClob(String parameterName) throws SQLException
   {
-    String methodCall = "getClob(" + parameterName + ")";
     try
     {
-      return (Clob) reportReturn(methodCall, realCallableStatement.getClob(parameterName));
+      Clob result = realCallableStatement.getClob(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getClob", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getClob", parameterName), s);
       throw s;
     }
   }
 
   public Date getDate(String parameterName) throws SQLException
   {
-    String methodCall = "getDate(" + parameterName + ")";
     try
     {
-      return (Date) reportReturn(methodCall, realCallableStatement.getDate(parameterName));
+      Date result = realCallableStatement.getDate(parameterName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getDate", parameterName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getDate", parameterName), s);
       throw s;
     }
   }
 
   public void setDate(String parameterName, Date x) throws SQLException
   {
-    String methodCall = "setDate(" + parameterName + ", " + x + ")";
     try
     {
       realCallableStatement.setDate(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setDate", parameterName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setDate", parameterName, x));
+    }
   }
 
   @SuppressWarnings("unchecked")
   public <T> T unwrap(Class<T> iface) throws SQLException
   {
-    String methodCall = "unwrap(" + (iface==null? "null" : iface.getName()) + ")";
     try
     {
       // TODO: double check this logic
       // NOTE: could call super.isWrapperFor to simplify this logic, but it would result in extra
       // log output because the super classes would be invoked, thus executing their logging
       // methods too...
-      return (T) reportReturn(methodCall,
+      T result =
         (
           iface != null &&
           (
@@ -1738,25 +2061,28 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
             iface == Statement.class ||
             iface == Spy.class
           )
-        ) ? (T)this : realCallableStatement.unwrap(iface)
-      );
+        ) ? (T)this : realCallableStatement.unwrap(iface);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("unwrap", iface==null? "null" : iface.getName()), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(new MethodCall("unwrap", iface==null? "null" : iface.getName()), s);
       throw s;
     }
   }
 
   public boolean isWrapperFor(Class<?> iface) throws SQLException
   {
-    String methodCall = "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")";
     try
     {
       // NOTE: could call super.isWrapperFor to simplify this logic,
       // but it would result in extra log output
       // when the super classes would be invoked..
-      return reportReturn(methodCall,
+      boolean result =
         (
           iface != null &&
           (
@@ -1765,12 +2091,16 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
             iface == Statement.class ||
             iface == Spy.class)
         ) ||
-        realCallableStatement.isWrapperFor(iface)
-      );
+        realCallableStatement.isWrapperFor(iface);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("isWrapperFor", iface==null?"null":iface.getName()), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(new MethodCall("isWrapperFor", iface==null?"null":iface.getName()), s);
       throw s;
     }
   }
@@ -1779,14 +2109,18 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
   public <T> T getObject(int parameterIndex, Class<T> type) throws SQLException
   {
     String name = type==null?"null": type.getName();
-    String methodCall = "getObject(" + parameterIndex + ", " + name + ")";
     try
     {
-      return (T)reportReturn(methodCall, realCallableStatement.getObject(parameterIndex, type));
+      T result = realCallableStatement.getObject(parameterIndex, type);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getObject", parameterIndex, name), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getObject", parameterIndex, name), s);
       throw s;
     }
   }
@@ -1795,14 +2129,18 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
   public <T> T getObject(String parameterName, Class<T> type) throws SQLException
   {
     String name = type==null?"null": type.getName();
-    String methodCall = "getObject(" + parameterName + ", " + name + ")";
     try
     {
-      return (T)reportReturn(methodCall, realCallableStatement.getObject(parameterName, type));
+      T result = realCallableStatement.getObject(parameterName, type);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getObject", parameterName, name), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getObject", parameterName, name), s);
       throw s;
     }
   }
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+/**
+ * A connection that looks like it has leaked: either it has been held open for longer than
+ * log4jdbc.connection.leak.threshold, or its ConnectionSpy was garbage collected without ever
+ * being closed.  Either way it's reported along with where it was opened from, which is usually
+ * all it takes to find the code that forgot to close it.
+ *
+ * The ConnectionLeakDetector reports these.  A ConnectionLeak is immutable.
+ *
+ * @author Arthur Blake
+ */
+public final class ConnectionLeak
+{
+  private final Integer connectionNumber;
+  private final long heldNanos;
+  private final boolean collected;
+  private final CallSite openedAt;
+
+  ConnectionLeak(Integer connectionNumber, long heldNanos, boolean collected, CallSite openedAt)
+  {
+    this.connectionNumber = connectionNumber;
+    this.heldNanos = heldNanos;
+    this.collected = collected;
+    this.openedAt = openedAt;
+  }
+
+  /**
+   * @return the connection number of the leaked connection.
+   */
+  public Integer getConnectionNumber()
+  {
+    return connectionNumber;
+  }
+
+  /**
+   * @return how long the connection had been open for when it was reported, in nanoseconds.
+   */
+  public long getHeldNanos()
+  {
+    return heldNanos;
+  }
+
+  /**
+   * @return true if the ConnectionSpy was garbage collected without being closed, false if it is
+   *         still open and has been for longer than the threshold.
+   */
+  public boolean isCollected()
+  {
+    return collected;
+  }
+
+  /**
+   * @return where the connection was opened from, in the form
+   *         <code>class.method(file:line)</code>, or null if that isn't known.
+   */
+  public String getOpenedAt()
+  {
+    return openedAt == null ? null : openedAt.toString();
+  }
+
+  public String toString()
+  {
+    return "connection=" + connectionNumber + " held=" + heldNanos + "ns" +
+      (collected ? " collected" : "") + " openedAt=" + getOpenedAt();
+  }
+}
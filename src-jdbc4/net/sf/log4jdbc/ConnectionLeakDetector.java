@@ -0,0 +1,238 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.lang.ref.Cleaner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds connections that the application doesn't close, which sooner or later exhaust a
+ * connection pool.  Turned on by setting log4jdbc.connection.leak.threshold.
+ *
+ * While it's on, each ConnectionSpy records where it was opened from when it's created (a
+ * CallSite, which is only turned into a class, method and line number if the connection is
+ * reported.)  A background thread sweeps the open connections every half threshold (but at least
+ * every 10 seconds and at most every 100 msec) and reports each connection that has been open for
+ * longer than the threshold, once.  A Cleaner reports any ConnectionSpy that is garbage collected
+ * without being closed, and stops counting it as open.
+ *
+ * The threshold can be changed at any time (through JMX), and the sweeps are rescheduled to suit
+ * it.  Connections that were opened while leak detection was off are swept too, but without where
+ * they were opened from, and they aren't reported if they are garbage collected.
+ *
+ * When the log4jdbc.statement.leak option is on too, the sweeper also reports each Statement and
+ * ResultSet that has been open for longer than the threshold (see OpenCursors.)
+ *
+ * @author Arthur Blake
+ */
+final class ConnectionLeakDetector
+{
+  private static final long MIN_SWEEP_MSEC = 100L;
+
+  private static final long MAX_SWEEP_MSEC = 10000L;
+
+  private static ScheduledExecutorService sweeper;
+
+  /**
+   * The scheduled sweeps, or null if leak detection is off.  Guarded by the class lock.
+   */
+  private static ScheduledFuture<?> sweeps;
+
+  /**
+   * How often the scheduled sweeps run, in milliseconds.  Guarded by the class lock.
+   */
+  private static long sweepInterval;
+
+  /**
+   * Set while sweeps are scheduled, so that opening a connection can check it without a lock.
+   */
+  private static volatile boolean sweeping;
+
+  /**
+   * Holds the Cleaner, so that its thread is only started once connection leak detection is
+   * first used.
+   */
+  private static final class CleanerHolder
+  {
+    static final Cleaner cleaner = Cleaner.create(r ->
+    {
+      Thread t = new Thread(r, "log4jdbc-leak-cleaner");
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  /**
+   * Start watching a connection that has just been opened, if connection leak detection is on.
+   *
+   * @param spy  the ConnectionSpy for the connection.
+   * @param open the connection as ConnectionSpy keeps track of it.
+   */
+  static void opened(ConnectionSpy spy, OpenConnection open)
+  {
+    if (open.openedAt == null)
+    {
+      return;
+    }
+    // the cleaning action must not refer to the spy, or it would never be collected
+    open.cleanable = CleanerHolder.cleaner.register(spy, () -> collected(open));
+    if (!sweeping)
+    {
+      thresholdChanged();
+    }
+  }
+
+  /**
+   * Stop watching a connection that has been closed.
+   *
+   * @param open the connection as ConnectionSpy keeps track of it.
+   */
+  static void closed(OpenConnection open)
+  {
+    open.closed = true;
+    Cleaner.Cleanable cleanable = open.cleanable;
+    if (cleanable != null)
+    {
+      cleanable.clean();
+    }
+  }
+
+  /**
+   * Schedule the background sweeps to suit the current threshold: start them (starting the
+   * sweeper thread the first time) if connection leak detection has been turned on, stop them if
+   * it has been turned off, and change how often they run if the threshold has changed.
+   */
+  static synchronized void thresholdChanged()
+  {
+    long threshold = DriverSpy.ConnectionLeakThresholdNanos;
+    if (threshold <= 0)
+    {
+      if (sweeps != null)
+      {
+        sweeps.cancel(false);
+        sweeps = null;
+        sweeping = false;
+        DriverSpy.log.debug("stopped checking for connections held too long");
+      }
+      return;
+    }
+    long interval = Math.min(Math.max(TimeUnit.NANOSECONDS.toMillis(threshold) / 2,
+      MIN_SWEEP_MSEC), MAX_SWEEP_MSEC);
+    if (sweeps != null && interval == sweepInterval)
+    {
+      return;
+    }
+    if (sweeps != null)
+    {
+      sweeps.cancel(false);
+    }
+    if (sweeper == null)
+    {
+      sweeper = Executors.newSingleThreadScheduledExecutor(r ->
+      {
+        Thread t = new Thread(r, "log4jdbc-leak-sweeper");
+        t.setDaemon(true);
+        return t;
+      });
+    }
+    sweeps = sweeper.scheduleWithFixedDelay(ConnectionLeakDetector::sweep, interval, interval,
+      TimeUnit.MILLISECONDS);
+    sweepInterval = interval;
+    sweeping = true;
+    DriverSpy.log.debug("checking for connections held longer than " +
+      TimeUnit.NANOSECONDS.toMillis(threshold) + " msec every " + interval + " msec");
+  }
+
+  /**
+   * Report each open connection that has been open for longer than the threshold and hasn't been
+   * reported yet.  A problem reporting them is logged rather than thrown, since an exception would
+   * cancel all the sweeps to come.
+   */
+  private static void sweep()
+  {
+    long threshold = DriverSpy.ConnectionLeakThresholdNanos;
+    if (threshold <= 0)
+    {
+      return;
+    }
+    try
+    {
+      long now = System.nanoTime();
+      for (OpenConnection open : ConnectionSpy.getOpenConnections())
+      {
+        long held = now - open.openedNanos;
+        if (held >= threshold && !open.closed && !open.leakReported)
+        {
+          open.leakReported = true;
+          EventCounts.ConnectionLeaks.increment();
+          SpyLogFactory.getSpyLogDelegator().connectionLeakOccured(
+            new ConnectionLeak(open.connectionNumber, held, false, open.openedAt));
+        }
+        if (open.cursors != null)
+        {
+          sweep(open, open.cursors, now, threshold);
+        }
+      }
+    }
+    catch (RuntimeException e)
+    {
+      DriverSpy.log.debug("checking for connections held too long failed: " + e);
+    }
+  }
+
+  /**
+   * Report each Statement and ResultSet of a connection that has been open for longer than the
+   * threshold and hasn't been reported yet, after dropping the ones that were garbage collected.
+   */
+  private static void sweep(OpenConnection open, OpenCursors cursors, long now, long threshold)
+  {
+    cursors.expunge();
+    for (OpenCursors.Cursor cursor : cursors.getCursors())
+    {
+      long held = now - cursor.openedNanos;
+      if (held >= threshold && !cursor.leakReported)
+      {
+        cursor.leakReported = true;
+        EventCounts.StatementLeaks.increment();
+        SpyLogFactory.getSpyLogDelegator().statementLeakOccured(
+          new StatementLeak(open.connectionNumber, cursor, held, false));
+      }
+    }
+  }
+
+  /**
+   * Called by the Cleaner when a ConnectionSpy has been garbage collected (or closed.)
+   */
+  private static void collected(OpenConnection open)
+  {
+    if (open.closed)
+    {
+      return;
+    }
+    open.closed = true;
+    ConnectionSpy.untrack(open);
+    EventCounts.ConnectionsCollected.increment();
+    SpyLogFactory.getSpyLogDelegator().connectionLeakOccured(new ConnectionLeak(
+      open.connectionNumber, System.nanoTime() - open.openedNanos, true, open.openedAt));
+  }
+
+  private ConnectionLeakDetector()
+  {
+  }
+}
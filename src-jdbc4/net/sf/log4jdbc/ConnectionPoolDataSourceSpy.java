@@ -0,0 +1,101 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.io.PrintWriter;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+import javax.sql.ConnectionPoolDataSource;
+import javax.sql.PooledConnection;
+
+/**
+ * Wraps a real ConnectionPoolDataSource, the kind a driver provides for a connection pool (often
+ * one inside an application server) to get its physical connections from.  Each PooledConnection
+ * is wrapped in a PooledConnectionSpy, so the connections the pool hands out to the application
+ * are logged.
+ *
+ * @author Arthur Blake
+ */
+public class ConnectionPoolDataSourceSpy implements ConnectionPoolDataSource
+{
+  private final ConnectionPoolDataSource realDataSource;
+
+  /**
+   * Create a ConnectionPoolDataSourceSpy that logs the connections from a real
+   * ConnectionPoolDataSource.
+   *
+   * @param realDataSource the real ConnectionPoolDataSource to wrap.
+   */
+  public ConnectionPoolDataSourceSpy(ConnectionPoolDataSource realDataSource)
+  {
+    if (realDataSource == null)
+    {
+      throw new IllegalArgumentException(
+        "Must pass in a non null real ConnectionPoolDataSource");
+    }
+    this.realDataSource = realDataSource;
+  }
+
+  /**
+   * Get the real ConnectionPoolDataSource that this ConnectionPoolDataSourceSpy wraps.
+   *
+   * @return the real ConnectionPoolDataSource that this ConnectionPoolDataSourceSpy wraps.
+   */
+  public ConnectionPoolDataSource getRealDataSource()
+  {
+    return realDataSource;
+  }
+
+  public PooledConnection getPooledConnection() throws SQLException
+  {
+    PooledConnection c = realDataSource.getPooledConnection();
+    return c == null ? null : new PooledConnectionSpy(c);
+  }
+
+  public PooledConnection getPooledConnection(String user, String password)
+    throws SQLException
+  {
+    PooledConnection c = realDataSource.getPooledConnection(user, password);
+    return c == null ? null : new PooledConnectionSpy(c);
+  }
+
+  public PrintWriter getLogWriter() throws SQLException
+  {
+    return realDataSource.getLogWriter();
+  }
+
+  public void setLogWriter(PrintWriter out) throws SQLException
+  {
+    realDataSource.setLogWriter(out);
+  }
+
+  public void setLoginTimeout(int seconds) throws SQLException
+  {
+    realDataSource.setLoginTimeout(seconds);
+  }
+
+  public int getLoginTimeout() throws SQLException
+  {
+    return realDataSource.getLoginTimeout();
+  }
+
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException
+  {
+    return realDataSource.getParentLogger();
+  }
+}
@@ -31,12 +31,12 @@ import java.sql.Struct;
 import java.sql.SQLClientInfoException;
 import java.sql.SQLXML;
 
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Wraps a JDBC Connection and reports method calls, returns and exceptions.
@@ -62,43 +62,128 @@ public class ConnectionSpy implements Connection, Spy
   private SpyLogDelegator log;
 
   private final Integer connectionNumber;
-  private static int lastConnectionNumber = 0;
+  private static final AtomicInteger lastConnectionNumber = new AtomicInteger();
 
   /**
-   * Contains a Mapping of connectionNumber to currently open ConnectionSpy
-   * objects.
+   * This connection, as the connectionTracker keeps track of it.
    */
-  private static final Map<Integer, Connection> connectionTracker = new HashMap<>();
+  private final OpenConnection openConnection;
+
+  /**
+   * The PooledConnectionSpy this is a logical connection of, or null.
+   */
+  private final PooledConnectionSpy pooledConnection;
+
+  /**
+   * Contains a Mapping of connectionNumber to currently open connections.  The map is kept in
+   * connection number order, so the open connections can be listed in order without sorting them,
+   * and opening or closing a connection doesn't lock out any other connection being opened or
+   * closed.
+   */
+  private static final ConcurrentSkipListMap<Integer, OpenConnection> connectionTracker =
+    new ConcurrentSkipListMap<>();
+
+  /**
+   * The number of connections in the connectionTracker, kept separately since counting the entries
+   * of a ConcurrentSkipListMap means walking all of them.
+   */
+  private static final AtomicInteger openConnectionCount = new AtomicInteger();
+
+  /**
+   * Get the connection numbers of the connections that are open.
+   *
+   * @return the open connection numbers, in order.
+   */
+  public static Integer[] getOpenConnectionNumbers()
+  {
+    return connectionTracker.keySet().toArray(new Integer[0]);
+  }
+
+  /**
+   * Get the number of connections that are open.
+   *
+   * @return the number of open connections.
+   */
+  public static int getOpenConnectionCount()
+  {
+    return openConnectionCount.get();
+  }
+
+  /**
+   * @return the open connections, in order.
+   */
+  static Iterable<OpenConnection> getOpenConnections()
+  {
+    return connectionTracker.values();
+  }
+
+  /**
+   * Get the number of Statements and ResultSets of this connection that are open, each of which
+   * may be holding a cursor open on the database.  These are only tracked while the
+   * log4jdbc.statement.leak option is on.
+   *
+   * @return the number of open Statements and ResultSets, or 0 if they aren't being tracked.
+   */
+  public int getOpenCursorCount()
+  {
+    OpenCursors cursors = openConnection.cursors;
+    return cursors == null ? 0 : cursors.size();
+  }
+
+  /**
+   * @return the open Statements and ResultSets of this connection, or null if they aren't being
+   *         tracked.
+   */
+  OpenCursors getOpenCursors()
+  {
+    return openConnection.cursors;
+  }
+
+  /**
+   * @return the PooledConnectionSpy this is a logical connection of, or null.
+   */
+  PooledConnectionSpy getPooledConnection()
+  {
+    return pooledConnection;
+  }
+
+  /**
+   * Stop tracking a connection as open.
+   *
+   * @param open the connection.
+   * @return true if the connection was being tracked as open, false if it already wasn't.
+   */
+  static boolean untrack(OpenConnection open)
+  {
+    if (connectionTracker.remove(open.connectionNumber, open))
+    {
+      openConnectionCount.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
 
   /**
    * Get a dump of how many connections are open, and which connection numbers
-   * are open.
+   * are open.  The open connections are listed straight from the
+   * connectionTracker, which is already in order.
    *
    * @return an open connection dump.
    */
   public static String getOpenConnectionsDump()
   {
     StringBuffer dump = new StringBuffer();
-    int size;
-    Integer[] keysArr;
-    synchronized (connectionTracker)
-    {
-      size = connectionTracker.size();
-      if (size==0)
-      {
-        return "open connections:  none";
-      }
-      Set<Integer> keys = connectionTracker.keySet();
-      keysArr = (Integer[]) keys.toArray(new Integer[keys.size()]);
-    }
-
-    Arrays.sort(keysArr);
-
     dump.append("open connections:  ");
-    for (int i=0; i < keysArr.length; i++)
+    int size = 0;
+    for (Integer number : connectionTracker.keySet())
     {
-      dump.append(keysArr[i]);
+      dump.append(number);
       dump.append(" ");
+      size++;
+    }
+    if (size==0)
+    {
+      return "open connections:  none";
     }
 
     dump.append("(");
@@ -126,6 +211,38 @@ public class ConnectionSpy implements Connection, Spy
    */
   public ConnectionSpy(Connection realConnection, RdbmsSpecifics rdbmsSpecifics)
   {
+    this(realConnection, rdbmsSpecifics, false);
+  }
+
+  /**
+   * Create a new ConnectionSpy that wraps a given Connection.
+   *
+   * @param realConnection &quot;real&quot; Connection that this ConnectionSpy wraps.
+   * @param rdbmsSpecifics the RdbmsSpecifics object for formatting logging appropriate for the
+   * Rdbms used.
+   * @param borrowed true if the connection was borrowed from a connection pool, through a
+   * DataSourceSpy or a PooledConnectionSpy, so its hold time goes in the PoolStatistics.
+   */
+  ConnectionSpy(Connection realConnection, RdbmsSpecifics rdbmsSpecifics, boolean borrowed)
+  {
+    this(realConnection, rdbmsSpecifics, borrowed, null);
+  }
+
+  /**
+   * Create a new ConnectionSpy for a logical connection of a PooledConnectionSpy.
+   *
+   * @param realConnection &quot;real&quot; Connection that this ConnectionSpy wraps.
+   * @param rdbmsSpecifics the RdbmsSpecifics object for formatting logging appropriate for the
+   * Rdbms used.
+   * @param borrowed true if the connection was borrowed from a connection pool, so its hold time
+   * goes in the PoolStatistics.
+   * @param pooledConnection the PooledConnectionSpy the connection came from, which each
+   * PreparedStatementSpy made on it is registered with, or null.
+   */
+  ConnectionSpy(Connection realConnection, RdbmsSpecifics rdbmsSpecifics, boolean borrowed,
+    PooledConnectionSpy pooledConnection)
+  {
+    this.pooledConnection = pooledConnection;
     if (rdbmsSpecifics == null)
     {
       rdbmsSpecifics = DriverSpy.defaultRdbmsSpecifics;
@@ -138,17 +255,56 @@ public class ConnectionSpy implements Connection, Spy
     this.realConnection = realConnection;
     log = SpyLogFactory.getSpyLogDelegator();
 
-    synchronized (connectionTracker)
+    connectionNumber = Integer.valueOf(lastConnectionNumber.incrementAndGet());
+    CallSite openedAt = DriverSpy.ConnectionLeakThresholdNanos > 0 ? CallSite.capture() : null;
+    CallSite borrowedAt = null;
+    if (borrowed && DriverSpy.StatisticsEnabled)
     {
-      connectionNumber = Integer.valueOf(++lastConnectionNumber);
-      connectionTracker.put(connectionNumber, this);
+      borrowedAt = openedAt != null ? openedAt : CallSite.capture();
     }
+    openConnection = new OpenConnection(connectionNumber, openedAt, borrowedAt,
+      DriverSpy.StatementLeakWarn ? new OpenCursors(connectionNumber) : null);
+    connectionTracker.put(connectionNumber, openConnection);
+    openConnectionCount.incrementAndGet();
+    if (DriverSpy.StatisticsEnabled)
+    {
+      SqlStatistics.connectionOpened(connectionNumber);
+    }
+    ConnectionLeakDetector.opened(this, openConnection);
+    EventCounts.ConnectionsOpened.increment();
     log.connectionOpened(this);
     reportReturn("new Connection");
   }
 
   private RdbmsSpecifics rdbmsSpecifics;
 
+  /**
+   * Whether the real connection is in auto-commit mode, or null if that isn't known yet.
+   */
+  private volatile Boolean autoCommit;
+
+  /**
+   * The number of statements run in the current transaction, or 0 if one hasn't started yet.
+   * Guarded by this, like the rest of the current transaction's fields.
+   */
+  private int transactionStatements;
+
+  /**
+   * System.nanoTime() when the first statement of the current transaction started.
+   */
+  private long transactionStartNanos;
+
+  /**
+   * Time spent running the statements of the current transaction, in nanoseconds.
+   */
+  private long transactionSqlNanos;
+
+  /**
+   * The SQL run in the current transaction, when the log4jdbc.duplicate.sql option is on.  Created
+   * the first time it's needed.
+   */
+  private DuplicateSqlTracker duplicateSqlTracker;
+
   /**
    * Set the RdbmsSpecifics object for formatting logging appropriate for the Rdbms used on this
    * connection.
@@ -177,18 +333,152 @@ public class ConnectionSpy implements Connection, Spy
     return connectionNumber;
   }
 
+  /**
+   * Is the connection in a transaction (not in auto-commit mode)?  The real connection is only
+   * asked the first time, after that setAutoCommit keeps track.
+   *
+   * @return true if the connection is not in auto-commit mode.
+   */
+  boolean isInTransaction()
+  {
+    Boolean ac = autoCommit;
+    if (ac == null)
+    {
+      try
+      {
+        ac = Boolean.valueOf(realConnection.getAutoCommit());
+      }
+      catch (SQLException e)
+      {
+        ac = Boolean.TRUE;
+      }
+      autoCommit = ac;
+    }
+    return !ac.booleanValue();
+  }
+
+  /**
+   * Are transactions being tracked?  They are only tracked while one of the options that needs
+   * them (log4jdbc.transaction.warn.threshold, log4jdbc.transaction.error.threshold or
+   * log4jdbc.duplicate.sql) is set, so that otherwise there is no getAutoCommit() call, locking or
+   * allocation for them at all.
+   *
+   * @return true if transactions are being tracked.
+   */
+  private static boolean isTransactionTracked()
+  {
+    return DriverSpy.TransactionWarnThresholdEnabled ||
+      DriverSpy.TransactionErrorThresholdEnabled || DriverSpy.DuplicateSqlWarn;
+  }
+
+  /**
+   * Called by the statements of this connection each time they run some SQL (or fail to.)  While
+   * the connection is in a transaction, and transactions are being tracked, this adds the SQL to
+   * the transaction's statement count and SQL time, and tracks it for the log4jdbc.duplicate.sql
+   * option.
+   *
+   * @param sql           the SQL that was run, as a String or a DumpedSql, or null if it isn't to
+   *                      be checked for duplicates.
+   * @param execTimeNanos time the SQL took to run (or to fail), in nanoseconds.
+   * @param failed        true if the SQL failed with an exception.
+   */
+  void sqlExecuted(Object sql, long execTimeNanos, boolean failed)
+  {
+    if (!isTransactionTracked() || !isInTransaction())
+    {
+      return;
+    }
+    long now = System.nanoTime();
+    DuplicateSqlTracker tracker = null;
+    synchronized (this)
+    {
+      if (transactionStatements == 0)
+      {
+        transactionStartNanos = now - execTimeNanos;
+      }
+      transactionStatements++;
+      transactionSqlNanos += execTimeNanos;
+
+      if (DriverSpy.DuplicateSqlWarn && !failed && sql != null)
+      {
+        if (duplicateSqlTracker == null)
+        {
+          duplicateSqlTracker = new DuplicateSqlTracker();
+        }
+        tracker = duplicateSqlTracker;
+      }
+    }
+    if (tracker != null)
+    {
+      tracker.executed(sql, execTimeNanos);
+    }
+  }
+
+  /**
+   * Called when the current transaction ends (or the connection is closed) to report how long it
+   * took and any SQL that was run more than once in it.
+   *
+   * @param outcome      how the transaction ended.
+   * @param endTimeNanos time the commit, rollback or close took, in nanoseconds.
+   */
+  private void transactionEnded(TransactionSummary.Outcome outcome, long endTimeNanos)
+  {
+    if (!isTransactionTracked())
+    {
+      return;
+    }
+    TransactionSummary summary = null;
+    DuplicateSqlTracker tracker;
+    synchronized (this)
+    {
+      if (transactionStatements > 0)
+      {
+        summary = new TransactionSummary(outcome, transactionStatements,
+          System.nanoTime() - transactionStartNanos, transactionSqlNanos, endTimeNanos);
+        transactionStatements = 0;
+        transactionSqlNanos = 0L;
+      }
+      tracker = duplicateSqlTracker;
+    }
+    if (summary != null)
+    {
+      EventCounts.transactionEnded(summary);
+      log.transactionEnded(this, summary);
+    }
+
+    List<DuplicateSqlTracker.Duplicate> duplicates = tracker == null ? null : tracker.end();
+    if (duplicates != null)
+    {
+      for (DuplicateSqlTracker.Duplicate d : duplicates)
+      {
+        EventCounts.DuplicateSql.add(d.count - 1);
+        if (d.sql instanceof DumpedSql)
+        {
+          log.sqlDuplicateOccured(this, d.count, d.wastedNanos, (DumpedSql) d.sql);
+        }
+        else
+        {
+          log.sqlDuplicateOccured(this, d.count, d.wastedNanos, (String) d.sql);
+        }
+      }
+    }
+  }
+
+
   public String getClassType()
   {
     return "Connection";
   }
 
-  protected void reportException(String methodCall, SQLException exception, String sql)
+  protected void reportException(MethodCall methodCall, SQLException exception, String sql)
   {
+    EventCounts.exception(exception);
     log.exceptionOccured(this, methodCall, exception, sql, -1L);
   }
 
-  protected void reportException(String methodCall, SQLException exception)
+  protected void reportException(MethodCall methodCall, SQLException exception)
   {
+    EventCounts.exception(exception);
     log.exceptionOccured(this, methodCall, exception, null, -1L);
   }
 
@@ -197,21 +487,31 @@ public class ConnectionSpy implements Connection, Spy
     log.methodReturned(this, methodCall, returnValue);
   }
 
-  private boolean reportReturn(String methodCall, boolean value)
+  protected void reportAllReturns(MethodCall methodCall, String returnValue)
+  {
+    log.methodReturned(this, methodCall, returnValue);
+  }
+
+  protected boolean isReturnReported()
   {
-    reportAllReturns(methodCall, "" + value);
+    return log.isMethodReturnedEnabled(this);
+  }
+
+  private boolean reportReturn(MethodCall methodCall, boolean value)
+  {
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
-  private int reportReturn(String methodCall, int value)
+  private int reportReturn(MethodCall methodCall, int value)
   {
-    reportAllReturns(methodCall, "" + value);
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
-  private Object reportReturn(String methodCall, Object value)
+  private Object reportReturn(MethodCall methodCall, Object value)
   {
-    reportAllReturns(methodCall, "" + value);
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
@@ -220,135 +520,171 @@ public class ConnectionSpy implements Connection, Spy
     reportAllReturns(methodCall, "");
   }
 
+  private void reportReturn(MethodCall methodCall)
+  {
+    reportAllReturns(methodCall, "");
+  }
+
   // forwarding methods
 
   public boolean isClosed() throws SQLException
   {
-    String methodCall = "isClosed()";
     try
     {
-      return reportReturn(methodCall, (realConnection.isClosed()));
+      boolean result = (realConnection.isClosed());
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("isClosed"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("isClosed"), s);
       throw s;
     }
   }
 
   public SQLWarning getWarnings() throws SQLException
   {
-    String methodCall = "getWarnings()";
     try
     {
-      return (SQLWarning) reportReturn(methodCall, realConnection.getWarnings());
+      SQLWarning result = realConnection.getWarnings();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getWarnings"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getWarnings"), s);
       throw s;
     }
   }
 
   public Savepoint setSavepoint() throws SQLException
   {
-    String methodCall = "setSavepoint()";
     try
     {
-      return (Savepoint) reportReturn(methodCall, realConnection.setSavepoint());
+      Savepoint result = realConnection.setSavepoint();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("setSavepoint"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setSavepoint"), s);
       throw s;
     }
   }
 
   public void releaseSavepoint(Savepoint savepoint) throws SQLException
   {
-    String methodCall = "releaseSavepoint(" + savepoint + ")";
     try
     {
       realConnection.releaseSavepoint(savepoint);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("releaseSavepoint", savepoint), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("releaseSavepoint", savepoint));
+    }
   }
 
   public void rollback(Savepoint savepoint) throws SQLException
   {
-    String methodCall = "rollback(" + savepoint + ")";
     try
     {
       realConnection.rollback(savepoint);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("rollback", savepoint), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("rollback", savepoint));
+    }
   }
 
   public DatabaseMetaData getMetaData() throws SQLException
   {
-    String methodCall = "getMetaData()";
     try
     {
-      return (DatabaseMetaData) reportReturn(methodCall, realConnection.getMetaData());
+      DatabaseMetaData result = realConnection.getMetaData();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getMetaData"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getMetaData"), s);
       throw s;
     }
   }
 
   public void clearWarnings() throws SQLException
   {
-    String methodCall = "clearWarnings()";
     try
     {
       realConnection.clearWarnings();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("clearWarnings"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("clearWarnings"));
+    }
   }
 
   public Statement createStatement() throws SQLException
   {
-    String methodCall = "createStatement()";
     try
     {
       Statement statement = realConnection.createStatement();
-      return (Statement) reportReturn(methodCall, new StatementSpy(this, statement));
+      Statement result = new StatementSpy(this, statement);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("createStatement"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("createStatement"), s);
       throw s;
     }
   }
 
   public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException
   {
-    String methodCall = "createStatement(" + resultSetType + ", " + resultSetConcurrency + ")";
     try
     {
       Statement statement = realConnection.createStatement(resultSetType, resultSetConcurrency);
-      return (Statement) reportReturn(methodCall, new StatementSpy(this, statement));
+      Statement result = new StatementSpy(this, statement);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("createStatement", resultSetType, resultSetConcurrency),
+          result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("createStatement", resultSetType, resultSetConcurrency), s);
       throw s;
     }
   }
@@ -356,64 +692,77 @@ public class ConnectionSpy implements Connection, Spy
   public Statement createStatement(int resultSetType, int resultSetConcurrency,
     int resultSetHoldability) throws SQLException
   {
-    String methodCall = "createStatement(" + resultSetType + ", " + resultSetConcurrency + ", " +
-      resultSetHoldability + ")";
     try
     {
       Statement statement = realConnection.createStatement(resultSetType, resultSetConcurrency,
         resultSetHoldability);
-      return (Statement) reportReturn(methodCall, new StatementSpy(this, statement));
+      Statement result = new StatementSpy(this, statement);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("createStatement", resultSetType, resultSetConcurrency,
+          resultSetHoldability), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("createStatement", resultSetType, resultSetConcurrency,
+        resultSetHoldability), s);
       throw s;
     }
   }
 
   public void setReadOnly(boolean readOnly) throws SQLException
   {
-    String methodCall = "setReadOnly(" + readOnly + ")";
     try
     {
       realConnection.setReadOnly(readOnly);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setReadOnly", readOnly), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setReadOnly", readOnly));
+    }
   }
 
   public PreparedStatement prepareStatement(String sql) throws SQLException
   {
-    String methodCall = "prepareStatement(" + sql + ")";
     try
     {
       PreparedStatement statement = realConnection.prepareStatement(sql);
-      return (PreparedStatement) reportReturn(methodCall, new PreparedStatementSpy(sql, this,
-        statement));
+      PreparedStatement result = new PreparedStatementSpy(sql, this, statement);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("prepareStatement", sql), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(new MethodCall("prepareStatement", sql), s, sql);
       throw s;
     }
   }
 
   public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException
   {
-    String methodCall = "prepareStatement(" + sql + ", " + autoGeneratedKeys + ")";
     try
     {
       PreparedStatement statement = realConnection.prepareStatement(sql, autoGeneratedKeys);
-      return (PreparedStatement) reportReturn(methodCall, new PreparedStatementSpy(sql, this,
-        statement));
+      PreparedStatement result = new PreparedStatementSpy(sql, this, statement);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("prepareStatement", sql, autoGeneratedKeys), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(new MethodCall("prepareStatement", sql, autoGeneratedKeys), s, sql);
       throw s;
     }
   }
@@ -421,18 +770,22 @@ public class ConnectionSpy implements Connection, Spy
   public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency)
     throws SQLException
   {
-    String methodCall = "prepareStatement(" + sql + ", " + resultSetType + ", " +
-      resultSetConcurrency + ")";
     try
     {
       PreparedStatement statement = realConnection.prepareStatement(sql, resultSetType,
         resultSetConcurrency);
-      return (PreparedStatement) reportReturn(methodCall, new PreparedStatementSpy(sql, this,
-        statement));
+      PreparedStatement result = new PreparedStatementSpy(sql, this, statement);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("prepareStatement", sql, resultSetType, resultSetConcurrency),
+          result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(new MethodCall("prepareStatement", sql, resultSetType,
+        resultSetConcurrency), s, sql);
       throw s;
     }
   }
@@ -440,18 +793,22 @@ public class ConnectionSpy implements Connection, Spy
   public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency,
                                             int resultSetHoldability) throws SQLException
   {
-    String methodCall = "prepareStatement(" + sql + ", " + resultSetType + ", " +
-      resultSetConcurrency + ", " + resultSetHoldability + ")";
     try
     {
       PreparedStatement statement = realConnection.prepareStatement(sql, resultSetType,
         resultSetConcurrency, resultSetHoldability);
-      return (PreparedStatement) reportReturn(methodCall, new PreparedStatementSpy(sql, this,
-        statement));
+      PreparedStatement result = new PreparedStatementSpy(sql, this, statement);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("prepareStatement", sql, resultSetType, resultSetConcurrency,
+          resultSetHoldability), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(new MethodCall("prepareStatement", sql, resultSetType, resultSetConcurrency,
+        resultSetHoldability), s, sql);
       throw s;
     }
   }
@@ -459,30 +816,37 @@ public class ConnectionSpy implements Connection, Spy
   public PreparedStatement prepareStatement(String sql, int columnIndexes[]) throws SQLException
   {
     //todo: dump the array here?
-    String methodCall = "prepareStatement(" + sql + ", " + columnIndexes + ")";
     try
     {
       PreparedStatement statement = realConnection.prepareStatement(sql, columnIndexes);
-      return (PreparedStatement) reportReturn(methodCall, new PreparedStatementSpy(sql, this,
-        statement));
+      PreparedStatement result = new PreparedStatementSpy(sql, this, statement);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("prepareStatement", sql, columnIndexes), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(new MethodCall("prepareStatement", sql, columnIndexes), s, sql);
       throw s;
     }
   }
 
   public Savepoint setSavepoint(String name) throws SQLException
   {
-    String methodCall = "setSavepoint(" + name + ")";
     try
     {
-      return (Savepoint) reportReturn(methodCall, realConnection.setSavepoint(name));
+      Savepoint result = realConnection.setSavepoint(name);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("setSavepoint", name), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setSavepoint", name), s);
       throw s;
     }
   }
@@ -490,145 +854,180 @@ public class ConnectionSpy implements Connection, Spy
   public PreparedStatement prepareStatement(String sql, String columnNames[]) throws SQLException
   {
     //todo: dump the array here?
-    String methodCall = "prepareStatement(" + sql + ", " + columnNames + ")";
     try
     {
       PreparedStatement statement = realConnection.prepareStatement(sql, columnNames);
-      return (PreparedStatement) reportReturn(methodCall, new PreparedStatementSpy(sql, this,
-        statement));
+      PreparedStatement result = new PreparedStatementSpy(sql, this, statement);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("prepareStatement", sql, columnNames), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(new MethodCall("prepareStatement", sql, columnNames), s, sql);
       throw s;
     }
   }
 
   public Clob createClob() throws SQLException
   {
-    String methodCall = "createClob()";
     try
     {
-      return (Clob) reportReturn(methodCall, realConnection.createClob());
+      Clob result = realConnection.createClob();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("createClob"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("createClob"), s);
       throw s;
     }
   }
 
   public Blob createBlob() throws SQLException
   {
-    String methodCall = "createBlob()";
     try
     {
-      return (Blob) reportReturn(methodCall, realConnection.createBlob());
+      Blob result = realConnection.createBlob();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("createBlob"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("createBlob"), s);
       throw s;
     }
   }
 
   public NClob createNClob() throws SQLException
   {
-    String methodCall = "createNClob()";
     try
     {
-      return (NClob) reportReturn(methodCall, realConnection.createNClob());
+      NClob result = realConnection.createNClob();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("createNClob"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("createNClob"), s);
       throw s;
     }
   }
 
   public SQLXML createSQLXML() throws SQLException
   {
-    String methodCall = "createSQLXML()";
     try
     {
-      return (SQLXML) reportReturn(methodCall, realConnection.createSQLXML());
+      SQLXML result = realConnection.createSQLXML();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("createSQLXML"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("createSQLXML"), s);
       throw s;
     }
   }
 
   public boolean isValid(int timeout) throws SQLException
   {
-    String methodCall = "isValid(" + timeout + ")";
     try
     {
-      return reportReturn(methodCall,realConnection.isValid(timeout));
+      boolean result = realConnection.isValid(timeout);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("isValid", timeout), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("isValid", timeout), s);
       throw s;
     }
   }
 
   public void setClientInfo(String name, String value) throws SQLClientInfoException
   {
-    String methodCall = "setClientInfo(" + name + ", " + value + ")";
     try
     {
       realConnection.setClientInfo(name,value);
     }
     catch (SQLClientInfoException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setClientInfo", name, value), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setClientInfo", name, value));
+    }
   }
 
   public void setClientInfo(Properties properties) throws SQLClientInfoException
   {
     // todo: dump properties?
-    String methodCall = "setClientInfo(" + properties + ")";
     try
     {
       realConnection.setClientInfo(properties);
     }
     catch (SQLClientInfoException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setClientInfo", properties), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setClientInfo", properties));
+    }
   }
 
   public String getClientInfo(String name) throws SQLException
   {
-    String methodCall = "getClientInfo(" + name + ")";
     try
     {
-      return (String) reportReturn(methodCall,realConnection.getClientInfo(name));
+      String result = realConnection.getClientInfo(name);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getClientInfo", name), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getClientInfo", name), s);
       throw s;
     }
   }
 
   public Properties getClientInfo() throws SQLException
   {
-    String methodCall = "getClientInfo()";
     try
     {
-      return (Properties) reportReturn(methodCall,realConnection.getClientInfo());
+      Properties result = realConnection.getClientInfo();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getClientInfo"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getClientInfo"), s);
       throw s;
     }
   }
@@ -636,14 +1035,18 @@ public class ConnectionSpy implements Connection, Spy
   public Array createArrayOf(String typeName, Object[] elements) throws SQLException
   {
     //todo: dump elements?
-    String methodCall = "createArrayOf(" + typeName + ", " + elements +")";
     try
     {
-      return (Array) reportReturn(methodCall,realConnection.createArrayOf(typeName,elements));
+      Array result = realConnection.createArrayOf(typeName,elements);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("createArrayOf", typeName, elements), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("createArrayOf", typeName, elements), s);
       throw s;
     }
   }
@@ -651,59 +1054,72 @@ public class ConnectionSpy implements Connection, Spy
   public Struct createStruct(String typeName, Object[] attributes) throws SQLException
   {
     //todo: dump attributes?
-    String methodCall = "createStruct(" + typeName + ", " + attributes +")";
     try
     {
-      return (Struct) reportReturn(methodCall,realConnection.createStruct(typeName, attributes));
+      Struct result = realConnection.createStruct(typeName, attributes);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("createStruct", typeName, attributes), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("createStruct", typeName, attributes), s);
       throw s;
     }
   }
 
   public boolean isReadOnly() throws SQLException
   {
-    String methodCall = "isReadOnly()";
     try
     {
-      return reportReturn(methodCall,realConnection.isReadOnly());
+      boolean result = realConnection.isReadOnly();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("isReadOnly"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("isReadOnly"), s);
       throw s;
     }
   }
 
   public void setHoldability(int holdability) throws SQLException
   {
-    String methodCall = "setHoldability(" + holdability + ")";
     try
     {
       realConnection.setHoldability(holdability);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setHoldability", holdability), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setHoldability", holdability));
+    }
   }
 
   public CallableStatement prepareCall(String sql) throws SQLException
   {
-    String methodCall = "prepareCall(" + sql + ")";
     try
     {
       CallableStatement statement = realConnection.prepareCall(sql);
-      return (CallableStatement) reportReturn(methodCall, new CallableStatementSpy(sql, this,
-        statement));
+      CallableStatement result = new CallableStatementSpy(sql, this, statement);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("prepareCall", sql), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(new MethodCall("prepareCall", sql), s, sql);
       throw s;
     }
   }
@@ -711,18 +1127,22 @@ public class ConnectionSpy implements Connection, Spy
   public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency)
     throws SQLException
   {
-    String methodCall = "prepareCall(" + sql + ", " + resultSetType + ", " + resultSetConcurrency +
-      ")";
     try
     {
       CallableStatement statement = realConnection.prepareCall(sql, resultSetType,
         resultSetConcurrency);
-      return (CallableStatement) reportReturn(methodCall, new CallableStatementSpy(sql, this,
-        statement));
+      CallableStatement result = new CallableStatementSpy(sql, this, statement);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("prepareCall", sql, resultSetType, resultSetConcurrency),
+          result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(new MethodCall("prepareCall", sql, resultSetType, resultSetConcurrency), s,
+        sql);
       throw s;
     }
   }
@@ -730,47 +1150,57 @@ public class ConnectionSpy implements Connection, Spy
   public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency,
                                        int resultSetHoldability) throws SQLException
   {
-    String methodCall = "prepareCall(" + sql + ", " + resultSetType + ", " + resultSetConcurrency +
-      ", " + resultSetHoldability + ")";
     try
     {
       CallableStatement statement = realConnection.prepareCall(sql, resultSetType,
         resultSetConcurrency, resultSetHoldability);
-      return (CallableStatement) reportReturn(methodCall,
-        new CallableStatementSpy(sql, this, statement));
+      CallableStatement result = new CallableStatementSpy(sql, this, statement);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("prepareCall", sql, resultSetType, resultSetConcurrency,
+          resultSetHoldability), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(new MethodCall("prepareCall", sql, resultSetType, resultSetConcurrency,
+        resultSetHoldability), s, sql);
       throw s;
     }
   }
 
   public void setCatalog(String catalog) throws SQLException
   {
-    String methodCall = "setCatalog(" + catalog + ")";
     try
     {
       realConnection.setCatalog(catalog);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setCatalog", catalog), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setCatalog", catalog));
+    }
   }
 
   public String nativeSQL(String sql) throws SQLException
   {
-    String methodCall = "nativeSQL(" + sql + ")";
     try
     {
-      return (String) reportReturn(methodCall, realConnection.nativeSQL(sql));
+      String result = realConnection.nativeSQL(sql);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("nativeSQL", sql), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(new MethodCall("nativeSQL", sql), s, sql);
       throw s;
     }
   }
@@ -778,43 +1208,61 @@ public class ConnectionSpy implements Connection, Spy
   @SuppressWarnings("unchecked")
   public Map<String,Class<?>> getTypeMap() throws SQLException
   {
-    String methodCall = "getTypeMap()";
     try
     {
-      return (Map<String,Class<?>>) reportReturn(methodCall, realConnection.getTypeMap());
+      Map<String,Class<?>> result = realConnection.getTypeMap();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getTypeMap"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getTypeMap"), s);
       throw s;
     }
   }
 
   public void setAutoCommit(boolean autoCommit) throws SQLException
   {
-    String methodCall = "setAutoCommit(" + autoCommit + ")";
+    long start = System.nanoTime();
     try
     {
       realConnection.setAutoCommit(autoCommit);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setAutoCommit", autoCommit), s);
       throw s;
     }
-    reportReturn(methodCall);
+    // turning auto-commit on in the middle of a transaction commits it
+    boolean commits = autoCommit && Boolean.FALSE.equals(this.autoCommit);
+    this.autoCommit = Boolean.valueOf(autoCommit);
+    if (commits)
+    {
+      transactionEnded(TransactionSummary.Outcome.COMMITTED, System.nanoTime() - start);
+    }
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setAutoCommit", autoCommit));
+    }
   }
 
   public String getCatalog() throws SQLException
   {
-    String methodCall = "getCatalog()";
     try
     {
-      return (String) reportReturn(methodCall, realConnection.getCatalog());
+      String result = realConnection.getCatalog();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getCatalog"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getCatalog"), s);
       throw s;
     }
   }
@@ -822,232 +1270,296 @@ public class ConnectionSpy implements Connection, Spy
   public void setTypeMap(java.util.Map<String,Class<?>> map) throws SQLException
   {
     //todo: dump map??
-    String methodCall = "setTypeMap(" + map + ")";
     try
     {
       realConnection.setTypeMap(map);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setTypeMap", map), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setTypeMap", map));
+    }
   }
 
   public void setTransactionIsolation(int level) throws SQLException
   {
-    String methodCall = "setTransactionIsolation(" + level + ")";
     try
     {
       realConnection.setTransactionIsolation(level);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setTransactionIsolation", level), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setTransactionIsolation", level));
+    }
   }
 
   public boolean getAutoCommit() throws SQLException
   {
-    String methodCall = "getAutoCommit()";
     try
     {
-      return reportReturn(methodCall, realConnection.getAutoCommit());
+      boolean result = realConnection.getAutoCommit();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getAutoCommit"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getAutoCommit"), s);
       throw s;
     }
   }
 
   public int getHoldability() throws SQLException
   {
-    String methodCall = "getHoldability()";
     try
     {
-      return reportReturn(methodCall, realConnection.getHoldability());
+      int result = realConnection.getHoldability();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getHoldability"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getHoldability"), s);
       throw s;
     }
   }
 
   public int getTransactionIsolation() throws SQLException
   {
-    String methodCall = "getTransactionIsolation()";
     try
     {
-      return reportReturn(methodCall, realConnection.getTransactionIsolation());
+      int result = realConnection.getTransactionIsolation();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getTransactionIsolation"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getTransactionIsolation"), s);
       throw s;
     }
   }
 
   public void commit() throws SQLException
   {
-    String methodCall = "commit()";
+    long start = System.nanoTime();
     try
     {
       realConnection.commit();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("commit"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    transactionEnded(TransactionSummary.Outcome.COMMITTED, System.nanoTime() - start);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("commit"));
+    }
   }
 
   public void rollback() throws SQLException
   {
-    String methodCall = "rollback()";
+    long start = System.nanoTime();
     try
     {
       realConnection.rollback();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("rollback"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    transactionEnded(TransactionSummary.Outcome.ROLLED_BACK, System.nanoTime() - start);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("rollback"));
+    }
   }
 
   public void close() throws SQLException
   {
-    String methodCall = "close()";
+    long start = System.nanoTime();
     try
     {
       realConnection.close();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("close"), s);
       throw s;
     }
     finally
     {
-      synchronized (connectionTracker)
+      ConnectionLeakDetector.closed(openConnection);
+      if (untrack(openConnection) && openConnection.borrowedAt != null)
+      {
+        PoolStatistics.held(openConnection.borrowedAt,
+          System.nanoTime() - openConnection.openedNanos);
+      }
+      if (openConnection.cursors != null)
       {
-        connectionTracker.remove(connectionNumber);
+        long now = System.nanoTime();
+        for (OpenCursors.Cursor cursor : openConnection.cursors.closeAll())
+        {
+          EventCounts.StatementLeaks.increment();
+          log.statementLeakOccured(new StatementLeak(connectionNumber, cursor,
+            now - cursor.openedNanos, true));
+        }
       }
+      SqlStatistics.connectionClosed(connectionNumber);
+      EventCounts.ConnectionsClosed.increment();
+      transactionEnded(TransactionSummary.Outcome.CLOSED, System.nanoTime() - start);
       log.connectionClosed(this);
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("close"));
+    }
   }
 
   @SuppressWarnings("unchecked")
   public <T> T unwrap(Class<T> iface) throws SQLException
   {
-    String methodCall = "unwrap(" + (iface==null?"null":iface.getName()) + ")";
     try
     {
       //todo: double check this logic
-      return (T)reportReturn(methodCall,
+      T result =
         (iface != null && (iface == Connection.class || iface == Spy.class))?
-          (T)this : realConnection.unwrap(iface));
+          (T)this : realConnection.unwrap(iface);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("unwrap", iface==null?"null":iface.getName()), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(new MethodCall("unwrap", iface==null?"null":iface.getName()), s);
       throw s;
     }
   }
 
   public boolean isWrapperFor(Class<?> iface) throws SQLException
   {
-    String methodCall = "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")";
     try
     {
-      return reportReturn(methodCall,
+      boolean result =
         (iface != null && (iface == Connection.class || iface == Spy.class)) ||
-        realConnection.isWrapperFor(iface));
+        realConnection.isWrapperFor(iface);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("isWrapperFor", iface==null?"null":iface.getName()), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(new MethodCall("isWrapperFor", iface==null?"null":iface.getName()), s);
       throw s;
     }
   }
 
   public void setSchema(String schema) throws SQLException
   {
-    String methodCall = "setSchema(" + schema + ")";
     try
     {
       realConnection.setSchema(schema);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setSchema", schema), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setSchema", schema));
+    }
   }
 
   public String getSchema() throws SQLException
   {
-    String methodCall = "getSchema()";
     try
     {
-      return (String) reportReturn(methodCall, realConnection.getSchema());
+      String result = realConnection.getSchema();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getSchema"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getSchema"), s);
       throw s;
     }
   }
 
   public void abort(Executor executor) throws SQLException
   {
-    String methodCall = "abort(Executor)";
     try
     {
       realConnection.abort(executor);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("abort", "Executor"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("abort", "Executor"));
+    }
   }
 
   public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException
   {
-    String methodCall = "setNetworkTimeout(Executor, " + milliseconds + ")";
     try
     {
       realConnection.setNetworkTimeout(executor, milliseconds);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setNetworkTimeout", "Executor", milliseconds), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setNetworkTimeout", "Executor", milliseconds));
+    }
   }
 
   public int getNetworkTimeout() throws SQLException
   {
-    String methodCall = "getNetworkTimeout()";
     try
     {
-      return reportReturn(methodCall, realConnection.getNetworkTimeout());
+      int result = realConnection.getNetworkTimeout();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getNetworkTimeout"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(new MethodCall("getNetworkTimeout"), s);
       throw s;
     }
   }
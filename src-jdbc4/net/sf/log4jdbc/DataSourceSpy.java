@@ -0,0 +1,179 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps a real DataSource (typically a connection pool) so that the connections it hands out are
+ * logged, without going through DriverSpy and the DriverManager.  This is useful when the
+ * application (or its container) is configured with a DataSource rather than a JDBC URL, so there
+ * is no URL to prepend jdbc:log4 to:
+ *
+ * <pre>
+ *   DataSource ds = new DataSourceSpy(pool);
+ * </pre>
+ *
+ * Each Connection the real DataSource returns is wrapped in a ConnectionSpy (unless all the jdbc
+ * loggers are off, in which case the real Connection is returned as DriverSpy would.)  Since there
+ * is no driver class to look the RdbmsSpecifics up by, they are found from the metadata of the
+ * first connection and used for all that follow.
+ *
+ * While the log4jdbc.statistics option is on, the time each getConnection() call takes and the
+ * time each connection is held before it is closed are recorded in the PoolStatistics.
+ *
+ * DataSourceSpy needs no options of its own; DriverSpy is still loaded to read the log4jdbc
+ * options and set up logging.
+ *
+ * @author Arthur Blake
+ */
+public class DataSourceSpy implements DataSource
+{
+  private final DataSource realDataSource;
+
+  /**
+   * RdbmsSpecifics for the connections from the real DataSource, found from the first one.
+   */
+  private volatile RdbmsSpecifics rdbmsSpecifics;
+
+  /**
+   * Create a DataSourceSpy that logs the connections from a real DataSource.
+   *
+   * @param realDataSource the real DataSource to wrap.
+   */
+  public DataSourceSpy(DataSource realDataSource)
+  {
+    if (realDataSource == null)
+    {
+      throw new IllegalArgumentException("Must pass in a non null real DataSource");
+    }
+    this.realDataSource = realDataSource;
+  }
+
+  /**
+   * Get the real DataSource that this DataSourceSpy wraps.
+   *
+   * @return the real DataSource that this DataSourceSpy wraps.
+   */
+  public DataSource getRealDataSource()
+  {
+    return realDataSource;
+  }
+
+  public Connection getConnection() throws SQLException
+  {
+    long start = System.nanoTime();
+    try
+    {
+      return spy(realDataSource.getConnection(), start);
+    }
+    catch (SQLException s)
+    {
+      borrowFailed(start);
+      throw s;
+    }
+  }
+
+  public Connection getConnection(String username, String password) throws SQLException
+  {
+    long start = System.nanoTime();
+    try
+    {
+      return spy(realDataSource.getConnection(username, password), start);
+    }
+    catch (SQLException s)
+    {
+      borrowFailed(start);
+      throw s;
+    }
+  }
+
+  private void borrowFailed(long start)
+  {
+    if (DriverSpy.StatisticsEnabled)
+    {
+      PoolStatistics.borrowed(System.nanoTime() - start, true);
+    }
+  }
+
+  /**
+   * Wrap a connection from the real DataSource in a ConnectionSpy, if jdbc logging is on.
+   *
+   * @param c     the real connection.
+   * @param start System.nanoTime() when the connection was asked for.
+   * @return the ConnectionSpy, or c itself if jdbc logging is off.
+   */
+  private Connection spy(Connection c, long start)
+  {
+    if (DriverSpy.StatisticsEnabled)
+    {
+      PoolStatistics.borrowed(System.nanoTime() - start, false);
+    }
+    if (c == null || !DriverSpy.log.isJdbcLoggingEnabled())
+    {
+      return c;
+    }
+    RdbmsSpecifics r = rdbmsSpecifics;
+    if (r == null)
+    {
+      r = DriverSpy.getRdbmsSpecifics(c);
+      rdbmsSpecifics = r;
+    }
+    return new ConnectionSpy(c, r, true);
+  }
+
+  public PrintWriter getLogWriter() throws SQLException
+  {
+    return realDataSource.getLogWriter();
+  }
+
+  public void setLogWriter(PrintWriter out) throws SQLException
+  {
+    realDataSource.setLogWriter(out);
+  }
+
+  public void setLoginTimeout(int seconds) throws SQLException
+  {
+    realDataSource.setLoginTimeout(seconds);
+  }
+
+  public int getLoginTimeout() throws SQLException
+  {
+    return realDataSource.getLoginTimeout();
+  }
+
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException
+  {
+    return realDataSource.getParentLogger();
+  }
+
+  public <T> T unwrap(Class<T> iface) throws SQLException
+  {
+    return (iface != null && iface.isInstance(this)) ? iface.cast(this) :
+      realDataSource.unwrap(iface);
+  }
+
+  public boolean isWrapperFor(Class<?> iface) throws SQLException
+  {
+    return (iface != null && iface.isInstance(this)) || realDataSource.isWrapperFor(iface);
+  }
+}
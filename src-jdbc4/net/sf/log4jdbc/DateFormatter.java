@@ -0,0 +1,204 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * An immutable, thread safe replacement for the SimpleDateFormat patterns used by the
+ * RdbmsSpecifics classes, so that a formatter can be shared instead of being created for every
+ * date that is formatted.  The digits are written straight into a StringBuilder.
+ *
+ * Only the pattern letters yyyy, MM, dd, HH, mm, ss and SSS are supported; anything else in the
+ * pattern is copied as is.  A java.util.Date (or java.sql.Date, Time or Timestamp) is shown in the
+ * default time zone exactly as SimpleDateFormat shows it.  The java.time types LocalDate,
+ * LocalDateTime, OffsetDateTime and Instant can be formatted too: LocalDate and LocalDateTime are
+ * shown as they are, while OffsetDateTime and Instant are shown in the default time zone, the same
+ * as a java.util.Date for the same instant.
+ *
+ * @author Arthur Blake
+ */
+final class DateFormatter
+{
+  /**
+   * The start of the Gregorian calendar, in (local) milliseconds since the epoch.  SimpleDateFormat
+   * shows a java.util.Date before this in the Julian calendar, so for the (very rare) dates before
+   * this a SimpleDateFormat is still used.
+   */
+  private static final long GREGORIAN_CUTOVER = -12219292800000L;
+
+  private static final long MILLIS_PER_DAY = 86400000L;
+
+  private final String pattern;
+
+  /**
+   * Create a DateFormatter.
+   *
+   * @param pattern SimpleDateFormat style pattern, using only yyyy, MM, dd, HH, mm, ss and SSS.
+   */
+  DateFormatter(String pattern)
+  {
+    this.pattern = pattern;
+  }
+
+  /**
+   * Determine if an object is a date or time that can be formatted by a DateFormatter.
+   *
+   * @param object object to check.
+   * @return true if the object is a java.util.Date, LocalDate, LocalDateTime, OffsetDateTime or
+   *         Instant.
+   */
+  static boolean isDateTime(Object object)
+  {
+    return object instanceof Date || object instanceof LocalDateTime ||
+      object instanceof LocalDate || object instanceof OffsetDateTime || object instanceof Instant;
+  }
+
+  /**
+   * Format a date or time.
+   *
+   * @param object a java.util.Date, LocalDate, LocalDateTime, OffsetDateTime or Instant.
+   * @return the formatted date.
+   * @throws IllegalArgumentException if the object is not a date or time that can be formatted.
+   */
+  String format(Object object)
+  {
+    if (object instanceof Date)
+    {
+      long millis = ((Date) object).getTime();
+      long localMillis = millis + TimeZone.getDefault().getOffset(millis);
+      if (localMillis < GREGORIAN_CUTOVER)
+      {
+        return new SimpleDateFormat(pattern).format(object);
+      }
+      return format(localMillis);
+    }
+    else if (object instanceof LocalDateTime)
+    {
+      LocalDateTime d = (LocalDateTime) object;
+      return format(d.getYear(), d.getMonthValue(), d.getDayOfMonth(), d.getHour(),
+        d.getMinute(), d.getSecond(), d.getNano() / 1000000);
+    }
+    else if (object instanceof LocalDate)
+    {
+      LocalDate d = (LocalDate) object;
+      return format(d.getYear(), d.getMonthValue(), d.getDayOfMonth(), 0, 0, 0, 0);
+    }
+    else if (object instanceof OffsetDateTime || object instanceof Instant)
+    {
+      Instant instant = object instanceof Instant ? (Instant) object :
+        ((OffsetDateTime) object).toInstant();
+      long millis = instant.toEpochMilli();
+      return format(millis + TimeZone.getDefault().getOffset(millis));
+    }
+    throw new IllegalArgumentException("not a date: " + object);
+  }
+
+  /**
+   * Format a local time given in milliseconds since the (local) epoch, in the proleptic Gregorian
+   * calendar.
+   */
+  private String format(long localMillis)
+  {
+    long epochDay = Math.floorDiv(localMillis, MILLIS_PER_DAY);
+    int millisOfDay = (int) Math.floorMod(localMillis, MILLIS_PER_DAY);
+
+    // convert the day to year, month and day of month (civil from days, with a year that starts
+    // on March 1st so that the leap day is the last day of the year)
+    long z = epochDay + 719468;
+    long era = Math.floorDiv(z, 146097);
+    int dayOfEra = (int) (z - era * 146097);
+    int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    int mp = (5 * dayOfYear + 2) / 153;
+    int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+    int month = mp < 10 ? mp + 3 : mp - 9;
+    int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+    return format(year, month, day, millisOfDay / 3600000, millisOfDay / 60000 % 60,
+      millisOfDay / 1000 % 60, millisOfDay % 1000);
+  }
+
+  private String format(int year, int month, int day, int hour, int minute, int second,
+    int millis)
+  {
+    int n = pattern.length();
+    StringBuilder out = new StringBuilder(n + 2);
+    int i = 0;
+    while (i < n)
+    {
+      char c = pattern.charAt(i);
+      int j = i + 1;
+      while (j < n && pattern.charAt(j) == c)
+      {
+        j++;
+      }
+      switch (c)
+      {
+        case 'y':
+          // year of era, as SimpleDateFormat shows it
+          appendPadded(out, year <= 0 ? 1 - year : year, j - i);
+          break;
+        case 'M':
+          appendPadded(out, month, j - i);
+          break;
+        case 'd':
+          appendPadded(out, day, j - i);
+          break;
+        case 'H':
+          appendPadded(out, hour, j - i);
+          break;
+        case 'm':
+          appendPadded(out, minute, j - i);
+          break;
+        case 's':
+          appendPadded(out, second, j - i);
+          break;
+        case 'S':
+          appendPadded(out, millis, j - i);
+          break;
+        default:
+          out.append(pattern, i, j);
+          break;
+      }
+      i = j;
+    }
+    return out.toString();
+  }
+
+  /**
+   * Append a non negative number, padded with leading zeros to at least the given width.
+   */
+  private static void appendPadded(StringBuilder out, int value, int width)
+  {
+    int digits = 1;
+    for (int v = value; v >= 10; v /= 10)
+    {
+      digits++;
+    }
+    for (; digits < width; digits++)
+    {
+      out.append('0');
+    }
+    out.append(value);
+  }
+}
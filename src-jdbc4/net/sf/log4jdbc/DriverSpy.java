@@ -15,6 +15,9 @@
  */
 package net.sf.log4jdbc;
 
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.Driver;
@@ -29,6 +32,9 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
@@ -96,70 +102,165 @@ public class DriverSpy implements Driver
    */
   private Driver lastUnderlyingDriverRequested;
 
+  /**
+   * Maps each real URL connected to so far to the underlying driver that
+   * accepted it.  The drivers are only weakly referenced, so that a driver
+   * (and the class loader that loaded it) can still be garbage collected after
+   * it is deregistered.  See getUnderlyingDriver.
+   */
+  private static final ConcurrentMap<String, WeakReference<Driver>>
+    underlyingDrivers = new ConcurrentHashMap<String, WeakReference<Driver>>();
+
+  /**
+   * Most URLs to keep in underlyingDrivers.  When it's full, it's cleared.
+   */
+  private static final int MAX_UNDERLYING_DRIVERS = 1000;
+
   /**
    * Maps driver class names to RdbmsSpecifics objects for each kind of
    * database.
    */
   private static Map<String, RdbmsSpecifics> rdbmsSpecifics;
 
+  /**
+   * Maps database product names (as reported by
+   * DatabaseMetaData.getDatabaseProductName()) to RdbmsSpecifics objects for
+   * each kind of database, for connections that don't come through this
+   * Driver, such as those from a DataSourceSpy.
+   */
+  private static Map<String, RdbmsSpecifics> productRdbmsSpecifics;
+
   static final SpyLogDelegator log = SpyLogFactory.getSpyLogDelegator();
 
   /**
    * Optional package prefix to use for finding application generating point of
    * SQL.
+   *
+   * This, the SQL timing thresholds, the DumpSql* filters, the Trim* flags and
+   * the other options that are volatile below can be changed at runtime
+   * through JMX (see Log4jdbcJmx.)
    */
-  static String DebugStackPrefix;
+  static volatile String DebugStackPrefix;
 
   /**
    * Flag to indicate debug trace info should be from the calling application
    * point of view (true if DebugStackPrefix is set.)
    */
-  static boolean TraceFromApplication;
+  static volatile boolean TraceFromApplication;
 
   /**
    * Flag to indicate if a warning should be shown if SQL takes more than
-   * SqlTimingWarnThresholdMsec milliseconds to run. See below.
+   * SqlTimingWarnThresholdNanos nanoseconds to run. See below.
    */
-  static boolean SqlTimingWarnThresholdEnabled;
+  static volatile boolean SqlTimingWarnThresholdEnabled;
 
   /**
-   * An amount of time in milliseconds for which SQL that executed taking this
+   * An amount of time in nanoseconds for which SQL that executed taking this
    * long or more to run shall cause a warning message to be generated on the
-   * SQL timing logger.
+   * SQL timing logger.  (The property is set in milliseconds, but may have a
+   * fractional part for sub-millisecond thresholds.)
    *
    * This threshold will <i>ONLY</i> be used if SqlTimingWarnThresholdEnabled is
    * true.
    */
-  static long SqlTimingWarnThresholdMsec;
+  static volatile long SqlTimingWarnThresholdNanos;
 
   /**
    * Flag to indicate if an error should be shown if SQL takes more than
-   * SqlTimingErrorThresholdMsec milliseconds to run. See below.
+   * SqlTimingErrorThresholdNanos nanoseconds to run. See below.
    */
-  static boolean SqlTimingErrorThresholdEnabled;
+  static volatile boolean SqlTimingErrorThresholdEnabled;
 
   /**
-   * An amount of time in milliseconds for which SQL that executed taking this
+   * An amount of time in nanoseconds for which SQL that executed taking this
    * long or more to run shall cause an error message to be generated on the SQL
-   * timing logger.
+   * timing logger.  (The property is set in milliseconds, but may have a
+   * fractional part for sub-millisecond thresholds.)
    *
    * This threshold will <i>ONLY</i> be used if SqlTimingErrorThresholdEnabled
    * is true.
    */
-  static long SqlTimingErrorThresholdMsec;
+  static volatile long SqlTimingErrorThresholdNanos;
+
+  /**
+   * The unit that SQL execution times are shown in on the SQL timing logger.
+   * One of TimeUnit.MILLISECONDS (the default), TimeUnit.MICROSECONDS or
+   * TimeUnit.NANOSECONDS.
+   */
+  static TimeUnit SqlTimingUnit;
+
+  /**
+   * The label shown after SQL execution times on the SQL timing logger, one of
+   * "msec", "usec" or "nsec" to match SqlTimingUnit.
+   */
+  static String SqlTimingUnitLabel;
+
+  /**
+   * The maximum number of parsed PreparedStatement SQL templates (see
+   * SqlTemplate) to keep in the cache shared by all connections.  0 turns off
+   * the cache.
+   */
+  static int SqlTemplateCacheSize;
+
+  /**
+   * Keep statistics in memory for each distinct SQL statement that is run (see
+   * SqlStatistics)?
+   */
+  static volatile boolean StatisticsEnabled;
+
+  /**
+   * The maximum number of distinct SQL statements to keep statistics for.
+   * Statistics for any more are kept together under one "(other)" entry.
+   */
+  static int StatisticsMaxSql;
+
+  /**
+   * Register the log4jdbc MBeans (see Log4jdbcJmx) with the platform MBean
+   * server?
+   */
+  static boolean JmxEnabled;
+
+  /**
+   * Port to serve Prometheus metrics on (see PrometheusExporter), or null to not serve them.
+   */
+  static Integer PrometheusPort;
+
+  /**
+   * Host name or address of the interface to serve Prometheus metrics on, or
+   * null for the loopback interface.
+   */
+  static String PrometheusHost;
+
+  /**
+   * File to write Prometheus metrics to every PrometheusTextfileInterval
+   * msec (see PrometheusExporter), or null to not write them.
+   */
+  static String PrometheusTextfile;
+
+  /**
+   * How often to write the PrometheusTextfile, in msec.
+   */
+  static long PrometheusTextfileInterval;
+
+  /**
+   * The number of SQL fingerprints (the ones that have taken the most time)
+   * to publish Prometheus metrics for one by one.  The rest are published
+   * together as "(other)".
+   */
+  static volatile int PrometheusTopSql;
 
   /**
    * When dumping boolean values, dump them as 'true' or 'false'. If this option
    * is not set, they will be dumped as 1 or 0 as many databases do not have a
    * boolean type, and this allows for more portable sql dumping.
    */
-  static boolean DumpBooleanAsTrueFalse;
+  static volatile boolean DumpBooleanAsTrueFalse;
 
   /**
    * When dumping SQL, if this is greater than 0, than the SQL will be broken up
    * into lines that are no longer than this value.
    */
-  static int DumpSqlMaxLineLength;
+  static volatile int DumpSqlMaxLineLength;
 
   /**
    * If this is true, display a special warning in the log along with the SQL
@@ -167,7 +268,65 @@ public class DriverSpy implements Driver
    * Using Statements for frequently used SQL can sometimes result in
    * performance and/or security problems.
    */
-  static boolean StatementUsageWarn;
+  static volatile boolean StatementUsageWarn;
+
+  /**
+   * Report SQL that one thread runs this many times within NPlusOneWindowNanos
+   * (see NPlusOneDetector.)  0 turns the N+1 query detection off.
+   */
+  static volatile int NPlusOneThreshold;
+
+  /**
+   * The time window for NPlusOneThreshold, in nanoseconds.
+   */
+  static volatile long NPlusOneWindowNanos;
+
+  /**
+   * Report SQL that is run more than once with the same bind variables in one
+   * transaction (see DuplicateSqlTracker)?
+   */
+  static volatile boolean DuplicateSqlWarn;
+
+  /**
+   * Flag to indicate if a warning should be shown if a transaction takes more
+   * than TransactionWarnThresholdNanos nanoseconds from its first statement to
+   * its commit or rollback.
+   */
+  static volatile boolean TransactionWarnThresholdEnabled;
+
+  /**
+   * An amount of time in nanoseconds for which a transaction that takes this
+   * long or more shall cause a warning message to be generated on the SQL
+   * timing logger.  Only used if TransactionWarnThresholdEnabled is true.
+   */
+  static volatile long TransactionWarnThresholdNanos;
+
+  /**
+   * Flag to indicate if an error should be shown if a transaction takes more
+   * than TransactionErrorThresholdNanos nanoseconds from its first statement to
+   * its commit or rollback.
+   */
+  static volatile boolean TransactionErrorThresholdEnabled;
+
+  /**
+   * An amount of time in nanoseconds for which a transaction that takes this
+   * long or more shall cause an error message to be generated on the SQL
+   * timing logger.  Only used if TransactionErrorThresholdEnabled is true.
+   */
+  static volatile long TransactionErrorThresholdNanos;
+
+  /**
+   * Report connections held open for longer than this many nanoseconds, or
+   * garbage collected without being closed (see ConnectionLeakDetector.)  0
+   * turns connection leak detection off.
+   */
+  static volatile long ConnectionLeakThresholdNanos;
+
+  /**
+   * Track the Statements and ResultSets of each connection, and report the ones
+   * that are still open when the connection is closed (see OpenCursors)?
+   */
+  static volatile boolean StatementLeakWarn;
 
   /**
    * Options to more finely control which types of SQL statements will be
@@ -175,25 +334,25 @@ public class DriverSpy implements Driver
    * If any one is set to false, then that particular type of SQL will not be
    * dumped.
    */
-  static boolean DumpSqlSelect;
-  static boolean DumpSqlInsert;
-  static boolean DumpSqlUpdate;
-  static boolean DumpSqlDelete;
-  static boolean DumpSqlCreate;
+  static volatile boolean DumpSqlSelect;
+  static volatile boolean DumpSqlInsert;
+  static volatile boolean DumpSqlUpdate;
+  static volatile boolean DumpSqlDelete;
+  static volatile boolean DumpSqlCreate;
 
   // only true if one ore more of the above 4 flags are false.
-  static boolean DumpSqlFilteringOn;
+  static volatile boolean DumpSqlFilteringOn;
 
   /**
    * If true, add a semilcolon to the end of each SQL dump.
    */
-  static boolean DumpSqlAddSemicolon;
+  static volatile boolean DumpSqlAddSemicolon;
 
   /**
    * If dumping in debug mode, dump the full stack trace. This will result in a
    * VERY voluminous output, but can be very useful under some circumstances.
    */
-  static boolean DumpFullDebugStackTrace;
+  static volatile boolean DumpFullDebugStackTrace;
 
   /**
    * Attempt to Automatically load a set of popular JDBC drivers?
@@ -203,21 +362,21 @@ public class DriverSpy implements Driver
   /**
    * Trim SQL before logging it?
    */
-  static boolean TrimSql;
+  static volatile boolean TrimSql;
 
   /**
    * Trim SQL line by line (for beginning of line, only trimming consistent
    * white space) If this option is selected, the TrimSql option will be
    * ignored.
    */
-  static boolean TrimSqlLines;
+  static volatile boolean TrimSqlLines;
 
   /**
    * Remove extra Lines in the SQL that consist of only white space? Only when 2
    * or more lines in a row like this occur, will the extra lines (beyond 1) be
    * removed.
    */
-  static boolean TrimExtraBlankLinesInSql;
+  static volatile boolean TrimExtraBlankLinesInSql;
 
   /**
    * Coldfusion typically calls PreparedStatement.getGeneratedKeys() after every
@@ -297,6 +456,42 @@ public class DriverSpy implements Driver
     return longPropValue;
   }
 
+  /**
+   * Get a millisecond time option from a property, converted to nanoseconds,
+   * and log a debug message about this.  The millisecond value may have a
+   * fractional part (e.g. 0.25) so that sub-millisecond times can be set.
+   *
+   * @param props Properties to get option from.
+   * @param propName property key.
+   *
+   * @return the value of that property key, converted from milliseconds to
+   *         nanoseconds. Or null if not defined or is invalid.
+   */
+  private static Long getMsecAsNanosOption(Properties props, String propName)
+  {
+    String propValue = props.getProperty(propName);
+    Long nanosPropValue = null;
+    if (propValue == null)
+    {
+      log.debug("x " + propName + " is not defined");
+    }
+    else
+    {
+      try
+      {
+        BigDecimal msec = new BigDecimal(propValue.trim());
+        nanosPropValue = Long.valueOf(msec.movePointRight(6).longValue());
+        log.debug("  " + propName + " = " + msec.toPlainString() + " msec");
+      }
+      catch (NumberFormatException n)
+      {
+        log.debug("x " + propName + " \"" + propValue +
+          "\" is not a valid number");
+      }
+    }
+    return nanosPropValue;
+  }
+
   /**
    * Get a String option from a property and log a debug message about this.
    *
@@ -374,18 +569,42 @@ public class DriverSpy implements Driver
     DebugStackPrefix = getStringOption(props, "log4jdbc.debug.stack.prefix");
     TraceFromApplication = DebugStackPrefix != null;
 
-    Long thresh = getLongOption(props, "log4jdbc.sqltiming.warn.threshold");
+    Long thresh = getMsecAsNanosOption(props,
+      "log4jdbc.sqltiming.warn.threshold");
     SqlTimingWarnThresholdEnabled = (thresh != null);
     if (SqlTimingWarnThresholdEnabled)
     {
-      SqlTimingWarnThresholdMsec = thresh.longValue();
+      SqlTimingWarnThresholdNanos = thresh.longValue();
     }
 
-    thresh = getLongOption(props, "log4jdbc.sqltiming.error.threshold");
+    thresh = getMsecAsNanosOption(props, "log4jdbc.sqltiming.error.threshold");
     SqlTimingErrorThresholdEnabled = (thresh != null);
     if (SqlTimingErrorThresholdEnabled)
     {
-      SqlTimingErrorThresholdMsec = thresh.longValue();
+      SqlTimingErrorThresholdNanos = thresh.longValue();
+    }
+
+    String unit = getStringOption(props, "log4jdbc.sqltiming.unit");
+    unit = unit == null ? "msec" : unit.trim().toLowerCase();
+    if ("usec".equals(unit) || "us".equals(unit) || "\u00b5s".equals(unit))
+    {
+      SqlTimingUnit = TimeUnit.MICROSECONDS;
+      SqlTimingUnitLabel = "usec";
+    }
+    else if ("nsec".equals(unit) || "ns".equals(unit))
+    {
+      SqlTimingUnit = TimeUnit.NANOSECONDS;
+      SqlTimingUnitLabel = "nsec";
+    }
+    else
+    {
+      if (!"msec".equals(unit) && !"ms".equals(unit))
+      {
+        log.debug("x log4jdbc.sqltiming.unit \"" + unit +
+          "\" is not a valid unit (using default of msec)");
+      }
+      SqlTimingUnit = TimeUnit.MILLISECONDS;
+      SqlTimingUnitLabel = "msec";
     }
 
     DumpBooleanAsTrueFalse = getBooleanOption(props,
@@ -394,12 +613,64 @@ public class DriverSpy implements Driver
     DumpSqlMaxLineLength = getLongOption(props,
       "log4jdbc.dump.sql.maxlinelength", 90L).intValue();
 
+    SqlTemplateCacheSize = getLongOption(props,
+      "log4jdbc.sql.template.cache.size", 1000L).intValue();
+
+    StatisticsEnabled = getBooleanOption(props, "log4jdbc.statistics", false);
+
+    StatisticsMaxSql = getLongOption(props,
+      "log4jdbc.statistics.max.sql", 1000L).intValue();
+
+    JmxEnabled = getBooleanOption(props, "log4jdbc.jmx", false);
+
+    Long port = getLongOption(props, "log4jdbc.prometheus.port");
+    PrometheusPort = port == null ? null : Integer.valueOf(port.intValue());
+    PrometheusHost = getStringOption(props, "log4jdbc.prometheus.host");
+    PrometheusTextfile = getStringOption(props, "log4jdbc.prometheus.textfile");
+    PrometheusTextfileInterval = getLongOption(props,
+      "log4jdbc.prometheus.textfile.interval", 15000L).longValue();
+    PrometheusTopSql = getLongOption(props, "log4jdbc.prometheus.top.sql",
+      20L).intValue();
+    if ((PrometheusPort != null || PrometheusTextfile != null) &&
+      !StatisticsEnabled)
+    {
+      log.debug("log4jdbc.statistics turned on for the Prometheus metrics");
+      StatisticsEnabled = true;
+    }
+
     DumpFullDebugStackTrace = getBooleanOption(props,
       "log4jdbc.dump.fulldebugstacktrace", false);
 
     StatementUsageWarn = getBooleanOption(props, "log4jdbc.statement.warn",
       false);
 
+    NPlusOneThreshold = getLongOption(props, "log4jdbc.nplusone.threshold",
+      0L).intValue();
+    NPlusOneWindowNanos = TimeUnit.MILLISECONDS.toNanos(getLongOption(props,
+      "log4jdbc.nplusone.window", 1000L).longValue());
+
+    DuplicateSqlWarn = getBooleanOption(props, "log4jdbc.duplicate.sql", false);
+
+    thresh = getMsecAsNanosOption(props, "log4jdbc.transaction.warn.threshold");
+    TransactionWarnThresholdEnabled = (thresh != null);
+    if (TransactionWarnThresholdEnabled)
+    {
+      TransactionWarnThresholdNanos = thresh.longValue();
+    }
+
+    thresh = getMsecAsNanosOption(props,
+      "log4jdbc.transaction.error.threshold");
+    TransactionErrorThresholdEnabled = (thresh != null);
+    if (TransactionErrorThresholdEnabled)
+    {
+      TransactionErrorThresholdNanos = thresh.longValue();
+    }
+
+    thresh = getMsecAsNanosOption(props, "log4jdbc.connection.leak.threshold");
+    ConnectionLeakThresholdNanos = thresh == null ? 0L : thresh.longValue();
+
+    StatementLeakWarn = getBooleanOption(props, "log4jdbc.statement.leak", false);
+
     DumpSqlSelect = getBooleanOption(props, "log4jdbc.dump.sql.select", true);
     DumpSqlInsert = getBooleanOption(props, "log4jdbc.dump.sql.insert", true);
     DumpSqlUpdate = getBooleanOption(props, "log4jdbc.dump.sql.update", true);
@@ -520,13 +791,43 @@ public class DriverSpy implements Driver
     rdbmsSpecifics.put("com.mysql.cj.jdbc.Driver", mySql);
     rdbmsSpecifics.put("org.mariadb.jdbc.Driver", mySql);
 
+    productRdbmsSpecifics = new HashMap<String, RdbmsSpecifics>();
+    productRdbmsSpecifics.put("Oracle", oracle);
+    productRdbmsSpecifics.put("Microsoft SQL Server", sqlServer);
+    productRdbmsSpecifics.put("MySQL", mySql);
+    productRdbmsSpecifics.put("MariaDB", mySql);
+
+    if (JmxEnabled)
+    {
+      Log4jdbcJmx.register();
+    }
+    if (PrometheusPort != null)
+    {
+      try
+      {
+        PrometheusExporter.startHttpServer(PrometheusHost,
+          PrometheusPort.intValue());
+      }
+      catch (IOException e)
+      {
+        log.debug("could not serve Prometheus metrics on port " +
+          PrometheusPort + ": " + e);
+      }
+    }
+    if (PrometheusTextfile != null)
+    {
+      PrometheusExporter.startTextfileWriter(PrometheusTextfile,
+        PrometheusTextfileInterval);
+    }
+
     log.debug("... log4jdbc initialized! ...");
   }
 
   static RdbmsSpecifics defaultRdbmsSpecifics = new RdbmsSpecifics();
 
   /**
-   * Get the RdbmsSpecifics object for a given Connection.
+   * Get the RdbmsSpecifics object for a given Connection, from the name of
+   * its driver or else the name of the database product it is connected to.
    *
    * @param conn JDBC connection to get RdbmsSpecifics for.
    * @return RdbmsSpecifics for the given connection.
@@ -534,19 +835,26 @@ public class DriverSpy implements Driver
   static RdbmsSpecifics getRdbmsSpecifics(Connection conn)
   {
     String driverName = "";
+    String productName = "";
     try
     {
       DatabaseMetaData dbm = conn.getMetaData();
       driverName = dbm.getDriverName();
+      productName = dbm.getDatabaseProductName();
     }
     catch (SQLException s)
     {
       // silently fail
     }
 
-    log.debug("driver name is " + driverName);
+    log.debug("driver name is " + driverName + ", database product name is " +
+      productName);
 
     RdbmsSpecifics r = (RdbmsSpecifics) rdbmsSpecifics.get(driverName);
+    if (r == null && productName != null)
+    {
+      r = (RdbmsSpecifics) productRdbmsSpecifics.get(productName);
+    }
 
     if (r == null)
     {
@@ -645,6 +953,15 @@ public class DriverSpy implements Driver
    * Given a <code>jdbc:log4</code> type URL, find the underlying real driver
    * that accepts the URL.
    *
+   * The driver found is cached by the URL, so after the first time the
+   * DriverManager's drivers aren't listed (a synchronized copy of the list,
+   * with a class loader check for each driver) and the other drivers aren't
+   * asked if they accept the URL.  The cached driver is only used if it still
+   * accepts the URL; otherwise all of the drivers are scanned again, as they
+   * are when the cached driver has been garbage collected.  A driver that is
+   * deregistered but still loaded stays in use for the URLs it was found for
+   * until clearUnderlyingDriverCache is called.
+   *
    * @param url JDBC connection URL.
    *
    * @return Underlying driver for the given URL. Null is returned if the URL is
@@ -659,15 +976,30 @@ public class DriverSpy implements Driver
     {
       url = url.substring(9);
 
-      Enumeration<Driver> e = DriverManager.getDrivers();
+      WeakReference<Driver> ref = underlyingDrivers.get(url);
+      Driver cached = ref == null ? null : ref.get();
+
+      if (cached != null)
+      {
+        if (cached.acceptsURL(url))
+        {
+          return cached;
+        }
+        underlyingDrivers.remove(url, ref);
+      }
 
-      Driver d;
+      Enumeration<Driver> e = DriverManager.getDrivers();
       while (e.hasMoreElements())
       {
-        d = (Driver) e.nextElement();
+        Driver d = (Driver) e.nextElement();
 
         if (d.acceptsURL(url))
         {
+          if (underlyingDrivers.size() >= MAX_UNDERLYING_DRIVERS)
+          {
+            underlyingDrivers.clear();
+          }
+          underlyingDrivers.put(url, new WeakReference<Driver>(d));
           return d;
         }
       }
@@ -675,6 +1007,17 @@ public class DriverSpy implements Driver
     return null;
   }
 
+  /**
+   * Forget the underlying drivers found for the URLs connected to so far, so
+   * that the next connection to each URL scans the drivers registered with the
+   * DriverManager again.  Call this after deregistering a driver that is
+   * still loaded, so that it's no longer used.
+   */
+  public static void clearUnderlyingDriverCache()
+  {
+    underlyingDrivers.clear();
+  }
+
   /**
    * Get a Connection to the database from the underlying driver that this
    * DriverSpy is spying on. If logging is not enabled, an actual Connection to
@@ -0,0 +1,177 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.util.Arrays;
+
+/**
+ * SQL as it is to be dumped to the log, with the bind variables merged into it.
+ *
+ * The bind variables are captured when the DumpedSql is created (so that it describes the SQL
+ * that actually executed, even if it's logged later) but they are only formatted and merged into
+ * the SQL the first time {@link #toString()} is called.  The result is remembered, so the merge
+ * happens at most once no matter how many loggers show the SQL, and not at all if none of them do.
+ *
+ * @author Arthur Blake
+ */
+public class DumpedSql
+{
+  private final String sql;
+
+  private final String[] bindValues;
+
+  private final BindValues rawBindValues;
+
+  private final RdbmsSpecifics rdbmsSpecifics;
+
+  /**
+   * The merged SQL, once it has been rendered.  This is a racy single check: if two threads render
+   * at the same time they both produce the same String and either one may be kept.
+   */
+  private String dumped;
+
+  /**
+   * The SqlTemplate for the SQL, once it has been looked up, so that the SQL is parsed at most once
+   * for both its statistics and its rendering even when it isn't in the cache.  Racy like dumped.
+   */
+  private SqlTemplate template;
+
+  /**
+   * Create a DumpedSql.
+   *
+   * @param sql        the SQL, with a ? for each bind variable.
+   * @param bindValues the bind variables, already formatted for the log, in order.  A null value
+   *                   (or a missing one) is shown as ?.
+   */
+  public DumpedSql(String sql, String[] bindValues)
+  {
+    this.sql = sql;
+    this.bindValues = bindValues;
+    this.rawBindValues = null;
+    this.rdbmsSpecifics = null;
+  }
+
+  /**
+   * Create a DumpedSql for bind variables that are still to be formatted.  They are only
+   * formatted (with the RdbmsSpecifics) when the DumpedSql is rendered.
+   *
+   * @param sql            the SQL, with a ? for each bind variable.
+   * @param bindValues     the bind variables, as they were set.  They must not be changed after
+   *                       this (use a snapshot.)
+   * @param rdbmsSpecifics formats the bind variables for the database in use.
+   */
+  DumpedSql(String sql, BindValues bindValues, RdbmsSpecifics rdbmsSpecifics)
+  {
+    this.sql = sql;
+    this.bindValues = null;
+    this.rawBindValues = bindValues;
+    this.rdbmsSpecifics = rdbmsSpecifics;
+  }
+
+  /**
+   * Get the SQL without the bind variables merged into it.  This is cheap, and can be used to
+   * decide whether the SQL should be logged at all before it is rendered.
+   *
+   * @return the SQL with a ? for each bind variable.
+   */
+  public String getSql()
+  {
+    return sql;
+  }
+
+  /**
+   * Get the template that statistics for this SQL are kept under (see SqlStatistics.)
+   *
+   * @return the fingerprint of the SQL.
+   */
+  String getTemplate()
+  {
+    return template().getFingerprint();
+  }
+
+  /**
+   * Get a hash of the bind variables, for telling whether the same SQL was run again with the same
+   * bind variables (see DuplicateSqlTracker.)
+   *
+   * @return a hash of the bind variables, or 0 if they can't be compared.
+   */
+  long getBindHash()
+  {
+    if (rawBindValues != null)
+    {
+      return rawBindValues.hash();
+    }
+    long h = bindValues == null ? 1L : Arrays.hashCode(bindValues);
+    return h == 0L ? 1L : h;
+  }
+
+  /**
+   * Check whether another DumpedSql has the same bind variables as this one (the hash of the bind
+   * variables can be the same for different values, so this is what tells them apart.)
+   *
+   * @param other the other DumpedSql.
+   * @return true if the bind variables are the same.
+   */
+  boolean sameBindValues(DumpedSql other)
+  {
+    if (rawBindValues != null || other.rawBindValues != null)
+    {
+      return rawBindValues != null && other.rawBindValues != null &&
+        rawBindValues.sameValues(other.rawBindValues);
+    }
+    return Arrays.equals(bindValues, other.bindValues);
+  }
+
+  /**
+   * Format the bind variables (if that wasn't already done) and merge them into the SQL, using the
+   * cached SqlTemplate for the SQL.  Called at most once (per thread racing to render it.)
+   *
+   * @return the SQL with the bind variables merged into it.
+   */
+  protected String dump()
+  {
+    String[] values = rawBindValues == null ? bindValues : rawBindValues.format(rdbmsSpecifics);
+    return template().render(values);
+  }
+
+  private SqlTemplate template()
+  {
+    SqlTemplate t = template;
+    if (t == null)
+    {
+      template = t = SqlTemplate.get(sql,
+        rdbmsSpecifics != null && rdbmsSpecifics.isBackslashEscapes());
+    }
+    return t;
+  }
+
+  /**
+   * Get the SQL with the bind variables merged into it, rendering it the first time this is
+   * called.
+   *
+   * @return the SQL with the bind variables merged into it.
+   */
+  public String toString()
+  {
+    String d = dumped;
+    if (d == null)
+    {
+      d = dump();
+      dumped = d;
+    }
+    return d;
+  }
+}
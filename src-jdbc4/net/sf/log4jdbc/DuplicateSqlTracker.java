@@ -0,0 +1,160 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps track of the SQL run in one transaction on one connection, to find SQL that is run more
+ * than once with exactly the same text and bind variables.  Running it again is a wasted round
+ * trip to the database that a cache in the application could have saved.
+ *
+ * Used by ConnectionSpy when the log4jdbc.duplicate.sql option is on.  SQL run with a plain
+ * Statement is compared by its text, and SQL run with a PreparedStatement by its text and its bind
+ * variables (which are hashed to find the SQL quickly, and then compared.)  Up to MAX_SQL distinct
+ * SQL statements are tracked in each transaction.
+ *
+ * @author Arthur Blake
+ */
+final class DuplicateSqlTracker
+{
+  /**
+   * Most distinct SQL statements tracked in one transaction.  Any more aren't tracked.
+   */
+  private static final int MAX_SQL = 1000;
+
+  private final Map<Key, Duplicate> executed = new HashMap<>();
+
+  /**
+   * Track one execution of some SQL.
+   *
+   * @param sql           the SQL that was run, as a String or a DumpedSql.
+   * @param execTimeNanos time the SQL took to run, in nanoseconds.
+   */
+  synchronized void executed(Object sql, long execTimeNanos)
+  {
+    Key key;
+    if (sql instanceof DumpedSql)
+    {
+      DumpedSql dumped = (DumpedSql) sql;
+      long bindHash = dumped.getBindHash();
+      if (bindHash == 0L)
+      {
+        return;
+      }
+      key = new Key(dumped.getSql(), dumped, bindHash);
+    }
+    else
+    {
+      key = new Key((String) sql, null, 0L);
+    }
+    Duplicate d = executed.get(key);
+    if (d != null)
+    {
+      d.count++;
+      d.wastedNanos += execTimeNanos;
+    }
+    else if (executed.size() < MAX_SQL)
+    {
+      executed.put(key, new Duplicate(sql));
+    }
+  }
+
+  /**
+   * End the transaction: get the SQL that was run more than once in it and start tracking again.
+   *
+   * @return the SQL that was run more than once since the transaction started, or null if there
+   *         wasn't any.
+   */
+  synchronized List<Duplicate> end()
+  {
+    List<Duplicate> duplicates = null;
+    for (Duplicate d : executed.values())
+    {
+      if (d.count > 1)
+      {
+        if (duplicates == null)
+        {
+          duplicates = new ArrayList<>();
+        }
+        duplicates.add(d);
+      }
+    }
+    executed.clear();
+    return duplicates;
+  }
+
+  /**
+   * SQL run in a transaction, and how many times it was run.
+   */
+  static final class Duplicate
+  {
+    /**
+     * The SQL, as a String or a DumpedSql, as it was run the first time.
+     */
+    final Object sql;
+
+    int count = 1;
+
+    /**
+     * Total time taken by all but the first run of the SQL, in nanoseconds.
+     */
+    long wastedNanos;
+
+    private Duplicate(Object sql)
+    {
+      this.sql = sql;
+    }
+  }
+
+  private static final class Key
+  {
+    private final String sql;
+
+    /**
+     * The SQL with its bind variables, for SQL from a PreparedStatement, or null.
+     */
+    private final DumpedSql bound;
+
+    private final long bindHash;
+
+    Key(String sql, DumpedSql bound, long bindHash)
+    {
+      this.sql = sql;
+      this.bound = bound;
+      this.bindHash = bindHash;
+    }
+
+    public boolean equals(Object o)
+    {
+      if (!(o instanceof Key))
+      {
+        return false;
+      }
+      Key k = (Key) o;
+      return bindHash == k.bindHash && sql.equals(k.sql) &&
+        (bound == null ? k.bound == null : k.bound != null && bound.sameBindValues(k.bound));
+    }
+
+    public int hashCode()
+    {
+      return sql.hashCode() * 31 + Long.hashCode(bindHash);
+    }
+  }
+}
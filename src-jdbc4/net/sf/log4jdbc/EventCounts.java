@@ -0,0 +1,313 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts of the events that the spies see, by category, whether or not the events are logged.
+ * These are always kept (each count is a LongAdder increment) and can be read through JMX (see
+ * Log4jdbcJmx) or scraped by Prometheus (see PrometheusExporter.)
+ *
+ * The time log4jdbc itself spends logging and recording each SQL statement is also added up here,
+ * but only while MeasureOverhead is on, since it takes two calls to System.nanoTime() each time.
+ *
+ * @author Arthur Blake
+ */
+final class EventCounts
+{
+  /**
+   * Connections opened.
+   */
+  static final LongAdder ConnectionsOpened = new LongAdder();
+
+  /**
+   * Connections closed.
+   */
+  static final LongAdder ConnectionsClosed = new LongAdder();
+
+  /**
+   * SQL statements (and batches) run successfully.
+   */
+  static final LongAdder SqlExecuted = new LongAdder();
+
+  /**
+   * SQL statements (and batches) that failed with an exception.
+   */
+  static final LongAdder SqlFailed = new LongAdder();
+
+  /**
+   * SQL that took longer than log4jdbc.sqltiming.warn.threshold (but not longer than
+   * log4jdbc.sqltiming.error.threshold) to run.
+   */
+  static final LongAdder SlowSqlWarnings = new LongAdder();
+
+  /**
+   * SQL that took longer than log4jdbc.sqltiming.error.threshold to run.
+   */
+  static final LongAdder SlowSqlErrors = new LongAdder();
+
+  /**
+   * Exceptions thrown by any JDBC method (including the SQL failures.)
+   */
+  static final LongAdder Exceptions = new LongAdder();
+
+  /**
+   * Suspected N+1 queries reported (see NPlusOneDetector.)
+   */
+  static final LongAdder NPlusOneSuspected = new LongAdder();
+
+  /**
+   * Runs of SQL that repeated an earlier run of the same SQL with the same bind variables in the
+   * same transaction (see DuplicateSqlTracker.)
+   */
+  static final LongAdder DuplicateSql = new LongAdder();
+
+  /**
+   * Transactions committed (see TransactionSummary.)
+   */
+  static final LongAdder TransactionsCommitted = new LongAdder();
+
+  /**
+   * Transactions rolled back.
+   */
+  static final LongAdder TransactionsRolledBack = new LongAdder();
+
+  /**
+   * Transactions still open when their connection was closed.
+   */
+  static final LongAdder TransactionsClosed = new LongAdder();
+
+  /**
+   * Transactions that took longer than log4jdbc.transaction.warn.threshold (but not longer than
+   * log4jdbc.transaction.error.threshold.)
+   */
+  static final LongAdder SlowTransactionWarnings = new LongAdder();
+
+  /**
+   * Transactions that took longer than log4jdbc.transaction.error.threshold.
+   */
+  static final LongAdder SlowTransactionErrors = new LongAdder();
+
+  /**
+   * Nanoseconds that transactions were open for, in total.
+   */
+  static final LongAdder TransactionNanos = new LongAdder();
+
+  /**
+   * Nanoseconds that transactions were open for without running a statement, in total.
+   */
+  static final LongAdder TransactionIdleNanos = new LongAdder();
+
+  /**
+   * Connections reported as held open for longer than log4jdbc.connection.leak.threshold (see
+   * ConnectionLeakDetector.)
+   */
+  static final LongAdder ConnectionLeaks = new LongAdder();
+
+  /**
+   * Connections that were garbage collected without being closed, while connection leak detection
+   * was on.
+   */
+  static final LongAdder ConnectionsCollected = new LongAdder();
+
+  /**
+   * Statements and ResultSets reported as still open when their connection was closed, or as held
+   * open for longer than log4jdbc.connection.leak.threshold (see OpenCursors.)
+   */
+  static final LongAdder StatementLeaks = new LongAdder();
+
+  /**
+   * Most SQLState classes that exceptions are counted by.  Exceptions with any other SQLState
+   * class after this many are counted under "other".
+   */
+  private static final int MAX_SQL_STATE_CLASSES = 100;
+
+  /**
+   * Exceptions thrown by any JDBC method, by SQLState class (the first 2 chars of the SQLState, or
+   * "none" if there isn't one.)
+   */
+  private static final ConcurrentMap<String, LongAdder> sqlStateErrors = new ConcurrentHashMap<>();
+
+  /**
+   * Add up the time spent in log4jdbc itself?
+   */
+  static volatile boolean MeasureOverhead;
+
+  /**
+   * Nanoseconds spent in log4jdbc itself logging and recording SQL, while MeasureOverhead is on.
+   */
+  static final LongAdder OverheadNanos = new LongAdder();
+
+  /**
+   * Count an exception thrown by a JDBC method.
+   *
+   * @param e the exception.
+   */
+  static void exception(SQLException e)
+  {
+    Exceptions.increment();
+    String state = e == null ? null : e.getSQLState();
+    String stateClass = state == null || state.length() < 2 ? "none" : state.substring(0, 2);
+    LongAdder count = sqlStateErrors.get(stateClass);
+    if (count == null)
+    {
+      if (sqlStateErrors.size() >= MAX_SQL_STATE_CLASSES)
+      {
+        stateClass = "other";
+      }
+      count = sqlStateErrors.computeIfAbsent(stateClass, c -> new LongAdder());
+    }
+    count.increment();
+  }
+
+  /**
+   * Get the number of exceptions thrown by each SQLState class.
+   *
+   * @return the count for each SQLState class, by class.
+   */
+  static Map<String, Long> getSqlStateErrors()
+  {
+    Map<String, Long> counts = new TreeMap<>();
+    for (Map.Entry<String, LongAdder> e : sqlStateErrors.entrySet())
+    {
+      counts.put(e.getKey(), Long.valueOf(e.getValue().sum()));
+    }
+    return counts;
+  }
+
+  /**
+   * Start timing some work done by log4jdbc itself.
+   *
+   * @return the time now, or 0 if MeasureOverhead is off.
+   */
+  static long overheadStart()
+  {
+    return MeasureOverhead ? System.nanoTime() : 0L;
+  }
+
+  /**
+   * Finish timing some work done by log4jdbc itself.
+   *
+   * @param start the time that overheadStart() returned.
+   */
+  static void overheadEnd(long start)
+  {
+    if (start != 0L)
+    {
+      OverheadNanos.add(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Count an execution of some SQL, and check it against the SQL timing thresholds the same way
+   * that the SQL timing logger does.
+   *
+   * @param execTimeNanos time the SQL took to run (or to fail), in nanoseconds.
+   * @param failed        true if the SQL failed with an exception.
+   */
+  static void sqlExecuted(long execTimeNanos, boolean failed)
+  {
+    if (failed)
+    {
+      SqlFailed.increment();
+      return;
+    }
+    SqlExecuted.increment();
+    if (DriverSpy.SqlTimingErrorThresholdEnabled &&
+      execTimeNanos >= DriverSpy.SqlTimingErrorThresholdNanos)
+    {
+      SlowSqlErrors.increment();
+    }
+    else if (DriverSpy.SqlTimingWarnThresholdEnabled &&
+      execTimeNanos >= DriverSpy.SqlTimingWarnThresholdNanos)
+    {
+      SlowSqlWarnings.increment();
+    }
+  }
+
+  /**
+   * Count a transaction that has ended, and check it against the transaction timing thresholds the
+   * same way that the SQL timing logger does.
+   *
+   * @param transaction the transaction.
+   */
+  static void transactionEnded(TransactionSummary transaction)
+  {
+    switch (transaction.getOutcome())
+    {
+      case COMMITTED:
+        TransactionsCommitted.increment();
+        break;
+      case ROLLED_BACK:
+        TransactionsRolledBack.increment();
+        break;
+      default:
+        TransactionsClosed.increment();
+        break;
+    }
+    long duration = transaction.getDurationNanos();
+    TransactionNanos.add(duration);
+    TransactionIdleNanos.add(transaction.getIdleTimeNanos());
+    if (DriverSpy.TransactionErrorThresholdEnabled &&
+      duration >= DriverSpy.TransactionErrorThresholdNanos)
+    {
+      SlowTransactionErrors.increment();
+    }
+    else if (DriverSpy.TransactionWarnThresholdEnabled &&
+      duration >= DriverSpy.TransactionWarnThresholdNanos)
+    {
+      SlowTransactionWarnings.increment();
+    }
+  }
+
+  /**
+   * Set all of the counts back to 0.
+   */
+  static void reset()
+  {
+    ConnectionsOpened.reset();
+    ConnectionsClosed.reset();
+    SqlExecuted.reset();
+    SqlFailed.reset();
+    SlowSqlWarnings.reset();
+    SlowSqlErrors.reset();
+    Exceptions.reset();
+    NPlusOneSuspected.reset();
+    DuplicateSql.reset();
+    TransactionsCommitted.reset();
+    TransactionsRolledBack.reset();
+    TransactionsClosed.reset();
+    SlowTransactionWarnings.reset();
+    SlowTransactionErrors.reset();
+    TransactionNanos.reset();
+    TransactionIdleNanos.reset();
+    ConnectionLeaks.reset();
+    ConnectionsCollected.reset();
+    StatementLeaks.reset();
+    sqlStateErrors.clear();
+    OverheadNanos.reset();
+  }
+
+  private EventCounts()
+  {
+  }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+/**
+ * How the rows of a ResultSet were fetched: the number of rows and the time spent inside the real
+ * ResultSet.next() fetching them, along with the time the SQL that produced the ResultSet took to
+ * execute.  The execution time alone often hides where a query really spends its time, since for
+ * many drivers most of the rows are only read from the database as next() is called.
+ *
+ * A ResultSetSpy reports one of these when its last row has been read or when it is closed,
+ * whichever comes first.  A FetchSummary is immutable.
+ *
+ * @author Arthur Blake
+ */
+public final class FetchSummary
+{
+  private final long execTimeNanos;
+  private final long rows;
+  private final long fetchTimeNanos;
+  private final long firstRowNanos;
+
+  FetchSummary(long execTimeNanos, long rows, long fetchTimeNanos, long firstRowNanos)
+  {
+    this.execTimeNanos = execTimeNanos;
+    this.rows = rows;
+    this.fetchTimeNanos = fetchTimeNanos;
+    this.firstRowNanos = firstRowNanos;
+  }
+
+  /**
+   * @return the time the SQL took to execute, in nanoseconds.
+   */
+  public long getExecTimeNanos()
+  {
+    return execTimeNanos;
+  }
+
+  /**
+   * @return the number of rows fetched.
+   */
+  public long getRows()
+  {
+    return rows;
+  }
+
+  /**
+   * @return the time spent inside ResultSet.next(), in nanoseconds.
+   */
+  public long getFetchTimeNanos()
+  {
+    return fetchTimeNanos;
+  }
+
+  /**
+   * @return the time from the start of the SQL execution to the first row being fetched (not
+   *         counting any time the application spent between calls), in nanoseconds, or -1 if no
+   *         rows were fetched.
+   */
+  public long getFirstRowNanos()
+  {
+    return firstRowNanos;
+  }
+
+  /**
+   * @return the time taken to execute the SQL and fetch the rows, in nanoseconds.
+   */
+  public long getTotalTimeNanos()
+  {
+    return execTimeNanos + fetchTimeNanos;
+  }
+
+  /**
+   * @return the number of rows fetched per second of fetch time, or 0 if no time was spent
+   *         fetching.
+   */
+  public long getRowsPerSecond()
+  {
+    return fetchTimeNanos <= 0 ? 0L : (long) (rows * 1.0e9 / fetchTimeNanos);
+  }
+
+  public String toString()
+  {
+    return "executed=" + execTimeNanos + "ns rows=" + rows + " fetch=" + fetchTimeNanos +
+      "ns rows/sec=" + getRowsPerSecond() + " firstRow=" + firstRowNanos + "ns";
+  }
+}
@@ -0,0 +1,360 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of SQL execution times, in nanoseconds, with log-linear buckets (in the style of
+ * HdrHistogram): times under 64ns each get their own bucket and every power of 2 above that is
+ * split into 32 equal buckets, so any time recorded is known to within 1/32 (about 3%) of its
+ * actual value.  Times up to 2^42 ns (about 73 minutes) are tracked; anything longer is counted in
+ * the last bucket.
+ *
+ * Recording a time is a single atomic increment of one bucket, so any number of threads can record
+ * at once without locking and without allocating anything.  The buckets take up about 10K.
+ *
+ * A histogram can be read as a whole (everything recorded since it was created) or by interval
+ * (everything recorded since the last interval was read, which resets on each read.)  Reading an
+ * interval doesn't disturb recording or the histogram as a whole, but each interval can only be
+ * read once: if more than one reader reads intervals from the same histogram, each only gets what
+ * was recorded since any of them last read it.
+ *
+ * Snapshots can be merged, including snapshots from different JVMs (see Snapshot.getCounts() and
+ * Snapshot.fromCounts()) since the bucket layout is always the same.
+ *
+ * @author Arthur Blake
+ */
+public final class LatencyHistogram
+{
+  /**
+   * Number of bits of precision kept for each time: each power of 2 is split into 2^SUB_BITS
+   * buckets.
+   */
+  private static final int SUB_BITS = 5;
+
+  private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+  /**
+   * Times below this each get their own bucket.
+   */
+  private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+
+  /**
+   * Highest power of 2 that times are tracked up to.
+   */
+  private static final int MAX_EXPONENT = 42;
+
+  /**
+   * Number of buckets.
+   */
+  static final int BUCKETS = (MAX_EXPONENT - SUB_BITS) * SUB_BUCKETS + SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  /**
+   * The counts as of the last time an interval was read, or null if one hasn't been read yet.
+   */
+  private long[] lastInterval;
+
+  /**
+   * Record a time.
+   *
+   * @param nanos time in nanoseconds.
+   */
+  public void record(long nanos)
+  {
+    counts.incrementAndGet(bucket(nanos));
+  }
+
+  /**
+   * Get a snapshot of everything recorded so far.
+   *
+   * @return snapshot of the histogram.
+   */
+  public Snapshot getSnapshot()
+  {
+    long[] c = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++)
+    {
+      c[i] = counts.get(i);
+    }
+    return new Snapshot(c);
+  }
+
+  /**
+   * Get a snapshot of everything recorded since the last time this was called (or since the
+   * histogram was created, the first time.)
+   *
+   * @return snapshot of the last interval.
+   */
+  public synchronized Snapshot getIntervalSnapshot()
+  {
+    if (lastInterval == null)
+    {
+      lastInterval = new long[BUCKETS];
+    }
+    long[] c = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++)
+    {
+      long now = counts.get(i);
+      c[i] = now - lastInterval[i];
+      lastInterval[i] = now;
+    }
+    return new Snapshot(c);
+  }
+
+  /**
+   * Get the bucket that a time goes in.
+   */
+  static int bucket(long nanos)
+  {
+    if (nanos < LINEAR_LIMIT)
+    {
+      return nanos < 0 ? 0 : (int) nanos;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+    if (exponent >= MAX_EXPONENT)
+    {
+      return BUCKETS - 1;
+    }
+    int shift = exponent - SUB_BITS;
+    return (shift << SUB_BITS) + (int) (nanos >>> shift);
+  }
+
+  /**
+   * Get the lowest time that goes in a bucket.
+   */
+  static long lowestValue(int bucket)
+  {
+    if (bucket < LINEAR_LIMIT)
+    {
+      return bucket;
+    }
+    int shift = (bucket >> SUB_BITS) - 1;
+    return (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+  }
+
+  /**
+   * Get the highest time that goes in a bucket.
+   */
+  static long highestValue(int bucket)
+  {
+    if (bucket < LINEAR_LIMIT)
+    {
+      return bucket;
+    }
+    return lowestValue(bucket + 1) - 1;
+  }
+
+  /**
+   * The counts in a LatencyHistogram at one point in time (or over one interval.)  A Snapshot is
+   * immutable.
+   */
+  public static final class Snapshot implements Serializable
+  {
+    private static final long serialVersionUID = 1L;
+
+    private final long[] counts;
+
+    private final long count;
+
+    private Snapshot(long[] counts)
+    {
+      this.counts = counts;
+      long n = 0;
+      for (long c : counts)
+      {
+        n += c;
+      }
+      this.count = n;
+    }
+
+    /**
+     * Make a snapshot from the counts of another snapshot (for example one taken in another JVM.)
+     *
+     * @param counts count for each bucket, as returned by getCounts().
+     * @return the snapshot.
+     * @throws IllegalArgumentException if there isn't exactly one count for each bucket.
+     */
+    public static Snapshot fromCounts(long[] counts)
+    {
+      if (counts.length != BUCKETS)
+      {
+        throw new IllegalArgumentException("expected " + BUCKETS + " counts but got " +
+          counts.length);
+      }
+      return new Snapshot(counts.clone());
+    }
+
+    /**
+     * @return the count for each bucket, for passing to fromCounts().
+     */
+    public long[] getCounts()
+    {
+      return counts.clone();
+    }
+
+    /**
+     * Merge this snapshot with another one.
+     *
+     * @param other snapshot to merge with this one.
+     * @return a new snapshot with the counts of both snapshots.
+     */
+    public Snapshot merge(Snapshot other)
+    {
+      long[] c = Arrays.copyOf(counts, BUCKETS);
+      for (int i = 0; i < BUCKETS; i++)
+      {
+        c[i] += other.counts[i];
+      }
+      return new Snapshot(c);
+    }
+
+    /**
+     * @return the number of times recorded.
+     */
+    public long getCount()
+    {
+      return count;
+    }
+
+    /**
+     * Get the time that a given percentage of the recorded times are at or below.  This is the
+     * highest time that is in the same bucket as the time at that percentile, so it may be up to
+     * about 3% higher than the time actually recorded.
+     *
+     * @param percentile percentile, from 0 to 100 (for example 99.9)
+     * @return the time at the percentile, in nanoseconds, or 0 if no times were recorded.
+     */
+    public long getValueAtPercentile(double percentile)
+    {
+      if (count == 0)
+      {
+        return 0L;
+      }
+      long rank = (long) Math.ceil(Math.min(Math.max(percentile, 0.0), 100.0) / 100.0 * count);
+      if (rank < 1)
+      {
+        rank = 1;
+      }
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++)
+      {
+        seen += counts[i];
+        if (seen >= rank)
+        {
+          return highestValue(i);
+        }
+      }
+      return highestValue(BUCKETS - 1);
+    }
+
+    /**
+     * @return the median time, in nanoseconds.
+     */
+    public long getP50()
+    {
+      return getValueAtPercentile(50.0);
+    }
+
+    /**
+     * @return the 90th percentile time, in nanoseconds.
+     */
+    public long getP90()
+    {
+      return getValueAtPercentile(90.0);
+    }
+
+    /**
+     * @return the 99th percentile time, in nanoseconds.
+     */
+    public long getP99()
+    {
+      return getValueAtPercentile(99.0);
+    }
+
+    /**
+     * @return the 99.9th percentile time, in nanoseconds.
+     */
+    public long getP999()
+    {
+      return getValueAtPercentile(99.9);
+    }
+
+    /**
+     * @return the highest time recorded (to within the width of its bucket), in nanoseconds.
+     */
+    public long getMax()
+    {
+      for (int i = BUCKETS - 1; i >= 0; i--)
+      {
+        if (counts[i] != 0)
+        {
+          return highestValue(i);
+        }
+      }
+      return 0L;
+    }
+
+    /**
+     * Get the number of times recorded that were at or below a given time.  Only whole buckets are
+     * counted, so times in the bucket that the given time falls in are left out unless that is
+     * the highest time in the bucket.
+     *
+     * @param nanos time in nanoseconds.
+     * @return the number of times recorded in buckets that end at or below the given time.
+     */
+    public long getCountAtOrBelow(long nanos)
+    {
+      long n = 0;
+      for (int i = 0; i < BUCKETS && highestValue(i) <= nanos; i++)
+      {
+        n += counts[i];
+      }
+      return n;
+    }
+
+    /**
+     * @return the average time recorded (taking each time as the middle of its bucket), in
+     *         nanoseconds.
+     */
+    public long getMean()
+    {
+      if (count == 0)
+      {
+        return 0L;
+      }
+      double total = 0.0;
+      for (int i = 0; i < BUCKETS; i++)
+      {
+        if (counts[i] != 0)
+        {
+          total += counts[i] * ((lowestValue(i) + highestValue(i)) / 2.0);
+        }
+      }
+      return (long) (total / count);
+    }
+
+    public String toString()
+    {
+      return "count=" + count + " p50=" + getP50() + "ns p90=" + getP90() + "ns p99=" +
+        getP99() + "ns p99.9=" + getP999() + "ns max=" + getMax() + "ns";
+    }
+  }
+}
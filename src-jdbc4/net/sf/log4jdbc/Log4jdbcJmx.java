@@ -0,0 +1,896 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * MBeans for looking at (and changing) what log4jdbc is doing at runtime, through jconsole, jcmd or
+ * any other JMX client.  They are registered with the platform MBean server when the log4jdbc.jmx
+ * option is on, or when register() is called.  There are four of them:
+ *
+ * <ul>
+ * <li>net.sf.log4jdbc:type=Connections - the open connections.</li>
+ * <li>net.sf.log4jdbc:type=Statistics - the SqlStatistics for each SQL statement, the latency
+ *     histogram for each open connection, the PoolStatistics for connections borrowed through a
+ *     DataSourceSpy, and the switch to turn them on and off.</li>
+ * <li>net.sf.log4jdbc:type=Settings - the SQL timing thresholds, the log4jdbc.dump.sql.* filters,
+ *     the log4jdbc.trim.sql* flags and the other options that affect what is logged, all of which
+ *     can be changed.</li>
+ * <li>net.sf.log4jdbc:type=Events - the number of connections opened and closed, SQL statements
+ *     run, failed and over the timing thresholds, exceptions thrown, suspected N+1 queries,
+ *     duplicate SQL in transactions, transactions committed, rolled back and over the transaction
+ *     timing thresholds, and leaked connections, Statements and ResultSets, whether logged or
+ *     not.</li>
+ * </ul>
+ *
+ * A change made through the Settings MBean takes effect right away for every connection, but is not
+ * saved anywhere: when the JVM is restarted the options are read from the properties again.
+ *
+ * @author Arthur Blake
+ */
+public final class Log4jdbcJmx
+{
+  private static final String DOMAIN = "net.sf.log4jdbc";
+
+  /**
+   * Register the log4jdbc MBeans with the platform MBean server, if they aren't registered
+   * already.  A failure is logged to the log4jdbc.debug logger.
+   */
+  public static synchronized void register()
+  {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    register(server, "Connections", new Connections(), ConnectionsMXBean.class);
+    register(server, "Statistics", new Statistics(), StatisticsMXBean.class);
+    register(server, "Settings", new Settings(), SettingsMXBean.class);
+    register(server, "Events", new Events(), EventsMXBean.class);
+  }
+
+  /**
+   * Unregister the log4jdbc MBeans from the platform MBean server, if they are registered.
+   */
+  public static synchronized void unregister()
+  {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    for (String type : new String[] {"Connections", "Statistics", "Settings", "Events"})
+    {
+      try
+      {
+        ObjectName name = objectName(type);
+        if (server.isRegistered(name))
+        {
+          server.unregisterMBean(name);
+        }
+      }
+      catch (JMException e)
+      {
+        DriverSpy.log.debug("could not unregister MBean " + type + ": " + e);
+      }
+    }
+  }
+
+  private static <T> void register(MBeanServer server, String type, T mbean, Class<T> iface)
+  {
+    try
+    {
+      ObjectName name = objectName(type);
+      if (!server.isRegistered(name))
+      {
+        server.registerMBean(new StandardMBean(mbean, iface, true), name);
+        DriverSpy.log.debug("registered MBean " + name);
+      }
+    }
+    catch (JMException e)
+    {
+      DriverSpy.log.debug("could not register MBean " + type + ": " + e);
+    }
+  }
+
+  private static ObjectName objectName(String type) throws JMException
+  {
+    return new ObjectName(DOMAIN + ":type=" + type);
+  }
+
+  private Log4jdbcJmx()
+  {
+  }
+
+  /**
+   * The connections that are open.
+   */
+  public interface ConnectionsMXBean
+  {
+    /**
+     * @return the number of connections that are open.
+     */
+    int getOpenConnectionCount();
+
+    /**
+     * @return the connection numbers of the connections that are open.
+     */
+    int[] getOpenConnectionNumbers();
+
+    /**
+     * @return the number of Statements and ResultSets that are open on each open connection, by
+     *         connection number (only tracked while the log4jdbc.statement.leak option is on.)
+     */
+    Map<Integer, Integer> getOpenCursorCounts();
+  }
+
+  /**
+   * The SqlStatistics.
+   */
+  public interface StatisticsMXBean
+  {
+    /**
+     * @return true if statistics are being kept (the log4jdbc.statistics option.)
+     */
+    boolean isEnabled();
+
+    /**
+     * @param enabled true to start keeping statistics, false to stop.
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * @return the statistics for each SQL statement, with the statements that have taken the most
+     *         time in total first.
+     */
+    String[] getStatistics();
+
+    /**
+     * @return the latency histogram for each open connection (opened while statistics were on.)
+     */
+    String[] getConnectionLatencies();
+
+    /**
+     * @return the histogram of the time taken to borrow connections from a DataSourceSpy.
+     */
+    String getBorrowLatency();
+
+    /**
+     * @return the number of times borrowing a connection from a DataSourceSpy failed.
+     */
+    long getBorrowFailures();
+
+    /**
+     * @return the histogram of the time borrowed connections were held before being closed.
+     */
+    String getHoldLatency();
+
+    /**
+     * @return the time borrowed connections were held for by the call sites that borrowed them,
+     *         with the call sites that held connections the longest in total first.
+     */
+    String[] getTopHolders();
+
+    /**
+     * Forget all the statistics kept so far.
+     */
+    void reset();
+  }
+
+  /**
+   * The options that affect what is logged.  Each one has the same meaning as the property of the
+   * same name (see the README.)
+   */
+  public interface SettingsMXBean
+  {
+    /**
+     * @return log4jdbc.sqltiming.warn.threshold in milliseconds, or -1 if there isn't one.
+     */
+    double getSqlTimingWarnThresholdMsec();
+
+    /**
+     * @param msec log4jdbc.sqltiming.warn.threshold in milliseconds, or a negative number to turn
+     *             it off.
+     */
+    void setSqlTimingWarnThresholdMsec(double msec);
+
+    /**
+     * @return log4jdbc.sqltiming.error.threshold in milliseconds, or -1 if there isn't one.
+     */
+    double getSqlTimingErrorThresholdMsec();
+
+    /**
+     * @param msec log4jdbc.sqltiming.error.threshold in milliseconds, or a negative number to turn
+     *             it off.
+     */
+    void setSqlTimingErrorThresholdMsec(double msec);
+
+    /**
+     * @return log4jdbc.transaction.warn.threshold in milliseconds, or -1 if there isn't one.
+     */
+    double getTransactionWarnThresholdMsec();
+
+    /**
+     * @param msec log4jdbc.transaction.warn.threshold in milliseconds, or a negative number to
+     *             turn it off.
+     */
+    void setTransactionWarnThresholdMsec(double msec);
+
+    /**
+     * @return log4jdbc.transaction.error.threshold in milliseconds, or -1 if there isn't one.
+     */
+    double getTransactionErrorThresholdMsec();
+
+    /**
+     * @param msec log4jdbc.transaction.error.threshold in milliseconds, or a negative number to
+     *             turn it off.
+     */
+    void setTransactionErrorThresholdMsec(double msec);
+
+    /**
+     * @return log4jdbc.connection.leak.threshold in milliseconds, or 0 if connection leak
+     *         detection is off.
+     */
+    double getConnectionLeakThresholdMsec();
+
+    /**
+     * @param msec log4jdbc.connection.leak.threshold in milliseconds, or 0 to turn connection leak
+     *             detection off.  Connections opened while it was off are watched too, but
+     *             without where they were opened from.
+     */
+    void setConnectionLeakThresholdMsec(double msec);
+
+    /**
+     * @return log4jdbc.sqltiming.unit (msec, usec or nsec.)
+     */
+    String getSqlTimingUnit();
+
+    boolean isDumpSqlSelect();
+
+    void setDumpSqlSelect(boolean dump);
+
+    boolean isDumpSqlInsert();
+
+    void setDumpSqlInsert(boolean dump);
+
+    boolean isDumpSqlUpdate();
+
+    void setDumpSqlUpdate(boolean dump);
+
+    boolean isDumpSqlDelete();
+
+    void setDumpSqlDelete(boolean dump);
+
+    boolean isDumpSqlCreate();
+
+    void setDumpSqlCreate(boolean dump);
+
+    int getDumpSqlMaxLineLength();
+
+    void setDumpSqlMaxLineLength(int length);
+
+    boolean isDumpSqlAddSemicolon();
+
+    void setDumpSqlAddSemicolon(boolean add);
+
+    boolean isDumpBooleanAsTrueFalse();
+
+    void setDumpBooleanAsTrueFalse(boolean trueFalse);
+
+    boolean isDumpFullDebugStackTrace();
+
+    void setDumpFullDebugStackTrace(boolean full);
+
+    boolean isTrimSql();
+
+    void setTrimSql(boolean trim);
+
+    boolean isTrimSqlLines();
+
+    void setTrimSqlLines(boolean trim);
+
+    boolean isTrimExtraBlankLinesInSql();
+
+    void setTrimExtraBlankLinesInSql(boolean trim);
+
+    boolean isStatementUsageWarn();
+
+    void setStatementUsageWarn(boolean warn);
+
+    /**
+     * @return log4jdbc.nplusone.threshold, or 0 if N+1 query detection is off.
+     */
+    int getNPlusOneThreshold();
+
+    /**
+     * @param threshold log4jdbc.nplusone.threshold, or 0 to turn N+1 query detection off.
+     */
+    void setNPlusOneThreshold(int threshold);
+
+    /**
+     * @return log4jdbc.nplusone.window in milliseconds.
+     */
+    long getNPlusOneWindowMsec();
+
+    void setNPlusOneWindowMsec(long msec);
+
+    boolean isDuplicateSqlWarn();
+
+    void setDuplicateSqlWarn(boolean warn);
+
+    /**
+     * @return log4jdbc.debug.stack.prefix, or null if there isn't one.
+     */
+    String getDebugStackPrefix();
+
+    /**
+     * @param prefix log4jdbc.debug.stack.prefix, or null (or an empty String) for none.
+     */
+    void setDebugStackPrefix(String prefix);
+  }
+
+  /**
+   * The EventCounts.
+   */
+  public interface EventsMXBean
+  {
+    long getConnectionsOpened();
+
+    long getConnectionsClosed();
+
+    long getSqlExecuted();
+
+    long getSqlFailed();
+
+    long getSlowSqlWarnings();
+
+    long getSlowSqlErrors();
+
+    long getExceptions();
+
+    long getNPlusOneSuspected();
+
+    long getDuplicateSql();
+
+    long getTransactionsCommitted();
+
+    long getTransactionsRolledBack();
+
+    long getTransactionsClosed();
+
+    long getSlowTransactionWarnings();
+
+    long getSlowTransactionErrors();
+
+    /**
+     * @return the total time that transactions were open for, in milliseconds.
+     */
+    double getTransactionMsec();
+
+    /**
+     * @return the total time that transactions were open for without running a statement, in
+     *         milliseconds.
+     */
+    double getTransactionIdleMsec();
+
+    long getConnectionLeaks();
+
+    long getConnectionsCollected();
+
+    long getStatementLeaks();
+
+    /**
+     * Set all of the counts back to 0.
+     */
+    void reset();
+  }
+
+  private static final class Connections implements ConnectionsMXBean
+  {
+    public int getOpenConnectionCount()
+    {
+      return ConnectionSpy.getOpenConnectionCount();
+    }
+
+    public int[] getOpenConnectionNumbers()
+    {
+      Integer[] numbers = ConnectionSpy.getOpenConnectionNumbers();
+      int[] result = new int[numbers.length];
+      for (int i = 0; i < numbers.length; i++)
+      {
+        result[i] = numbers[i].intValue();
+      }
+      return result;
+    }
+
+    public Map<Integer, Integer> getOpenCursorCounts()
+    {
+      Map<Integer, Integer> counts = new TreeMap<>();
+      for (OpenConnection open : ConnectionSpy.getOpenConnections())
+      {
+        if (open.cursors != null)
+        {
+          counts.put(open.connectionNumber, Integer.valueOf(open.cursors.size()));
+        }
+      }
+      return counts;
+    }
+  }
+
+  private static final class Statistics implements StatisticsMXBean
+  {
+    public boolean isEnabled()
+    {
+      return DriverSpy.StatisticsEnabled;
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+      DriverSpy.StatisticsEnabled = enabled;
+    }
+
+    public String[] getStatistics()
+    {
+      List<SqlStatistics.Snapshot> snapshots = SqlStatistics.getSnapshots();
+      String[] result = new String[snapshots.size()];
+      for (int i = 0; i < result.length; i++)
+      {
+        result[i] = snapshots.get(i).toString();
+      }
+      return result;
+    }
+
+    public String[] getConnectionLatencies()
+    {
+      Map<Integer, LatencyHistogram.Snapshot> latencies =
+        SqlStatistics.getConnectionLatencies(false);
+      String[] result = new String[latencies.size()];
+      int i = 0;
+      for (Map.Entry<Integer, LatencyHistogram.Snapshot> e : latencies.entrySet())
+      {
+        result[i++] = e.getKey() + ". " + e.getValue();
+      }
+      return result;
+    }
+
+    public String getBorrowLatency()
+    {
+      return PoolStatistics.getBorrowLatency(false).toString();
+    }
+
+    public long getBorrowFailures()
+    {
+      return PoolStatistics.getBorrowFailures();
+    }
+
+    public String getHoldLatency()
+    {
+      return PoolStatistics.getHoldLatency(false).toString();
+    }
+
+    public String[] getTopHolders()
+    {
+      List<PoolStatistics.Holder> holders = PoolStatistics.getTopHolders(Integer.MAX_VALUE);
+      String[] result = new String[holders.size()];
+      for (int i = 0; i < result.length; i++)
+      {
+        result[i] = holders.get(i).toString();
+      }
+      return result;
+    }
+
+    public void reset()
+    {
+      SqlStatistics.reset();
+      PoolStatistics.reset();
+    }
+  }
+
+  private static final class Settings implements SettingsMXBean
+  {
+    public double getSqlTimingWarnThresholdMsec()
+    {
+      return DriverSpy.SqlTimingWarnThresholdEnabled ?
+        DriverSpy.SqlTimingWarnThresholdNanos / 1000000.0 : -1.0;
+    }
+
+    public void setSqlTimingWarnThresholdMsec(double msec)
+    {
+      if (msec < 0)
+      {
+        DriverSpy.SqlTimingWarnThresholdEnabled = false;
+      }
+      else
+      {
+        DriverSpy.SqlTimingWarnThresholdNanos = (long) (msec * 1000000.0);
+        DriverSpy.SqlTimingWarnThresholdEnabled = true;
+      }
+    }
+
+    public double getSqlTimingErrorThresholdMsec()
+    {
+      return DriverSpy.SqlTimingErrorThresholdEnabled ?
+        DriverSpy.SqlTimingErrorThresholdNanos / 1000000.0 : -1.0;
+    }
+
+    public void setSqlTimingErrorThresholdMsec(double msec)
+    {
+      if (msec < 0)
+      {
+        DriverSpy.SqlTimingErrorThresholdEnabled = false;
+      }
+      else
+      {
+        DriverSpy.SqlTimingErrorThresholdNanos = (long) (msec * 1000000.0);
+        DriverSpy.SqlTimingErrorThresholdEnabled = true;
+      }
+    }
+
+    public double getTransactionWarnThresholdMsec()
+    {
+      return DriverSpy.TransactionWarnThresholdEnabled ?
+        DriverSpy.TransactionWarnThresholdNanos / 1000000.0 : -1.0;
+    }
+
+    public void setTransactionWarnThresholdMsec(double msec)
+    {
+      if (msec < 0)
+      {
+        DriverSpy.TransactionWarnThresholdEnabled = false;
+      }
+      else
+      {
+        DriverSpy.TransactionWarnThresholdNanos = (long) (msec * 1000000.0);
+        DriverSpy.TransactionWarnThresholdEnabled = true;
+      }
+    }
+
+    public double getTransactionErrorThresholdMsec()
+    {
+      return DriverSpy.TransactionErrorThresholdEnabled ?
+        DriverSpy.TransactionErrorThresholdNanos / 1000000.0 : -1.0;
+    }
+
+    public void setTransactionErrorThresholdMsec(double msec)
+    {
+      if (msec < 0)
+      {
+        DriverSpy.TransactionErrorThresholdEnabled = false;
+      }
+      else
+      {
+        DriverSpy.TransactionErrorThresholdNanos = (long) (msec * 1000000.0);
+        DriverSpy.TransactionErrorThresholdEnabled = true;
+      }
+    }
+
+    public double getConnectionLeakThresholdMsec()
+    {
+      return DriverSpy.ConnectionLeakThresholdNanos / 1000000.0;
+    }
+
+    public void setConnectionLeakThresholdMsec(double msec)
+    {
+      DriverSpy.ConnectionLeakThresholdNanos = (long) (Math.max(msec, 0.0) * 1000000.0);
+      ConnectionLeakDetector.thresholdChanged();
+    }
+
+    public String getSqlTimingUnit()
+    {
+      return DriverSpy.SqlTimingUnitLabel;
+    }
+
+    public boolean isDumpSqlSelect()
+    {
+      return DriverSpy.DumpSqlSelect;
+    }
+
+    public void setDumpSqlSelect(boolean dump)
+    {
+      DriverSpy.DumpSqlSelect = dump;
+      updateDumpSqlFiltering();
+    }
+
+    public boolean isDumpSqlInsert()
+    {
+      return DriverSpy.DumpSqlInsert;
+    }
+
+    public void setDumpSqlInsert(boolean dump)
+    {
+      DriverSpy.DumpSqlInsert = dump;
+      updateDumpSqlFiltering();
+    }
+
+    public boolean isDumpSqlUpdate()
+    {
+      return DriverSpy.DumpSqlUpdate;
+    }
+
+    public void setDumpSqlUpdate(boolean dump)
+    {
+      DriverSpy.DumpSqlUpdate = dump;
+      updateDumpSqlFiltering();
+    }
+
+    public boolean isDumpSqlDelete()
+    {
+      return DriverSpy.DumpSqlDelete;
+    }
+
+    public void setDumpSqlDelete(boolean dump)
+    {
+      DriverSpy.DumpSqlDelete = dump;
+      updateDumpSqlFiltering();
+    }
+
+    public boolean isDumpSqlCreate()
+    {
+      return DriverSpy.DumpSqlCreate;
+    }
+
+    public void setDumpSqlCreate(boolean dump)
+    {
+      DriverSpy.DumpSqlCreate = dump;
+      updateDumpSqlFiltering();
+    }
+
+    private static synchronized void updateDumpSqlFiltering()
+    {
+      DriverSpy.DumpSqlFilteringOn = !(DriverSpy.DumpSqlSelect && DriverSpy.DumpSqlInsert &&
+        DriverSpy.DumpSqlUpdate && DriverSpy.DumpSqlDelete && DriverSpy.DumpSqlCreate);
+    }
+
+    public int getDumpSqlMaxLineLength()
+    {
+      return DriverSpy.DumpSqlMaxLineLength;
+    }
+
+    public void setDumpSqlMaxLineLength(int length)
+    {
+      DriverSpy.DumpSqlMaxLineLength = length;
+    }
+
+    public boolean isDumpSqlAddSemicolon()
+    {
+      return DriverSpy.DumpSqlAddSemicolon;
+    }
+
+    public void setDumpSqlAddSemicolon(boolean add)
+    {
+      DriverSpy.DumpSqlAddSemicolon = add;
+    }
+
+    public boolean isDumpBooleanAsTrueFalse()
+    {
+      return DriverSpy.DumpBooleanAsTrueFalse;
+    }
+
+    public void setDumpBooleanAsTrueFalse(boolean trueFalse)
+    {
+      DriverSpy.DumpBooleanAsTrueFalse = trueFalse;
+    }
+
+    public boolean isDumpFullDebugStackTrace()
+    {
+      return DriverSpy.DumpFullDebugStackTrace;
+    }
+
+    public void setDumpFullDebugStackTrace(boolean full)
+    {
+      DriverSpy.DumpFullDebugStackTrace = full;
+    }
+
+    public boolean isTrimSql()
+    {
+      return DriverSpy.TrimSql;
+    }
+
+    public void setTrimSql(boolean trim)
+    {
+      DriverSpy.TrimSql = trim;
+    }
+
+    public boolean isTrimSqlLines()
+    {
+      return DriverSpy.TrimSqlLines;
+    }
+
+    public void setTrimSqlLines(boolean trim)
+    {
+      DriverSpy.TrimSqlLines = trim;
+    }
+
+    public boolean isTrimExtraBlankLinesInSql()
+    {
+      return DriverSpy.TrimExtraBlankLinesInSql;
+    }
+
+    public void setTrimExtraBlankLinesInSql(boolean trim)
+    {
+      DriverSpy.TrimExtraBlankLinesInSql = trim;
+    }
+
+    public boolean isStatementUsageWarn()
+    {
+      return DriverSpy.StatementUsageWarn;
+    }
+
+    public void setStatementUsageWarn(boolean warn)
+    {
+      DriverSpy.StatementUsageWarn = warn;
+    }
+
+    public int getNPlusOneThreshold()
+    {
+      return DriverSpy.NPlusOneThreshold;
+    }
+
+    public void setNPlusOneThreshold(int threshold)
+    {
+      DriverSpy.NPlusOneThreshold = Math.max(threshold, 0);
+    }
+
+    public long getNPlusOneWindowMsec()
+    {
+      return TimeUnit.NANOSECONDS.toMillis(DriverSpy.NPlusOneWindowNanos);
+    }
+
+    public void setNPlusOneWindowMsec(long msec)
+    {
+      DriverSpy.NPlusOneWindowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(msec, 0L));
+    }
+
+    public boolean isDuplicateSqlWarn()
+    {
+      return DriverSpy.DuplicateSqlWarn;
+    }
+
+    public void setDuplicateSqlWarn(boolean warn)
+    {
+      DriverSpy.DuplicateSqlWarn = warn;
+    }
+
+    public String getDebugStackPrefix()
+    {
+      return DriverSpy.DebugStackPrefix;
+    }
+
+    public void setDebugStackPrefix(String prefix)
+    {
+      if (prefix != null && prefix.length() == 0)
+      {
+        prefix = null;
+      }
+      // the flag is only ever true while there is a prefix to go with it
+      if (prefix == null)
+      {
+        DriverSpy.TraceFromApplication = false;
+        DriverSpy.DebugStackPrefix = null;
+      }
+      else
+      {
+        DriverSpy.DebugStackPrefix = prefix;
+        DriverSpy.TraceFromApplication = true;
+      }
+    }
+  }
+
+  private static final class Events implements EventsMXBean
+  {
+    public long getConnectionsOpened()
+    {
+      return EventCounts.ConnectionsOpened.sum();
+    }
+
+    public long getConnectionsClosed()
+    {
+      return EventCounts.ConnectionsClosed.sum();
+    }
+
+    public long getSqlExecuted()
+    {
+      return EventCounts.SqlExecuted.sum();
+    }
+
+    public long getSqlFailed()
+    {
+      return EventCounts.SqlFailed.sum();
+    }
+
+    public long getSlowSqlWarnings()
+    {
+      return EventCounts.SlowSqlWarnings.sum();
+    }
+
+    public long getSlowSqlErrors()
+    {
+      return EventCounts.SlowSqlErrors.sum();
+    }
+
+    public long getExceptions()
+    {
+      return EventCounts.Exceptions.sum();
+    }
+
+    public long getNPlusOneSuspected()
+    {
+      return EventCounts.NPlusOneSuspected.sum();
+    }
+
+    public long getDuplicateSql()
+    {
+      return EventCounts.DuplicateSql.sum();
+    }
+
+    public long getTransactionsCommitted()
+    {
+      return EventCounts.TransactionsCommitted.sum();
+    }
+
+    public long getTransactionsRolledBack()
+    {
+      return EventCounts.TransactionsRolledBack.sum();
+    }
+
+    public long getTransactionsClosed()
+    {
+      return EventCounts.TransactionsClosed.sum();
+    }
+
+    public long getSlowTransactionWarnings()
+    {
+      return EventCounts.SlowTransactionWarnings.sum();
+    }
+
+    public long getSlowTransactionErrors()
+    {
+      return EventCounts.SlowTransactionErrors.sum();
+    }
+
+    public double getTransactionMsec()
+    {
+      return EventCounts.TransactionNanos.sum() / 1000000.0;
+    }
+
+    public double getTransactionIdleMsec()
+    {
+      return EventCounts.TransactionIdleNanos.sum() / 1000000.0;
+    }
+
+    public long getConnectionLeaks()
+    {
+      return EventCounts.ConnectionLeaks.sum();
+    }
+
+    public long getConnectionsCollected()
+    {
+      return EventCounts.ConnectionsCollected.sum();
+    }
+
+    public long getStatementLeaks()
+    {
+      return EventCounts.StatementLeaks.sum();
+    }
+
+    public void reset()
+    {
+      EventCounts.reset();
+    }
+  }
+}
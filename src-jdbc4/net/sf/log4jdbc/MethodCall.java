@@ -0,0 +1,122 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+/**
+ * A deferred description of a method call made on a Spy: the name of the method plus the
+ * arguments it was called with.
+ *
+ * The familiar <code>methodName(arg1, arg2)</code> text is only built when {@link #toString()}
+ * is called, which a SpyLogDelegator should only do when it is actually going to log the call.
+ * The Spy classes go one step further and only create a MethodCall when the SpyLogDelegator
+ * reports that it will log the method return (or when an exception occurs) so that a spied
+ * upon call with logging turned off doesn't produce any garbage at all.
+ *
+ * @author Arthur Blake
+ */
+public final class MethodCall
+{
+  private static final Object[] NO_ARGS = new Object[0];
+
+  private final String methodName;
+
+  private final Object[] args;
+
+  /**
+   * Create a MethodCall for a method that takes no arguments.
+   *
+   * @param methodName name of the method that was called.
+   */
+  public MethodCall(String methodName)
+  {
+    this.methodName = methodName;
+    this.args = NO_ARGS;
+  }
+
+  /**
+   * Create a MethodCall for a method that was called with one or more arguments.
+   *
+   * @param methodName name of the method that was called.
+   * @param args arguments that were passed to the method.
+   */
+  public MethodCall(String methodName, Object... args)
+  {
+    this.methodName = methodName;
+    this.args = args == null ? NO_ARGS : args;
+  }
+
+  /**
+   * Get the name of the method that was called.  This is always the String constant used by the
+   * Spy, so it can also be used as an identifier for the method.
+   *
+   * @return the name of the method that was called.
+   */
+  public String getMethodName()
+  {
+    return methodName;
+  }
+
+  /**
+   * Get the number of arguments captured for the method call.
+   *
+   * @return the number of arguments.
+   */
+  public int getArgCount()
+  {
+    return args.length;
+  }
+
+  /**
+   * Get one of the arguments captured for the method call.
+   *
+   * @param i 0 based index of the argument to get.
+   * @return the argument that was passed to the method.
+   */
+  public Object getArg(int i)
+  {
+    return args[i];
+  }
+
+  /**
+   * Append the text description of this method call to a StringBuilder.
+   *
+   * @param out StringBuilder to append to.
+   * @return the same StringBuilder.
+   */
+  public StringBuilder appendTo(StringBuilder out)
+  {
+    out.append(methodName).append('(');
+    for (int i = 0; i < args.length; i++)
+    {
+      if (i > 0)
+      {
+        out.append(", ");
+      }
+      out.append(args[i]);
+    }
+    return out.append(')');
+  }
+
+  /**
+   * Render the method call in the form <code>methodName(arg1, arg2)</code>.
+   *
+   * @return a description of the name and call parameters of the method.
+   */
+  public String toString()
+  {
+    return appendTo(new StringBuilder(methodName.length() + 2 + 16 * args.length)).toString();
+  }
+}
@@ -15,7 +15,10 @@
  */
 package net.sf.log4jdbc;
 
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 
 /**
  * RDBMS specifics for the MySql db.
@@ -24,6 +27,12 @@ import java.text.SimpleDateFormat;
  */
 class MySqlRdbmsSpecifics extends RdbmsSpecifics
 {
+  private static final DateFormatter timeFormatter = new DateFormatter("HH:mm:ss");
+
+  private static final DateFormatter dateFormatter = new DateFormatter("yyyy-MM-dd");
+
+  private static final DateFormatter dateTimeFormatter = new DateFormatter("yyyy-MM-dd HH:mm:ss");
+
   MySqlRdbmsSpecifics()
   {
     super();
@@ -33,19 +42,30 @@ class MySqlRdbmsSpecifics extends RdbmsSpecifics
   {
     if (object instanceof java.sql.Time)
     {
-      return "'" + new SimpleDateFormat("HH:mm:ss").format(object) + "'";
+      return "'" + timeFormatter.format(object) + "'";
     }
-    else if (object instanceof java.sql.Date)
+    else if (object instanceof java.sql.Date || object instanceof LocalDate)
     {
-      return "'" + new SimpleDateFormat("yyyy-MM-dd").format(object) + "'";
+      return "'" + dateFormatter.format(object) + "'";
     }
-    else if (object instanceof java.util.Date)  // (includes java.sql.Timestamp)
+    else if (object instanceof java.util.Date ||  // (includes java.sql.Timestamp)
+      object instanceof LocalDateTime || object instanceof OffsetDateTime ||
+      object instanceof Instant)
     {
-      return "'" + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(object) + "'";
+      return "'" + dateTimeFormatter.format(object) + "'";
     }
     else
     {
       return super.formatParameterObject(object);
     }
   }
+
+  /**
+   * MySQL (unless it runs in NO_BACKSLASH_ESCAPES mode) treats a backslash in a string as an
+   * escape.
+   */
+  boolean isBackslashEscapes()
+  {
+    return true;
+  }
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+/**
+ * Spots the "N+1 queries" pattern, where the same SQL (with different literal values or bind
+ * variables each time) is run over and over again by one thread, typically once for each row of
+ * some earlier query, when it could have been run once.
+ *
+ * Each thread keeps a small window of the SqlFingerprints it has run recently, with a count of how
+ * many times each has run since the first time in the window.  When a fingerprint's count reaches
+ * log4jdbc.nplusone.threshold within log4jdbc.nplusone.window msec, it's reported (once, until the
+ * window runs out and the count starts over.)  The window holds the last SLOTS distinct
+ * fingerprints, so a loop that runs a few different queries for each row is caught too.
+ *
+ * Checking an execution is a scan of SLOTS entries and takes no locks and allocates nothing, so
+ * this can be left on all the time.
+ *
+ * @author Arthur Blake
+ */
+final class NPlusOneDetector
+{
+  /**
+   * Number of distinct fingerprints each thread keeps track of.
+   */
+  private static final int SLOTS = 8;
+
+  private static final ThreadLocal<NPlusOneDetector> detectors =
+    ThreadLocal.withInitial(NPlusOneDetector::new);
+
+  private final String[] fingerprints = new String[SLOTS];
+
+  private final int[] hashes = new int[SLOTS];
+
+  private final long[] windowStarts = new long[SLOTS];
+
+  private final int[] counts = new int[SLOTS];
+
+  private final boolean[] reported = new boolean[SLOTS];
+
+  /**
+   * Check one execution of some SQL on the current thread.
+   *
+   * @param fingerprint the SqlFingerprint of the SQL.
+   * @param now         System.nanoTime() when the SQL was run.
+   * @return the time from the first to the last execution in the window, in nanoseconds, if the
+   *         SQL has just been run log4jdbc.nplusone.threshold times in the window, or -1 if there
+   *         is nothing to report.
+   */
+  static long executed(String fingerprint, long now)
+  {
+    return detectors.get().check(fingerprint, now);
+  }
+
+  private long check(String fingerprint, long now)
+  {
+    int hash = fingerprint.hashCode();
+    int replace = 0;
+    for (int i = 0; i < SLOTS; i++)
+    {
+      if (hashes[i] == hash && fingerprint.equals(fingerprints[i]))
+      {
+        long elapsed = now - windowStarts[i];
+        if (elapsed > DriverSpy.NPlusOneWindowNanos)
+        {
+          start(i, now);
+        }
+        else if (++counts[i] >= DriverSpy.NPlusOneThreshold && !reported[i])
+        {
+          reported[i] = true;
+          return elapsed;
+        }
+        return -1L;
+      }
+
+      // replace an empty slot, or else the one whose window started longest ago
+      if (fingerprints[replace] != null &&
+        (fingerprints[i] == null || windowStarts[i] - windowStarts[replace] < 0))
+      {
+        replace = i;
+      }
+    }
+    fingerprints[replace] = fingerprint;
+    hashes[replace] = hash;
+    start(replace, now);
+    return -1L;
+  }
+
+  private void start(int i, long now)
+  {
+    windowStarts[i] = now;
+    counts[i] = 1;
+    reported[i] = false;
+  }
+
+  private NPlusOneDetector()
+  {
+  }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.lang.ref.Cleaner;
+
+/**
+ * An open connection, as ConnectionSpy keeps track of it: its number, when it was opened and
+ * (while connection leak detection is on) where it was opened from.  This doesn't refer to the
+ * ConnectionSpy itself, so that a ConnectionSpy that the application loses without closing it can
+ * still be garbage collected, and reported by the ConnectionLeakDetector when it is.
+ *
+ * @author Arthur Blake
+ */
+final class OpenConnection
+{
+  final Integer connectionNumber;
+
+  /**
+   * System.nanoTime() when the connection was opened.
+   */
+  final long openedNanos;
+
+  /**
+   * Where the connection was opened from, or null if connection leak detection was off.
+   */
+  final CallSite openedAt;
+
+  /**
+   * Where the connection was borrowed from a DataSourceSpy or PooledConnectionSpy, for
+   * PoolStatistics, or null if it didn't come from one or log4jdbc.statistics was off.
+   */
+  final CallSite borrowedAt;
+
+  /**
+   * The connection's Statements and ResultSets that are open, or null if the
+   * log4jdbc.statement.leak option was off when the connection was opened.
+   */
+  final OpenCursors cursors;
+
+  /**
+   * Set when the connection is closed (or reported as garbage collected without being closed.)
+   */
+  volatile boolean closed;
+
+  /**
+   * Set when the connection has been reported as held open for too long, so that it's only
+   * reported once.
+   */
+  volatile boolean leakReported;
+
+  /**
+   * Registration with the ConnectionLeakDetector's Cleaner, or null if there isn't one.
+   */
+  volatile Cleaner.Cleanable cleanable;
+
+  OpenConnection(Integer connectionNumber, CallSite openedAt, CallSite borrowedAt,
+    OpenCursors cursors)
+  {
+    this.connectionNumber = connectionNumber;
+    this.openedNanos = System.nanoTime();
+    this.openedAt = openedAt;
+    this.borrowedAt = borrowedAt;
+    this.cursors = cursors;
+  }
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The Statements and ResultSets of one connection that haven't been closed yet, each of which may
+ * be holding a cursor open on the database.  Kept for each connection while the
+ * log4jdbc.statement.leak option is on, so that the ones still open when the connection is closed
+ * (or returned to its pool) can be reported along with their SQL and where they were created.
+ *
+ * Each Cursor only refers to its StatementSpy or ResultSetSpy weakly, so one that the application
+ * loses without closing it can still be garbage collected.  The Cursors of those are dropped (and
+ * reported) the next time a Statement or ResultSet is opened or the leak detector sweeps the
+ * connection, so that a connection that stays open for a long time (under a pool) doesn't keep
+ * one for every Statement it ever lost.  Closing a Statement also closes its
+ * ResultSets, and a new ResultSet from a Statement replaces the one before it (as JDBC drivers
+ * close the old one.)
+ *
+ * @author Arthur Blake
+ */
+final class OpenCursors
+{
+  private final Set<Cursor> cursors = ConcurrentHashMap.newKeySet();
+
+  /**
+   * The Cursors whose StatementSpy or ResultSetSpy has been garbage collected.
+   */
+  private final ReferenceQueue<Spy> collected = new ReferenceQueue<>();
+
+  private final Integer connectionNumber;
+
+  /**
+   * @param connectionNumber the connection number of the connection, for reporting.
+   */
+  OpenCursors(Integer connectionNumber)
+  {
+    this.connectionNumber = connectionNumber;
+  }
+
+  /**
+   * Start tracking a Statement or ResultSet that has just been created.
+   *
+   * @param spy    the StatementSpy or ResultSetSpy.
+   * @param parent the Cursor of the Statement that created a ResultSet, or null for a Statement.
+   * @param sql    the SQL, as a String or a DumpedSql, or null if there isn't any yet.
+   * @return the Cursor.
+   */
+  Cursor opened(Spy spy, Cursor parent, Object sql)
+  {
+    expunge();
+    Cursor cursor = new Cursor(spy, parent, sql, collected);
+    cursors.add(cursor);
+    return cursor;
+  }
+
+  /**
+   * Stop tracking a Statement or ResultSet that has been closed, along with the ResultSets of a
+   * Statement.
+   *
+   * @param cursor the Cursor of the Statement or ResultSet.
+   */
+  void closed(Cursor cursor)
+  {
+    if (cursors.remove(cursor) && cursor.parent == null)
+    {
+      cursors.removeIf(c -> c.parent == cursor);
+    }
+  }
+
+  /**
+   * Stop tracking the Statements and ResultSets that were garbage collected without being closed,
+   * reporting each one that hasn't already been reported as held open for too long.
+   */
+  void expunge()
+  {
+    Reference<? extends Spy> ref;
+    while ((ref = collected.poll()) != null)
+    {
+      Cursor cursor = (Cursor) ref;
+      if (cursors.remove(cursor) && !cursor.leakReported)
+      {
+        cursor.leakReported = true;
+        EventCounts.StatementLeaks.increment();
+        SpyLogFactory.getSpyLogDelegator().statementLeakOccured(new StatementLeak(
+          connectionNumber, cursor, System.nanoTime() - cursor.openedNanos, false));
+      }
+    }
+  }
+
+  /**
+   * @return the number of Statements and ResultSets that are open.
+   */
+  int size()
+  {
+    return cursors.size();
+  }
+
+  /**
+   * @return the Statements and ResultSets that are open.
+   */
+  Iterable<Cursor> getCursors()
+  {
+    return cursors;
+  }
+
+  /**
+   * Stop tracking all of the Statements and ResultSets, when the connection is closed.
+   *
+   * @return the ones that were still open.
+   */
+  List<Cursor> closeAll()
+  {
+    List<Cursor> open = new ArrayList<>(cursors);
+    cursors.removeAll(open);
+    return open;
+  }
+
+  /**
+   * A Statement or ResultSet that may be holding a cursor open.
+   */
+  static final class Cursor extends WeakReference<Spy>
+  {
+    /**
+     * The kind of object: "Statement", "PreparedStatement", "CallableStatement" or "ResultSet".
+     */
+    final String type;
+
+    final Cursor parent;
+
+    final CallSite openedAt;
+
+    /**
+     * System.nanoTime() when the object was created.
+     */
+    final long openedNanos;
+
+    /**
+     * The SQL the object last ran (or was prepared with, or produced a ResultSet), as a String or
+     * a DumpedSql, or null if there isn't any yet.
+     */
+    volatile Object sql;
+
+    /**
+     * Set when the object has been reported as held open for too long, so that it's only reported
+     * once.
+     */
+    volatile boolean leakReported;
+
+    private Cursor(Spy spy, Cursor parent, Object sql, ReferenceQueue<Spy> collected)
+    {
+      super(spy, collected);
+      this.type = spy.getClassType();
+      this.parent = parent;
+      this.sql = sql;
+      this.openedAt = CallSite.capture();
+      this.openedNanos = System.nanoTime();
+    }
+  }
+}
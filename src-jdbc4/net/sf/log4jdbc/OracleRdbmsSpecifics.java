@@ -16,7 +16,10 @@
 package net.sf.log4jdbc;
 
 import java.sql.Timestamp;
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.util.Date;
 
 /**
@@ -26,6 +29,11 @@ import java.util.Date;
  */
 class OracleRdbmsSpecifics extends RdbmsSpecifics
 {
+  private static final DateFormatter timestampFormatter =
+    new DateFormatter("MM/dd/yyyy HH:mm:ss.SSS");
+
+  private static final DateFormatter dateFormatter = new DateFormatter("MM/dd/yyyy HH:mm:ss");
+
   OracleRdbmsSpecifics()
   {
     super();
@@ -33,15 +41,15 @@ class OracleRdbmsSpecifics extends RdbmsSpecifics
 
   String formatParameterObject(Object object)
   {
-    if (object instanceof Timestamp)
+    if (object instanceof Timestamp || object instanceof LocalDateTime ||
+      object instanceof OffsetDateTime || object instanceof Instant)
     {
-      return "to_timestamp('" + new SimpleDateFormat("MM/dd/yyyy HH:mm:ss.SSS").
-        format(object) + "', 'mm/dd/yyyy hh24:mi:ss.ff3')";
+      return "to_timestamp('" + timestampFormatter.format(object) +
+        "', 'mm/dd/yyyy hh24:mi:ss.ff3')";
     }
-    else if (object instanceof Date)
+    else if (object instanceof Date || object instanceof LocalDate)
     {
-      return "to_date('" + new SimpleDateFormat("MM/dd/yyyy HH:mm:ss").
-        format(object) + "', 'mm/dd/yyyy hh24:mi:ss')";
+      return "to_date('" + dateFormatter.format(object) + "', 'mm/dd/yyyy hh24:mi:ss')";
     }
     else
     {
@@ -0,0 +1,292 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In memory statistics for connections borrowed from a connection pool through a DataSourceSpy
+ * (or handed out by a PooledConnectionSpy), kept when the log4jdbc.statistics option is on.  These
+ * tell waiting for a free connection apart from waiting for the database: when SQL is fast but
+ * requests are slow, the time is usually going into getConnection() because the pool is starved,
+ * and the hold times show which parts of the application are keeping the connections.
+ *
+ * Two LatencyHistograms are kept:
+ *
+ * <ul>
+ * <li>the borrow time: how long DataSourceSpy.getConnection() took to get a connection from the
+ *     real DataSource, including any that failed (typically by timing out while waiting for one.)
+ *     A PooledConnectionSpy can't time this, since the pool does its waiting before it asks the
+ *     PooledConnection for a connection.</li>
+ * <li>the hold time: how long each connection was kept between being borrowed and being closed
+ *     (that is, given back to the pool.)  Connections that are never closed aren't counted.</li>
+ * </ul>
+ *
+ * The hold times are also added up by the call site in the application that borrowed the
+ * connection (see CallSite), so the top holders can be listed.  They're kept under the description
+ * of the call site rather than the CallSite itself, which holds on to its stack frame (and through
+ * it, the application's classes.)  Up to MAX_CALL_SITES call sites are kept, after which
+ * connections borrowed from anywhere else are counted under "(other)".  For a PooledConnectionSpy
+ * the call site is usually in the pool itself, unless the log4jdbc.debug.stack.prefix option is
+ * set.
+ *
+ * @author Arthur Blake
+ */
+public final class PoolStatistics
+{
+  /**
+   * Call site that hold times are counted under once the maximum number of call sites is reached.
+   */
+  public static final String OtherCallSite = "(other)";
+
+  /**
+   * Most distinct call sites that hold times are kept for.
+   */
+  private static final int MAX_CALL_SITES = 1000;
+
+  private static volatile LatencyHistogram borrowLatency = new LatencyHistogram();
+
+  private static volatile LatencyHistogram holdLatency = new LatencyHistogram();
+
+  private static final LongAdder borrowFailures = new LongAdder();
+
+  private static final LongAdder borrowNanos = new LongAdder();
+
+  private static final LongAdder holdNanos = new LongAdder();
+
+  private static final ConcurrentMap<String, PoolStatistics> holders = new ConcurrentHashMap<>();
+
+  private static volatile PoolStatistics otherHolders = new PoolStatistics(null);
+
+  /**
+   * Record the time taken to borrow a connection.
+   *
+   * @param nanos  time getConnection() took, in nanoseconds.
+   * @param failed true if getConnection() threw an exception.
+   */
+  static void borrowed(long nanos, boolean failed)
+  {
+    borrowLatency.record(nanos);
+    borrowNanos.add(nanos);
+    if (failed)
+    {
+      borrowFailures.increment();
+    }
+  }
+
+  /**
+   * Record the time a connection was held for, when it is closed.
+   *
+   * @param borrowedAt where the connection was borrowed.
+   * @param nanos      time from borrowing the connection to closing it, in nanoseconds.
+   */
+  static void held(CallSite borrowedAt, long nanos)
+  {
+    holdLatency.record(nanos);
+    holdNanos.add(nanos);
+    String callSite = borrowedAt.toString();
+    PoolStatistics stats = holders.get(callSite);
+    if (stats == null)
+    {
+      stats = holders.size() >= MAX_CALL_SITES ? otherHolders :
+        holders.computeIfAbsent(callSite, PoolStatistics::new);
+    }
+    stats.count.increment();
+    stats.totalNanos.add(nanos);
+    stats.maxNanos.accumulate(nanos);
+  }
+
+  /**
+   * Get a snapshot of the borrow time histogram.
+   *
+   * @param interval true to get only what was recorded since the last time intervals were read
+   *                 (see LatencyHistogram.getIntervalSnapshot()) or false to get everything.
+   * @return the borrow time histogram.
+   */
+  public static LatencyHistogram.Snapshot getBorrowLatency(boolean interval)
+  {
+    LatencyHistogram latency = borrowLatency;
+    return interval ? latency.getIntervalSnapshot() : latency.getSnapshot();
+  }
+
+  /**
+   * Get a snapshot of the hold time histogram.
+   *
+   * @param interval true to get only what was recorded since the last time intervals were read
+   *                 (see LatencyHistogram.getIntervalSnapshot()) or false to get everything.
+   * @return the hold time histogram.
+   */
+  public static LatencyHistogram.Snapshot getHoldLatency(boolean interval)
+  {
+    LatencyHistogram latency = holdLatency;
+    return interval ? latency.getIntervalSnapshot() : latency.getSnapshot();
+  }
+
+  /**
+   * @return the number of times getConnection() failed.
+   */
+  public static long getBorrowFailures()
+  {
+    return borrowFailures.sum();
+  }
+
+  /**
+   * @return the time spent in getConnection(), in total, in nanoseconds.
+   */
+  public static long getBorrowTimeNanos()
+  {
+    return borrowNanos.sum();
+  }
+
+  /**
+   * @return the time connections were held for, in total, in nanoseconds.
+   */
+  public static long getHoldTimeNanos()
+  {
+    return holdNanos.sum();
+  }
+
+  /**
+   * Get the call sites that have held connections for the most time in total.
+   *
+   * @param max the most call sites to get.
+   * @return the hold times for up to max call sites, with the one that held connections the
+   *         longest in total first.
+   */
+  public static List<Holder> getTopHolders(int max)
+  {
+    List<Holder> top = new ArrayList<>(holders.size() + 1);
+    for (PoolStatistics stats : holders.values())
+    {
+      top.add(stats.getHolder());
+    }
+    PoolStatistics other = otherHolders;
+    if (other.count.sum() > 0)
+    {
+      top.add(other.getHolder());
+    }
+    top.sort((a, b) -> Long.compare(b.getTotalNanos(), a.getTotalNanos()));
+    return top.size() > max ? new ArrayList<>(top.subList(0, Math.max(max, 0))) : top;
+  }
+
+  /**
+   * Forget all the statistics that have been kept so far.
+   */
+  public static void reset()
+  {
+    borrowLatency = new LatencyHistogram();
+    holdLatency = new LatencyHistogram();
+    borrowFailures.reset();
+    borrowNanos.reset();
+    holdNanos.reset();
+    holders.clear();
+    otherHolders = new PoolStatistics(null);
+  }
+
+  /**
+   * Where the connections were borrowed, or null for "(other)".
+   */
+  private final String callSite;
+
+  private final LongAdder count = new LongAdder();
+
+  private final LongAdder totalNanos = new LongAdder();
+
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+  private PoolStatistics(String callSite)
+  {
+    this.callSite = callSite;
+  }
+
+  private Holder getHolder()
+  {
+    return new Holder(callSite == null ? OtherCallSite : callSite, count.sum(),
+      totalNanos.sum(), maxNanos.get());
+  }
+
+  /**
+   * The hold times of the connections borrowed from one call site in the application, at one point
+   * in time.  A Holder is immutable.
+   */
+  public static final class Holder
+  {
+    private final String callSite;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    Holder(String callSite, long count, long totalNanos, long maxNanos)
+    {
+      this.callSite = callSite;
+      this.count = count;
+      this.totalNanos = totalNanos;
+      this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return where the connections were borrowed, in the form
+     *         <code>class.method(file:line)</code>, or "(other)".
+     */
+    public String getCallSite()
+    {
+      return callSite;
+    }
+
+    /**
+     * @return the number of connections borrowed from the call site and closed.
+     */
+    public long getCount()
+    {
+      return count;
+    }
+
+    /**
+     * @return the time the connections were held for, in total, in nanoseconds.
+     */
+    public long getTotalNanos()
+    {
+      return totalNanos;
+    }
+
+    /**
+     * @return the longest time one of the connections was held for, in nanoseconds.
+     */
+    public long getMaxNanos()
+    {
+      return maxNanos;
+    }
+
+    /**
+     * @return the average time the connections were held for, in nanoseconds.
+     */
+    public long getMeanNanos()
+    {
+      return count == 0 ? 0L : totalNanos / count;
+    }
+
+    public String toString()
+    {
+      return callSite + " count=" + count + " total=" + totalNanos + "ns mean=" +
+        getMeanNanos() + "ns max=" + maxNanos + "ns";
+    }
+  }
+}
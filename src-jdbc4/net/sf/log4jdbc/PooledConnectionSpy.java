@@ -0,0 +1,246 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.lang.ref.WeakReference;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.ConnectionEvent;
+import javax.sql.ConnectionEventListener;
+import javax.sql.PooledConnection;
+import javax.sql.StatementEvent;
+import javax.sql.StatementEventListener;
+
+/**
+ * Wraps a real PooledConnection, from a ConnectionPoolDataSourceSpy, so that the logical
+ * connections it hands out are logged.  Each one is wrapped in a ConnectionSpy (unless all the
+ * jdbc loggers are off.)
+ *
+ * The connection pool that owns the PooledConnection finds out when a logical connection is closed
+ * (or fails) through the ConnectionEventListeners it registers, and usually keys its bookkeeping
+ * by the event's source.  So each listener is registered with the real PooledConnection through a
+ * wrapper that re-issues the events with this PooledConnectionSpy as their source.  Statement
+ * events are re-issued with the PreparedStatementSpy that the pool was handed in place of the real
+ * PreparedStatement, so that a pool that caches statements can find them.
+ *
+ * While the log4jdbc.statistics option is on, the time each logical connection is held before it
+ * is closed is recorded in the PoolStatistics.
+ *
+ * @author Arthur Blake
+ */
+public class PooledConnectionSpy implements PooledConnection
+{
+  private final PooledConnection realPooledConnection;
+
+  /**
+   * RdbmsSpecifics for the connections from the real PooledConnection, found from the first one.
+   */
+  private volatile RdbmsSpecifics rdbmsSpecifics;
+
+  /**
+   * The wrappers registered with the real PooledConnection, by the listener they wrap.
+   */
+  private final Map<ConnectionEventListener, ConnectionEventListener> connectionEventListeners =
+    new ConcurrentHashMap<>();
+
+  /**
+   * The wrappers registered with the real PooledConnection, by the listener they wrap.
+   */
+  private final Map<StatementEventListener, StatementEventListener> statementEventListeners =
+    new ConcurrentHashMap<>();
+
+  /**
+   * The PreparedStatementSpy for each real PreparedStatement made on the logical connections.  The
+   * real statements are only held weakly, as are the spies, since a driver that pools statements
+   * may keep a real statement open long after the spy for it has gone.
+   */
+  private final Map<PreparedStatement, WeakReference<PreparedStatementSpy>> statementSpies =
+    Collections.synchronizedMap(new WeakHashMap<>());
+
+  /**
+   * Create a PooledConnectionSpy that logs the connections from a real PooledConnection.
+   *
+   * @param realPooledConnection the real PooledConnection to wrap.
+   */
+  public PooledConnectionSpy(PooledConnection realPooledConnection)
+  {
+    if (realPooledConnection == null)
+    {
+      throw new IllegalArgumentException("Must pass in a non null real PooledConnection");
+    }
+    this.realPooledConnection = realPooledConnection;
+  }
+
+  /**
+   * Get the real PooledConnection that this PooledConnectionSpy wraps.
+   *
+   * @return the real PooledConnection that this PooledConnectionSpy wraps.
+   */
+  public PooledConnection getRealPooledConnection()
+  {
+    return realPooledConnection;
+  }
+
+  public Connection getConnection() throws SQLException
+  {
+    Connection c = realPooledConnection.getConnection();
+    if (c == null || !DriverSpy.log.isJdbcLoggingEnabled())
+    {
+      return c;
+    }
+    RdbmsSpecifics r = rdbmsSpecifics;
+    if (r == null)
+    {
+      r = DriverSpy.getRdbmsSpecifics(c);
+      rdbmsSpecifics = r;
+    }
+    return new ConnectionSpy(c, r, true, this);
+  }
+
+  /**
+   * Remember the PreparedStatementSpy (or CallableStatementSpy) for a real PreparedStatement made
+   * on one of the logical connections, to pass on with its statement events.
+   *
+   * @param statement the real PreparedStatement.
+   * @param spy       the PreparedStatementSpy that wraps it.
+   */
+  void statementOpened(PreparedStatement statement, PreparedStatementSpy spy)
+  {
+    statementSpies.put(statement, new WeakReference<>(spy));
+  }
+
+  /**
+   * Get the PreparedStatementSpy for a real PreparedStatement from a statement event.
+   *
+   * @param statement the real PreparedStatement.
+   * @return the PreparedStatementSpy that wraps it, or the statement itself if there isn't one.
+   */
+  private PreparedStatement getStatementSpy(PreparedStatement statement)
+  {
+    WeakReference<PreparedStatementSpy> ref =
+      statement == null ? null : statementSpies.get(statement);
+    PreparedStatementSpy spy = ref == null ? null : ref.get();
+    return spy == null ? statement : spy;
+  }
+
+  public void close() throws SQLException
+  {
+    realPooledConnection.close();
+  }
+
+  public void addConnectionEventListener(ConnectionEventListener listener)
+  {
+    if (listener == null)
+    {
+      return;
+    }
+    ConnectionEventListener wrapper = new ConnectionEventListenerSpy(listener);
+    if (connectionEventListeners.putIfAbsent(listener, wrapper) == null)
+    {
+      realPooledConnection.addConnectionEventListener(wrapper);
+    }
+  }
+
+  public void removeConnectionEventListener(ConnectionEventListener listener)
+  {
+    ConnectionEventListener wrapper =
+      listener == null ? null : connectionEventListeners.remove(listener);
+    if (wrapper != null)
+    {
+      realPooledConnection.removeConnectionEventListener(wrapper);
+    }
+  }
+
+  public void addStatementEventListener(StatementEventListener listener)
+  {
+    if (listener == null)
+    {
+      return;
+    }
+    StatementEventListener wrapper = new StatementEventListenerSpy(listener);
+    if (statementEventListeners.putIfAbsent(listener, wrapper) == null)
+    {
+      realPooledConnection.addStatementEventListener(wrapper);
+    }
+  }
+
+  public void removeStatementEventListener(StatementEventListener listener)
+  {
+    StatementEventListener wrapper =
+      listener == null ? null : statementEventListeners.remove(listener);
+    if (wrapper != null)
+    {
+      realPooledConnection.removeStatementEventListener(wrapper);
+    }
+  }
+
+  /**
+   * Passes connection events on to a listener with this PooledConnectionSpy as their source.
+   */
+  private final class ConnectionEventListenerSpy implements ConnectionEventListener
+  {
+    private final ConnectionEventListener listener;
+
+    ConnectionEventListenerSpy(ConnectionEventListener listener)
+    {
+      this.listener = listener;
+    }
+
+    public void connectionClosed(ConnectionEvent event)
+    {
+      listener.connectionClosed(
+        new ConnectionEvent(PooledConnectionSpy.this, event.getSQLException()));
+    }
+
+    public void connectionErrorOccurred(ConnectionEvent event)
+    {
+      listener.connectionErrorOccurred(
+        new ConnectionEvent(PooledConnectionSpy.this, event.getSQLException()));
+    }
+  }
+
+  /**
+   * Passes statement events on to a listener with this PooledConnectionSpy as their source and the
+   * PreparedStatementSpy as their statement.
+   */
+  private final class StatementEventListenerSpy implements StatementEventListener
+  {
+    private final StatementEventListener listener;
+
+    StatementEventListenerSpy(StatementEventListener listener)
+    {
+      this.listener = listener;
+    }
+
+    public void statementClosed(StatementEvent event)
+    {
+      listener.statementClosed(new StatementEvent(PooledConnectionSpy.this,
+        getStatementSpy(event.getStatement()), event.getSQLException()));
+    }
+
+    public void statementErrorOccurred(StatementEvent event)
+    {
+      listener.statementErrorOccurred(new StatementEvent(PooledConnectionSpy.this,
+        getStatementSpy(event.getStatement()), event.getSQLException()));
+    }
+  }
+}
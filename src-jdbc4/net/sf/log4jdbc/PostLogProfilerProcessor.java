@@ -18,9 +18,13 @@ package net.sf.log4jdbc;
 import java.io.FileReader;
 import java.io.LineNumberReader;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.LinkedList;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Post processes an existing sqltiming log, and creates a profiling report from it.
@@ -30,7 +34,14 @@ import java.util.Arrays;
  *
  * 1. Each sql statement in the log is separated by a blank line.
  * 2. Each sql statement is terminated with the timing string "{executed in N msec}" where N is the number of
- *    milliseconds that the sql executed in.
+ *    milliseconds that the sql executed in.  (Timing logged in usec or nsec with the log4jdbc.sqltiming.unit
+ *    option is also understood, and is converted to milliseconds.)
+ * 3. Sql logged again with the rows fetched from its ResultSet ("{executed in N msec, fetched ...}")
+ *    is skipped, since it was already counted when it executed.
+ *
+ * Besides the slowest individual statements, the report shows the statements grouped by their
+ * SqlFingerprint, so that the same SQL run over and over with different literal values in it is
+ * totalled up together.
  *
  */
 public class PostLogProfilerProcessor
@@ -89,11 +100,21 @@ public class PostLogProfilerProcessor
    */
   private long topOffenderCount = 1000L;
 
+  /**
+   * How many top sql fingerprints (by total msec) to display in final report
+   */
+  private long topFingerprintCount = 100L;
+
   /**
    * Collection of all sql that took longer than "threshold" msec to run.
    */
   private List<ProfiledSql> flaggedSql = new LinkedList<>();
 
+  /**
+   * All sql, grouped by the 64 bit hash of its SqlFingerprint.
+   */
+  private Map<Long, ProfiledFingerprint> fingerprints = new HashMap<>();
+
   /**
    * Process given filename, and produce sql profiling report to given PrintStream.
    *
@@ -183,6 +204,31 @@ public class PostLogProfilerProcessor
         out.println(Utilities.rightJustify(execTimeSize,""+p.getExecTime()) + " " + p.getSql());
       }
     }
+
+    if (!fingerprints.isEmpty())
+    {
+      List<ProfiledFingerprint> grouped = new ArrayList<>(fingerprints.values());
+      grouped.sort(null);
+
+      int groupCount = (int) Math.min(topFingerprintCount, grouped.size());
+      int totalSize = ("" + grouped.get(0).getTotalMsec()).length();
+      long maxCount = 0L;
+      for (ProfiledFingerprint g : grouped)
+      {
+        maxCount = Math.max(maxCount, g.getCount());
+      }
+      int countSize = ("" + maxCount).length();
+
+      out.println("Distinct sql fingerprints:  " + grouped.size());
+      out.println("top " + groupCount + " sql fingerprint" + (groupCount==1?"":"s") +
+        " by total msec (total msec, count, fingerprint):");
+      for (int i=0; i < groupCount; i++)
+      {
+        ProfiledFingerprint g = grouped.get(i);
+        out.println(Utilities.rightJustify(totalSize,""+g.getTotalMsec()) + " " +
+          Utilities.rightJustify(countSize,""+g.getCount()) + " " + g.getFingerprint());
+      }
+    }
   }
 
 
@@ -190,9 +236,29 @@ public class PostLogProfilerProcessor
   {
     if (sql.length()>0)
     {
-      totalSql++;
       String sqlStr = sql.toString();
+
+      // a ResultSet fetch summary for sql that was already counted when it executed
+      int timing = sqlStr.lastIndexOf("{executed in ");
+      if (timing != -1 && sqlStr.indexOf(", fetched ", timing) != -1)
+      {
+        return;
+      }
+      totalSql++;
+      TimeUnit unit = null;
       if (sqlStr.endsWith("msec}"))
+      {
+        unit = TimeUnit.MILLISECONDS;
+      }
+      else if (sqlStr.endsWith("usec}"))
+      {
+        unit = TimeUnit.MICROSECONDS;
+      }
+      else if (sqlStr.endsWith("nsec}"))
+      {
+        unit = TimeUnit.NANOSECONDS;
+      }
+      if (unit != null)
       {
         int executedIn = sqlStr.indexOf("{executed in ");
         if (executedIn == -1)
@@ -203,7 +269,7 @@ public class PostLogProfilerProcessor
 
         //todo: proper error handling for parse
         String msecStr = sqlStr.substring(executedIn+13, sqlStr.length()-6);
-        long msec = Long.parseLong(msecStr);
+        long msec = unit.toMillis(Long.parseLong(msecStr));
         totalMsec +=msec;
         if (msec > maxMsec)
         {
@@ -215,6 +281,8 @@ public class PostLogProfilerProcessor
           flagSql(msec,sqlStr);
           flaggedSqlTotalMsec += msec;
         }
+
+        groupSql(msec, sqlStr.substring(0, executedIn));
       }
       else
       {
@@ -228,6 +296,33 @@ public class PostLogProfilerProcessor
     flaggedSql.add(new ProfiledSql(msec,sql));
   }
 
+  /**
+   * Add sql to the group for its fingerprint.  The fingerprint text is only kept for the first sql
+   * seen in each group.
+   */
+  private void groupSql(long msec, String sql)
+  {
+    // skip the connection number that the sql is logged with
+    int i = 0;
+    while (i < sql.length() && Character.isDigit(sql.charAt(i)))
+    {
+      i++;
+    }
+    if (i > 0 && sql.startsWith(". ", i))
+    {
+      sql = sql.substring(i + 2);
+    }
+
+    Long hash = Long.valueOf(SqlFingerprint.hash(sql));
+    ProfiledFingerprint group = fingerprints.get(hash);
+    if (group == null)
+    {
+      group = new ProfiledFingerprint(SqlFingerprint.fingerprint(sql));
+      fingerprints.put(hash, group);
+    }
+    group.add(msec);
+  }
+
   private class ProfiledSql implements Comparable
   {
     private Long execTime;
@@ -264,4 +359,43 @@ public class PostLogProfilerProcessor
       return this.execTime + " msec:  " + this.sql;
     }
   }
+
+  private static class ProfiledFingerprint implements Comparable<ProfiledFingerprint>
+  {
+    private final String fingerprint;
+    private long count;
+    private long totalMsec;
+
+    public ProfiledFingerprint(String fingerprint)
+    {
+      this.fingerprint = fingerprint;
+    }
+
+    public void add(long msec)
+    {
+      count++;
+      totalMsec += msec;
+    }
+
+    /**
+     * Sorts fingerprints in descending order of total msec, then of count.
+     */
+    public int compareTo(ProfiledFingerprint o)
+    {
+      int c = Long.compare(o.totalMsec, totalMsec);
+      return c != 0 ? c : Long.compare(o.count, count);
+    }
+
+    public String getFingerprint() {
+      return fingerprint;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getTotalMsec() {
+      return totalMsec;
+    }
+  }
 }
@@ -35,9 +35,7 @@ import java.sql.SQLXML;
 import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.List;
 
 /**
  * Wraps a PreparedStatement and reports method calls, returns and exceptions.
@@ -48,9 +46,9 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 {
 
   /**
-   * holds list of bind variables for tracing
+   * holds the bind variables for tracing, as they were set, to be formatted only if they are dumped
    */
-  protected final List<String> argTrace = new ArrayList<>();
+  protected final BindValues argTrace = new BindValues();
 
   // a way to turn on and off type help...
   // todo:  make this a configurable parameter
@@ -58,93 +56,150 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
   private static final boolean showTypeHelp = false;
 
   /**
-   * Store an argument (bind variable) into the argTrace list (above) for later dumping.
+   * Store an argument (bind variable) into the argTrace (above) for later dumping.
    *
    * @param i          index of argument being set.
    * @param typeHelper optional additional info about the type that is being set in the arg
    * @param arg        argument being bound.
    */
-  @SuppressWarnings({"unused"})
   protected void argTraceSet(int i, String typeHelper, Object arg)
   {
-    String tracedArg;
-    try
-    {
-      tracedArg = rdbmsSpecifics.formatParameterObject(arg);
-    }
-    catch (Throwable t)
-    {
-      // rdbmsSpecifics should NEVER EVER throw an exception!!
-      // but just in case it does, we trap it.
-      log.debug("rdbmsSpecifics threw an exception while trying to format a " +
-        "parameter object [" + arg + "] this is very bad!!! (" +
-        t.getMessage() + ")");
+    argTrace.setObject(i, showTypeHelp ? typeHelper : null, arg);
+  }
 
-      // backup - so that at least we won't harm the application using us
-      tracedArg = arg==null?"null":arg.toString();
-    }
+  /**
+   * Store an int argument (bind variable) into the argTrace (above) for later dumping, without
+   * boxing it.
+   *
+   * @param i          index of argument being set.
+   * @param typeHelper optional additional info about the type that is being set in the arg
+   * @param arg        argument being bound.
+   */
+  protected void argTraceSet(int i, String typeHelper, int arg)
+  {
+    argTrace.setInt(i, showTypeHelp ? typeHelper : null, arg);
+  }
 
-    i--;  // make the index 0 based
-    synchronized (argTrace)
-    {
-      // if an object is being inserted out of sequence, fill up missing values with null...
-      while (i >= argTrace.size())
-      {
-        argTrace.add(argTrace.size(), null);
-      }
-      if (!showTypeHelp || typeHelper == null)
-      {
-        argTrace.set(i, tracedArg);
-      }
-      else
-      {
-        argTrace.set(i, typeHelper + tracedArg);
-      }
-    }
+  /**
+   * Store a long argument (bind variable) into the argTrace (above) for later dumping, without
+   * boxing it.
+   *
+   * @param i          index of argument being set.
+   * @param typeHelper optional additional info about the type that is being set in the arg
+   * @param arg        argument being bound.
+   */
+  protected void argTraceSet(int i, String typeHelper, long arg)
+  {
+    argTrace.setLong(i, showTypeHelp ? typeHelper : null, arg);
   }
 
-  private String sql;
+  /**
+   * Store a float argument (bind variable) into the argTrace (above) for later dumping, without
+   * boxing it.
+   *
+   * @param i          index of argument being set.
+   * @param typeHelper optional additional info about the type that is being set in the arg
+   * @param arg        argument being bound.
+   */
+  protected void argTraceSet(int i, String typeHelper, float arg)
+  {
+    argTrace.setFloat(i, showTypeHelp ? typeHelper : null, arg);
+  }
 
-  protected String dumpedSql()
+  /**
+   * Store a double argument (bind variable) into the argTrace (above) for later dumping, without
+   * boxing it.
+   *
+   * @param i          index of argument being set.
+   * @param typeHelper optional additional info about the type that is being set in the arg
+   * @param arg        argument being bound.
+   */
+  protected void argTraceSet(int i, String typeHelper, double arg)
   {
-    StringBuffer dumpSql = new StringBuffer();
-    int lastPos = 0;
-    int Qpos = sql.indexOf('?', lastPos);  // find position of first question mark
-    int argIdx = 0;
-    String arg;
+    argTrace.setDouble(i, showTypeHelp ? typeHelper : null, arg);
+  }
 
-    while (Qpos != -1)
-    {
-      // get stored argument
-      synchronized (argTrace)
-      {
-        try
-        {
-          arg = (String) argTrace.get(argIdx);
-        }
-        catch (IndexOutOfBoundsException e)
-        {
-          arg = "?";
-        }
-      }
-      if (arg == null)
-      {
-        arg = "?";
-      }
+  /**
+   * Store a boolean argument (bind variable) into the argTrace (above) for later dumping, without
+   * boxing it.
+   *
+   * @param i          index of argument being set.
+   * @param typeHelper optional additional info about the type that is being set in the arg
+   * @param arg        argument being bound.
+   */
+  protected void argTraceSet(int i, String typeHelper, boolean arg)
+  {
+    argTrace.setBoolean(i, showTypeHelp ? typeHelper : null, arg);
+  }
 
-      argIdx++;
+  /**
+   * Store a byte array argument (bind variable) into the argTrace (above) for later dumping.  The
+   * bytes are copied now but only converted to hex if they are dumped.
+   *
+   * @param i          index of argument being set.
+   * @param typeHelper optional additional info about the type that is being set in the arg
+   * @param arg        argument being bound.
+   */
+  protected void argTraceSet(int i, String typeHelper, byte[] arg)
+  {
+    argTrace.setBytes(i, showTypeHelp ? typeHelper : null, arg);
+  }
 
-      dumpSql.append(sql.substring(lastPos, Qpos));  // dump segment of sql up to question mark.
-      lastPos = Qpos + 1;
-      Qpos = sql.indexOf('?', lastPos);
-      dumpSql.append(arg);
-    }
-    if (lastPos < sql.length())
+  /**
+   * Store a stream argument (bind variable) of known length into the argTrace (above) for later
+   * dumping as <code>&lt;description of length N&gt;</code>.
+   *
+   * @param i           index of argument being set.
+   * @param typeHelper  optional additional info about the type that is being set in the arg
+   * @param description description of the stream, such as "Reader".
+   * @param length      length of the stream.
+   */
+  protected void argTraceSetLength(int i, String typeHelper, String description, long length)
+  {
+    argTrace.setStream(i, showTypeHelp ? typeHelper : null, description, length);
+  }
+
+  private String sql;
+
+  /**
+   * Get the SQL for this PreparedStatement as it is to be dumped to the log, with the bind
+   * variables that are currently set.  The bind variables are only merged into the SQL if and when
+   * the DumpedSql is logged.
+   *
+   * @return the SQL with the current bind variables, to be merged in when logged.
+   */
+  protected DumpedSql getDumpedSql()
+  {
+    return new DumpedSql(sql, argTrace.snapshot(), rdbmsSpecifics);
+  }
+
+  /**
+   * Get the SQL for an execution of this PreparedStatement, but only if something is going to use
+   * it: the sqlonly or sqltiming logger, the statistics, the N+1 query or duplicate SQL checks or
+   * the OpenCursors.  Otherwise the bind variables aren't captured at all, so that the next set
+   * doesn't have to copy them either.  (If the execution fails, the SQL is captured then.)
+   *
+   * @return the SQL with the current bind variables, or null if nothing is going to use it.
+   */
+  private DumpedSql getExecutedSql()
+  {
+    if (log.isSqlLoggingEnabled() || DriverSpy.StatisticsEnabled ||
+      DriverSpy.NPlusOneThreshold > 0 || DriverSpy.DuplicateSqlWarn || cursor != null)
     {
-      dumpSql.append(sql.substring(lastPos, sql.length()));  // dump last segment
+      return getDumpedSql();
     }
+    return null;
+  }
 
-    return dumpSql.toString();
+  /**
+   * Get the SQL for this PreparedStatement with the bind variables that are currently set merged
+   * into it.
+   *
+   * @return the SQL with the current bind variables merged into it.
+   */
+  protected String dumpedSql()
+  {
+    return getDumpedSql().toString();
   }
 
   protected void reportAllReturns(String methodCall, String msg)
@@ -185,8 +240,17 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
   {
     super(connectionSpy, realPreparedStatement);  // does null check for us
     this.sql = sql;
+    if (cursor != null)
+    {
+      cursor.sql = sql;
+    }
     this.realPreparedStatement = realPreparedStatement;
     rdbmsSpecifics = connectionSpy.getRdbmsSpecifics();
+    PooledConnectionSpy pooledConnection = connectionSpy.getPooledConnection();
+    if (pooledConnection != null)
+    {
+      pooledConnection.statementOpened(realPreparedStatement, this);
+    }
   }
 
   public String getClassType()
@@ -198,7 +262,6 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
   public void setTime(int parameterIndex, Time x) throws SQLException
   {
-    String methodCall = "setTime(" + parameterIndex + ", " + x + ")";
     argTraceSet(parameterIndex, "(Time)", x);
     try
     {
@@ -206,15 +269,17 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setTime", parameterIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setTime", parameterIndex, x));
+    }
   }
 
   public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException
   {
-    String methodCall = "setTime(" + parameterIndex + ", " + x + ", " + cal + ")";
     argTraceSet(parameterIndex, "(Time)", x);
     try
     {
@@ -222,64 +287,71 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setTime", parameterIndex, x, cal), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setTime", parameterIndex, x, cal));
+    }
   }
 
   public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException
   {
-    String methodCall = "setCharacterStream(" + parameterIndex + ", " + reader + ", " + length +
-      ")";
-    argTraceSet(parameterIndex, "(Reader)", "<Reader of length " + length + ">");
+    argTraceSetLength(parameterIndex, "(Reader)", "Reader", length);
     try
     {
       realPreparedStatement.setCharacterStream(parameterIndex, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setCharacterStream", parameterIndex, reader, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setCharacterStream", parameterIndex, reader, length));
+    }
   }
 
   public void setNull(int parameterIndex, int sqlType) throws SQLException
   {
-    String methodCall = "setNull(" + parameterIndex + ", " + sqlType + ")";
-    argTraceSet(parameterIndex, null, null);
+    argTraceSet(parameterIndex, null, (Object) null);
     try
     {
       realPreparedStatement.setNull(parameterIndex, sqlType);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setNull", parameterIndex, sqlType), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setNull", parameterIndex, sqlType));
+    }
   }
 
   public void setNull(int paramIndex, int sqlType, String typeName) throws SQLException
   {
-    String methodCall = "setNull(" + paramIndex + ", " + sqlType + ", " + typeName + ")";
-    argTraceSet(paramIndex, null, null);
+    argTraceSet(paramIndex, null, (Object) null);
     try
     {
       realPreparedStatement.setNull(paramIndex, sqlType, typeName);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setNull", paramIndex, sqlType, typeName), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setNull", paramIndex, sqlType, typeName));
+    }
   }
 
   public void setRef(int i, Ref x) throws SQLException
   {
-    String methodCall = "setRef(" + i + ", " + x + ")";
     argTraceSet(i, "(Ref)", x);
     try
     {
@@ -287,31 +359,35 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setRef", i, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setRef", i, x));
+    }
   }
 
   public void setBoolean(int parameterIndex, boolean x) throws SQLException
   {
-    String methodCall = "setBoolean(" + parameterIndex + ", " + x + ")";
-    argTraceSet(parameterIndex, "(boolean)", x?Boolean.TRUE:Boolean.FALSE);
+    argTraceSet(parameterIndex, "(boolean)", x);
     try
     {
       realPreparedStatement.setBoolean(parameterIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setBoolean", parameterIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setBoolean", parameterIndex, x));
+    }
   }
 
   public void setBlob(int i, Blob x) throws SQLException
   {
-    String methodCall = "setBlob(" + i + ", " + x + ")";
     argTraceSet(i, "(Blob)",
       x==null?null:("<Blob of size " + x.length() + ">"));
     try
@@ -320,15 +396,17 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setBlob", i, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setBlob", i, x));
+    }
   }
 
   public void setClob(int i, Clob x) throws SQLException
   {
-    String methodCall = "setClob(" + i + ", " + x + ")";
     argTraceSet(i, "(Clob)",
       x==null?null:("<Clob of size " + x.length() + ">"));
     try
@@ -337,15 +415,17 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setClob", i, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setClob", i, x));
+    }
   }
 
   public void setArray(int i, Array x) throws SQLException
   {
-    String methodCall = "setArray(" + i + ", " + x + ")";
     argTraceSet(i, "(Array)", "<Array>");
     try
     {
@@ -353,148 +433,168 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setArray", i, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setArray", i, x));
+    }
   }
 
   public void setByte(int parameterIndex, byte x) throws SQLException
   {
-    String methodCall = "setByte(" + parameterIndex + ", " + x + ")";
-    argTraceSet(parameterIndex, "(byte)", Byte.valueOf(x));
+    argTraceSet(parameterIndex, "(byte)", x);
     try
     {
       realPreparedStatement.setByte(parameterIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setByte", parameterIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setByte", parameterIndex, x));
+    }
   }
 
   @SuppressWarnings("deprecation")
   public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException
   {
-    String methodCall = "setUnicodeStream(" + parameterIndex + ", " + x + ", " + length + ")";
-    argTraceSet(parameterIndex, "(Unicode InputStream)", "<Unicode InputStream of length " +
-      length + ">");
+    argTraceSetLength(parameterIndex, "(Unicode InputStream)", "Unicode InputStream", length);
     try
     {
       realPreparedStatement.setUnicodeStream(parameterIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setUnicodeStream", parameterIndex, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setUnicodeStream", parameterIndex, x, length));
+    }
   }
 
   public void setShort(int parameterIndex, short x) throws SQLException
   {
-    String methodCall = "setShort(" + parameterIndex + ", " + x + ")";
-    argTraceSet(parameterIndex, "(short)", Short.valueOf(x));
+    argTraceSet(parameterIndex, "(short)", x);
     try
     {
       realPreparedStatement.setShort(parameterIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setShort", parameterIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setShort", parameterIndex, x));
+    }
   }
 
   public boolean execute() throws SQLException
   {
-    String methodCall = "execute()";
-    String dumpedSql = dumpedSql();
+    MethodCall methodCall = ExecuteCall;
+    DumpedSql dumpedSql = getExecutedSql();
     reportSql(dumpedSql, methodCall);
-    long tstart = System.currentTimeMillis();
+    long tstart = System.nanoTime();
     try
     {
       boolean result = realPreparedStatement.execute();
-      reportSqlTiming(System.currentTimeMillis() - tstart, dumpedSql, methodCall);
-      return reportReturn(methodCall, result);
+      reportSqlTiming(System.nanoTime() - tstart, dumpedSql, methodCall);
+      if (isReturnReported())
+      {
+        reportReturn(methodCall, result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, dumpedSql, System.currentTimeMillis() - tstart);
+      reportException(methodCall, s, dumpedSql == null ? getDumpedSql() : dumpedSql,
+        System.nanoTime() - tstart);
       throw s;
     }
   }
 
   public void setInt(int parameterIndex, int x) throws SQLException
   {
-    String methodCall = "setInt(" + parameterIndex + ", " + x + ")";
-    argTraceSet(parameterIndex, "(int)", Integer.valueOf(x));
+    argTraceSet(parameterIndex, "(int)", x);
     try
     {
       realPreparedStatement.setInt(parameterIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setInt", parameterIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setInt", parameterIndex, x));
+    }
   }
 
   public void setLong(int parameterIndex, long x) throws SQLException
   {
-    String methodCall = "setLong(" + parameterIndex + ", " + x + ")";
-    argTraceSet(parameterIndex, "(long)", Long.valueOf(x));
+    argTraceSet(parameterIndex, "(long)", x);
     try
     {
       realPreparedStatement.setLong(parameterIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setLong", parameterIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setLong", parameterIndex, x));
+    }
   }
 
   public void setFloat(int parameterIndex, float x) throws SQLException
   {
-    String methodCall = "setFloat(" + parameterIndex + ", " + x + ")";
-    argTraceSet(parameterIndex, "(float)", Float.valueOf(x));
+    argTraceSet(parameterIndex, "(float)", x);
     try
     {
       realPreparedStatement.setFloat(parameterIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setFloat", parameterIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setFloat", parameterIndex, x));
+    }
   }
 
   public void setDouble(int parameterIndex, double x) throws SQLException
   {
-    String methodCall = "setDouble(" + parameterIndex + ", " + x + ")";
-    argTraceSet(parameterIndex, "(double)", Double.valueOf(x));
+    argTraceSet(parameterIndex, "(double)", x);
     try
     {
       realPreparedStatement.setDouble(parameterIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setDouble", parameterIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setDouble", parameterIndex, x));
+    }
   }
 
   public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException
   {
-    String methodCall = "setBigDecimal(" + parameterIndex + ", " + x + ")";
     argTraceSet(parameterIndex, "(BigDecimal)", x);
     try
     {
@@ -502,15 +602,17 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setBigDecimal", parameterIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setBigDecimal", parameterIndex, x));
+    }
   }
 
   public void setURL(int parameterIndex, URL x) throws SQLException
   {
-    String methodCall = "setURL(" + parameterIndex + ", " + x + ")";
     argTraceSet(parameterIndex, "(URL)", x);
 
     try
@@ -519,15 +621,17 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setURL", parameterIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setURL", parameterIndex, x));
+    }
   }
 
   public void setString(int parameterIndex, String x) throws SQLException
   {
-    String methodCall = "setString(" + parameterIndex + ", \"" + x + "\")";
     argTraceSet(parameterIndex, "(String)", x);
 
     try
@@ -536,21 +640,18 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setString", parameterIndex, "\"" + x + "\""), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setString", parameterIndex, "\"" + x + "\""));
+    }
   }
 
   public void setBytes(int parameterIndex, byte[] x) throws SQLException
   {
-    String methodCall = "setBytes(" + parameterIndex + ", " + x + ")";
-
-    StringBuilder sb = new StringBuilder();
-    for (byte b : x) {
-      sb.append(String.format("%02X", b));
-    }
-    argTraceSet(parameterIndex, "(byte[])", sb.toString());
+    argTraceSet(parameterIndex, "(byte[])", x);
 
     try
     {
@@ -558,15 +659,17 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setBytes", parameterIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setBytes", parameterIndex, x));
+    }
   }
 
   public void setDate(int parameterIndex, Date x) throws SQLException
   {
-    String methodCall = "setDate(" + parameterIndex + ", " + x + ")";
     argTraceSet(parameterIndex, "(Date)", x);
     try
     {
@@ -574,30 +677,35 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setDate", parameterIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setDate", parameterIndex, x));
+    }
   }
 
   public ParameterMetaData getParameterMetaData() throws SQLException
   {
-    String methodCall = "getParameterMetaData()";
     try
     {
-      return (ParameterMetaData) reportReturn(methodCall,
-        realPreparedStatement.getParameterMetaData());
+      ParameterMetaData result = realPreparedStatement.getParameterMetaData();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getParameterMetaData"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getParameterMetaData"), s);
       throw s;
     }
   }
 
   public void setRowId(int parameterIndex, RowId x) throws SQLException
   {
-    String methodCall = "setRowId(" + parameterIndex + ", " + x + ")";
     argTraceSet(parameterIndex, "(RowId)", x);
     try
     {
@@ -605,15 +713,17 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setRowId", parameterIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setRowId", parameterIndex, x));
+    }
   }
 
   public void setNString(int parameterIndex, String value) throws SQLException
   {
-    String methodCall = "setNString(" + parameterIndex + ", " + value + ")";
     argTraceSet(parameterIndex, "(String)", value);
     try
     {
@@ -621,32 +731,35 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setNString", parameterIndex, value), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setNString", parameterIndex, value));
+    }
   }
 
   public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException
   {
-    String methodCall = "setNCharacterStream(" + parameterIndex + ", " + value + ", " + length +
-      ")";
-    argTraceSet(parameterIndex, "(Reader)", "<Reader of length " + length + ">");
+    argTraceSetLength(parameterIndex, "(Reader)", "Reader", length);
     try
     {
       realPreparedStatement.setNCharacterStream(parameterIndex, value, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setNCharacterStream", parameterIndex, value, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setNCharacterStream", parameterIndex, value, length));
+    }
   }
 
   public void setNClob(int parameterIndex, NClob value) throws SQLException
   {
-    String methodCall = "setNClob(" + parameterIndex + ", " + value + ")";
     argTraceSet(parameterIndex, "(NClob)", "<NClob>");
     try
     {
@@ -654,63 +767,71 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setNClob", parameterIndex, value), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setNClob", parameterIndex, value));
+    }
   }
 
   public void setClob(int parameterIndex, Reader reader, long length) throws SQLException
   {
-    String methodCall = "setClob(" + parameterIndex + ", " + reader + ", " + length + ")";
-    argTraceSet(parameterIndex, "(Reader)", "<Reader of length " + length + ">");
+    argTraceSetLength(parameterIndex, "(Reader)", "Reader", length);
     try
     {
       realPreparedStatement.setClob(parameterIndex, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setClob", parameterIndex, reader, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setClob", parameterIndex, reader, length));
+    }
   }
 
   public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException
   {
-    String methodCall = "setBlob(" + parameterIndex + ", " + inputStream + ", " + length + ")";
-    argTraceSet(parameterIndex, "(InputStream)", "<InputStream of length " + length + ">");
+    argTraceSetLength(parameterIndex, "(InputStream)", "InputStream", length);
     try
     {
       realPreparedStatement.setBlob(parameterIndex, inputStream, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setBlob", parameterIndex, inputStream, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setBlob", parameterIndex, inputStream, length));
+    }
   }
 
   public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException
   {
-    String methodCall = "setNClob(" + parameterIndex + ", " + reader + ", " + length + ")";
-    argTraceSet(parameterIndex, "(Reader)", "<Reader of length " + length + ">");
+    argTraceSetLength(parameterIndex, "(Reader)", "Reader", length);
     try
     {
       realPreparedStatement.setNClob(parameterIndex, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setNClob", parameterIndex, reader, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setNClob", parameterIndex, reader, length));
+    }
   }
 
   public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException
   {
-    String methodCall = "setSQLXML(" + parameterIndex + ", " + xmlObject + ")";
     argTraceSet(parameterIndex, "(SQLXML)", xmlObject);
     try
     {
@@ -718,15 +839,17 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setSQLXML", parameterIndex, xmlObject), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setSQLXML", parameterIndex, xmlObject));
+    }
   }
 
   public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException
   {
-    String methodCall = "setDate(" + parameterIndex + ", " + x + ", " + cal + ")";
     argTraceSet(parameterIndex, "(Date)", x);
 
     try
@@ -735,35 +858,47 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setDate", parameterIndex, x, cal), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setDate", parameterIndex, x, cal));
+    }
   }
 
   public ResultSet executeQuery() throws SQLException
   {
-    String methodCall = "executeQuery()";
-    String dumpedSql = dumpedSql();
+    MethodCall methodCall = ExecuteQueryCall;
+    DumpedSql dumpedSql = getExecutedSql();
     reportSql(dumpedSql, methodCall);
-    long tstart = System.currentTimeMillis();
+    long tstart = System.nanoTime();
     try
     {
       ResultSet r = realPreparedStatement.executeQuery();
-      reportSqlTiming(System.currentTimeMillis() - tstart, dumpedSql, methodCall);
+      reportSqlTiming(System.nanoTime() - tstart, dumpedSql, methodCall);
       ResultSetSpy rsp = new ResultSetSpy(this, r);
-      return (ResultSet) reportReturn(methodCall, rsp);
+      if (isReturnReported())
+      {
+        reportReturn(methodCall, rsp);
+      }
+      return rsp;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, dumpedSql, System.currentTimeMillis() - tstart);
+      reportException(methodCall, s, dumpedSql == null ? getDumpedSql() : dumpedSql,
+        System.nanoTime() - tstart);
       throw s;
     }
   }
 
   private String getTypeHelp(Object x)
   {
-    if (x==null)
+    if (!showTypeHelp)
+    {
+      return null;
+    }
+    else if (x==null)
     {
       return "(null)";
     }
@@ -776,8 +911,6 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
   public void setObject(int parameterIndex, Object x, int targetSqlType, int scale)
     throws SQLException
   {
-    String methodCall = "setObject(" + parameterIndex + ", " + x + ", " + targetSqlType + ", " +
-      scale + ")";
     argTraceSet(parameterIndex, getTypeHelp(x), x);
 
     try
@@ -786,10 +919,13 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setObject", parameterIndex, x, targetSqlType, scale), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setObject", parameterIndex, x, targetSqlType, scale));
+    }
   }
 
   /**
@@ -815,59 +951,61 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
    */
   public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException
   {
-    String methodCall = "setAsciiStream(" + parameterIndex + ", " + x + ", " + length + ")";
-    argTraceSet(parameterIndex, "(Ascii InputStream)", "<Ascii InputStream of length " + length +
-      ">");
+    argTraceSetLength(parameterIndex, "(Ascii InputStream)", "Ascii InputStream", length);
     try
     {
       realPreparedStatement.setAsciiStream(parameterIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setAsciiStream", parameterIndex, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setAsciiStream", parameterIndex, x, length));
+    }
   }
 
   public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException
   {
-    String methodCall = "setBinaryStream(" + parameterIndex + ", " + x + ", " + length + ")";
-    argTraceSet(parameterIndex, "(Binary InputStream)", "<Binary InputStream of length " + length +
-      ">");
+    argTraceSetLength(parameterIndex, "(Binary InputStream)", "Binary InputStream", length);
     try
     {
       realPreparedStatement.setBinaryStream(parameterIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setBinaryStream", parameterIndex, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setBinaryStream", parameterIndex, x, length));
+    }
   }
 
   public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException
   {
-    String methodCall = "setCharacterStream(" + parameterIndex + ", " + reader + ", " + length +
-      ")";
-    argTraceSet(parameterIndex, "(Reader)", "<Reader of length " + length + ">");
+    argTraceSetLength(parameterIndex, "(Reader)", "Reader", length);
     try
     {
       realPreparedStatement.setCharacterStream(parameterIndex, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setCharacterStream", parameterIndex, reader, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setCharacterStream", parameterIndex, reader, length));
+    }
 
   }
 
   public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException
   {
-    String methodCall = "setAsciiStream(" + parameterIndex + ", " + x + ")";
     argTraceSet(parameterIndex, "(Ascii InputStream)", "<Ascii InputStream>");
     try
     {
@@ -875,15 +1013,17 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setAsciiStream", parameterIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setAsciiStream", parameterIndex, x));
+    }
   }
 
   public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException
   {
-    String methodCall = "setBinaryStream(" + parameterIndex + ", " + x + ")";
     argTraceSet(parameterIndex, "(Binary InputStream)", "<Binary InputStream>");
     try
     {
@@ -891,16 +1031,18 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setBinaryStream", parameterIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setBinaryStream", parameterIndex, x));
+    }
 
   }
 
   public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException
   {
-    String methodCall = "setCharacterStream(" + parameterIndex + ", " + reader + ")";
     argTraceSet(parameterIndex, "(Reader)", "<Reader>");
     try
     {
@@ -908,15 +1050,17 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setCharacterStream", parameterIndex, reader), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setCharacterStream", parameterIndex, reader));
+    }
   }
 
   public void setNCharacterStream(int parameterIndex, Reader reader) throws SQLException
   {
-    String methodCall = "setNCharacterStream(" + parameterIndex + ", " + reader + ")";
     argTraceSet(parameterIndex, "(Reader)", "<Reader>");
     try
     {
@@ -924,15 +1068,17 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setNCharacterStream", parameterIndex, reader), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setNCharacterStream", parameterIndex, reader));
+    }
   }
 
   public void setClob(int parameterIndex, Reader reader) throws SQLException
   {
-    String methodCall = "setClob(" + parameterIndex + ", " + reader + ")";
     argTraceSet(parameterIndex, "(Reader)", "<Reader>");
     try
     {
@@ -940,15 +1086,17 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setClob", parameterIndex, reader), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setClob", parameterIndex, reader));
+    }
   }
 
   public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException
   {
-    String methodCall = "setBlob(" + parameterIndex + ", " + inputStream + ")";
     argTraceSet(parameterIndex, "(InputStream)", "<InputStream>");
     try
     {
@@ -956,15 +1104,17 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setBlob", parameterIndex, inputStream), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setBlob", parameterIndex, inputStream));
+    }
   }
 
   public void setNClob(int parameterIndex, Reader reader) throws SQLException
   {
-    String methodCall = "setNClob(" + parameterIndex + ", " + reader + ")";
     argTraceSet(parameterIndex, "(Reader)", "<Reader>");
     try
     {
@@ -972,16 +1122,18 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setNClob", parameterIndex, reader), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setNClob", parameterIndex, reader));
+    }
 
   }
 
   public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException
   {
-    String methodCall = "setObject(" + parameterIndex + ", " + x + ", " + targetSqlType + ")";
     argTraceSet(parameterIndex, getTypeHelp(x), x);
     try
     {
@@ -989,15 +1141,17 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setObject", parameterIndex, x, targetSqlType), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setObject", parameterIndex, x, targetSqlType));
+    }
   }
 
   public void setObject(int parameterIndex, Object x) throws SQLException
   {
-    String methodCall = "setObject(" + parameterIndex + ", " + x + ")";
     argTraceSet(parameterIndex, getTypeHelp(x), x);
     try
     {
@@ -1005,15 +1159,17 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setObject", parameterIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setObject", parameterIndex, x));
+    }
   }
 
   public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException
   {
-    String methodCall = "setTimestamp(" + parameterIndex + ", " + x + ")";
     argTraceSet(parameterIndex, "(Date)", x);
     try
     {
@@ -1021,15 +1177,17 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setTimestamp", parameterIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setTimestamp", parameterIndex, x));
+    }
   }
 
   public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException
   {
-    String methodCall = "setTimestamp(" + parameterIndex + ", " + x + ", " + cal + ")";
     argTraceSet(parameterIndex, "(Timestamp)", x);
     try
     {
@@ -1037,73 +1195,78 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setTimestamp", parameterIndex, x, cal), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setTimestamp", parameterIndex, x, cal));
+    }
   }
 
   public int executeUpdate() throws SQLException
   {
-    String methodCall = "executeUpdate()";
-    String dumpedSql = dumpedSql();
+    MethodCall methodCall = ExecuteUpdateCall;
+    DumpedSql dumpedSql = getExecutedSql();
     reportSql(dumpedSql, methodCall);
-    long tstart = System.currentTimeMillis();
+    long tstart = System.nanoTime();
     try
     {
       int result = realPreparedStatement.executeUpdate();
-      reportSqlTiming(System.currentTimeMillis() - tstart, dumpedSql, methodCall);
-      return reportReturn(methodCall, result);
+      reportSqlTiming(System.nanoTime() - tstart, dumpedSql, methodCall, result);
+      if (isReturnReported())
+      {
+        reportReturn(methodCall, result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, dumpedSql, System.currentTimeMillis() - tstart);
+      reportException(methodCall, s, dumpedSql == null ? getDumpedSql() : dumpedSql,
+        System.nanoTime() - tstart);
       throw s;
     }
   }
 
   public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException
   {
-    String methodCall = "setAsciiStream(" + parameterIndex + ", " + x + ", " + length + ")";
-    argTraceSet(parameterIndex, "(Ascii InputStream)", "<Ascii InputStream of length " + length +
-      ">");
+    argTraceSetLength(parameterIndex, "(Ascii InputStream)", "Ascii InputStream", length);
     try
     {
       realPreparedStatement.setAsciiStream(parameterIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setAsciiStream", parameterIndex, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setAsciiStream", parameterIndex, x, length));
+    }
   }
 
   public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException
   {
-    String methodCall = "setBinaryStream(" + parameterIndex + ", " + x + ", " + length + ")";
-    argTraceSet(parameterIndex, "(Binary InputStream)", "<Binary InputStream of length " + length +
-      ">");
+    argTraceSetLength(parameterIndex, "(Binary InputStream)", "Binary InputStream", length);
     try
     {
       realPreparedStatement.setBinaryStream(parameterIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setBinaryStream", parameterIndex, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setBinaryStream", parameterIndex, x, length));
+    }
   }
 
   public void clearParameters() throws SQLException
   {
-    String methodCall = "clearParameters()";
-
-    synchronized (argTrace)
-    {
-      argTrace.clear();
-    }
+    argTrace.clear();
 
     try
     {
@@ -1111,22 +1274,29 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("clearParameters"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("clearParameters"));
+    }
   }
 
   public ResultSetMetaData getMetaData() throws SQLException
   {
-    String methodCall = "getMetaData()";
     try
     {
-      return (ResultSetMetaData) reportReturn(methodCall, realPreparedStatement.getMetaData());
+      ResultSetMetaData result = realPreparedStatement.getMetaData();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getMetaData"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getMetaData"), s);
       throw s;
     }
   }
@@ -1134,67 +1304,76 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
   @SuppressWarnings("unchecked")
   public void addBatch() throws SQLException
   {
-    String methodCall = "addBatch()";
-    currentBatch.add(dumpedSql());
+    currentBatch.add(getDumpedSql());
     try
     {
       realPreparedStatement.addBatch();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("addBatch"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("addBatch"));
+    }
   }
 
   @SuppressWarnings("unchecked")
   public <T> T unwrap(Class<T> iface) throws SQLException
   {
-    String methodCall = "unwrap(" + (iface==null?"null":iface.getName()) + ")";
     try
     {
       // todo: double check this logic
       // NOTE: could call super.isWrapperFor to simplify this logic, but it would result in extra
       // log output because the super classes would be invoked, thus executing their logging methods
       // too...
-      return (T)reportReturn(methodCall,
-      (
+      T result =
+        (
         iface != null &&
         (
           iface == PreparedStatement.class ||
           iface == Statement.class ||
           iface == Spy.class)
-        )? (T)this : realPreparedStatement.unwrap(iface)
-      );
+        )? (T)this : realPreparedStatement.unwrap(iface);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("unwrap", iface==null?"null":iface.getName()), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(new MethodCall("unwrap", iface==null?"null":iface.getName()), s);
       throw s;
     }
   }
 
   public boolean isWrapperFor(Class<?> iface) throws SQLException
   {
-    String methodCall = "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")";
     try
     {
       // NOTE: could call super.isWrapperFor to simplify this logic, but it would result in extra
       // log output when the super classes would be invoked..
-      return reportReturn(methodCall,
-      (
+      boolean result =
+        (
         iface != null &&
         (
           iface == PreparedStatement.class ||
           iface == Statement.class ||
           iface == Spy.class
         )
-      ) || realPreparedStatement.isWrapperFor(iface));
+      ) || realPreparedStatement.isWrapperFor(iface);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("isWrapperFor", iface==null?"null":iface.getName()), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(new MethodCall("isWrapperFor", iface==null?"null":iface.getName()), s);
       throw s;
     }
   }
@@ -0,0 +1,533 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Publishes the SqlStatistics and EventCounts in the Prometheus text exposition format, either
+ * over HTTP (a GET of /metrics on the log4jdbc.prometheus.port option, on the loopback interface
+ * unless the log4jdbc.prometheus.host option says otherwise) or by writing them to a file every so
+ * often (the log4jdbc.prometheus.textfile option) for the node_exporter textfile
+ * collector to pick up.  The metrics are:
+ *
+ * <ul>
+ * <li>log4jdbc_open_connections, log4jdbc_connections_opened_total and
+ *     log4jdbc_connections_closed_total.</li>
+ * <li>log4jdbc_connection_borrow_seconds and log4jdbc_connection_hold_seconds - histograms of the
+ *     time taken to borrow connections from a DataSourceSpy and the time they were held for, along
+ *     with log4jdbc_connection_borrow_failures_total and
+ *     log4jdbc_connection_hold_by_call_site_seconds_total for the call sites that held connections
+ *     the longest (see PoolStatistics.)</li>
+ * <li>log4jdbc_sql_duration_seconds - a histogram of SQL run times for each SQL fingerprint (the
+ *     sql label), along with log4jdbc_sql_errors_total, log4jdbc_sql_rows_affected_total,
+ *     log4jdbc_sql_rows_fetched_total and log4jdbc_sql_fetch_seconds_total.</li>
+ * <li>log4jdbc_sql_errors_by_sqlstate_total - exceptions by SQLState class (the sqlstate_class
+ *     label.)</li>
+ * <li>log4jdbc_sql_slow_total - SQL over the warn and error timing thresholds (the threshold
+ *     label.)</li>
+ * <li>log4jdbc_nplusone_suspected_total - suspected N+1 queries (see NPlusOneDetector) and
+ *     log4jdbc_sql_duplicate_total - SQL repeated in a transaction (see DuplicateSqlTracker.)</li>
+ * <li>log4jdbc_transactions_total, log4jdbc_transactions_slow_total,
+ *     log4jdbc_transaction_seconds_total and log4jdbc_transaction_idle_seconds_total - transactions
+ *     by outcome, over the transaction timing thresholds, and the time they were open and idle
+ *     for (see TransactionSummary.)</li>
+ * <li>log4jdbc_connection_leaks_total - connections reported by the ConnectionLeakDetector, and
+ *     log4jdbc_statement_leaks_total and log4jdbc_open_cursors - Statements and ResultSets
+ *     reported as leaked, and open now (see OpenCursors.)  Open cursors are only counted for all
+ *     connections together here; JMX has them for each connection.</li>
+ * <li>log4jdbc_exceptions_total and log4jdbc_overhead_seconds_total (the time log4jdbc itself has
+ *     spent logging and recording SQL.)</li>
+ * </ul>
+ *
+ * Only the SQL that has taken the most time in total gets its own sql label (as many as the
+ * log4jdbc.prometheus.top.sql option says); everything else is added up under sql="(other)" so that
+ * the number of series stays bounded.  The same number of call sites get their own call_site
+ * label.  The histogram buckets are fixed so that series from different JVMs can be aggregated.
+ *
+ * Publishing the metrics turns on log4jdbc.statistics.
+ *
+ * @author Arthur Blake
+ */
+public final class PrometheusExporter
+{
+  /**
+   * Upper bounds of the log4jdbc_sql_duration_seconds buckets, in seconds, as they are written.
+   */
+  private static final String[] BUCKET_LABELS = {"0.0001", "0.00025", "0.0005", "0.001",
+    "0.0025", "0.005", "0.01", "0.025", "0.05", "0.1", "0.25", "0.5", "1", "2.5", "5", "10"};
+
+  /**
+   * Upper bounds of the log4jdbc_sql_duration_seconds buckets, in nanoseconds.
+   */
+  private static final long[] BUCKET_NANOS = {100000L, 250000L, 500000L, 1000000L, 2500000L,
+    5000000L, 10000000L, 25000000L, 50000000L, 100000000L, 250000000L, 500000000L, 1000000000L,
+    2500000000L, 5000000000L, 10000000000L};
+
+  private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private static HttpServer server;
+
+  private static ScheduledExecutorService textfileWriter;
+
+  /**
+   * Start serving the metrics over HTTP at /metrics on the loopback interface, if not already
+   * started.  The server runs on daemon threads so it doesn't keep the JVM up.
+   *
+   * @param port port to listen on.
+   * @throws IOException if the server can't be started.
+   */
+  public static void startHttpServer(int port) throws IOException
+  {
+    startHttpServer(null, port);
+  }
+
+  /**
+   * Start serving the metrics over HTTP at /metrics, if not already started.  The server runs on
+   * daemon threads so it doesn't keep the JVM up.
+   *
+   * @param host host name or address of the interface to listen on (0.0.0.0 for all of them), or
+   *             null for the loopback interface.
+   * @param port port to listen on.
+   * @throws IOException if the server can't be started (or the host can't be found.)
+   */
+  public static synchronized void startHttpServer(String host, int port) throws IOException
+  {
+    if (server != null)
+    {
+      return;
+    }
+    InetAddress address = host == null ? InetAddress.getLoopbackAddress() :
+      InetAddress.getByName(host);
+    final HttpServer s = HttpServer.create(new InetSocketAddress(address, port), 0);
+    s.createContext("/metrics", PrometheusExporter::handle);
+    s.setExecutor(Executors.newSingleThreadExecutor(r -> daemon(r, "log4jdbc-prometheus")));
+
+    // the dispatcher thread takes its daemon status from the thread that starts it
+    Thread starter = daemon(s::start, "log4jdbc-prometheus-start");
+    starter.start();
+    try
+    {
+      starter.join();
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+    }
+    server = s;
+    EventCounts.MeasureOverhead = true;
+    DriverSpy.log.debug("serving Prometheus metrics at http://" +
+      s.getAddress().getHostString() + ":" + s.getAddress().getPort() + "/metrics");
+  }
+
+  /**
+   * Start writing the metrics to a file every so often, if not already started.  Each time, the
+   * metrics are written to a temporary file next to it which is then moved over the file, so
+   * that the file is never seen half written.
+   *
+   * @param file         file to write.
+   * @param intervalMsec how often to write it, in milliseconds.
+   */
+  public static synchronized void startTextfileWriter(String file, long intervalMsec)
+  {
+    if (textfileWriter != null)
+    {
+      return;
+    }
+    final Path path = Paths.get(file);
+    textfileWriter = Executors.newSingleThreadScheduledExecutor(r ->
+      daemon(r, "log4jdbc-prometheus-textfile"));
+    textfileWriter.scheduleWithFixedDelay(() -> writeTextfile(path), 0L,
+      Math.max(intervalMsec, 1L), TimeUnit.MILLISECONDS);
+    EventCounts.MeasureOverhead = true;
+    DriverSpy.log.debug("writing Prometheus metrics to " + path + " every " + intervalMsec +
+      " msec");
+  }
+
+  /**
+   * Stop serving and writing the metrics.
+   */
+  public static synchronized void stop()
+  {
+    if (server != null)
+    {
+      server.stop(0);
+      server = null;
+    }
+    if (textfileWriter != null)
+    {
+      textfileWriter.shutdownNow();
+      textfileWriter = null;
+    }
+    EventCounts.MeasureOverhead = false;
+  }
+
+  /**
+   * Get the metrics in the Prometheus text exposition format.
+   *
+   * @param topSql the number of SQL fingerprints (the ones that have taken the most time in total)
+   *               to give their own series.  The rest are added up under sql="(other)".
+   * @return the metrics.
+   */
+  public static String scrape(int topSql)
+  {
+    StringBuilder out = new StringBuilder(4096);
+
+    type(out, "log4jdbc_open_connections", "gauge", "Connections that are open.");
+    sample(out, "log4jdbc_open_connections", null, ConnectionSpy.getOpenConnectionCount());
+    int cursors = 0;
+    for (OpenConnection open : ConnectionSpy.getOpenConnections())
+    {
+      if (open.cursors != null)
+      {
+        cursors += open.cursors.size();
+      }
+    }
+    type(out, "log4jdbc_open_cursors", "gauge",
+      "Statements and ResultSets that are open, on all connections.");
+    sample(out, "log4jdbc_open_cursors", null, cursors);
+    type(out, "log4jdbc_connections_opened_total", "counter", "Connections opened.");
+    sample(out, "log4jdbc_connections_opened_total", null, EventCounts.ConnectionsOpened.sum());
+    type(out, "log4jdbc_connections_closed_total", "counter", "Connections closed.");
+    sample(out, "log4jdbc_connections_closed_total", null, EventCounts.ConnectionsClosed.sum());
+
+    type(out, "log4jdbc_connection_borrow_seconds", "histogram",
+      "Time taken to borrow a connection from a DataSourceSpy.");
+    histogram(out, "log4jdbc_connection_borrow_seconds", null,
+      PoolStatistics.getBorrowLatency(false), PoolStatistics.getBorrowTimeNanos());
+    type(out, "log4jdbc_connection_borrow_failures_total", "counter",
+      "Failures to borrow a connection from a DataSourceSpy.");
+    sample(out, "log4jdbc_connection_borrow_failures_total", null,
+      PoolStatistics.getBorrowFailures());
+    type(out, "log4jdbc_connection_hold_seconds", "histogram",
+      "Time borrowed connections were held before being closed.");
+    histogram(out, "log4jdbc_connection_hold_seconds", null,
+      PoolStatistics.getHoldLatency(false), PoolStatistics.getHoldTimeNanos());
+    type(out, "log4jdbc_connection_hold_by_call_site_seconds_total", "counter",
+      "Time borrowed connections were held, by where they were borrowed.");
+    for (PoolStatistics.Holder h : PoolStatistics.getTopHolders(topSql))
+    {
+      out.append("log4jdbc_connection_hold_by_call_site_seconds_total{").
+        append(label("call_site", h.getCallSite())).append("} ").
+        append(seconds(h.getTotalNanos())).append('\n');
+    }
+
+    List<SqlStatistics.Snapshot> sql = topSql(topSql);
+    type(out, "log4jdbc_sql_duration_seconds", "histogram", "Time taken to run SQL.");
+    for (SqlStatistics.Snapshot s : sql)
+    {
+      histogram(out, s);
+    }
+    type(out, "log4jdbc_sql_errors_total", "counter", "SQL that failed with an exception.");
+    for (SqlStatistics.Snapshot s : sql)
+    {
+      sample(out, "log4jdbc_sql_errors_total", label("sql", s.getTemplate()), s.getErrorCount());
+    }
+    type(out, "log4jdbc_sql_rows_affected_total", "counter", "Rows affected by SQL.");
+    for (SqlStatistics.Snapshot s : sql)
+    {
+      sample(out, "log4jdbc_sql_rows_affected_total", label("sql", s.getTemplate()),
+        s.getRowsAffected());
+    }
+    type(out, "log4jdbc_sql_rows_fetched_total", "counter", "Rows fetched from ResultSets.");
+    for (SqlStatistics.Snapshot s : sql)
+    {
+      sample(out, "log4jdbc_sql_rows_fetched_total", label("sql", s.getTemplate()),
+        s.getRowsFetched());
+    }
+    type(out, "log4jdbc_sql_fetch_seconds_total", "counter",
+      "Time spent fetching rows from ResultSets.");
+    for (SqlStatistics.Snapshot s : sql)
+    {
+      out.append("log4jdbc_sql_fetch_seconds_total{").append(label("sql", s.getTemplate())).
+        append("} ").append(seconds(s.getFetchTimeNanos())).append('\n');
+    }
+
+    type(out, "log4jdbc_sql_errors_by_sqlstate_total", "counter",
+      "Exceptions thrown by JDBC methods, by SQLState class.");
+    for (Map.Entry<String, Long> e : EventCounts.getSqlStateErrors().entrySet())
+    {
+      sample(out, "log4jdbc_sql_errors_by_sqlstate_total", label("sqlstate_class", e.getKey()),
+        e.getValue().longValue());
+    }
+
+    type(out, "log4jdbc_sql_slow_total", "counter",
+      "SQL that took longer than the sqltiming warn or error threshold.");
+    sample(out, "log4jdbc_sql_slow_total", label("threshold", "warn"),
+      EventCounts.SlowSqlWarnings.sum());
+    sample(out, "log4jdbc_sql_slow_total", label("threshold", "error"),
+      EventCounts.SlowSqlErrors.sum());
+
+    type(out, "log4jdbc_exceptions_total", "counter", "Exceptions thrown by JDBC methods.");
+    sample(out, "log4jdbc_exceptions_total", null, EventCounts.Exceptions.sum());
+
+    type(out, "log4jdbc_nplusone_suspected_total", "counter", "Suspected N+1 queries.");
+    sample(out, "log4jdbc_nplusone_suspected_total", null, EventCounts.NPlusOneSuspected.sum());
+
+    type(out, "log4jdbc_sql_duplicate_total", "counter",
+      "SQL run again with the same bind variables in the same transaction.");
+    sample(out, "log4jdbc_sql_duplicate_total", null, EventCounts.DuplicateSql.sum());
+
+    type(out, "log4jdbc_transactions_total", "counter", "Transactions ended, by outcome.");
+    sample(out, "log4jdbc_transactions_total", label("outcome", "commit"),
+      EventCounts.TransactionsCommitted.sum());
+    sample(out, "log4jdbc_transactions_total", label("outcome", "rollback"),
+      EventCounts.TransactionsRolledBack.sum());
+    sample(out, "log4jdbc_transactions_total", label("outcome", "close"),
+      EventCounts.TransactionsClosed.sum());
+
+    type(out, "log4jdbc_transactions_slow_total", "counter",
+      "Transactions that took longer than the transaction warn or error threshold.");
+    sample(out, "log4jdbc_transactions_slow_total", label("threshold", "warn"),
+      EventCounts.SlowTransactionWarnings.sum());
+    sample(out, "log4jdbc_transactions_slow_total", label("threshold", "error"),
+      EventCounts.SlowTransactionErrors.sum());
+
+    type(out, "log4jdbc_transaction_seconds_total", "counter",
+      "Time that transactions were open for.");
+    out.append("log4jdbc_transaction_seconds_total ").
+      append(seconds(EventCounts.TransactionNanos.sum())).append('\n');
+
+    type(out, "log4jdbc_transaction_idle_seconds_total", "counter",
+      "Time that transactions were open for without running a statement.");
+    out.append("log4jdbc_transaction_idle_seconds_total ").
+      append(seconds(EventCounts.TransactionIdleNanos.sum())).append('\n');
+
+    type(out, "log4jdbc_connection_leaks_total", "counter",
+      "Connections held open longer than the leak threshold, or garbage collected while open.");
+    sample(out, "log4jdbc_connection_leaks_total", label("kind", "held"),
+      EventCounts.ConnectionLeaks.sum());
+    sample(out, "log4jdbc_connection_leaks_total", label("kind", "collected"),
+      EventCounts.ConnectionsCollected.sum());
+
+    type(out, "log4jdbc_statement_leaks_total", "counter",
+      "Statements and ResultSets left open when their connection closed or for too long.");
+    sample(out, "log4jdbc_statement_leaks_total", null, EventCounts.StatementLeaks.sum());
+
+    type(out, "log4jdbc_overhead_seconds_total", "counter",
+      "Time spent in log4jdbc logging and recording SQL.");
+    out.append("log4jdbc_overhead_seconds_total ").
+      append(seconds(EventCounts.OverheadNanos.sum())).append('\n');
+
+    return out.toString();
+  }
+
+  /**
+   * Get the statistics for the SQL that has taken the most time in total, with the statistics for
+   * the rest (and for the SqlStatistics "(other)" entry) merged into one "(other)" entry last.
+   */
+  private static List<SqlStatistics.Snapshot> topSql(int topSql)
+  {
+    List<SqlStatistics.Snapshot> top = new ArrayList<>();
+    SqlStatistics.Snapshot other = null;
+    for (SqlStatistics.Snapshot s : SqlStatistics.getSnapshots())
+    {
+      if (top.size() < topSql && !SqlStatistics.OtherTemplate.equals(s.getTemplate()))
+      {
+        top.add(s);
+      }
+      else
+      {
+        other = other == null ? s : merge(other, s);
+      }
+    }
+    if (other != null)
+    {
+      top.add(merge(other, null));
+    }
+    return top;
+  }
+
+  private static void handle(HttpExchange exchange) throws IOException
+  {
+    try
+    {
+      if (!"GET".equals(exchange.getRequestMethod()) &&
+        !"HEAD".equals(exchange.getRequestMethod()))
+      {
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+      byte[] body = scrape(DriverSpy.PrometheusTopSql).getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+      if ("HEAD".equals(exchange.getRequestMethod()))
+      {
+        exchange.sendResponseHeaders(200, -1);
+        return;
+      }
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream os = exchange.getResponseBody())
+      {
+        os.write(body);
+      }
+    }
+    finally
+    {
+      exchange.close();
+    }
+  }
+
+  private static void writeTextfile(Path path)
+  {
+    try
+    {
+      Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+      Files.write(tmp, scrape(DriverSpy.PrometheusTopSql).getBytes(StandardCharsets.UTF_8));
+      try
+      {
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+      }
+      catch (AtomicMoveNotSupportedException e)
+      {
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    catch (IOException | RuntimeException e)
+    {
+      DriverSpy.log.debug("could not write Prometheus metrics to " + path + ": " + e);
+    }
+  }
+
+  private static void histogram(StringBuilder out, SqlStatistics.Snapshot s)
+  {
+    histogram(out, "log4jdbc_sql_duration_seconds", label("sql", s.getTemplate()),
+      s.getLatency(), s.getTotalTimeNanos());
+  }
+
+  private static void histogram(StringBuilder out, String name, String labels,
+    LatencyHistogram.Snapshot latency, long totalNanos)
+  {
+    String prefix = labels == null ? "" : labels + ",";
+    for (int i = 0; i < BUCKET_NANOS.length; i++)
+    {
+      sample(out, name + "_bucket", prefix + "le=\"" + BUCKET_LABELS[i] + "\"",
+        latency.getCountAtOrBelow(BUCKET_NANOS[i]));
+    }
+    sample(out, name + "_bucket", prefix + "le=\"+Inf\"", latency.getCount());
+    out.append(name).append("_sum");
+    if (labels != null)
+    {
+      out.append('{').append(labels).append('}');
+    }
+    out.append(' ').append(seconds(totalNanos)).append('\n');
+    sample(out, name + "_count", labels, latency.getCount());
+  }
+
+  /**
+   * Merge two snapshots into one "(other)" snapshot (or just rename a if b is null.)
+   */
+  private static SqlStatistics.Snapshot merge(SqlStatistics.Snapshot a, SqlStatistics.Snapshot b)
+  {
+    if (b == null)
+    {
+      return new SqlStatistics.Snapshot(SqlStatistics.OtherTemplate, a.getCount(),
+        a.getErrorCount(), a.getTotalTimeNanos(), a.getMinTimeNanos(), a.getMaxTimeNanos(),
+        a.getRowsAffected(), a.getRowsFetched(), a.getFetchTimeNanos(), a.getLatency());
+    }
+    return new SqlStatistics.Snapshot(SqlStatistics.OtherTemplate, a.getCount() + b.getCount(),
+      a.getErrorCount() + b.getErrorCount(), a.getTotalTimeNanos() + b.getTotalTimeNanos(),
+      Math.min(a.getMinTimeNanos(), b.getMinTimeNanos()),
+      Math.max(a.getMaxTimeNanos(), b.getMaxTimeNanos()),
+      a.getRowsAffected() + b.getRowsAffected(), a.getRowsFetched() + b.getRowsFetched(),
+      a.getFetchTimeNanos() + b.getFetchTimeNanos(), a.getLatency().merge(b.getLatency()));
+  }
+
+  private static void type(StringBuilder out, String name, String type, String help)
+  {
+    out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  private static void sample(StringBuilder out, String name, String labels, long value)
+  {
+    out.append(name);
+    if (labels != null)
+    {
+      out.append('{').append(labels).append('}');
+    }
+    out.append(' ').append(value).append('\n');
+  }
+
+  private static String label(String name, String value)
+  {
+    return name + "=\"" + escape(value) + "\"";
+  }
+
+  /**
+   * Escape a label value: backslash, double quote and line feed are the only characters that need
+   * it.
+   */
+  static String escape(String value)
+  {
+    StringBuilder sb = null;
+    for (int i = 0; i < value.length(); i++)
+    {
+      char c = value.charAt(i);
+      String esc = c == '\\' ? "\\\\" : c == '"' ? "\\\"" : c == '\n' ? "\\n" : null;
+      if (esc != null && sb == null)
+      {
+        sb = new StringBuilder(value.length() + 16).append(value, 0, i);
+      }
+      if (sb != null)
+      {
+        if (esc != null)
+        {
+          sb.append(esc);
+        }
+        else
+        {
+          sb.append(c);
+        }
+      }
+    }
+    return sb == null ? value : sb.toString();
+  }
+
+  private static String seconds(long nanos)
+  {
+    return Double.toString(nanos / 1.0e9);
+  }
+
+  private static Thread daemon(Runnable r, String name)
+  {
+    Thread t = new Thread(r, name);
+    t.setDaemon(true);
+    return t;
+  }
+
+  private PrometheusExporter()
+  {
+  }
+}
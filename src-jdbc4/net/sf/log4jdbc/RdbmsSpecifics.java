@@ -15,9 +15,6 @@
  */
 package net.sf.log4jdbc;
 
-import java.util.Date;
-import java.text.SimpleDateFormat;
-
 /**
  * Encapsulate sql formatting details about a particular relational database management system so
  * that accurate, useable SQL can be composed for that RDMBS.
@@ -35,6 +32,8 @@ public class RdbmsSpecifics
 
   protected static final String dateFormat = "MM/dd/yyyy HH:mm:ss.SSS";
 
+  private static final DateFormatter dateFormatter = new DateFormatter(dateFormat);
+
   /**
    * Format an Object that is being bound to a PreparedStatement parameter, for display. The goal is
    * to reformat the object in a format that can be re-run against the native SQL client of the
@@ -56,9 +55,9 @@ public class RdbmsSpecifics
       {
         return "'" + escapeString((String)object) + "'";
       }
-      else if (object instanceof Date)
+      else if (DateFormatter.isDateTime(object))
       {
-        return "'" + new SimpleDateFormat(dateFormat).format(object) + "'";
+        return "'" + dateFormatter.format(object) + "'";
       }
       else if (object instanceof Boolean)
       {
@@ -95,4 +94,14 @@ public class RdbmsSpecifics
     return out.toString();
   }
 
+  /**
+   * Does a backslash escape the character after it in a 'string literal' in this RDBMS's SQL?  It
+   * doesn't in standard SQL, where a quote is only escaped by doubling it.
+   *
+   * @return true if a backslash escapes the next character in a string literal.
+   */
+  boolean isBackslashEscapes()
+  {
+    return false;
+  }
 }
@@ -40,6 +40,10 @@ import java.util.Map;
 /**
  * Wraps a ResultSet and reports method calls, returns and exceptions.
  *
+ * The rows fetched with next() are counted and the time spent inside the real next() is added up.
+ * When next() runs out of rows or the ResultSet is closed, a FetchSummary of them is reported along
+ * with the SQL that produced the ResultSet.
+ *
  * JDBC 4 version.
  *
  * @author Arthur Blake
@@ -55,14 +59,17 @@ public class ResultSetSpy implements ResultSet, Spy
    * exception.
    * @param exception exception that was generated
    */
-  protected void reportException(String methodCall, SQLException exception)
+  protected void reportException(MethodCall methodCall, SQLException exception)
   {
+    EventCounts.exception(exception);
     log.exceptionOccured(this, methodCall, exception, null, -1L);
   }
 
   /**
-   * Report (for logging) that a method returned.  All the other reportReturn methods are
-   * conveniance methods that call this method.
+   * Report (for logging) that a method returned.  The void reportReturn methods are conveniance
+   * methods that call this method.  The reportReturn methods for typed return values pass the value
+   * straight to the SpyLogDelegator instead, so that it is only converted to a String if it is
+   * actually going to be logged.
    *
    * @param methodCall description of method call and arguments passed to it that returned.
    * @param msg description of what the return value that was returned.  may be an empty String for
@@ -73,6 +80,30 @@ public class ResultSetSpy implements ResultSet, Spy
     log.methodReturned(this, methodCall, msg);
   }
 
+  /**
+   * Report (for logging) that a method returned, using a deferred description of the method call.
+   *
+   * @param methodCall description of method call and arguments passed to it that returned.
+   * @param msg description of what the return value that was returned.  may be an empty String for
+   * void return types.
+   */
+  protected void reportAllReturns(MethodCall methodCall, String msg)
+  {
+    log.methodReturned(this, methodCall, msg);
+  }
+
+  /**
+   * Determine if method returns on this Spy will actually be logged.  This is checked before the
+   * MethodCall for a return is created, so that nothing at all is allocated for the report when
+   * the logger for this Spy is turned off.
+   *
+   * @return true if method returns on this Spy should be reported.
+   */
+  protected boolean isReturnReported()
+  {
+    return log.isMethodReturnedEnabled(this);
+  }
+
   private ResultSet realResultSet;
 
   /**
@@ -87,6 +118,44 @@ public class ResultSetSpy implements ResultSet, Spy
 
   private StatementSpy parent;
 
+  /**
+   * This ResultSet, as its connection's OpenCursors tracks it, or null if they aren't being
+   * tracked.
+   */
+  private final OpenCursors.Cursor cursor;
+
+  /**
+   * The SQL (a String or a DumpedSql) that produced this ResultSet, or null if not known.
+   */
+  private final Object sql;
+
+  /**
+   * How long the SQL that produced this ResultSet took to run, in nanoseconds.
+   */
+  private final long execTimeNanos;
+
+  /**
+   * Number of rows fetched so far with next().
+   */
+  private long rowsFetched;
+
+  /**
+   * Time spent inside the real next() so far, in nanoseconds.
+   */
+  private long fetchTimeNanos;
+
+  /**
+   * Time spent inside the real next() up to when the first row was fetched, in nanoseconds, or -1
+   * if no row has been fetched yet.
+   */
+  private long firstRowNanos = -1L;
+
+  /**
+   * Have the rows fetched been reported yet?  They are reported once, when next() runs out of rows
+   * or when the ResultSet is closed.
+   */
+  private boolean fetchReported;
+
   /**
    * Create a new ResultSetSpy that wraps another ResultSet object, that logs all method calls,
    * exceptions, etc.
@@ -102,6 +171,9 @@ public class ResultSetSpy implements ResultSet, Spy
     }
     this.realResultSet = realResultSet;
     this.parent = parent;
+    sql = parent == null ? null : parent.getLastSql();
+    execTimeNanos = parent == null ? 0L : parent.getLastExecTimeNanos();
+    cursor = parent == null ? null : parent.resultSetOpened(this, sql);
     log = SpyLogFactory.getSpyLogDelegator();
     reportReturn("new ResultSet");
   }
@@ -121,6 +193,20 @@ public class ResultSetSpy implements ResultSet, Spy
     return parent.getConnectionNumber();
   }
 
+  /**
+   * Report the rows fetched from this ResultSet to the Statement that produced it, the first time
+   * this is called.
+   */
+  private void reportFetch()
+  {
+    if (!fetchReported && sql != null)
+    {
+      fetchReported = true;
+      parent.reportFetch(this, sql, new FetchSummary(execTimeNanos, rowsFetched, fetchTimeNanos,
+        firstRowNanos < 0 ? -1L : execTimeNanos + firstRowNanos));
+    }
+  }
+
   /**
    * Conveniance method to report (for logging) that a method returned a boolean value.
    *
@@ -128,9 +214,9 @@ public class ResultSetSpy implements ResultSet, Spy
    * @param value boolean return value.
    * @return the boolean return value as passed in.
    */
-  protected boolean reportReturn(String methodCall, boolean value)
+  protected boolean reportReturn(MethodCall methodCall, boolean value)
   {
-    reportAllReturns(methodCall, "" + value);
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
@@ -141,9 +227,9 @@ public class ResultSetSpy implements ResultSet, Spy
    * @param value byte return value.
    * @return the byte return value as passed in.
    */
-  protected byte reportReturn(String methodCall, byte value)
+  protected byte reportReturn(MethodCall methodCall, byte value)
   {
-    reportAllReturns(methodCall, "" + value);
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
@@ -154,9 +240,9 @@ public class ResultSetSpy implements ResultSet, Spy
    * @param value int return value.
    * @return the int return value as passed in.
    */
-  protected int reportReturn(String methodCall, int value)
+  protected int reportReturn(MethodCall methodCall, int value)
   {
-    reportAllReturns(methodCall, "" + value);
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
@@ -167,9 +253,9 @@ public class ResultSetSpy implements ResultSet, Spy
    * @param value double return value.
    * @return the double return value as passed in.
    */
-  protected double reportReturn(String methodCall, double value)
+  protected double reportReturn(MethodCall methodCall, double value)
   {
-    reportAllReturns(methodCall, "" + value);
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
@@ -180,9 +266,9 @@ public class ResultSetSpy implements ResultSet, Spy
    * @param value short return value.
    * @return the short return value as passed in.
    */
-  protected short reportReturn(String methodCall, short value)
+  protected short reportReturn(MethodCall methodCall, short value)
   {
-    reportAllReturns(methodCall, "" + value);
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
@@ -193,9 +279,9 @@ public class ResultSetSpy implements ResultSet, Spy
    * @param value long return value.
    * @return the long return value as passed in.
    */
-  protected long reportReturn(String methodCall, long value)
+  protected long reportReturn(MethodCall methodCall, long value)
   {
-    reportAllReturns(methodCall, "" + value);
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
@@ -206,9 +292,9 @@ public class ResultSetSpy implements ResultSet, Spy
    * @param value float return value.
    * @return the float return value as passed in.
    */
-  protected float reportReturn(String methodCall, float value)
+  protected float reportReturn(MethodCall methodCall, float value)
   {
-    reportAllReturns(methodCall, "" + value);
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
@@ -219,9 +305,9 @@ public class ResultSetSpy implements ResultSet, Spy
    * @param value return Object.
    * @return the return Object as passed in.
    */
-  protected Object reportReturn(String methodCall, Object value)
+  protected Object reportReturn(MethodCall methodCall, Object value)
   {
-    reportAllReturns(methodCall, "" + value);
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
@@ -235,161 +321,209 @@ public class ResultSetSpy implements ResultSet, Spy
     reportAllReturns(methodCall, "");
   }
 
+  /**
+   * Conveniance method to report (for logging) that a method returned (void return type).
+   *
+   * @param methodCall description of method call and arguments passed to it that returned.
+   */
+  protected void reportReturn(MethodCall methodCall)
+  {
+    reportAllReturns(methodCall, "");
+  }
+
   // forwarding methods
 
   public void updateAsciiStream(int columnIndex, InputStream x, int length) throws SQLException
   {
-    String methodCall = "updateAsciiStream(" + columnIndex + ", " + x + ", " + length + ")";
     try
     {
       realResultSet.updateAsciiStream(columnIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateAsciiStream", columnIndex, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateAsciiStream", columnIndex, x, length));
+    }
   }
 
   public void updateAsciiStream(String columnName, InputStream x, int length) throws SQLException
   {
-    String methodCall = "updateAsciiStream(" + columnName + ", " + x + ", " + length + ")";
     try
     {
       realResultSet.updateAsciiStream(columnName, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateAsciiStream", columnName, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateAsciiStream", columnName, x, length));
+    }
   }
 
   public int getRow() throws SQLException
   {
-    String methodCall = "getRow()";
     try
     {
-      return reportReturn(methodCall, realResultSet.getRow());
+      int result = realResultSet.getRow();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getRow"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getRow"), s);
       throw s;
     }
   }
 
   public void cancelRowUpdates() throws SQLException
   {
-    String methodCall = "cancelRowUpdates()";
     try
     {
       realResultSet.cancelRowUpdates();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("cancelRowUpdates"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("cancelRowUpdates"));
+    }
   }
 
   public Time getTime(int columnIndex) throws SQLException
   {
-    String methodCall = "getTime(" + columnIndex + ")";
     try
     {
-      return (Time) reportReturn(methodCall, realResultSet.getTime(columnIndex));
+      Time result = realResultSet.getTime(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getTime", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getTime", columnIndex), s);
       throw s;
     }
   }
 
   public Time getTime(String columnName) throws SQLException
   {
-    String methodCall = "getTime(" + columnName + ")";
     try
     {
-      return (Time) reportReturn(methodCall, realResultSet.getTime(columnName));
+      Time result = realResultSet.getTime(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getTime", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getTime", columnName), s);
       throw s;
     }
   }
 
   public Time getTime(int columnIndex, Calendar cal) throws SQLException
   {
-    String methodCall = "getTime(" + columnIndex + ", " + cal + ")";
     try
     {
-      return (Time) reportReturn(methodCall, realResultSet.getTime(columnIndex, cal));
+      Time result = realResultSet.getTime(columnIndex, cal);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getTime", columnIndex, cal), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getTime", columnIndex, cal), s);
       throw s;
     }
   }
 
   public Time getTime(String columnName, Calendar cal) throws SQLException
   {
-    String methodCall = "getTime(" + columnName + ", " + cal + ")";
     try
     {
-      return (Time) reportReturn(methodCall, realResultSet.getTime(columnName, cal));
+      Time result = realResultSet.getTime(columnName, cal);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getTime", columnName, cal), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getTime", columnName, cal), s);
       throw s;
     }
   }
 
   public boolean absolute(int row) throws SQLException
   {
-    String methodCall = "absolute(" + row + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.absolute(row));
+      boolean result = realResultSet.absolute(row);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("absolute", row), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("absolute", row), s);
       throw s;
     }
   }
 
   public Timestamp getTimestamp(int columnIndex) throws SQLException
   {
-    String methodCall = "getTimestamp(" + columnIndex + ")";
     try
     {
-      return (Timestamp) reportReturn(methodCall, realResultSet.getTimestamp(columnIndex));
+      Timestamp result = realResultSet.getTimestamp(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getTimestamp", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getTimestamp", columnIndex), s);
       throw s;
     }
   }
 
   public Timestamp getTimestamp(String columnName) throws SQLException
   {
-    String methodCall = "getTimestamp(" + columnName + ")";
     try
     {
-      return (Timestamp) reportReturn(methodCall, realResultSet.getTimestamp(columnName));
+      Timestamp result = realResultSet.getTimestamp(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getTimestamp", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getTimestamp", columnName), s);
       throw s;
     }
 
@@ -397,14 +531,18 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException
   {
-    String methodCall = "getTimestamp(" + columnIndex + ", " + cal + ")";
     try
     {
-      return (Timestamp) reportReturn(methodCall, realResultSet.getTimestamp(columnIndex, cal));
+      Timestamp result = realResultSet.getTimestamp(columnIndex, cal);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getTimestamp", columnIndex, cal), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getTimestamp", columnIndex, cal), s);
       throw s;
     }
 
@@ -412,1269 +550,1530 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public Timestamp getTimestamp(String columnName, Calendar cal) throws SQLException
   {
-    String methodCall = "getTimestamp(" + columnName + ", " + cal + ")";
     try
     {
-      return (Timestamp) reportReturn(methodCall, realResultSet.getTimestamp(columnName, cal));
+      Timestamp result = realResultSet.getTimestamp(columnName, cal);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getTimestamp", columnName, cal), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getTimestamp", columnName, cal), s);
       throw s;
     }
   }
 
   public void moveToInsertRow() throws SQLException
   {
-    String methodCall = "moveToInsertRow()";
     try
     {
       realResultSet.moveToInsertRow();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("moveToInsertRow"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("moveToInsertRow"));
+    }
   }
 
   public boolean relative(int rows) throws SQLException
   {
-    String methodCall = "relative(" + rows + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.relative(rows));
+      boolean result = realResultSet.relative(rows);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("relative", rows), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("relative", rows), s);
       throw s;
     }
   }
 
   public boolean previous() throws SQLException
   {
-    String methodCall = "previous()";
     try
     {
-      return reportReturn(methodCall, realResultSet.previous());
+      boolean result = realResultSet.previous();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("previous"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("previous"), s);
       throw s;
     }
   }
 
   public void moveToCurrentRow() throws SQLException
   {
-    String methodCall = "moveToCurrentRow()";
     try
     {
       realResultSet.moveToCurrentRow();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("moveToCurrentRow"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("moveToCurrentRow"));
+    }
   }
 
   public Ref getRef(int i) throws SQLException
   {
-    String methodCall = "getRef(" + i + ")";
     try
     {
-      return (Ref) reportReturn(methodCall, realResultSet.getRef(i));
+      Ref result = realResultSet.getRef(i);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getRef", i), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getRef", i), s);
       throw s;
     }
   }
 
   public void updateRef(int columnIndex, Ref x) throws SQLException
   {
-    String methodCall = "updateRef(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateRef(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateRef", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateRef", columnIndex, x));
+    }
   }
 
   public Ref getRef(String colName) throws SQLException
   {
-    String methodCall = "getRef(" + colName + ")";
     try
     {
-      return (Ref) reportReturn(methodCall, realResultSet.getRef(colName));
+      Ref result = realResultSet.getRef(colName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getRef", colName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getRef", colName), s);
       throw s;
     }
   }
 
   public void updateRef(String columnName, Ref x) throws SQLException
   {
-    String methodCall = "updateRef(" + columnName + ", " + x + ")";
     try
     {
       realResultSet.updateRef(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateRef", columnName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateRef", columnName, x));
+    }
   }
 
   public Blob getBlob(int i) throws SQLException
   {
-    String methodCall = "getBlob(" + i + ")";
     try
     {
-      return (Blob) reportReturn(methodCall, realResultSet.getBlob(i));
+      Blob result = realResultSet.getBlob(i);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBlob", i), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBlob", i), s);
       throw s;
     }
   }
 
   public void updateBlob(int columnIndex, Blob x) throws SQLException
   {
-    String methodCall = "updateBlob(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateBlob(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateBlob", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateBlob", columnIndex, x));
+    }
   }
 
   public Blob getBlob(String colName) throws SQLException
   {
-    String methodCall = "getBlob(" + colName + ")";
     try
     {
-      return (Blob) reportReturn(methodCall, realResultSet.getBlob(colName));
+      Blob result = realResultSet.getBlob(colName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBlob", colName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBlob", colName), s);
       throw s;
     }
   }
 
   public void updateBlob(String columnName, Blob x) throws SQLException
   {
-    String methodCall = "updateBlob(" + columnName + ", " + x + ")";
     try
     {
       realResultSet.updateBlob(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateBlob", columnName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateBlob", columnName, x));
+    }
   }
 
   public Clob getClob(int i) throws SQLException
   {
-    String methodCall = "getClob(" + i + ")";
     try
     {
-      return (Clob) reportReturn(methodCall, realResultSet.getClob(i));
+      Clob result = realResultSet.getClob(i);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getClob", i), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getClob", i), s);
       throw s;
     }
   }
 
   public void updateClob(int columnIndex, Clob x) throws SQLException
   {
-    String methodCall = "updateClob(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateClob(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateClob", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateClob", columnIndex, x));
+    }
   }
 
   public Clob getClob(String colName) throws SQLException
   {
-    String methodCall = "getClob(" + colName + ")";
     try
     {
-      return (Clob) reportReturn(methodCall, realResultSet.getClob(colName));
+      Clob result = realResultSet.getClob(colName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getClob", colName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getClob", colName), s);
       throw s;
     }
   }
 
   public void updateClob(String columnName, Clob x) throws SQLException
   {
-    String methodCall = "updateClob(" + columnName + ", " + x + ")";
     try
     {
       realResultSet.updateClob(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateClob", columnName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateClob", columnName, x));
+    }
   }
 
   public boolean getBoolean(int columnIndex) throws SQLException
   {
-    String methodCall = "getBoolean(" + columnIndex + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.getBoolean(columnIndex));
+      boolean result = realResultSet.getBoolean(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBoolean", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBoolean", columnIndex), s);
       throw s;
     }
   }
 
   public boolean getBoolean(String columnName) throws SQLException
   {
-    String methodCall = "getBoolean(" + columnName + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.getBoolean(columnName));
+      boolean result = realResultSet.getBoolean(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBoolean", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBoolean", columnName), s);
       throw s;
     }
   }
 
   public Array getArray(int i) throws SQLException
   {
-    String methodCall = "getArray(" + i + ")";
     try
     {
-      return (Array) reportReturn(methodCall, realResultSet.getArray(i));
+      Array result = realResultSet.getArray(i);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getArray", i), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getArray", i), s);
       throw s;
     }
   }
 
   public void updateArray(int columnIndex, Array x) throws SQLException
   {
-    String methodCall = "updateArray(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateArray(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateArray", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateArray", columnIndex, x));
+    }
   }
 
   public Array getArray(String colName) throws SQLException
   {
-    String methodCall = "getArray(" + colName + ")";
     try
     {
-      return (Array) reportReturn(methodCall, realResultSet.getArray(colName));
+      Array result = realResultSet.getArray(colName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getArray", colName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getArray", colName), s);
       throw s;
     }
   }
 
   public void updateArray(String columnName, Array x) throws SQLException
   {
-    String methodCall = "updateArray(" + columnName + ", " + x + ")";
     try
     {
       realResultSet.updateArray(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateArray", columnName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateArray", columnName, x));
+    }
   }
 
   public RowId getRowId(int columnIndex) throws SQLException
   {
-    String methodCall = "getRowId(" + columnIndex + ")";
     try
     {
-      return (RowId) reportReturn(methodCall, realResultSet.getRowId(columnIndex));
+      RowId result = realResultSet.getRowId(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getRowId", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getRowId", columnIndex), s);
       throw s;
     }
   }
 
   public RowId getRowId(String columnLabel) throws SQLException
   {
-    String methodCall = "getRowId(" + columnLabel + ")";
     try
     {
-      return (RowId) reportReturn(methodCall, realResultSet.getRowId(columnLabel));
+      RowId result = realResultSet.getRowId(columnLabel);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getRowId", columnLabel), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getRowId", columnLabel), s);
       throw s;
     }
   }
 
   public void updateRowId(int columnIndex, RowId x) throws SQLException
   {
-    String methodCall = "updateRowId(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateRowId(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateRowId", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateRowId", columnIndex, x));
+    }
   }
 
   public void updateRowId(String columnLabel, RowId x) throws SQLException
   {
-    String methodCall = "updateRowId(" + columnLabel + ", " + x + ")";
     try
     {
       realResultSet.updateRowId(columnLabel, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateRowId", columnLabel, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateRowId", columnLabel, x));
+    }
   }
 
   public int getHoldability() throws SQLException
   {
-    String methodCall = "getHoldability()";
     try
     {
-      return reportReturn(methodCall, realResultSet.getHoldability());
+      int result = realResultSet.getHoldability();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getHoldability"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getHoldability"), s);
       throw s;
     }
   }
 
   public boolean isClosed() throws SQLException
   {
-    String methodCall = "isClosed()";
     try
     {
-      return reportReturn(methodCall, realResultSet.isClosed());
+      boolean result = realResultSet.isClosed();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("isClosed"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("isClosed"), s);
       throw s;
     }
   }
 
   public void updateNString(int columnIndex, String nString) throws SQLException
   {
-    String methodCall = "updateNString(" + columnIndex + ", " + nString + ")";
     try
     {
       realResultSet.updateNString(columnIndex, nString);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateNString", columnIndex, nString), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateNString", columnIndex, nString));
+    }
   }
 
   public void updateNString(String columnLabel, String nString) throws SQLException
   {
-    String methodCall = "updateNString(" + columnLabel + ", " + nString + ")";
     try
     {
       realResultSet.updateNString(columnLabel, nString);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateNString", columnLabel, nString), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateNString", columnLabel, nString));
+    }
   }
 
   public void updateNClob(int columnIndex, NClob nClob) throws SQLException
   {
-    String methodCall = "updateNClob(" + columnIndex + ", " + nClob + ")";
     try
     {
       realResultSet.updateNClob(columnIndex, nClob);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateNClob", columnIndex, nClob), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateNClob", columnIndex, nClob));
+    }
   }
 
   public void updateNClob(String columnLabel, NClob nClob) throws SQLException
   {
-    String methodCall = "updateNClob(" + columnLabel + ", " + nClob + ")";
     try
     {
       realResultSet.updateNClob(columnLabel, nClob);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateNClob", columnLabel, nClob), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateNClob", columnLabel, nClob));
+    }
   }
 
   public NClob getNClob(int columnIndex) throws SQLException
   {
-    String methodCall = "getNClob(" + columnIndex + ")";
     try
     {
-      return (NClob) reportReturn(methodCall, realResultSet.getNClob(columnIndex));
+      NClob result = realResultSet.getNClob(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getNClob", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getNClob", columnIndex), s);
       throw s;
     }
   }
 
   public NClob getNClob(String columnLabel) throws SQLException
   {
-    String methodCall = "getNClob(" + columnLabel + ")";
     try
     {
-      return (NClob) reportReturn(methodCall, realResultSet.getNClob(columnLabel));
+      NClob result = realResultSet.getNClob(columnLabel);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getNClob", columnLabel), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getNClob", columnLabel), s);
       throw s;
     }
   }
 
   public SQLXML getSQLXML(int columnIndex) throws SQLException
   {
-    String methodCall = "getSQLXML(" + columnIndex + ")";
     try
     {
-      return (SQLXML) reportReturn(methodCall, realResultSet.getSQLXML(columnIndex));
+      SQLXML result = realResultSet.getSQLXML(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getSQLXML", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getSQLXML", columnIndex), s);
       throw s;
     }
   }
 
   public SQLXML getSQLXML(String columnLabel) throws SQLException
   {
-    String methodCall = "getSQLXML(" + columnLabel + ")";
     try
     {
-      return (SQLXML) reportReturn(methodCall, realResultSet.getSQLXML(columnLabel));
+      SQLXML result = realResultSet.getSQLXML(columnLabel);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getSQLXML", columnLabel), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getSQLXML", columnLabel), s);
       throw s;
     }
   }
 
   public void updateSQLXML(int columnIndex, SQLXML xmlObject) throws SQLException
   {
-    String methodCall = "updateSQLXML(" + columnIndex + ", " + xmlObject + ")";
     try
     {
       realResultSet.updateSQLXML(columnIndex, xmlObject);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateSQLXML", columnIndex, xmlObject), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateSQLXML", columnIndex, xmlObject));
+    }
   }
 
   public void updateSQLXML(String columnLabel, SQLXML xmlObject) throws SQLException
   {
-    String methodCall = "updateSQLXML(" + columnLabel + ", " + xmlObject + ")";
     try
     {
       realResultSet.updateSQLXML(columnLabel, xmlObject);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateSQLXML", columnLabel, xmlObject), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateSQLXML", columnLabel, xmlObject));
+    }
   }
 
   public String getNString(int columnIndex) throws SQLException
   {
-    String methodCall = "getNString(" + columnIndex + ")";
     try
     {
-      return (String) reportReturn(methodCall, realResultSet.getNString(columnIndex));
+      String result = realResultSet.getNString(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getNString", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getNString", columnIndex), s);
       throw s;
     }
   }
 
   public String getNString(String columnLabel) throws SQLException
   {
-    String methodCall = "getNString(" + columnLabel + ")";
     try
     {
-      return (String) reportReturn(methodCall, realResultSet.getNString(columnLabel));
+      String result = realResultSet.getNString(columnLabel);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getNString", columnLabel), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getNString", columnLabel), s);
       throw s;
     }
   }
 
   public Reader getNCharacterStream(int columnIndex) throws SQLException
   {
-    String methodCall = "getNCharacterStream(" + columnIndex + ")";
     try
     {
-      return (Reader) reportReturn(methodCall, realResultSet.getNCharacterStream(columnIndex));
+      Reader result = realResultSet.getNCharacterStream(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getNCharacterStream", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getNCharacterStream", columnIndex), s);
       throw s;
     }
   }
 
   public Reader getNCharacterStream(String columnLabel) throws SQLException
   {
-    String methodCall = "getNCharacterStream(" + columnLabel + ")";
     try
     {
-      return (Reader) reportReturn(methodCall, realResultSet.getNCharacterStream(columnLabel));
+      Reader result = realResultSet.getNCharacterStream(columnLabel);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getNCharacterStream", columnLabel), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getNCharacterStream", columnLabel), s);
       throw s;
     }
   }
 
   public void updateNCharacterStream(int columnIndex, Reader x, long length) throws SQLException
   {
-    String methodCall = "updateNCharacterStream(" + columnIndex + ", " + x + ", " + length + ")";
     try
     {
       realResultSet.updateNCharacterStream(columnIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateNCharacterStream", columnIndex, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateNCharacterStream", columnIndex, x, length));
+    }
   }
 
   public void updateNCharacterStream(String columnLabel, Reader reader, long length)
     throws SQLException
   {
-    String methodCall = "updateNCharacterStream(" + columnLabel + ", " + reader + ", " + length + ")";
     try
     {
       realResultSet.updateNCharacterStream(columnLabel, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateNCharacterStream", columnLabel, reader, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateNCharacterStream", columnLabel, reader, length));
+    }
   }
 
   public void updateAsciiStream(int columnIndex, InputStream x, long length) throws SQLException
   {
-    String methodCall = "updateAsciiStream(" + columnIndex + ", " + x + ", " + length + ")";
     try
     {
       realResultSet.updateAsciiStream(columnIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateAsciiStream", columnIndex, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateAsciiStream", columnIndex, x, length));
+    }
   }
 
   public void updateBinaryStream(int columnIndex, InputStream x, long length) throws SQLException
   {
-    String methodCall = "updateBinaryStream(" + columnIndex + ", " + x + ", " + length + ")";
     try
     {
       realResultSet.updateBinaryStream(columnIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateBinaryStream", columnIndex, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateBinaryStream", columnIndex, x, length));
+    }
   }
 
   public void updateCharacterStream(int columnIndex, Reader x, long length) throws SQLException
   {
-    String methodCall = "updateCharacterStream(" + columnIndex + ", " + x + ", " + length + ")";
     try
     {
       realResultSet.updateCharacterStream(columnIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateCharacterStream", columnIndex, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateCharacterStream", columnIndex, x, length));
+    }
   }
 
   public void updateAsciiStream(String columnLabel, InputStream x, long length) throws SQLException
   {
-    String methodCall = "updateAsciiStream(" + columnLabel + ", " + x + ", " + length + ")";
     try
     {
       realResultSet.updateAsciiStream(columnLabel, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateAsciiStream", columnLabel, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateAsciiStream", columnLabel, x, length));
+    }
   }
 
   public void updateBinaryStream(String columnLabel, InputStream x, long length) throws SQLException
   {
-    String methodCall = "updateBinaryStream(" + columnLabel + ", " + x + ", " + length + ")";
     try
     {
       realResultSet.updateBinaryStream(columnLabel, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateBinaryStream", columnLabel, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateBinaryStream", columnLabel, x, length));
+    }
   }
 
   public void updateCharacterStream(String columnLabel, Reader reader, long length)
     throws SQLException
   {
-    String methodCall = "updateCharacterStream(" + columnLabel + ", " + reader + ", " + length + ")";
     try
     {
       realResultSet.updateCharacterStream(columnLabel, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateCharacterStream", columnLabel, reader, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateCharacterStream", columnLabel, reader, length));
+    }
   }
 
   public void updateBlob(int columnIndex, InputStream inputStream, long length) throws SQLException
   {
-    String methodCall = "updateBlob(" + columnIndex + ", " + inputStream + ", " + length + ")";
     try
     {
       realResultSet.updateBlob(columnIndex, inputStream, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateBlob", columnIndex, inputStream, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateBlob", columnIndex, inputStream, length));
+    }
   }
 
   public void updateBlob(String columnLabel, InputStream inputStream, long length)
     throws SQLException
   {
-    String methodCall = "updateBlob(" + columnLabel + ", " + inputStream + ", " + length + ")";
     try
     {
       realResultSet.updateBlob(columnLabel, inputStream, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateBlob", columnLabel, inputStream, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateBlob", columnLabel, inputStream, length));
+    }
   }
 
   public void updateClob(int columnIndex, Reader reader, long length) throws SQLException
   {
-    String methodCall = "updateClob(" + columnIndex + ", " + reader + ", " + length + ")";
     try
     {
       realResultSet.updateClob(columnIndex, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateClob", columnIndex, reader, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateClob", columnIndex, reader, length));
+    }
   }
 
   public void updateClob(String columnLabel, Reader reader, long length) throws SQLException
   {
-    String methodCall = "updateClob(" + columnLabel + ", " + reader + ", " + length + ")";
     try
     {
       realResultSet.updateClob(columnLabel, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateClob", columnLabel, reader, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateClob", columnLabel, reader, length));
+    }
   }
 
   public void updateNClob(int columnIndex, Reader reader, long length) throws SQLException
   {
-    String methodCall = "updateNClob(" + columnIndex + ", " + reader + ", " + length + ")";
     try
     {
       realResultSet.updateNClob(columnIndex, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateNClob", columnIndex, reader, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateNClob", columnIndex, reader, length));
+    }
   }
 
   public void updateNClob(String columnLabel, Reader reader, long length) throws SQLException
   {
-    String methodCall = "updateNClob(" + columnLabel + ", " + reader + ", " + length + ")";
     try
     {
       realResultSet.updateNClob(columnLabel, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateNClob", columnLabel, reader, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateNClob", columnLabel, reader, length));
+    }
   }
 
   public void updateNCharacterStream(int columnIndex, Reader reader) throws SQLException
   {
-    String methodCall = "updateNCharacterStream(" + columnIndex + ", " + reader + ")";
     try
     {
       realResultSet.updateNCharacterStream(columnIndex, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateNCharacterStream", columnIndex, reader), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateNCharacterStream", columnIndex, reader));
+    }
   }
 
   public void updateNCharacterStream(String columnLabel, Reader reader) throws SQLException
   {
-    String methodCall = "updateNCharacterStream(" + columnLabel + ", " + reader + ")";
     try
     {
       realResultSet.updateNCharacterStream(columnLabel, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateNCharacterStream", columnLabel, reader), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateNCharacterStream", columnLabel, reader));
+    }
   }
 
   public void updateAsciiStream(int columnIndex, InputStream x) throws SQLException
   {
-    String methodCall = "updateAsciiStream(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateAsciiStream(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateAsciiStream", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateAsciiStream", columnIndex, x));
+    }
   }
 
   public void updateBinaryStream(int columnIndex, InputStream x) throws SQLException
   {
-    String methodCall = "updateBinaryStream(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateBinaryStream(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateBinaryStream", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateBinaryStream", columnIndex, x));
+    }
   }
 
   public void updateCharacterStream(int columnIndex, Reader x) throws SQLException
   {
-    String methodCall = "updateCharacterStream(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateCharacterStream(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateCharacterStream", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateCharacterStream", columnIndex, x));
+    }
   }
 
   public void updateAsciiStream(String columnLabel, InputStream x) throws SQLException
   {
-    String methodCall = "updateAsciiStream(" + columnLabel + ", " + x + ")";
     try
     {
       realResultSet.updateAsciiStream(columnLabel, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateAsciiStream", columnLabel, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateAsciiStream", columnLabel, x));
+    }
   }
 
   public void updateBinaryStream(String columnLabel, InputStream x) throws SQLException
   {
-    String methodCall = "updateBinaryStream(" + columnLabel + ", " + x + ")";
     try
     {
       realResultSet.updateBinaryStream(columnLabel, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateBinaryStream", columnLabel, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateBinaryStream", columnLabel, x));
+    }
   }
 
   public void updateCharacterStream(String columnLabel, Reader reader) throws SQLException
   {
-    String methodCall = "updateCharacterStream(" + columnLabel + ", " + reader + ")";
     try
     {
       realResultSet.updateCharacterStream(columnLabel, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateCharacterStream", columnLabel, reader), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateCharacterStream", columnLabel, reader));
+    }
   }
 
   public void updateBlob(int columnIndex, InputStream inputStream) throws SQLException
   {
-    String methodCall = "updateBlob(" + columnIndex + ", " + inputStream + ")";
     try
     {
       realResultSet.updateBlob(columnIndex, inputStream);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateBlob", columnIndex, inputStream), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateBlob", columnIndex, inputStream));
+    }
   }
 
   public void updateBlob(String columnLabel, InputStream inputStream) throws SQLException
   {
-    String methodCall = "updateBlob(" + columnLabel + ", " + inputStream + ")";
     try
     {
       realResultSet.updateBlob(columnLabel, inputStream);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateBlob", columnLabel, inputStream), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateBlob", columnLabel, inputStream));
+    }
   }
 
   public void updateClob(int columnIndex, Reader reader) throws SQLException
   {
-    String methodCall = "updateClob(" + columnIndex + ", " + reader + ")";
     try
     {
       realResultSet.updateClob(columnIndex, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateClob", columnIndex, reader), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateClob", columnIndex, reader));
+    }
   }
 
   public void updateClob(String columnLabel, Reader reader) throws SQLException
   {
-    String methodCall = "updateClob(" + columnLabel + ", " + reader + ")";
     try
     {
       realResultSet.updateClob(columnLabel, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateClob", columnLabel, reader), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateClob", columnLabel, reader));
+    }
   }
 
   public void updateNClob(int columnIndex, Reader reader) throws SQLException
   {
-    String methodCall = "updateNClob(" + columnIndex + ", " + reader + ")";
     try
     {
       realResultSet.updateNClob(columnIndex, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateNClob", columnIndex, reader), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateNClob", columnIndex, reader));
+    }
   }
 
   public void updateNClob(String columnLabel, Reader reader) throws SQLException
   {
-    String methodCall = "updateNClob(" + columnLabel + ", " + reader + ")";
     try
     {
       realResultSet.updateNClob(columnLabel, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateNClob", columnLabel, reader), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateNClob", columnLabel, reader));
+    }
   }
 
   public boolean isBeforeFirst() throws SQLException
   {
-    String methodCall = "isBeforeFirst()";
     try
     {
-      return reportReturn(methodCall, realResultSet.isBeforeFirst());
+      boolean result = realResultSet.isBeforeFirst();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("isBeforeFirst"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("isBeforeFirst"), s);
       throw s;
     }
   }
 
   public short getShort(int columnIndex) throws SQLException
   {
-    String methodCall = "getShort(" + columnIndex + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.getShort(columnIndex));
+      short result = realResultSet.getShort(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getShort", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getShort", columnIndex), s);
       throw s;
     }
   }
 
   public short getShort(String columnName) throws SQLException
   {
-    String methodCall = "getShort(" + columnName + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.getShort(columnName));
+      short result = realResultSet.getShort(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getShort", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getShort", columnName), s);
       throw s;
     }
   }
 
   public int getInt(int columnIndex) throws SQLException
   {
-    String methodCall = "getInt(" + columnIndex + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.getInt(columnIndex));
+      int result = realResultSet.getInt(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getInt", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getInt", columnIndex), s);
       throw s;
     }
   }
 
   public int getInt(String columnName) throws SQLException
   {
-    String methodCall = "getInt(" + columnName + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.getInt(columnName));
+      int result = realResultSet.getInt(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getInt", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getInt", columnName), s);
       throw s;
     }
   }
 
   public void close() throws SQLException
   {
-    String methodCall = "close()";
     try
     {
       realResultSet.close();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("close"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    finally
+    {
+      // even if the close failed, the ResultSet is done with as far as the application goes
+      reportFetch();
+      if (cursor != null)
+      {
+        parent.resultSetClosed(cursor);
+      }
+    }
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("close"));
+    }
   }
 
   public ResultSetMetaData getMetaData() throws SQLException
   {
-    String methodCall = "getMetaData()";
     try
     {
-      return (ResultSetMetaData) reportReturn(methodCall, realResultSet.getMetaData());
+      ResultSetMetaData result = realResultSet.getMetaData();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getMetaData"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getMetaData"), s);
       throw s;
     }
   }
 
   public int getType() throws SQLException
   {
-    String methodCall = "getType()";
     try
     {
-      return reportReturn(methodCall, realResultSet.getType());
+      int result = realResultSet.getType();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getType"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getType"), s);
       throw s;
     }
   }
 
   public double getDouble(int columnIndex) throws SQLException
   {
-    String methodCall = "getDouble(" + columnIndex + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.getDouble(columnIndex));
+      double result = realResultSet.getDouble(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getDouble", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getDouble", columnIndex), s);
       throw s;
     }
   }
 
   public double getDouble(String columnName) throws SQLException
   {
-    String methodCall = "getDouble(" + columnName + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.getDouble(columnName));
+      double result = realResultSet.getDouble(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getDouble", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getDouble", columnName), s);
       throw s;
     }
   }
 
   public void deleteRow() throws SQLException
   {
-    String methodCall = "deleteRow()";
     try
     {
       realResultSet.deleteRow();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("deleteRow"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("deleteRow"));
+    }
   }
 
   public int getConcurrency() throws SQLException
   {
-    String methodCall = "getConcurrency()";
     try
     {
-      return reportReturn(methodCall, realResultSet.getConcurrency());
+      int result = realResultSet.getConcurrency();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getConcurrency"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getConcurrency"), s);
       throw s;
     }
   }
 
   public boolean rowUpdated() throws SQLException
   {
-    String methodCall = "rowUpdated()";
     try
     {
-      return reportReturn(methodCall, realResultSet.rowUpdated());
+      boolean result = realResultSet.rowUpdated();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("rowUpdated"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("rowUpdated"), s);
       throw s;
     }
   }
 
   public Date getDate(int columnIndex) throws SQLException
   {
-    String methodCall = "getDate(" + columnIndex + ")";
     try
     {
-      return (Date) reportReturn(methodCall, realResultSet.getDate(columnIndex));
+      Date result = realResultSet.getDate(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getDate", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getDate", columnIndex), s);
       throw s;
     }
   }
 
   public Date getDate(String columnName) throws SQLException
   {
-    String methodCall = "getDate(" + columnName + ")";
     try
     {
-      return (Date) reportReturn(methodCall, realResultSet.getDate(columnName));
+      Date result = realResultSet.getDate(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getDate", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getDate", columnName), s);
       throw s;
     }
   }
 
   public Date getDate(int columnIndex, Calendar cal) throws SQLException
   {
-    String methodCall = "getDate(" + columnIndex + ", " + cal + ")";
     try
     {
-      return (Date) reportReturn(methodCall, realResultSet.getDate(columnIndex, cal));
+      Date result = realResultSet.getDate(columnIndex, cal);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getDate", columnIndex, cal), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getDate", columnIndex, cal), s);
       throw s;
     }
 
@@ -1682,234 +2081,278 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public Date getDate(String columnName, Calendar cal) throws SQLException
   {
-    String methodCall = "getDate(" + columnName + ", " + cal + ")";
     try
     {
-      return (Date) reportReturn(methodCall, realResultSet.getDate(columnName, cal));
+      Date result = realResultSet.getDate(columnName, cal);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getDate", columnName, cal), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getDate", columnName, cal), s);
       throw s;
     }
   }
 
   public boolean last() throws SQLException
   {
-    String methodCall = "last()";
     try
     {
-      return reportReturn(methodCall, realResultSet.last());
+      boolean result = realResultSet.last();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("last"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("last"), s);
       throw s;
     }
   }
 
   public boolean rowInserted() throws SQLException
   {
-    String methodCall = "rowInserted()";
     try
     {
-      return reportReturn(methodCall, realResultSet.rowInserted());
+      boolean result = realResultSet.rowInserted();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("rowInserted"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("rowInserted"), s);
       throw s;
     }
   }
 
   public boolean rowDeleted() throws SQLException
   {
-    String methodCall = "rowDeleted()";
     try
     {
-      return reportReturn(methodCall, realResultSet.rowDeleted());
+      boolean result = realResultSet.rowDeleted();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("rowDeleted"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("rowDeleted"), s);
       throw s;
     }
   }
 
   public void updateNull(int columnIndex) throws SQLException
   {
-    String methodCall = "updateNull(" + columnIndex + ")";
     try
     {
       realResultSet.updateNull(columnIndex);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateNull", columnIndex), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateNull", columnIndex));
+    }
   }
 
   public void updateNull(String columnName) throws SQLException
   {
-    String methodCall = "updateNull(" + columnName + ")";
     try
     {
       realResultSet.updateNull(columnName);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateNull", columnName), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateNull", columnName));
+    }
   }
 
   public void updateShort(int columnIndex, short x) throws SQLException
   {
-    String methodCall = "updateShort(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateShort(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateShort", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateShort", columnIndex, x));
+    }
   }
 
   public void updateShort(String columnName, short x) throws SQLException
   {
-    String methodCall = "updateShort(" + columnName + ", " + x + ")";
     try
     {
       realResultSet.updateShort(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateShort", columnName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateShort", columnName, x));
+    }
   }
 
   public void updateBoolean(int columnIndex, boolean x) throws SQLException
   {
-    String methodCall = "updateBoolean(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateBoolean(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateBoolean", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateBoolean", columnIndex, x));
+    }
   }
 
   public void updateBoolean(String columnName, boolean x) throws SQLException
   {
-    String methodCall = "updateBoolean(" + columnName + ", " + x + ")";
     try
     {
       realResultSet.updateBoolean(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateBoolean", columnName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateBoolean", columnName, x));
+    }
   }
 
   public void updateByte(int columnIndex, byte x) throws SQLException
   {
-    String methodCall = "updateByte(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateByte(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateByte", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateByte", columnIndex, x));
+    }
   }
 
   public void updateByte(String columnName, byte x) throws SQLException
   {
-    String methodCall = "updateByte(" + columnName + ", " + x + ")";
     try
     {
       realResultSet.updateByte(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateByte", columnName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateByte", columnName, x));
+    }
   }
 
   public void updateInt(int columnIndex, int x) throws SQLException
   {
-    String methodCall = "updateInt(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateInt(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateInt", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateInt", columnIndex, x));
+    }
   }
 
   public void updateInt(String columnName, int x) throws SQLException
   {
-    String methodCall = "updateInt(" + columnName + ", " + x + ")";
     try
     {
       realResultSet.updateInt(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateInt", columnName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateInt", columnName, x));
+    }
   }
 
   public Object getObject(int columnIndex) throws SQLException
   {
-    String methodCall = "getObject(" + columnIndex + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.getObject(columnIndex));
+      Object result = realResultSet.getObject(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getObject", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getObject", columnIndex), s);
       throw s;
     }
   }
 
   public Object getObject(String columnName) throws SQLException
   {
-    String methodCall = "getObject(" + columnName + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.getObject(columnName));
+      Object result = realResultSet.getObject(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getObject", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getObject", columnName), s);
       throw s;
     }
   }
@@ -1917,255 +2360,319 @@ public class ResultSetSpy implements ResultSet, Spy
   @SuppressWarnings("rawtypes")
   public Object getObject(String colName, Map map) throws SQLException
   {
-    String methodCall = "getObject(" + colName + ", " + map + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.getObject(colName, map));
+      Object result = realResultSet.getObject(colName, map);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getObject", colName, map), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getObject", colName, map), s);
       throw s;
     }
   }
 
   public boolean next() throws SQLException
   {
-    String methodCall = "next()";
     try
     {
-      return reportReturn(methodCall, realResultSet.next());
+      long tstart = System.nanoTime();
+      boolean result = realResultSet.next();
+      fetchTimeNanos += System.nanoTime() - tstart;
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("next"), result);
+      }
+      if (result)
+      {
+        if (rowsFetched++ == 0)
+        {
+          firstRowNanos = fetchTimeNanos;
+        }
+      }
+      else
+      {
+        reportFetch();
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("next"), s);
       throw s;
     }
   }
 
   public void updateLong(int columnIndex, long x) throws SQLException
   {
-    String methodCall = "updateLong(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateLong(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateLong", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateLong", columnIndex, x));
+    }
   }
 
   public void updateLong(String columnName, long x) throws SQLException
   {
-    String methodCall = "updateLong(" + columnName + ", " + x + ")";
     try
     {
       realResultSet.updateLong(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateLong", columnName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateLong", columnName, x));
+    }
   }
 
   public void updateFloat(int columnIndex, float x) throws SQLException
   {
-    String methodCall = "updateFloat(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateFloat(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateFloat", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateFloat", columnIndex, x));
+    }
 
   }
 
   public void updateFloat(String columnName, float x) throws SQLException
   {
-    String methodCall = "updateFloat(" + columnName + ", " + x + ")";
     try
     {
       realResultSet.updateFloat(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateFloat", columnName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateFloat", columnName, x));
+    }
   }
 
   public void updateDouble(int columnIndex, double x) throws SQLException
   {
-    String methodCall = "updateDouble(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateDouble(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateDouble", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateDouble", columnIndex, x));
+    }
   }
 
   public void updateDouble(String columnName, double x) throws SQLException
   {
-    String methodCall = "updateDouble(" + columnName + ", " + x + ")";
     try
     {
       realResultSet.updateDouble(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateDouble", columnName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateDouble", columnName, x));
+    }
   }
 
   public Statement getStatement() throws SQLException
   {
-    String methodCall = "getStatement()";
-    return (Statement) reportReturn(methodCall, parent);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("getStatement"), parent);
+    }
+    return parent;
   }
 
   public Object getObject(int columnIndex, Map<String, Class<?>> map) throws SQLException
   {
-    String methodCall = "getObject(" + columnIndex + ", " + map + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.getObject(columnIndex, map));
+      Object result = realResultSet.getObject(columnIndex, map);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getObject", columnIndex, map), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getObject", columnIndex, map), s);
       throw s;
     }
   }
 
   public void updateString(int columnIndex, String x) throws SQLException
   {
-    String methodCall = "updateString(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateString(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateString", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateString", columnIndex, x));
+    }
   }
 
   public void updateString(String columnName, String x) throws SQLException
   {
-    String methodCall = "updateString(" + columnName + ", " + x + ")";
     try
     {
       realResultSet.updateString(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateString", columnName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateString", columnName, x));
+    }
   }
 
   public InputStream getAsciiStream(int columnIndex) throws SQLException
   {
-    String methodCall = "getAsciiStream(" + columnIndex + ")";
     try
     {
-      return (InputStream) reportReturn(methodCall, realResultSet.getAsciiStream(columnIndex));
+      InputStream result = realResultSet.getAsciiStream(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getAsciiStream", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getAsciiStream", columnIndex), s);
       throw s;
     }
   }
 
   public InputStream getAsciiStream(String columnName) throws SQLException
   {
-    String methodCall = "getAsciiStream(" + columnName + ")";
     try
     {
-      return (InputStream) reportReturn(methodCall, realResultSet.getAsciiStream(columnName));
+      InputStream result = realResultSet.getAsciiStream(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getAsciiStream", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getAsciiStream", columnName), s);
       throw s;
     }
   }
 
   public void updateBigDecimal(int columnIndex, BigDecimal x) throws SQLException
   {
-    String methodCall = "updateBigDecimal(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateBigDecimal(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateBigDecimal", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateBigDecimal", columnIndex, x));
+    }
   }
 
   public URL getURL(int columnIndex) throws SQLException
   {
-    String methodCall = "getURL(" + columnIndex + ")";
     try
     {
-      return (URL) reportReturn(methodCall, realResultSet.getURL(columnIndex));
+      URL result = realResultSet.getURL(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getURL", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getURL", columnIndex), s);
       throw s;
     }
   }
 
   public void updateBigDecimal(String columnName, BigDecimal x) throws SQLException
   {
-    String methodCall = "updateBigDecimal(" + columnName + ", " + x + ")";
     try
     {
       realResultSet.updateBigDecimal(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateBigDecimal", columnName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateBigDecimal", columnName, x));
+    }
   }
 
   public URL getURL(String columnName) throws SQLException
   {
-    String methodCall = "getURL(" + columnName + ")";
     try
     {
-      return (URL) reportReturn(methodCall, realResultSet.getURL(columnName));
+      URL result = realResultSet.getURL(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getURL", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getURL", columnName), s);
       throw s;
     }
   }
@@ -2173,46 +2680,54 @@ public class ResultSetSpy implements ResultSet, Spy
   public void updateBytes(int columnIndex, byte[] x) throws SQLException
   {
     // todo: dump array?
-    String methodCall = "updateBytes(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateBytes(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateBytes", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateBytes", columnIndex, x));
+    }
   }
 
   public void updateBytes(String columnName, byte[] x) throws SQLException
   {
     // todo: dump array?
-    String methodCall = "updateBytes(" + columnName + ", " + x + ")";
     try
     {
       realResultSet.updateBytes(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateBytes", columnName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateBytes", columnName, x));
+    }
   }
 
   @SuppressWarnings("deprecation")
   public InputStream getUnicodeStream(int columnIndex) throws SQLException
   {
-    String methodCall = "getUnicodeStream(" + columnIndex + ")";
     try
     {
-      return (InputStream) reportReturn(methodCall, realResultSet.getUnicodeStream(columnIndex));
+      InputStream result = realResultSet.getUnicodeStream(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getUnicodeStream", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getUnicodeStream", columnIndex), s);
       throw s;
     }
   }
@@ -2220,664 +2735,802 @@ public class ResultSetSpy implements ResultSet, Spy
   @SuppressWarnings("deprecation")
   public InputStream getUnicodeStream(String columnName) throws SQLException
   {
-    String methodCall = "getUnicodeStream(" + columnName + ")";
     try
     {
-      return (InputStream) reportReturn(methodCall, realResultSet.getUnicodeStream(columnName));
+      InputStream result = realResultSet.getUnicodeStream(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getUnicodeStream", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getUnicodeStream", columnName), s);
       throw s;
     }
   }
 
   public void updateDate(int columnIndex, Date x) throws SQLException
   {
-    String methodCall = "updateDate(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateDate(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateDate", columnIndex, x), s);
       throw s;
     }
   }
 
   public void updateDate(String columnName, Date x) throws SQLException
   {
-    String methodCall = "updateDate(" + columnName + ", " + x + ")";
     try
     {
       realResultSet.updateDate(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateDate", columnName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateDate", columnName, x));
+    }
   }
 
   public int getFetchSize() throws SQLException
   {
-    String methodCall = "getFetchSize()";
     try
     {
-      return reportReturn(methodCall, realResultSet.getFetchSize());
+      int result = realResultSet.getFetchSize();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getFetchSize"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getFetchSize"), s);
       throw s;
     }
   }
 
   public SQLWarning getWarnings() throws SQLException
   {
-    String methodCall = "getWarnings()";
     try
     {
-      return (SQLWarning) reportReturn(methodCall, realResultSet.getWarnings());
+      SQLWarning result = realResultSet.getWarnings();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getWarnings"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getWarnings"), s);
       throw s;
     }
   }
 
   public InputStream getBinaryStream(int columnIndex) throws SQLException
   {
-    String methodCall = "getBinaryStream(" + columnIndex + ")";
     try
     {
-      return (InputStream) reportReturn(methodCall, realResultSet.getBinaryStream(columnIndex));
+      InputStream result = realResultSet.getBinaryStream(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBinaryStream", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBinaryStream", columnIndex), s);
       throw s;
     }
   }
 
   public InputStream getBinaryStream(String columnName) throws SQLException
   {
-    String methodCall = "getBinaryStream(" + columnName + ")";
     try
     {
-      return (InputStream) reportReturn(methodCall, realResultSet.getBinaryStream(columnName));
+      InputStream result = realResultSet.getBinaryStream(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBinaryStream", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBinaryStream", columnName), s);
       throw s;
     }
   }
 
   public void clearWarnings() throws SQLException
   {
-    String methodCall = "clearWarnings()";
     try
     {
       realResultSet.clearWarnings();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("clearWarnings"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("clearWarnings"));
+    }
   }
 
   public void updateTimestamp(int columnIndex, Timestamp x) throws SQLException
   {
-    String methodCall = "updateTimestamp(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateTimestamp(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateTimestamp", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateTimestamp", columnIndex, x));
+    }
   }
 
   public void updateTimestamp(String columnName, Timestamp x) throws SQLException
   {
-    String methodCall = "updateTimestamp(" + columnName + ", " + x + ")";
     try
     {
       realResultSet.updateTimestamp(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateTimestamp", columnName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateTimestamp", columnName, x));
+    }
   }
 
   public boolean first() throws SQLException
   {
-    String methodCall = "first()";
     try
     {
-      return reportReturn(methodCall, realResultSet.first());
+      boolean result = realResultSet.first();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("first"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("first"), s);
       throw s;
     }
   }
 
   public String getCursorName() throws SQLException
   {
-    String methodCall = "getCursorName()";
     try
     {
-      return (String) reportReturn(methodCall, realResultSet.getCursorName());
+      String result = realResultSet.getCursorName();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getCursorName"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getCursorName"), s);
       throw s;
     }
   }
 
   public int findColumn(String columnName) throws SQLException
   {
-    String methodCall = "findColumn(" + columnName + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.findColumn(columnName));
+      int result = realResultSet.findColumn(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("findColumn", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("findColumn", columnName), s);
       throw s;
     }
   }
 
   public boolean wasNull() throws SQLException
   {
-    String methodCall = "wasNull()";
     try
     {
-      return reportReturn(methodCall, realResultSet.wasNull());
+      boolean result = realResultSet.wasNull();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("wasNull"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("wasNull"), s);
       throw s;
     }
   }
 
   public void updateBinaryStream(int columnIndex, InputStream x, int length) throws SQLException
   {
-    String methodCall = "updateBinaryStream(" + columnIndex + ", " + x + ", " + length + ")";
     try
     {
       realResultSet.updateBinaryStream(columnIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateBinaryStream", columnIndex, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateBinaryStream", columnIndex, x, length));
+    }
   }
 
   public void updateBinaryStream(String columnName, InputStream x, int length) throws SQLException
   {
-    String methodCall = "updateBinaryStream(" + columnName + ", " + x + ", " + length + ")";
     try
     {
       realResultSet.updateBinaryStream(columnName, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateBinaryStream", columnName, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateBinaryStream", columnName, x, length));
+    }
   }
 
   public String getString(int columnIndex) throws SQLException
   {
-    String methodCall = "getString(" + columnIndex + ")";
     try
     {
-      return (String) reportReturn(methodCall, realResultSet.getString(columnIndex));
+      String result = realResultSet.getString(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getString", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getString", columnIndex), s);
       throw s;
     }
   }
 
   public String getString(String columnName) throws SQLException
   {
-    String methodCall = "getString(" + columnName + ")";
     try
     {
-      return (String) reportReturn(methodCall, realResultSet.getString(columnName));
+      String result = realResultSet.getString(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getString", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getString", columnName), s);
       throw s;
     }
   }
 
   public Reader getCharacterStream(int columnIndex) throws SQLException
   {
-    String methodCall = "getCharacterStream(" + columnIndex + ")";
     try
     {
-      return (Reader) reportReturn(methodCall, realResultSet.getCharacterStream(columnIndex));
+      Reader result = realResultSet.getCharacterStream(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getCharacterStream", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getCharacterStream", columnIndex), s);
       throw s;
     }
   }
 
   public Reader getCharacterStream(String columnName) throws SQLException
   {
-    String methodCall = "getCharacterStream(" + columnName + ")";
     try
     {
-      return (Reader) reportReturn(methodCall, realResultSet.getCharacterStream(columnName));
+      Reader result = realResultSet.getCharacterStream(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getCharacterStream", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getCharacterStream", columnName), s);
       throw s;
     }
   }
 
   public void setFetchDirection(int direction) throws SQLException
   {
-    String methodCall = "setFetchDirection(" + direction + ")";
     try
     {
       realResultSet.setFetchDirection(direction);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setFetchDirection", direction), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setFetchDirection", direction));
+    }
   }
 
   public void updateCharacterStream(int columnIndex, Reader x, int length) throws SQLException
   {
-    String methodCall = "updateCharacterStream(" + columnIndex + ", " + x + ", " + length + ")";
     try
     {
       realResultSet.updateCharacterStream(columnIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateCharacterStream", columnIndex, x, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateCharacterStream", columnIndex, x, length));
+    }
   }
 
   public void updateCharacterStream(String columnName, Reader reader, int length)
     throws SQLException
   {
-    String methodCall = "updateCharacterStream(" + columnName + ", " + reader + ", " + length + ")";
     try
     {
       realResultSet.updateCharacterStream(columnName, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateCharacterStream", columnName, reader, length), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateCharacterStream", columnName, reader, length));
+    }
   }
 
   public byte getByte(int columnIndex) throws SQLException
   {
-    String methodCall = "getByte(" + columnIndex + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.getByte(columnIndex));
+      byte result = realResultSet.getByte(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getByte", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getByte", columnIndex), s);
       throw s;
     }
   }
 
   public byte getByte(String columnName) throws SQLException
   {
-    String methodCall = "getByte(" + columnName + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.getByte(columnName));
+      byte result = realResultSet.getByte(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getByte", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getByte", columnName), s);
       throw s;
     }
   }
 
   public void updateTime(int columnIndex, Time x) throws SQLException
   {
-    String methodCall = "updateTime(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateTime(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateTime", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateTime", columnIndex, x));
+    }
   }
 
   public void updateTime(String columnName, Time x) throws SQLException
   {
-    String methodCall = "updateTime(" + columnName + ", " + x + ")";
     try
     {
       realResultSet.updateTime(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateTime", columnName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateTime", columnName, x));
+    }
   }
 
   public byte[] getBytes(int columnIndex) throws SQLException
   {
-    String methodCall = "getBytes(" + columnIndex + ")";
     try
     {
-      return (byte[]) reportReturn(methodCall, realResultSet.getBytes(columnIndex));
+      byte[] result = realResultSet.getBytes(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBytes", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBytes", columnIndex), s);
       throw s;
     }
   }
 
   public byte[] getBytes(String columnName) throws SQLException
   {
-    String methodCall = "getBytes(" + columnName + ")";
     try
     {
-      return (byte[]) reportReturn(methodCall, realResultSet.getBytes(columnName));
+      byte[] result = realResultSet.getBytes(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBytes", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBytes", columnName), s);
       throw s;
     }
   }
 
   public boolean isAfterLast() throws SQLException
   {
-    String methodCall = "isAfterLast()";
     try
     {
-      return reportReturn(methodCall, realResultSet.isAfterLast());
+      boolean result = realResultSet.isAfterLast();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("isAfterLast"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("isAfterLast"), s);
       throw s;
     }
   }
 
   public void updateObject(int columnIndex, Object x, int scale) throws SQLException
   {
-    String methodCall = "updateObject(" + columnIndex + ", " + x + ", " + scale + ")";
     try
     {
       realResultSet.updateObject(columnIndex, x, scale);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateObject", columnIndex, x, scale), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateObject", columnIndex, x, scale));
+    }
   }
 
   public void updateObject(int columnIndex, Object x) throws SQLException
   {
-    String methodCall = "updateObject(" + columnIndex + ", " + x + ")";
     try
     {
       realResultSet.updateObject(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateObject", columnIndex, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateObject", columnIndex, x));
+    }
   }
 
   public void updateObject(String columnName, Object x, int scale) throws SQLException
   {
-    String methodCall = "updateObject(" + columnName + ", " + x + ", " + scale + ")";
     try
     {
       realResultSet.updateObject(columnName, x, scale);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateObject", columnName, x, scale), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateObject", columnName, x, scale));
+    }
   }
 
   public void updateObject(String columnName, Object x) throws SQLException
   {
-    String methodCall = "updateObject(" + columnName + ", " + x + ")";
     try
     {
       realResultSet.updateObject(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateObject", columnName, x), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateObject", columnName, x));
+    }
   }
 
   public int getFetchDirection() throws SQLException
   {
-    String methodCall = "getFetchDirection()";
     try
     {
-      return reportReturn(methodCall, realResultSet.getFetchDirection());
+      int result = realResultSet.getFetchDirection();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getFetchDirection"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getFetchDirection"), s);
       throw s;
     }
   }
 
   public long getLong(int columnIndex) throws SQLException
   {
-    String methodCall = "getLong(" + columnIndex + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.getLong(columnIndex));
+      long result = realResultSet.getLong(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getLong", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getLong", columnIndex), s);
       throw s;
     }
   }
 
   public long getLong(String columnName) throws SQLException
   {
-    String methodCall = "getLong(" + columnName + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.getLong(columnName));
+      long result = realResultSet.getLong(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getLong", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getLong", columnName), s);
       throw s;
     }
   }
 
   public boolean isFirst() throws SQLException
   {
-    String methodCall = "isFirst()";
     try
     {
-      return reportReturn(methodCall, realResultSet.isFirst());
+      boolean result = realResultSet.isFirst();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("isFirst"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("isFirst"), s);
       throw s;
     }
   }
 
   public void insertRow() throws SQLException
   {
-    String methodCall = "insertRow()";
     try
     {
       realResultSet.insertRow();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("insertRow"), s);
       throw s;
     }
   }
 
   public float getFloat(int columnIndex) throws SQLException
   {
-    String methodCall = "getFloat(" + columnIndex + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.getFloat(columnIndex));
+      float result = realResultSet.getFloat(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getFloat", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getFloat", columnIndex), s);
       throw s;
     }
   }
 
   public float getFloat(String columnName) throws SQLException
   {
-    String methodCall = "getFloat(" + columnName + ")";
     try
     {
-      return reportReturn(methodCall, realResultSet.getFloat(columnName));
+      float result = realResultSet.getFloat(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getFloat", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getFloat", columnName), s);
       throw s;
     }
   }
 
   public boolean isLast() throws SQLException
   {
-    String methodCall = "isLast()";
     try
     {
-      return reportReturn(methodCall, realResultSet.isLast());
+      boolean result = realResultSet.isLast();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("isLast"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("isLast"), s);
       throw s;
     }
   }
 
   public void setFetchSize(int rows) throws SQLException
   {
-    String methodCall = "setFetchSize(" + rows + ")";
     try
     {
       realResultSet.setFetchSize(rows);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setFetchSize", rows), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setFetchSize", rows));
+    }
   }
 
   public void updateRow() throws SQLException
   {
-    String methodCall = "updateRow()";
     try
     {
       realResultSet.updateRow();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("updateRow"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("updateRow"));
+    }
   }
 
   public void beforeFirst() throws SQLException
   {
-    String methodCall = "beforeFirst()";
     try
     {
       realResultSet.beforeFirst();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("beforeFirst"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("beforeFirst"));
+    }
   }
 
   @SuppressWarnings("deprecation")
   public BigDecimal getBigDecimal(int columnIndex, int scale) throws SQLException
   {
-    String methodCall = "getBigDecimal(" + columnIndex + ", " + scale + ")";
     try
     {
-      return (BigDecimal) reportReturn(methodCall, realResultSet.getBigDecimal(columnIndex, scale));
+      BigDecimal result = realResultSet.getBigDecimal(columnIndex, scale);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBigDecimal", columnIndex, scale), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBigDecimal", columnIndex, scale), s);
       throw s;
     }
   }
@@ -2885,71 +3538,84 @@ public class ResultSetSpy implements ResultSet, Spy
   @SuppressWarnings("deprecation")
   public BigDecimal getBigDecimal(String columnName, int scale) throws SQLException
   {
-    String methodCall = "getBigDecimal(" + columnName + ", " + scale + ")";
     try
     {
-      return (BigDecimal) reportReturn(methodCall, realResultSet.getBigDecimal(columnName, scale));
+      BigDecimal result = realResultSet.getBigDecimal(columnName, scale);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBigDecimal", columnName, scale), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBigDecimal", columnName, scale), s);
       throw s;
     }
   }
 
   public BigDecimal getBigDecimal(int columnIndex) throws SQLException
   {
-    String methodCall = "getBigDecimal(" + columnIndex + ")";
     try
     {
-      return (BigDecimal) reportReturn(methodCall, realResultSet.getBigDecimal(columnIndex));
+      BigDecimal result = realResultSet.getBigDecimal(columnIndex);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBigDecimal", columnIndex), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBigDecimal", columnIndex), s);
       throw s;
     }
   }
 
   public BigDecimal getBigDecimal(String columnName) throws SQLException
   {
-    String methodCall = "getBigDecimal(" + columnName + ")";
     try
     {
-      return (BigDecimal) reportReturn(methodCall, realResultSet.getBigDecimal(columnName));
+      BigDecimal result = realResultSet.getBigDecimal(columnName);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getBigDecimal", columnName), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getBigDecimal", columnName), s);
       throw s;
     }
   }
 
   public void afterLast() throws SQLException
   {
-    String methodCall = "afterLast()";
     try
     {
       realResultSet.afterLast();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("afterLast"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("afterLast"));
+    }
   }
 
   public void refreshRow() throws SQLException
   {
-    String methodCall = "refreshRow()";
     try
     {
       realResultSet.refreshRow();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("refreshRow"), s);
       throw s;
     }
   }
@@ -2957,7 +3623,6 @@ public class ResultSetSpy implements ResultSet, Spy
   @SuppressWarnings("unchecked")
   public <T> T unwrap(Class<T> iface) throws SQLException {
     String name = iface==null?"null":iface.getName();
-    String methodCall = "unwrap(" + name + ")";
     try
     {
       T result = null;
@@ -2969,28 +3634,35 @@ public class ResultSetSpy implements ResultSet, Spy
       {
         result = realResultSet.unwrap(iface);
       }
-      reportReturn(methodCall, (Object) result);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("unwrap", name), (Object) result);
+      }
       return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(new MethodCall("unwrap", name), s);
       throw s;
     }
   }
 
   public boolean isWrapperFor(Class<?> iface) throws SQLException
   {
-    String methodCall = "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")";
     try
     {
-      return reportReturn(methodCall,
+      boolean result =
         (iface != null && (iface == ResultSet.class || iface == Spy.class)) ||
-        realResultSet.isWrapperFor(iface));
+        realResultSet.isWrapperFor(iface);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("isWrapperFor", iface==null?"null":iface.getName()), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(new MethodCall("isWrapperFor", iface==null?"null":iface.getName()), s);
       throw s;
     }
   }
@@ -2998,16 +3670,18 @@ public class ResultSetSpy implements ResultSet, Spy
   public <T> T getObject(int columnIndex, Class<T> type) throws SQLException
   {
     String typeName = type==null?"null":type.getName();
-    String methodCall = "getObject(" + columnIndex +", " + typeName + ")";
     try
     {
       T result = realResultSet.getObject(columnIndex, type);
-      reportReturn(methodCall, (Object) result);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getObject", columnIndex, typeName), (Object) result);
+      }
       return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(new MethodCall("getObject", columnIndex, typeName), s);
       throw s;
     }
   }
@@ -3015,16 +3689,18 @@ public class ResultSetSpy implements ResultSet, Spy
   public <T> T getObject(String columnLabel, Class<T> type) throws SQLException
   {
     String typeName = type==null?"null":type.getName();
-    String methodCall = "getObject(" + columnLabel +", " + typeName + ")";
     try
     {
       T result = realResultSet.getObject(columnLabel, type);
-      reportReturn(methodCall, (Object) result);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getObject", columnLabel, typeName), (Object) result);
+      }
       return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(new MethodCall("getObject", columnLabel, typeName), s);
       throw s;
     }
   }
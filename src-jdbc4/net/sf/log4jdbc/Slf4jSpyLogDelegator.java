@@ -15,12 +15,7 @@
  */
 package net.sf.log4jdbc;
 
-import java.io.IOException;
-import java.io.LineNumberReader;
-import java.io.StringReader;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.StringTokenizer;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -108,11 +103,76 @@ public class Slf4jSpyLogDelegator implements SpyLogDelegator
    */
   public void exceptionOccured(Spy spy, String methodCall, Exception e,
     String sql, long execTime)
+  {
+    logException(spy, methodCall, e, sql, toNanos(execTime));
+  }
+
+  /**
+   * Called when a jdbc method throws an Exception.
+   *
+   * @param spy the Spy wrapping the class that threw an Exception.
+   * @param methodCall a deferred description of the name and call parameters
+   *        of the method generated the Exception.
+   * @param e the Exception that was thrown.
+   * @param sql optional sql that occured just before the exception occured.
+   * @param execTime optional amount of time that passed before an exception was
+   *        thrown when sql was being executed. caller should pass -1 if not
+   *        used
+   */
+  public void exceptionOccured(Spy spy, MethodCall methodCall, Exception e,
+    String sql, long execTime)
+  {
+    logException(spy, methodCall, e, sql, toNanos(execTime));
+  }
+
+  /**
+   * Called when a jdbc method that was executing SQL throws an Exception.
+   *
+   * @param spy the Spy wrapping the class that threw an Exception.
+   * @param methodCall a deferred description of the name and call parameters
+   *        of the method generated the Exception.
+   * @param e the Exception that was thrown.
+   * @param sql optional sql that occured just before the exception occured.
+   * @param execTimeNanos optional amount of time in nanoseconds that passed
+   *        before an exception was thrown when sql was being executed. caller
+   *        should pass -1 if not used
+   */
+  public void exceptionOccuredNanos(Spy spy, MethodCall methodCall,
+    Exception e, String sql, long execTimeNanos)
+  {
+    logException(spy, methodCall, e, sql, execTimeNanos);
+  }
+
+  /**
+   * Called when a jdbc method that was executing SQL throws an Exception.
+   *
+   * @param spy the Spy wrapping the class that threw an Exception.
+   * @param methodCall a deferred description of the name and call parameters
+   *        of the method generated the Exception.
+   * @param e the Exception that was thrown.
+   * @param sql sql, with bind variables still to be merged into it, that
+   *        occured just before the exception occured.
+   * @param execTimeNanos amount of time in nanoseconds that passed before an
+   *        exception was thrown when sql was being executed.
+   */
+  public void exceptionOccuredNanos(Spy spy, MethodCall methodCall,
+    Exception e, DumpedSql sql, long execTimeNanos)
+  {
+    logException(spy, methodCall, e, sql, execTimeNanos);
+  }
+
+  /**
+   * Log an Exception thrown by a jdbc method.  The method call description is
+   * passed as an Object so that a MethodCall is only rendered as part of
+   * building the log message.  The sql is either a String or a DumpedSql.
+   */
+  private void logException(Spy spy, Object methodCall, Exception e,
+    Object sqlObject, long execTimeNanos)
   {
     String classType = spy.getClassType();
     Integer spyNo = spy.getConnectionNumber();
     String header = spyNo + ". " + classType + "." + methodCall;
-    if (sql == null)
+    if (sqlObject == null)
     {
       jdbcLogger.error(header, e);
       sqlOnlyLogger.error(header, e);
@@ -120,7 +180,7 @@ public class Slf4jSpyLogDelegator implements SpyLogDelegator
     }
     else
     {
-      sql = processSql(sql);
+      String sql = processSql(sqlObject.toString());
       jdbcLogger.error(header + " " + sql, e);
 
       // if at debug level, display debug info to error log
@@ -137,12 +197,12 @@ public class Slf4jSpyLogDelegator implements SpyLogDelegator
       if (sqlTimingLogger.isDebugEnabled())
       {
         sqlTimingLogger.error(getDebugInfo() + nl + spyNo + ". " + sql +
-          " {FAILED after " + execTime + " msec}", e);
+          " {FAILED after " + formatExecTime(execTimeNanos) + "}", e);
       }
       else
       {
         sqlTimingLogger.error(header + " FAILED! " + sql + " {FAILED after " +
-          execTime + " msec}", e);
+          formatExecTime(execTimeNanos) + "}", e);
       }
     }
   }
@@ -160,9 +220,172 @@ public class Slf4jSpyLogDelegator implements SpyLogDelegator
    */
   public void methodReturned(Spy spy, String methodCall, String returnMsg)
   {
-    String classType = spy.getClassType();
-    Logger logger = ResultSetSpy.classTypeDescription.equals(classType) ? resultSetLogger
+    logReturn(spy, methodCall, returnMsg);
+  }
+
+  /**
+   * Called when a JDBC method from a Connection, Statement, PreparedStatement,
+   * CallableStatement or ResultSet returns.
+   *
+   * @param spy the Spy wrapping the class that called the method that returned.
+   * @param methodCall a deferred description of the name and call parameters
+   *        of the method that returned.
+   * @param returnMsg return value converted to a String for integral types, or
+   *        String representation for Object. Return types this will be null for
+   *        void return types.
+   */
+  public void methodReturned(Spy spy, MethodCall methodCall, String returnMsg)
+  {
+    logReturn(spy, methodCall, returnMsg);
+  }
+
+  /**
+   * Called when a JDBC method returns a boolean value.  The value is only converted
+   * to a String when the return is actually going to be logged.
+   *
+   * @param spy the Spy wrapping the class that called the method that returned.
+   * @param methodCall a deferred description of the name and call parameters
+   *        of the method that returned.
+   * @param returnValue the value that was returned.
+   */
+  public void methodReturned(Spy spy, MethodCall methodCall, boolean returnValue)
+  {
+    if (isMethodReturnedEnabled(spy))
+    {
+      logReturn(spy, methodCall, String.valueOf(returnValue));
+    }
+  }
+
+  /**
+   * Called when a JDBC method returns an int value.  The value is only converted
+   * to a String when the return is actually going to be logged.
+   *
+   * @param spy the Spy wrapping the class that called the method that returned.
+   * @param methodCall a deferred description of the name and call parameters
+   *        of the method that returned.
+   * @param returnValue the value that was returned.
+   */
+  public void methodReturned(Spy spy, MethodCall methodCall, int returnValue)
+  {
+    if (isMethodReturnedEnabled(spy))
+    {
+      logReturn(spy, methodCall, String.valueOf(returnValue));
+    }
+  }
+
+  /**
+   * Called when a JDBC method returns a long value.  The value is only converted
+   * to a String when the return is actually going to be logged.
+   *
+   * @param spy the Spy wrapping the class that called the method that returned.
+   * @param methodCall a deferred description of the name and call parameters
+   *        of the method that returned.
+   * @param returnValue the value that was returned.
+   */
+  public void methodReturned(Spy spy, MethodCall methodCall, long returnValue)
+  {
+    if (isMethodReturnedEnabled(spy))
+    {
+      logReturn(spy, methodCall, String.valueOf(returnValue));
+    }
+  }
+
+  /**
+   * Called when a JDBC method returns a float value.  The value is only converted
+   * to a String when the return is actually going to be logged.
+   *
+   * @param spy the Spy wrapping the class that called the method that returned.
+   * @param methodCall a deferred description of the name and call parameters
+   *        of the method that returned.
+   * @param returnValue the value that was returned.
+   */
+  public void methodReturned(Spy spy, MethodCall methodCall, float returnValue)
+  {
+    if (isMethodReturnedEnabled(spy))
+    {
+      logReturn(spy, methodCall, String.valueOf(returnValue));
+    }
+  }
+
+  /**
+   * Called when a JDBC method returns a double value.  The value is only converted
+   * to a String when the return is actually going to be logged.
+   *
+   * @param spy the Spy wrapping the class that called the method that returned.
+   * @param methodCall a deferred description of the name and call parameters
+   *        of the method that returned.
+   * @param returnValue the value that was returned.
+   */
+  public void methodReturned(Spy spy, MethodCall methodCall, double returnValue)
+  {
+    if (isMethodReturnedEnabled(spy))
+    {
+      logReturn(spy, methodCall, String.valueOf(returnValue));
+    }
+  }
+
+  /**
+   * Called when a JDBC method returns an Object value.  The value is only converted
+   * to a String when the return is actually going to be logged.
+   *
+   * @param spy the Spy wrapping the class that called the method that returned.
+   * @param methodCall a deferred description of the name and call parameters
+   *        of the method that returned.
+   * @param returnValue the value that was returned.
+   */
+  public void methodReturned(Spy spy, MethodCall methodCall, Object returnValue)
+  {
+    if (isMethodReturnedEnabled(spy))
+    {
+      logReturn(spy, methodCall, String.valueOf(returnValue));
+    }
+  }
+
+  /**
+   * Determine if methodReturned events for the given Spy will be logged.
+   * This is true when the jdbc.resultset logger (for ResultSets) or the
+   * jdbc.audit logger (for everything else) is enabled at info level.
+   *
+   * @param spy the Spy wrapping the class that called the method that returned.
+   * @return true if methodReturned events for the given Spy will be logged.
+   */
+  public boolean isMethodReturnedEnabled(Spy spy)
+  {
+    return getReturnLogger(spy.getClassType()).isInfoEnabled();
+  }
+
+  /**
+   * Determine if sqlOccured, sqlTimingOccured and sqlFetchOccured events will
+   * be logged.  This is true when the jdbc.sqlonly logger is enabled at info
+   * level or the jdbc.sqltiming logger is enabled at all.
+   *
+   * @return true if any of these events will be logged.
+   */
+  public boolean isSqlLoggingEnabled()
+  {
+    return sqlOnlyLogger.isInfoEnabled() || sqlTimingLogger.isErrorEnabled();
+  }
+
+  /**
+   * Get the logger that method returns are logged to for a given class type.
+   *
+   * @param classType class type of the Spy.
+   * @return jdbc.resultset logger for ResultSets, the jdbc.audit logger otherwise.
+   */
+  private Logger getReturnLogger(String classType)
+  {
+    return ResultSetSpy.classTypeDescription.equals(classType) ? resultSetLogger
       : jdbcLogger;
+  }
+
+  /**
+   * Log a method return.  The method call description is passed as an Object
+   * so that a MethodCall is only rendered once the logger is known to be on.
+   */
+  private void logReturn(Spy spy, Object methodCall, String returnMsg)
+  {
+    String classType = spy.getClassType();
+    Logger logger = getReturnLogger(classType);
     if (logger.isInfoEnabled())
     {
       String header = spy.getConnectionNumber() + ". " + classType + "." +
@@ -201,10 +424,10 @@ public class Slf4jSpyLogDelegator implements SpyLogDelegator
    */
   protected boolean shouldSqlBeLogged(String sql)
   {
-    // check shortcut property that is true if all the DumpSqlXXXXX
-    // properties are also true (and thus don't need to be checked)
+    // check shortcut property that is false if all the DumpSqlXXXXX
+    // properties are true (and thus don't need to be checked)
     // which should be the happy path in most cases
-    if (DriverSpy.DumpSqlFilteringOn)
+    if (!DriverSpy.DumpSqlFilteringOn)
     {
       return true;
     }
@@ -236,20 +459,75 @@ public class Slf4jSpyLogDelegator implements SpyLogDelegator
    */
   public void sqlOccured(Spy spy, String methodCall, String sql)
   {
-    if (shouldSqlBeLogged(sql))
+    logSql(spy, sql);
+  }
+
+  /**
+   * Special call that is called only for JDBC method calls that contain SQL.
+   *
+   * @param spy the Spy wrapping the class where the SQL occured.
+   * @param methodCall a deferred description of the name and call parameters
+   *        of the method that generated the SQL.
+   * @param sql sql that occured.
+   */
+  public void sqlOccured(Spy spy, MethodCall methodCall, String sql)
+  {
+    logSql(spy, sql);
+  }
+
+  /**
+   * Special call that is called only for JDBC method calls that contain SQL.
+   *
+   * @param spy the Spy wrapping the class where the SQL occured.
+   * @param methodCall a deferred description of the name and call parameters
+   *        of the method that generated the SQL.
+   * @param sql sql, with bind variables still to be merged into it, that
+   *        occured.
+   */
+  public void sqlOccured(Spy spy, MethodCall methodCall, DumpedSql sql)
+  {
+    logSql(spy, sql);
+  }
+
+  /**
+   * Log SQL to the jdbc.sqlonly logger.  The sql is either a String or a
+   * DumpedSql, which is only rendered if it is logged.
+   */
+  private void logSql(Spy spy, Object sql)
+  {
+    if (sqlOnlyLogger.isInfoEnabled() && shouldSqlBeLogged(getFilterSql(sql)))
     {
+      String processedSql = processSql(sql == null ? null : sql.toString());
       if (sqlOnlyLogger.isDebugEnabled())
       {
         sqlOnlyLogger.debug(getDebugInfo() + nl + spy.getConnectionNumber() +
-          ". " + processSql(sql));
+          ". " + processedSql);
       }
-      else if (sqlOnlyLogger.isInfoEnabled())
+      else
       {
-        sqlOnlyLogger.info(processSql(sql));
+        sqlOnlyLogger.info(processedSql);
       }
     }
   }
 
+  /**
+   * Get the SQL that shouldSqlBeLogged should look at.  For a DumpedSql this
+   * is the SQL before the bind variables are merged into it, so that SQL that
+   * is filtered out is never rendered.  (shouldSqlBeLogged only looks at the
+   * first word of the SQL, which is the same either way.)
+   *
+   * @param sql either a String or a DumpedSql.
+   * @return the SQL to check with shouldSqlBeLogged.
+   */
+  private static String getFilterSql(Object sql)
+  {
+    if (sql instanceof DumpedSql)
+    {
+      return ((DumpedSql) sql).getSql();
+    }
+    return (String) sql;
+  }
+
   /**
    * Break an SQL statement up into multiple lines in an attempt to make it more
    * readable
@@ -259,248 +537,337 @@ public class Slf4jSpyLogDelegator implements SpyLogDelegator
    */
   private String processSql(String sql)
   {
-    if (sql == null)
+    return SqlFormatter.format(sql);
+  }
+
+  /**
+   * Special call that is called only for JDBC method calls that contain SQL.
+   *
+   * @param spy the Spy wrapping the class where the SQL occurred.
+   *
+   * @param execTime how long it took the SQL to run, in milliseconds.
+   *
+   * @param methodCall a description of the name and call parameters of the
+   *        method that generated the SQL.
+   *
+   * @param sql SQL that occurred.
+   */
+  public void sqlTimingOccured(Spy spy, long execTime, String methodCall,
+    String sql)
+  {
+    logSqlTiming(spy, toNanos(execTime), methodCall, sql);
+  }
+
+  /**
+   * Special call that is called only for JDBC method calls that contain SQL.
+   *
+   * @param spy the Spy wrapping the class where the SQL occurred.
+   *
+   * @param execTime how long it took the SQL to run, in milliseconds.
+   *
+   * @param methodCall a deferred description of the name and call parameters
+   *        of the method that generated the SQL.
+   *
+   * @param sql SQL that occurred.
+   */
+  public void sqlTimingOccured(Spy spy, long execTime, MethodCall methodCall,
+    String sql)
+  {
+    logSqlTiming(spy, toNanos(execTime), methodCall, sql);
+  }
+
+  /**
+   * Special call that is called only for JDBC method calls that contain SQL.
+   *
+   * @param spy the Spy wrapping the class where the SQL occurred.
+   *
+   * @param execTimeNanos how long it took the SQL to run, in nanoseconds.
+   *
+   * @param methodCall a deferred description of the name and call parameters
+   *        of the method that generated the SQL.
+   *
+   * @param sql SQL that occurred.
+   */
+  public void sqlTimingOccuredNanos(Spy spy, long execTimeNanos,
+    MethodCall methodCall, String sql)
+  {
+    logSqlTiming(spy, execTimeNanos, methodCall, sql);
+  }
+
+  /**
+   * Special call that is called only for JDBC method calls that contain SQL.
+   *
+   * @param spy the Spy wrapping the class where the SQL occurred.
+   *
+   * @param execTimeNanos how long it took the SQL to run, in nanoseconds.
+   *
+   * @param methodCall a deferred description of the name and call parameters
+   *        of the method that generated the SQL.
+   *
+   * @param sql SQL, with bind variables still to be merged into it, that
+   *        occurred.
+   */
+  public void sqlTimingOccuredNanos(Spy spy, long execTimeNanos,
+    MethodCall methodCall, DumpedSql sql)
+  {
+    logSqlTiming(spy, execTimeNanos, methodCall, sql);
+  }
+
+  /**
+   * Called when the rows of a ResultSet have all been read, or when it is
+   * closed before then.  The SQL that produced the ResultSet is logged again
+   * to the jdbc.sqltiming logger, with how long it took to fetch the rows (see
+   * logSqlFetch.)
+   *
+   * @param spy the Spy wrapping the ResultSet.
+   *
+   * @param fetch how the rows were fetched.
+   *
+   * @param sql SQL that produced the ResultSet.
+   */
+  public void sqlFetchOccured(Spy spy, FetchSummary fetch, String sql)
+  {
+    logSqlFetch(spy, fetch, sql);
+  }
+
+  /**
+   * Called when the rows of a ResultSet have all been read, or when it is
+   * closed before then.  The SQL that produced the ResultSet is logged again
+   * to the jdbc.sqltiming logger, with how long it took to fetch the rows (see
+   * logSqlFetch.)
+   *
+   * @param spy the Spy wrapping the ResultSet.
+   *
+   * @param fetch how the rows were fetched.
+   *
+   * @param sql SQL, with bind variables still to be merged into it, that
+   *        produced the ResultSet.
+   */
+  public void sqlFetchOccured(Spy spy, FetchSummary fetch, DumpedSql sql)
+  {
+    logSqlFetch(spy, fetch, sql);
+  }
+
+  /**
+   * Called when one thread has run the same SQL many times in a short time
+   * (the "N+1 queries" pattern.)  This is logged as a warning to the
+   * jdbc.sqltiming logger, with the call site that reached the threshold.
+   *
+   * @param spy the Spy wrapping the Statement that ran the SQL.
+   *
+   * @param fingerprint the SqlFingerprint of the SQL.
+   *
+   * @param count the number of times the SQL was run.
+   *
+   * @param elapsedNanos the time from the first to the last of those runs, in
+   *        nanoseconds.
+   */
+  public void sqlRepeatOccured(Spy spy, String fingerprint, int count,
+    long elapsedNanos)
+  {
+    if (sqlTimingLogger.isWarnEnabled())
     {
-      return null;
+      sqlTimingLogger.warn(getDebugInfo() + nl + spy.getConnectionNumber() +
+        ". N+1 queries suspected: the same SQL was run " + count +
+        " times in " + formatExecTime(elapsedNanos) + ": " + fingerprint);
     }
+  }
+
+  /**
+   * Called when a transaction ends for each SQL statement that was run more
+   * than once with the same bind variables in it.  This is logged as a
+   * warning to the jdbc.sqltiming logger.
+   *
+   * @param spy the ConnectionSpy that ran the SQL.
+   *
+   * @param count the number of times the SQL was run in the transaction.
+   *
+   * @param wastedNanos the time taken by all but the first of those runs, in
+   *        nanoseconds.
+   *
+   * @param sql the SQL.
+   */
+  public void sqlDuplicateOccured(Spy spy, int count, long wastedNanos,
+    String sql)
+  {
+    logSqlDuplicate(spy, count, wastedNanos, sql);
+  }
 
-    if (DriverSpy.TrimSql)
+  /**
+   * Called when a transaction ends for each SQL statement that was run more
+   * than once with the same bind variables in it.  This is logged as a
+   * warning to the jdbc.sqltiming logger.
+   *
+   * @param spy the ConnectionSpy that ran the SQL.
+   *
+   * @param count the number of times the SQL was run in the transaction.
+   *
+   * @param wastedNanos the time taken by all but the first of those runs, in
+   *        nanoseconds.
+   *
+   * @param sql the SQL, with bind variables still to be merged into it.
+   */
+  public void sqlDuplicateOccured(Spy spy, int count, long wastedNanos,
+    DumpedSql sql)
+  {
+    logSqlDuplicate(spy, count, wastedNanos, sql);
+  }
+
+  private void logSqlDuplicate(Spy spy, int count, long wastedNanos,
+    Object sql)
+  {
+    if (sqlTimingLogger.isWarnEnabled() && shouldSqlBeLogged(getFilterSql(sql)))
     {
-      sql = sql.trim();
+      sqlTimingLogger.warn(getDebugInfo() + nl + spy.getConnectionNumber() +
+        ". duplicate SQL in transaction: run " + count + " times, " +
+        formatExecTime(wastedNanos) + " spent repeating it: " +
+        processSql(sql.toString()));
     }
+  }
 
-    StringBuilder output = new StringBuilder();
-
-    if (DriverSpy.DumpSqlMaxLineLength <= 0)
+  /**
+   * Called when a transaction ends.  This is logged to the jdbc.sqltiming
+   * logger as an error or a warning if the transaction took longer than the
+   * log4jdbc.transaction.error.threshold or log4jdbc.transaction.warn.threshold,
+   * and otherwise at the debug level.
+   *
+   * @param spy the ConnectionSpy that ran the transaction.
+   *
+   * @param transaction how long the transaction took and how that time was
+   *        spent.
+   */
+  public void transactionEnded(Spy spy, TransactionSummary transaction)
+  {
+    if (!sqlTimingLogger.isErrorEnabled())
     {
-      output.append(sql);
+      return;
     }
-    else
+    long duration = transaction.getDurationNanos();
+    if (DriverSpy.TransactionErrorThresholdEnabled &&
+      duration >= DriverSpy.TransactionErrorThresholdNanos)
     {
-      // insert line breaks into sql to make it more readable
-      StringTokenizer st = new StringTokenizer(sql);
-      String token;
-      int linelength = 0;
-
-      while (st.hasMoreElements())
+      sqlTimingLogger.error(buildTransactionDump(spy, transaction));
+    }
+    else if (DriverSpy.TransactionWarnThresholdEnabled &&
+      duration >= DriverSpy.TransactionWarnThresholdNanos)
+    {
+      if (sqlTimingLogger.isWarnEnabled())
       {
-        token = (String) st.nextElement();
-
-        output.append(token);
-        linelength += token.length();
-        output.append(" ");
-        linelength++;
-        if (linelength > DriverSpy.DumpSqlMaxLineLength)
-        {
-          output.append("\n");
-          linelength = 0;
-        }
+        sqlTimingLogger.warn(buildTransactionDump(spy, transaction));
       }
     }
-
-    if (DriverSpy.DumpSqlAddSemicolon)
+    else if (sqlTimingLogger.isDebugEnabled())
     {
-      output.append(";");
+      sqlTimingLogger.debug(buildTransactionDump(spy, transaction));
     }
+  }
 
-    String stringOutput = output.toString();
-
-    if (DriverSpy.TrimExtraBlankLinesInSql)
+  private String buildTransactionDump(Spy spy, TransactionSummary transaction)
+  {
+    String ended;
+    String end;
+    switch (transaction.getOutcome())
     {
-      LineNumberReader lineReader = new LineNumberReader(new StringReader(
-        stringOutput));
-
-      output = new StringBuilder();
-
-      int contiguousBlankLines = 0;
-      try
-      {
-        while (true)
-        {
-          String line = lineReader.readLine();
-          if (line == null)
-          {
-            break;
-          }
-
-          // is this line blank?
-          if (line.trim().length() == 0)
-          {
-            contiguousBlankLines++;
-            // skip contiguous blank lines
-            if (contiguousBlankLines > 1)
-            {
-              continue;
-            }
-          }
-          else
-          {
-            contiguousBlankLines = 0;
-            output.append(line);
-          }
-          output.append("\n");
-        }
-      }
-      catch (IOException e)
-      {
-        // since we are reading from a buffer, this isn't likely to happen,
-        // but if it does we just ignore it and treat it like its the end of the
-        // stream
-      }
-      stringOutput = output.toString();
+      case COMMITTED:
+        ended = "committed";
+        end = "commit ";
+        break;
+      case ROLLED_BACK:
+        ended = "rolled back";
+        end = "rollback ";
+        break;
+      default:
+        ended = "ended by close";
+        end = "close ";
+        break;
     }
+    int statements = transaction.getStatements();
+    return getDebugInfo() + nl + spy.getConnectionNumber() + ". transaction " +
+      ended + ": " + statements +
+      (statements == 1 ? " statement in " : " statements in ") +
+      formatExecTime(transaction.getDurationNanos()) + " (SQL " +
+      formatExecTime(transaction.getSqlTimeNanos()) + ", idle " +
+      formatExecTime(transaction.getIdleTimeNanos()) + ", " + end +
+      formatExecTime(transaction.getEndTimeNanos()) + ")";
+  }
 
-    // trim whitespace that is the same from the front of each line in the SQL
-    if (DriverSpy.TrimSqlLines)
+  /**
+   * Log the rows fetched from a ResultSet to the jdbc.sqltiming logger.  The
+   * SQL was already logged once when it was executed, so to keep from doubling
+   * the amount logged this is only logged at debug level, or when the time
+   * taken to execute the SQL and fetch the rows together crosses a timing
+   * threshold that the execution time alone didn't.
+   */
+  private void logSqlFetch(Spy spy, FetchSummary fetch, Object sql)
+  {
+    if (!sqlTimingLogger.isErrorEnabled() ||
+      !shouldSqlBeLogged(getFilterSql(sql)))
     {
-      // the algorithm below is not the most efficient possible, but it
-      // represents a reasonable trade off between performance and
-      // maintainability as well as time to develop in the first place.
-
-      // There are a lot of approaches that could be taken to make it run
-      // faster if the need arises, but the size of the strings involved
-      // shouldn't require that, at least at this time.
-
-      // root line to use for comparison purposes.
-      String rootLine = null;
-
-      LineNumberReader lineReader = new LineNumberReader(new StringReader(
-        stringOutput));
-
-      // first make one pass to gather the lines into a List
-      List<String> linesList = new ArrayList<String>();
-      try
-      {
-        while (true)
-        {
-          String line = lineReader.readLine();
-          if (line == null)
-          {
-            break;
-          }
-
-          line = Utilities.rtrim(line);
-          if (rootLine == null && line.length() > 0)
-          {
-            rootLine = line;
-          }
-
-          // any lines that are all whitespace get collapsed here to an empty
-          // string so we will know that we can
-          // skip those completely in the next stage
-          linesList.add(line);
-        }
-      }
-      catch (IOException e)
-      {
-        // since we are reading from a buffer, this isn't likely to happen,
-        // but if it does we just ignore it and treat it like its the end of the
-        // stream
-      }
-
-      // early termination... only one line, or no output!
-      if (rootLine == null || rootLine.length() == 0 || linesList.size() <= 1)
+      return;
+    }
+    long execTimeNanos = fetch.getExecTimeNanos();
+    long totalNanos = fetch.getTotalTimeNanos();
+    if (DriverSpy.SqlTimingErrorThresholdEnabled &&
+      totalNanos >= DriverSpy.SqlTimingErrorThresholdNanos)
+    {
+      if (execTimeNanos < DriverSpy.SqlTimingErrorThresholdNanos)
       {
-        return stringOutput.trim();
+        sqlTimingLogger.error(buildSqlTimingDump(spy, execTimeNanos, null,
+          sql, fetch, sqlTimingLogger.isDebugEnabled()));
+        return;
       }
-
-      // now make multiple passes comparing whitespace from each line until
-      // a deviation occurs
-      // then we know how much whitespace to consume from each line
-
-      int whiteSpaceIndex = -1;
-
-      outer: while (true)
-      {
-        whiteSpaceIndex++;
-        // walk each string until we find non whitespace or divergent types
-        // of whitespace
-
-        // we are safe from terminating this loop off the end of the string
-        // because the previous step collapsed all white space strings to
-        // an empty string and we skip empty strings here, so one of the strings
-        // must necessarily terminate the loop via a non-whitespace char
-        // (or earlier via diverging types of whitespace , like a space vs. a
-        // tab)
-        for (String line : linesList)
-        {
-          // completely blank lines are exempt from this check...
-          if (line.equals(""))
-          {
-            continue;
-          }
-
-          Character ch = line.charAt(whiteSpaceIndex);
-
-          // whitespace must match identically to be considered for collapsing
-          if (!Character.isWhitespace(ch) ||
-            ch != rootLine.charAt(whiteSpaceIndex))
-          {
-            break outer;
-          }
-        }
-      }
-
-      // now that we know how much we can trim from each string, do the trim
-      if (whiteSpaceIndex > 0)
+    }
+    else if (DriverSpy.SqlTimingWarnThresholdEnabled &&
+      totalNanos >= DriverSpy.SqlTimingWarnThresholdNanos)
+    {
+      if (execTimeNanos < DriverSpy.SqlTimingWarnThresholdNanos &&
+        sqlTimingLogger.isWarnEnabled())
       {
-        output = new StringBuilder();
-        for (String line : linesList)
-        {
-          if (!line.equals(""))
-          {
-            output.append(line.substring(whiteSpaceIndex));
-          }
-          output.append(nl);
-        }
-        stringOutput = output.toString();
+        sqlTimingLogger.warn(buildSqlTimingDump(spy, execTimeNanos, null,
+          sql, fetch, sqlTimingLogger.isDebugEnabled()));
+        return;
       }
-
     }
-
-    return stringOutput;
+    if (sqlTimingLogger.isDebugEnabled())
+    {
+      sqlTimingLogger.debug(buildSqlTimingDump(spy, execTimeNanos, null, sql,
+        fetch, true));
+    }
   }
 
   /**
-   * Special call that is called only for JDBC method calls that contain SQL.
-   *
-   * @param spy the Spy wrapping the class where the SQL occurred.
-   *
-   * @param execTime how long it took the SQL to run, in milliseconds.
-   *
-   * @param methodCall a description of the name and call parameters of the
-   *        method that generated the SQL.
-   *
-   * @param sql SQL that occurred.
+   * Log SQL timing to the jdbc.sqltiming logger.  The sql is either a String
+   * or a DumpedSql, which is only rendered if it is logged.
    */
-  public void sqlTimingOccured(Spy spy, long execTime, String methodCall,
-    String sql)
+  private void logSqlTiming(Spy spy, long execTimeNanos, Object methodCall,
+    Object sql)
   {
-    if (sqlTimingLogger.isErrorEnabled() && shouldSqlBeLogged(sql))
+    if (sqlTimingLogger.isErrorEnabled() &&
+      shouldSqlBeLogged(getFilterSql(sql)))
     {
       if (DriverSpy.SqlTimingErrorThresholdEnabled &&
-        execTime >= DriverSpy.SqlTimingErrorThresholdMsec)
+        execTimeNanos >= DriverSpy.SqlTimingErrorThresholdNanos)
       {
-        sqlTimingLogger.error(buildSqlTimingDump(spy, execTime, methodCall,
-          sql, sqlTimingLogger.isDebugEnabled()));
+        sqlTimingLogger.error(buildSqlTimingDump(spy, execTimeNanos,
+          methodCall, sql, null, sqlTimingLogger.isDebugEnabled()));
       }
       else if (sqlTimingLogger.isWarnEnabled())
       {
         if (DriverSpy.SqlTimingWarnThresholdEnabled &&
-          execTime >= DriverSpy.SqlTimingWarnThresholdMsec)
+          execTimeNanos >= DriverSpy.SqlTimingWarnThresholdNanos)
         {
-          sqlTimingLogger.warn(buildSqlTimingDump(spy, execTime, methodCall,
-            sql, sqlTimingLogger.isDebugEnabled()));
+          sqlTimingLogger.warn(buildSqlTimingDump(spy, execTimeNanos,
+            methodCall, sql, null, sqlTimingLogger.isDebugEnabled()));
         }
         else if (sqlTimingLogger.isDebugEnabled())
         {
-          sqlTimingLogger.debug(buildSqlTimingDump(spy, execTime, methodCall,
-            sql, true));
+          sqlTimingLogger.debug(buildSqlTimingDump(spy, execTimeNanos,
+            methodCall, sql, null, true));
         }
         else if (sqlTimingLogger.isInfoEnabled())
         {
-          sqlTimingLogger.info(buildSqlTimingDump(spy, execTime, methodCall,
-            sql, false));
+          sqlTimingLogger.info(buildSqlTimingDump(spy, execTimeNanos,
+            methodCall, sql, null, false));
         }
       }
     }
@@ -511,19 +878,22 @@ public class Slf4jSpyLogDelegator implements SpyLogDelegator
    *
    * @param spy the Spy wrapping the class where the SQL occurred.
    *
-   * @param execTime how long it took the SQL to run, in milliseconds.
+   * @param execTimeNanos how long it took the SQL to run, in nanoseconds.
    *
    * @param methodCall a description of the name and call parameters of the
    *        method that generated the SQL.
    *
    * @param sql SQL that occurred.
    *
+   * @param fetch how the rows of the ResultSet the SQL produced were fetched,
+   *        or null if this is being logged when the SQL was executed.
+   *
    * @param debugInfo if true, include debug info at the front of the output.
    *
    * @return a SQL timing dump String for logging.
    */
-  private String buildSqlTimingDump(Spy spy, long execTime, String methodCall,
-    String sql, boolean debugInfo)
+  private String buildSqlTimingDump(Spy spy, long execTimeNanos,
+    Object methodCall, Object sql, FetchSummary fetch, boolean debugInfo)
   {
     StringBuffer out = new StringBuffer();
 
@@ -540,16 +910,97 @@ public class Slf4jSpyLogDelegator implements SpyLogDelegator
     // this is not very efficient but usually
     // only one or the other dump should be on and not both.
 
-    sql = processSql(sql);
-
-    out.append(sql);
+    out.append(processSql(sql == null ? null : sql.toString()));
     out.append(" {executed in ");
-    out.append(execTime);
-    out.append(" msec}");
+    out.append(formatExecTime(execTimeNanos));
+    if (fetch != null)
+    {
+      out.append(", fetched ");
+      out.append(fetch.getRows());
+      out.append(fetch.getRows() == 1 ? " row in " : " rows in ");
+      out.append(formatExecTime(fetch.getFetchTimeNanos()));
+      if (fetch.getRows() > 0)
+      {
+        out.append(" (");
+        out.append(fetch.getRowsPerSecond());
+        out.append(" rows/sec), first row after ");
+        out.append(formatExecTime(fetch.getFirstRowNanos()));
+      }
+    }
+    out.append("}");
 
     return out.toString();
   }
 
+  /**
+   * Convert a millisecond time passed in through one of the older millisecond
+   * based methods to nanoseconds.
+   *
+   * @param execTime time in milliseconds, or -1 if not used.
+   *
+   * @return the time in nanoseconds, or -1 if not used.
+   */
+  private static long toNanos(long execTime)
+  {
+    return execTime < 0 ? -1L : TimeUnit.MILLISECONDS.toNanos(execTime);
+  }
+
+  /**
+   * Format an execution time for the sqltiming log, in the unit chosen with
+   * the log4jdbc.sqltiming.unit property (msec by default.)
+   *
+   * @param execTimeNanos time in nanoseconds, or -1 if not known.
+   *
+   * @return the time followed by the unit label, for example "12 msec".
+   */
+  private static String formatExecTime(long execTimeNanos)
+  {
+    long execTime = execTimeNanos < 0 ? -1L :
+      DriverSpy.SqlTimingUnit.convert(execTimeNanos, TimeUnit.NANOSECONDS);
+    return execTime + " " + DriverSpy.SqlTimingUnitLabel;
+  }
+
+  /**
+   * Debugging info captured on the application thread for an event that is
+   * being logged later on another thread (by the AsyncSpyLogDelegator.)  When
+   * set, it is used instead of debugging info from the current stack.
+   */
+  private static final ThreadLocal<String> deferredDebugInfo =
+    new ThreadLocal<>();
+
+  /**
+   * Set (or clear, with null) the debugging info to use for events logged on
+   * the current thread.
+   *
+   * @param debugInfo debugging info from getDebugInfo(), called on the thread
+   *        that called into JDBC.
+   */
+  static void setDeferredDebugInfo(String debugInfo)
+  {
+    if (debugInfo == null)
+    {
+      deferredDebugInfo.remove();
+    }
+    else
+    {
+      deferredDebugInfo.set(debugInfo);
+    }
+  }
+
+  /**
+   * Determine if any of the log4jdbc spy loggers are enabled at debug level,
+   * in which case logged events may include debugging info about the call site
+   * in the application.
+   *
+   * @return true if debugging info may be included in the logged output.
+   */
+  boolean isDebugInfoEnabled()
+  {
+    return jdbcLogger.isDebugEnabled() || resultSetLogger.isDebugEnabled() ||
+      sqlOnlyLogger.isDebugEnabled() || sqlTimingLogger.isDebugEnabled() ||
+      connectionLogger.isDebugEnabled();
+  }
+
   /**
    * Get debugging info - the module and line number that called the logger
    * version that prints the stack trace information from the point just before
@@ -562,85 +1013,26 @@ public class Slf4jSpyLogDelegator implements SpyLogDelegator
    * @return debugging info for whoever called into JDBC from within the
    *         application.
    */
-  private static String getDebugInfo()
+  static String getDebugInfo()
   {
-    Throwable t = new Throwable();
-    t.fillInStackTrace();
-
-    StackTraceElement[] stackTrace = t.getStackTrace();
-
-    if (stackTrace != null)
+    String debugInfo = deferredDebugInfo.get();
+    if (debugInfo != null)
     {
-      String className;
-
-      StringBuffer dump = new StringBuffer();
-
-      /**
-       * The DumpFullDebugStackTrace option is useful in some situations when we
-       * want to see the full stack trace in the debug info- watch out though as
-       * this will make the logs HUGE!
-       */
-      if (DriverSpy.DumpFullDebugStackTrace)
-      {
-        boolean first = true;
-        for (int i = 0; i < stackTrace.length; i++)
-        {
-          className = stackTrace[i].getClassName();
-          if (!className.startsWith("net.sf.log4jdbc"))
-          {
-            if (first)
-            {
-              first = false;
-            }
-            else
-            {
-              dump.append("  ");
-            }
-            dump.append("at ");
-            dump.append(stackTrace[i]);
-            dump.append(nl);
-          }
-        }
-      }
-      else
-      {
-        dump.append(" ");
-        int firstLog4jdbcCall = 0;
-        int lastApplicationCall = 0;
-
-        for (int i = 0; i < stackTrace.length; i++)
-        {
-          className = stackTrace[i].getClassName();
-          if (className.startsWith("net.sf.log4jdbc"))
-          {
-            firstLog4jdbcCall = i;
-          }
-          else if (DriverSpy.TraceFromApplication &&
-            className.startsWith(DriverSpy.DebugStackPrefix))
-          {
-            lastApplicationCall = i;
-            break;
-          }
-        }
-        int j = lastApplicationCall;
-
-        if (j == 0) // if app not found, then use whoever was the last guy that
-                    // called a log4jdbc class.
-        {
-          j = 1 + firstLog4jdbcCall;
-        }
-
-        dump.append(stackTrace[j].getClassName()).append(".")
-          .append(stackTrace[j].getMethodName()).append("(")
-          .append(stackTrace[j].getFileName()).append(":")
-          .append(stackTrace[j].getLineNumber()).append(")");
-      }
+      return debugInfo;
+    }
 
-      return dump.toString();
+    /**
+     * The DumpFullDebugStackTrace option is useful in some situations when we
+     * want to see the full stack trace in the debug info- watch out though as
+     * this will make the logs HUGE!
+     */
+    if (DriverSpy.DumpFullDebugStackTrace)
+    {
+      return CallSite.describeStack();
     }
     else
     {
-      return null;
+      return " " + CallSite.describe();
     }
   }
 
@@ -673,6 +1065,56 @@ public class Slf4jSpyLogDelegator implements SpyLogDelegator
     }
   }
 
+  /**
+   * Called when a connection looks like it has leaked.  A connection held
+   * open for too long is logged as a warning to the jdbc.connection logger,
+   * and a connection that was garbage collected without being closed as an
+   * error.
+   *
+   * @param leak the connection, how long it was open for and where it was
+   *        opened from.
+   */
+  public void connectionLeakOccured(ConnectionLeak leak)
+  {
+    if (leak.isCollected())
+    {
+      connectionLogger.error(leak.getConnectionNumber() +
+        ". Connection was garbage collected without being closed, after " +
+        formatExecTime(leak.getHeldNanos()) + ": opened at " +
+        leak.getOpenedAt());
+    }
+    else if (connectionLogger.isWarnEnabled())
+    {
+      String openedAt = leak.getOpenedAt();
+      connectionLogger.warn(leak.getConnectionNumber() +
+        ". Connection held open for " + formatExecTime(leak.getHeldNanos()) +
+        ", possible leak: " + (openedAt == null ?
+        "opened before leak detection was turned on" : "opened at " + openedAt));
+    }
+  }
+
+  /**
+   * Called when a Statement or ResultSet is still open when its connection is
+   * closed, or has been open for too long.  This is logged as a warning to the
+   * jdbc.connection logger.
+   *
+   * @param leak the Statement or ResultSet, its SQL and where it was created.
+   */
+  public void statementLeakOccured(StatementLeak leak)
+  {
+    if (connectionLogger.isWarnEnabled())
+    {
+      String sql = leak.getSql();
+      connectionLogger.warn(leak.getConnectionNumber() + ". " + leak.getType() +
+        (leak.isConnectionClosed() ? " still open when the connection was closed" :
+        " held open for " + formatExecTime(leak.getHeldNanos()) +
+        ", possible leak") +
+        (leak.isCollected() ? " (garbage collected without being closed)" : "") +
+        ": opened at " + leak.getOpenedAt() +
+        (sql == null ? "" : nl + processSql(sql)));
+    }
+  }
+
   /**
    * Called whenever a connection spy is closed.
    *
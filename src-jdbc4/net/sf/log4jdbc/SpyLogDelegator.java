@@ -15,6 +15,8 @@
  */
 package net.sf.log4jdbc;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Delegates Spy events to a logger. This interface is used for all logging activity used by
  * log4jdbc and hides the specific implementation of any given logging system from log4jdbc.
@@ -84,6 +86,415 @@ public interface SpyLogDelegator
    */
   public void sqlTimingOccured(Spy spy, long execTime, String methodCall, String sql);
 
+  /**
+   * Determine if methodReturned events for the given Spy will actually be logged.  The Spy classes
+   * check this before they create the MethodCall describing a return, so that a spied upon call
+   * doesn't allocate anything when the logger that would show it is turned off.
+   *
+   * The default implementation always returns true.
+   *
+   * @param spy the Spy wrapping the class that called the method that returned.
+   * @return true if methodReturned events for the given Spy should be reported.
+   */
+  public default boolean isMethodReturnedEnabled(Spy spy)
+  {
+    return true;
+  }
+
+  /**
+   * Determine if sqlOccured, sqlTimingOccured and sqlFetchOccured events will actually be logged.
+   * A PreparedStatementSpy checks this before it captures its bind variables for the SQL of an
+   * execution, so that they aren't copied when nothing is going to show them.
+   *
+   * The default implementation returns isJdbcLoggingEnabled().
+   *
+   * @return true if sqlOccured, sqlTimingOccured or sqlFetchOccured events should be reported.
+   */
+  public default boolean isSqlLoggingEnabled()
+  {
+    return isJdbcLoggingEnabled();
+  }
+
+  /**
+   * Called when a spied upon method throws an Exception.  The method call is described by a
+   * MethodCall which need only be rendered to text if it is actually going to be logged.
+   *
+   * The default implementation renders the MethodCall and calls the String based version.
+   *
+   * @param spy        the Spy wrapping the class that threw an Exception.
+   * @param methodCall a description of the name and call parameters of the method generated the
+   *                   Exception.
+   * @param e          the Exception that was thrown.
+   * @param sql        optional sql that occured just before the exception occured.
+   * @param execTime   optional amount of time that passed before an exception was thrown when sql
+   *                   was being executed. caller should pass -1 if not used
+   */
+  public default void exceptionOccured(Spy spy, MethodCall methodCall, Exception e, String sql,
+    long execTime)
+  {
+    exceptionOccured(spy, methodCall.toString(), e, sql, execTime);
+  }
+
+  /**
+   * Called when spied upon method call returns.  The method call is described by a MethodCall
+   * which need only be rendered to text if it is actually going to be logged.
+   *
+   * The default implementation renders the MethodCall and calls the String based version.
+   *
+   * @param spy        the Spy wrapping the class that called the method that returned.
+   * @param methodCall a description of the name and call parameters of the method that returned.
+   * @param returnMsg  return value converted to a String for integral types, or String
+   *                   representation for Object
+   *                   return types this will be null for void return types.
+   */
+  public default void methodReturned(Spy spy, MethodCall methodCall, String returnMsg)
+  {
+    methodReturned(spy, methodCall.toString(), returnMsg);
+  }
+
+  /**
+   * Called when spied upon method call returns a boolean value.  The value is passed as is so that
+   * it need only be converted to a String if it is actually going to be logged.
+   *
+   * The default implementation converts the value to a String and calls the MethodCall version.
+   *
+   * @param spy         the Spy wrapping the class that called the method that returned.
+   * @param methodCall  a description of the name and call parameters of the method that returned.
+   * @param returnValue the value that was returned.
+   */
+  public default void methodReturned(Spy spy, MethodCall methodCall, boolean returnValue)
+  {
+    methodReturned(spy, methodCall, String.valueOf(returnValue));
+  }
+
+  /**
+   * Called when spied upon method call returns an int value.  The value is passed as is so that it
+   * need only be converted to a String if it is actually going to be logged.  byte and short
+   * return values are reported through this method as well.
+   *
+   * The default implementation converts the value to a String and calls the MethodCall version.
+   *
+   * @param spy         the Spy wrapping the class that called the method that returned.
+   * @param methodCall  a description of the name and call parameters of the method that returned.
+   * @param returnValue the value that was returned.
+   */
+  public default void methodReturned(Spy spy, MethodCall methodCall, int returnValue)
+  {
+    methodReturned(spy, methodCall, String.valueOf(returnValue));
+  }
+
+  /**
+   * Called when spied upon method call returns a long value.  The value is passed as is so that
+   * it need only be converted to a String if it is actually going to be logged.
+   *
+   * The default implementation converts the value to a String and calls the MethodCall version.
+   *
+   * @param spy         the Spy wrapping the class that called the method that returned.
+   * @param methodCall  a description of the name and call parameters of the method that returned.
+   * @param returnValue the value that was returned.
+   */
+  public default void methodReturned(Spy spy, MethodCall methodCall, long returnValue)
+  {
+    methodReturned(spy, methodCall, String.valueOf(returnValue));
+  }
+
+  /**
+   * Called when spied upon method call returns a float value.  The value is passed as is so that
+   * it need only be converted to a String if it is actually going to be logged.
+   *
+   * The default implementation converts the value to a String and calls the MethodCall version.
+   *
+   * @param spy         the Spy wrapping the class that called the method that returned.
+   * @param methodCall  a description of the name and call parameters of the method that returned.
+   * @param returnValue the value that was returned.
+   */
+  public default void methodReturned(Spy spy, MethodCall methodCall, float returnValue)
+  {
+    methodReturned(spy, methodCall, String.valueOf(returnValue));
+  }
+
+  /**
+   * Called when spied upon method call returns a double value.  The value is passed as is so that
+   * it need only be converted to a String if it is actually going to be logged.
+   *
+   * The default implementation converts the value to a String and calls the MethodCall version.
+   *
+   * @param spy         the Spy wrapping the class that called the method that returned.
+   * @param methodCall  a description of the name and call parameters of the method that returned.
+   * @param returnValue the value that was returned.
+   */
+  public default void methodReturned(Spy spy, MethodCall methodCall, double returnValue)
+  {
+    methodReturned(spy, methodCall, String.valueOf(returnValue));
+  }
+
+  /**
+   * Called when spied upon method call returns an Object value.  The value is passed as is so that
+   * it need only be converted to a String if it is actually going to be logged.
+   *
+   * The default implementation converts the value to a String and calls the MethodCall version.
+   *
+   * @param spy         the Spy wrapping the class that called the method that returned.
+   * @param methodCall  a description of the name and call parameters of the method that returned.
+   * @param returnValue the value that was returned.
+   */
+  public default void methodReturned(Spy spy, MethodCall methodCall, Object returnValue)
+  {
+    methodReturned(spy, methodCall, String.valueOf(returnValue));
+  }
+
+  /**
+   * Special call that is called only for JDBC method calls that contain SQL.  The method call is
+   * described by a MethodCall which need only be rendered to text if it is actually going to be
+   * logged.
+   *
+   * The default implementation renders the MethodCall and calls the String based version.
+   *
+   * @param spy        the Spy wrapping the class where the SQL occured.
+   * @param methodCall a description of the name and call parameters of the method that generated
+   *                   the SQL.
+   * @param sql        sql that occured.
+   */
+  public default void sqlOccured(Spy spy, MethodCall methodCall, String sql)
+  {
+    sqlOccured(spy, methodCall.toString(), sql);
+  }
+
+  /**
+   * Similar to sqlOccured, but reported after SQL executes and used to report timing stats on the
+   * SQL.  The method call is described by a MethodCall which need only be rendered to text if it
+   * is actually going to be logged.
+   *
+   * The default implementation renders the MethodCall and calls the String based version.
+   *
+   * @param spy the    Spy wrapping the class where the SQL occured.
+   * @param execTime   how long it took the sql to run, in msec.
+   * @param methodCall a description of the name and call parameters of the method that generated
+   *                   the SQL.
+   * @param sql        sql that occured.
+   */
+  public default void sqlTimingOccured(Spy spy, long execTime, MethodCall methodCall, String sql)
+  {
+    sqlTimingOccured(spy, execTime, methodCall.toString(), sql);
+  }
+
+  /**
+   * Similar to sqlTimingOccured, but with the time the SQL took to run measured in nanoseconds
+   * (with System.nanoTime) so that sub-millisecond SQL can be profiled.  The Spy classes always
+   * report SQL timing through this method.
+   *
+   * The default implementation converts the time to milliseconds and calls the millisecond based
+   * version, so existing SpyLogDelegators continue to see the same timing they always have.
+   *
+   * @param spy the       Spy wrapping the class where the SQL occured.
+   * @param execTimeNanos how long it took the sql to run, in nanoseconds.
+   * @param methodCall    a description of the name and call parameters of the method that
+   *                      generated the SQL.
+   * @param sql           sql that occured.
+   */
+  public default void sqlTimingOccuredNanos(Spy spy, long execTimeNanos, MethodCall methodCall,
+    String sql)
+  {
+    sqlTimingOccured(spy, TimeUnit.NANOSECONDS.toMillis(execTimeNanos), methodCall, sql);
+  }
+
+  /**
+   * Similar to exceptionOccured, but with the time that passed before the Exception was thrown
+   * measured in nanoseconds.  The Spy classes report Exceptions thrown while executing SQL through
+   * this method.
+   *
+   * The default implementation converts the time to milliseconds and calls the millisecond based
+   * version.
+   *
+   * @param spy           the Spy wrapping the class that threw an Exception.
+   * @param methodCall    a description of the name and call parameters of the method generated the
+   *                      Exception.
+   * @param e             the Exception that was thrown.
+   * @param sql           optional sql that occured just before the exception occured.
+   * @param execTimeNanos optional amount of time in nanoseconds that passed before an exception
+   *                      was thrown when sql was being executed. caller should pass -1 if not used
+   */
+  public default void exceptionOccuredNanos(Spy spy, MethodCall methodCall, Exception e,
+    String sql, long execTimeNanos)
+  {
+    exceptionOccured(spy, methodCall, e, sql,
+      execTimeNanos < 0 ? -1L : TimeUnit.NANOSECONDS.toMillis(execTimeNanos));
+  }
+
+  /**
+   * Special call that is called only for JDBC method calls that contain SQL, for SQL that has bind
+   * variables which are only merged into it when it's rendered with DumpedSql.toString().  A
+   * SpyLogDelegator should only render the SQL if it is actually going to log it.
+   *
+   * The default implementation renders the SQL and calls the String based version.
+   *
+   * @param spy        the Spy wrapping the class where the SQL occured.
+   * @param methodCall a description of the name and call parameters of the method that generated
+   *                   the SQL.
+   * @param sql        sql that occured.
+   */
+  public default void sqlOccured(Spy spy, MethodCall methodCall, DumpedSql sql)
+  {
+    sqlOccured(spy, methodCall, sql.toString());
+  }
+
+  /**
+   * Similar to sqlTimingOccuredNanos, for SQL that has bind variables which are only merged into
+   * it when it's rendered with DumpedSql.toString().  A SpyLogDelegator should only render the SQL
+   * if it is actually going to log it.
+   *
+   * The default implementation renders the SQL and calls the String based version.
+   *
+   * @param spy the       Spy wrapping the class where the SQL occured.
+   * @param execTimeNanos how long it took the sql to run, in nanoseconds.
+   * @param methodCall    a description of the name and call parameters of the method that
+   *                      generated the SQL.
+   * @param sql           sql that occured.
+   */
+  public default void sqlTimingOccuredNanos(Spy spy, long execTimeNanos, MethodCall methodCall,
+    DumpedSql sql)
+  {
+    sqlTimingOccuredNanos(spy, execTimeNanos, methodCall, sql.toString());
+  }
+
+  /**
+   * Similar to exceptionOccuredNanos, for SQL that has bind variables which are only merged into it
+   * when it's rendered with DumpedSql.toString().
+   *
+   * The default implementation renders the SQL and calls the String based version.
+   *
+   * @param spy           the Spy wrapping the class that threw an Exception.
+   * @param methodCall    a description of the name and call parameters of the method generated the
+   *                      Exception.
+   * @param e             the Exception that was thrown.
+   * @param sql           sql that occured just before the exception occured.
+   * @param execTimeNanos amount of time in nanoseconds that passed before an exception was thrown
+   *                      when sql was being executed.
+   */
+  public default void exceptionOccuredNanos(Spy spy, MethodCall methodCall, Exception e,
+    DumpedSql sql, long execTimeNanos)
+  {
+    exceptionOccuredNanos(spy, methodCall, e, sql.toString(), execTimeNanos);
+  }
+
+  /**
+   * Called when the rows of a ResultSet have all been read, or when it is closed before then, with
+   * a summary of how long it took to fetch them.  This is reported along with the SQL that produced
+   * the ResultSet.
+   *
+   * The default implementation does nothing.
+   *
+   * @param spy   the Spy wrapping the ResultSet.
+   * @param fetch how the rows were fetched.
+   * @param sql   sql that produced the ResultSet.
+   */
+  public default void sqlFetchOccured(Spy spy, FetchSummary fetch, String sql)
+  {
+  }
+
+  /**
+   * Similar to sqlFetchOccured, for SQL that has bind variables which are only merged into it when
+   * it's rendered with DumpedSql.toString().
+   *
+   * The default implementation renders the SQL and calls the String based version.
+   *
+   * @param spy   the Spy wrapping the ResultSet.
+   * @param fetch how the rows were fetched.
+   * @param sql   sql that produced the ResultSet.
+   */
+  public default void sqlFetchOccured(Spy spy, FetchSummary fetch, DumpedSql sql)
+  {
+    sqlFetchOccured(spy, fetch, sql.toString());
+  }
+
+  /**
+   * Called when one thread has run the same SQL (with different literal values or bind variables)
+   * log4jdbc.nplusone.threshold times within log4jdbc.nplusone.window msec, which usually means
+   * that it's being run once for each row of an earlier query (the "N+1 queries" pattern.)  This is
+   * called on the thread that ran the SQL, from the statement that reached the threshold.
+   *
+   * The default implementation does nothing.
+   *
+   * @param spy          the Spy wrapping the Statement that ran the SQL.
+   * @param fingerprint  the SqlFingerprint of the SQL.
+   * @param count        the number of times the SQL was run.
+   * @param elapsedNanos the time from the first to the last of those runs, in nanoseconds.
+   */
+  public default void sqlRepeatOccured(Spy spy, String fingerprint, int count, long elapsedNanos)
+  {
+  }
+
+  /**
+   * Called when a transaction ends (or the connection is closed) for each SQL statement that was
+   * run more than once with the same bind variables in it, when the log4jdbc.duplicate.sql option
+   * is on.
+   *
+   * The default implementation does nothing.
+   *
+   * @param spy         the ConnectionSpy that ran the SQL.
+   * @param count       the number of times the SQL was run in the transaction.
+   * @param wastedNanos the time taken by all but the first of those runs, in nanoseconds.
+   * @param sql         the SQL.
+   */
+  public default void sqlDuplicateOccured(Spy spy, int count, long wastedNanos, String sql)
+  {
+  }
+
+  /**
+   * Similar to sqlDuplicateOccured, for SQL that has bind variables which are only merged into it
+   * when it's rendered with DumpedSql.toString().
+   *
+   * The default implementation renders the SQL and calls the String based version.
+   *
+   * @param spy         the ConnectionSpy that ran the SQL.
+   * @param count       the number of times the SQL was run in the transaction.
+   * @param wastedNanos the time taken by all but the first of those runs, in nanoseconds.
+   * @param sql         the SQL.
+   */
+  public default void sqlDuplicateOccured(Spy spy, int count, long wastedNanos, DumpedSql sql)
+  {
+    sqlDuplicateOccured(spy, count, wastedNanos, sql.toString());
+  }
+
+  /**
+   * Called when a transaction ends with a commit, a rollback, setAutoCommit(true) or the
+   * connection being closed, if any statements were run in it.
+   *
+   * The default implementation does nothing.
+   *
+   * @param spy         the ConnectionSpy that ran the transaction.
+   * @param transaction how long the transaction took and how that time was spent.
+   */
+  public default void transactionEnded(Spy spy, TransactionSummary transaction)
+  {
+  }
+
+  /**
+   * Called when a connection looks like it has leaked: it has been open for longer than
+   * log4jdbc.connection.leak.threshold, or its ConnectionSpy was garbage collected without being
+   * closed.  This is called on a log4jdbc background thread.
+   *
+   * The default implementation does nothing.
+   *
+   * @param leak the connection, how long it was open for and where it was opened from.
+   */
+  public default void connectionLeakOccured(ConnectionLeak leak)
+  {
+  }
+
+  /**
+   * Called when a Statement or ResultSet is still open when its connection is closed, or has been
+   * open for longer than log4jdbc.connection.leak.threshold, while the log4jdbc.statement.leak
+   * option is on.
+   *
+   * The default implementation does nothing.
+   *
+   * @param leak the Statement or ResultSet, its SQL and where it was created.
+   */
+  public default void statementLeakOccured(StatementLeak leak)
+  {
+  }
+
   /**
    * Called whenever a new connection spy is created.
    *
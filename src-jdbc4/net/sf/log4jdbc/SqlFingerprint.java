@@ -0,0 +1,567 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+/**
+ * The fingerprint of a SQL statement: the SQL with everything that typically changes from one
+ * execution of the "same" statement to the next taken out, so that SQL run with a plain Statement
+ * (with its values inlined as literals) can be grouped together.  The fingerprint is made by:
+ *
+ * <ul>
+ * <li>replacing each 'string literal' and number with a ?</li>
+ * <li>collapsing the list of values after IN or VALUES, whatever its length, to (?+) and collapsing
+ *     the rows of a multiple row VALUES clause to a single row</li>
+ * <li>removing -- and /* comments *&#47; and collapsing each run of whitespace into a single
+ *     space</li>
+ * <li>lower casing everything except "quoted identifiers" and `MySQL quoted identifiers`</li>
+ * </ul>
+ *
+ * So for example <code>SELECT * FROM t WHERE a = 'x'  AND b IN (1, 2, 3)</code> has the
+ * fingerprint <code>select * from t where a = ? and b in (?+)</code>.  The SQL for a
+ * PreparedStatement has the same fingerprint as the same SQL run with literal values in it.
+ *
+ * The fingerprint is made in a single pass over the SQL into a buffer that is reused by each
+ * thread, and its 64 bit hash can be computed without creating the fingerprint String at all.
+ *
+ * @author Arthur Blake
+ */
+public final class SqlFingerprint
+{
+  private static final long SEED = 0x9e3779b97f4a7c15L;
+
+  private static final long P = 0x100000001b3L;
+
+  private static final long P2 = P * P;
+
+  private static final long P3 = P2 * P;
+
+  private static final long P4 = P3 * P;
+
+  /**
+   * Largest buffer that is kept around for reuse by each thread.
+   */
+  private static final int MAX_REUSED_BUFFER = 16384;
+
+  /**
+   * Deepest nesting of parentheses that IN and VALUES lists are collapsed in.
+   */
+  private static final int MAX_DEPTH = 32;
+
+  /**
+   * ASCII chars that start a word, chars that can be in a word and the lower case of each char.
+   */
+  private static final boolean[] LETTER = new boolean[128];
+
+  private static final boolean[] WORD = new boolean[128];
+
+  private static final char[] LOWER = new char[128];
+
+  static
+  {
+    for (char c = 0; c < 128; c++)
+    {
+      LETTER[c] = c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_' || c == '$';
+      WORD[c] = LETTER[c] || isDigit(c);
+      LOWER[c] = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+  }
+
+  private static final ThreadLocal<Builder> builders = ThreadLocal.withInitial(Builder::new);
+
+  /**
+   * Make the fingerprint of some SQL.
+   *
+   * @param sql SQL to fingerprint.
+   * @return the fingerprint of the SQL.
+   */
+  public static SqlFingerprint of(String sql)
+  {
+    Builder b = builders.get().build(sql, false);
+    String text = new String(b.out, 0, b.pos);
+    return new SqlFingerprint(text, b.hash());
+  }
+
+  /**
+   * Get the fingerprint text of some SQL.
+   *
+   * @param sql SQL to fingerprint.
+   * @return the fingerprint of the SQL.
+   */
+  public static String fingerprint(String sql)
+  {
+    return fingerprint(sql, false);
+  }
+
+  /**
+   * Get the fingerprint text of some SQL.
+   *
+   * @param sql              SQL to fingerprint.
+   * @param backslashEscapes true if a backslash escapes the character after it in a string literal
+   *                         in the SQL (see RdbmsSpecifics.isBackslashEscapes.)
+   * @return the fingerprint of the SQL.
+   */
+  public static String fingerprint(String sql, boolean backslashEscapes)
+  {
+    Builder b = builders.get().build(sql, backslashEscapes);
+    return new String(b.out, 0, b.pos);
+  }
+
+  /**
+   * Get the 64 bit hash of the fingerprint of some SQL, without creating the fingerprint.
+   *
+   * @param sql SQL to fingerprint.
+   * @return the 64 bit hash of the fingerprint of the SQL.
+   */
+  public static long hash(String sql)
+  {
+    return builders.get().build(sql, false).hash();
+  }
+
+  private final String text;
+
+  private final long hash;
+
+  private SqlFingerprint(String text, long hash)
+  {
+    this.text = text;
+    this.hash = hash;
+  }
+
+  /**
+   * @return the fingerprint text.
+   */
+  public String getText()
+  {
+    return text;
+  }
+
+  /**
+   * @return the 64 bit hash of the fingerprint text.
+   */
+  public long getHash()
+  {
+    return hash;
+  }
+
+  public boolean equals(Object o)
+  {
+    return o instanceof SqlFingerprint && hash == ((SqlFingerprint) o).hash &&
+      text.equals(((SqlFingerprint) o).text);
+  }
+
+  public int hashCode()
+  {
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  public String toString()
+  {
+    return text;
+  }
+
+  /**
+   * Makes fingerprints into a buffer.  One of these is kept for each thread.
+   */
+  private static final class Builder
+  {
+    private char[] in = new char[256];
+
+    private char[] out = new char[256];
+
+    private int pos;
+
+    /**
+     * Offset in out of each open parenthesis, or -1 if what's in it can't be collapsed.
+     */
+    private final int[] open = new int[MAX_DEPTH];
+
+    /**
+     * Number of ? in each open parenthesis.
+     */
+    private final int[] values = new int[MAX_DEPTH];
+
+    private int depth;
+
+    Builder build(String sql, boolean backslashEscapes)
+    {
+      int len = sql.length();
+      int size = len + (len >> 1) + 8;
+      if (out.length < size || out.length > MAX_REUSED_BUFFER && size <= MAX_REUSED_BUFFER)
+      {
+        out = new char[size];
+        in = new char[size];
+      }
+      char[] in = this.in;
+      char[] out = this.out;
+      sql.getChars(0, len, in, 0);
+      pos = 0;
+      depth = 0;
+      boolean space = false;
+      int i = 0;
+      while (i < len)
+      {
+        char c = in[i];
+        if (c <= ' ')
+        {
+          space = true;
+          i++;
+          continue;
+        }
+        if (c == '-' && i + 1 < len && in[i + 1] == '-')
+        {
+          i += 2;
+          while (i < len && in[i] != '\n' && in[i] != '\r')
+          {
+            i++;
+          }
+          space = true;
+          continue;
+        }
+        if (c == '/' && i + 1 < len && in[i + 1] == '*')
+        {
+          i += 2;
+          while (i < len && !(in[i] == '*' && i + 1 < len && in[i + 1] == '/'))
+          {
+            i++;
+          }
+          i = Math.min(i + 2, len);
+          space = true;
+          continue;
+        }
+        if (c == ',' || c == ')')
+        {
+          // no space before a comma or a close parenthesis
+          space = false;
+        }
+        else if (space && pos > 0 && out[pos - 1] != '(')
+        {
+          // no space after an open parenthesis
+          out[pos++] = ' ';
+        }
+        space = false;
+
+        if (isLetter(c))
+        {
+          // a word, lower cased, including any digits in it (as in t1)
+          int p = pos;
+          do
+          {
+            out[p++] = c < 128 ? LOWER[c] : c;
+            i++;
+          }
+          while (i < len && isWordChar(c = in[i]));
+          pos = p;
+          other();
+        }
+        else if (isDigit(c) || c == '.' && i + 1 < len && isDigit(in[i + 1]) && !afterWord())
+        {
+          i = skipNumber(in, i, len);
+          value();
+        }
+        else if (c == '\'')
+        {
+          // string literal, with '' for an escaped quote
+          i = skipQuoted(in, i, len, backslashEscapes);
+          value();
+        }
+        else if (c == '"' || c == '`')
+        {
+          // quoted identifier, kept as is
+          int start = i;
+          i = skipQuoted(in, i, len, false);
+          System.arraycopy(in, start, out, pos, i - start);
+          pos += i - start;
+          other();
+        }
+        else if (c == '?')
+        {
+          i++;
+          value();
+        }
+        else if (c == ',')
+        {
+          i++;
+          out[pos++] = ',';
+          space = true;
+        }
+        else if ((c == '-' || c == '+') && i + 1 < len && afterOperator() &&
+          (isDigit(in[i + 1]) || in[i + 1] == '.'))
+        {
+          // a signed number
+          i = skipNumber(in, i + 1, len);
+          value();
+        }
+        else if (c == '(')
+        {
+          i++;
+          out[pos] = '(';
+          if (depth < MAX_DEPTH)
+          {
+            open[depth] = afterListKeyword() ? pos : -1;
+            values[depth] = 0;
+          }
+          pos++;
+          // the open parenthesis itself stops any list that it's inside of from being collapsed
+          other();
+          depth++;
+        }
+        else if (c == ')')
+        {
+          i++;
+          if (depth > 0 && --depth < MAX_DEPTH && open[depth] >= 0 && values[depth] > 0)
+          {
+            collapse(open[depth]);
+          }
+          else
+          {
+            out[pos++] = ')';
+          }
+          other();
+        }
+        else
+        {
+          i++;
+          out[pos++] = c;
+          other();
+        }
+      }
+      return this;
+    }
+
+    /**
+     * A value (a ? in the fingerprint) was found.
+     */
+    private void value()
+    {
+      out[pos++] = '?';
+      if (depth > 0 && depth <= MAX_DEPTH)
+      {
+        values[depth - 1]++;
+      }
+    }
+
+    /**
+     * Something other than a value or a comma was found: the innermost list can't be collapsed.
+     */
+    private void other()
+    {
+      if (depth > 0 && depth <= MAX_DEPTH)
+      {
+        open[depth - 1] = -1;
+      }
+    }
+
+    /**
+     * Replace the list that starts with the parenthesis at start with (?+), and drop it altogether
+     * if it's another row of a VALUES clause that was just collapsed.
+     */
+    private void collapse(int start)
+    {
+      if (endsWith(start, "(?+), "))
+      {
+        pos = start - 2;
+        return;
+      }
+      pos = start;
+      out[pos++] = '(';
+      out[pos++] = '?';
+      out[pos++] = '+';
+      out[pos++] = ')';
+    }
+
+    private boolean endsWith(int end, String s)
+    {
+      int n = s.length();
+      if (end < n)
+      {
+        return false;
+      }
+      for (int i = 0; i < n; i++)
+      {
+        if (out[end - n + i] != s.charAt(i))
+        {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Is the parenthesis about to be written at pos the start of an IN or VALUES list (or of
+     * another row of a VALUES list)?
+     */
+    private boolean afterListKeyword()
+    {
+      int end = pos;
+      if (endsWith(end, "(?+), "))
+      {
+        // another row of values
+        return true;
+      }
+      if (end > 0 && out[end - 1] == ' ')
+      {
+        end--;
+      }
+      return endsWithWord(end, "in") || endsWithWord(end, "values");
+    }
+
+    private boolean endsWithWord(int end, String word)
+    {
+      int start = end - word.length();
+      return endsWith(end, word) && (start == 0 || !isWordChar(out[start - 1]));
+    }
+
+    /**
+     * Does the last char written end a word (so that a digit next is part of the word, as in t1)?
+     */
+    private boolean afterWord()
+    {
+      return pos > 0 && isWordChar(out[pos - 1]);
+    }
+
+    /**
+     * Is the last char written (ignoring a space) one that a signed number can follow?
+     */
+    private boolean afterOperator()
+    {
+      int end = pos;
+      if (end > 0 && out[end - 1] == ' ')
+      {
+        end--;
+      }
+      if (end == 0)
+      {
+        return true;
+      }
+      char c = out[end - 1];
+      return c == '(' || c == ',' || c == '=' || c == '<' || c == '>' || c == '!';
+    }
+
+    /**
+     * Hash the fingerprint: a polynomial hash over 4 chars at a time (so that the multiplications
+     * don't all wait on each other) finished off with the MurmurHash3 64 bit mix.
+     */
+    long hash()
+    {
+      char[] out = this.out;
+      long h = SEED;
+      int i = 0;
+      for (int n = pos - 3; i < n; i += 4)
+      {
+        h = h * P4 + out[i] * P3 + out[i + 1] * P2 + out[i + 2] * P + out[i + 3];
+      }
+      for (; i < pos; i++)
+      {
+        h = h * P + out[i];
+      }
+      h ^= pos;
+      h ^= h >>> 33;
+      h *= 0xff51afd7ed558ccdL;
+      h ^= h >>> 33;
+      h *= 0xc4ceb9fe1a85ec53L;
+      h ^= h >>> 33;
+      return h;
+    }
+  }
+
+  private static boolean isDigit(char c)
+  {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isLetter(char c)
+  {
+    return c < 128 ? LETTER[c] : true;
+  }
+
+  private static boolean isWordChar(char c)
+  {
+    return c < 128 ? WORD[c] : true;
+  }
+
+  /**
+   * Skip over a 'string literal', "quoted identifier" or `MySQL quoted identifier`, with a doubled
+   * quote for an escaped quote.
+   *
+   * @param backslashEscapes true if a backslash escapes the character after it (as in a MySQL
+   *                         string literal.)
+   * @return the offset just past the closing quote.
+   */
+  private static int skipQuoted(char[] in, int i, int len, boolean backslashEscapes)
+  {
+    char quote = in[i++];
+    while (i < len)
+    {
+      char c = in[i++];
+      if (c == '\\' && backslashEscapes)
+      {
+        i++;
+      }
+      else if (c == quote)
+      {
+        if (i < len && in[i] == quote)
+        {
+          i++;
+        }
+        else
+        {
+          break;
+        }
+      }
+    }
+    return Math.min(i, len);
+  }
+
+  /**
+   * Skip over a number: digits with an optional decimal point and exponent, or a hex number.
+   *
+   * @return the offset just past the number.
+   */
+  private static int skipNumber(char[] in, int i, int len)
+  {
+    if (in[i] == '0' && i + 1 < len && (in[i + 1] == 'x' ||
+      in[i + 1] == 'X'))
+    {
+      i += 2;
+      while (i < len && Character.digit(in[i], 16) >= 0)
+      {
+        i++;
+      }
+      return i;
+    }
+    while (i < len && (isDigit(in[i]) || in[i] == '.'))
+    {
+      i++;
+    }
+    if (i < len && (in[i] == 'e' || in[i] == 'E'))
+    {
+      int j = i + 1;
+      if (j < len && (in[j] == '+' || in[j] == '-'))
+      {
+        j++;
+      }
+      if (j < len && isDigit(in[j]))
+      {
+        i = j;
+        while (i < len && isDigit(in[i]))
+        {
+          i++;
+        }
+      }
+    }
+    return i;
+  }
+}
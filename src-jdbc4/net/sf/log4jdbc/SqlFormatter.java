@@ -0,0 +1,366 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.util.Arrays;
+
+/**
+ * Formats SQL for the log according to the log4jdbc.trim.sql, log4jdbc.dump.sql.maxlinelength,
+ * log4jdbc.dump.sql.addsemicolon, log4jdbc.trim.sql.extrablanklines and log4jdbc.trim.sql.lines
+ * options.
+ *
+ * All of the options are applied in a single scan of the SQL into one buffer: the SQL is broken
+ * into words and wrapped (if wrapping is on) as it is copied, each line is checked for being blank
+ * as soon as it ends (and dropped again if it's an extra blank line) and the whitespace that can be
+ * trimmed from the front of every line is worked out line by line as the lines go by.  Only when
+ * that whitespace is to be trimmed are the lines copied once more, into the final String.
+ *
+ * The result is exactly what the previous multiple pass implementation (StringTokenizer, then
+ * LineNumberReader for blank lines, then LineNumberReader again for trimming lines) produced.
+ *
+ * @author Arthur Blake
+ */
+final class SqlFormatter
+{
+  private static final String nl = System.getProperty("line.separator");
+
+  /**
+   * Format SQL for the log using the options currently set in DriverSpy.
+   *
+   * @param sql SQL to format.
+   * @return the formatted SQL, or null if sql is null.
+   */
+  static String format(String sql)
+  {
+    if (sql == null)
+    {
+      return null;
+    }
+    return new SqlFormatter(DriverSpy.TrimExtraBlankLinesInSql, DriverSpy.TrimSqlLines,
+      sql.length()).format(sql, DriverSpy.TrimSql, DriverSpy.DumpSqlMaxLineLength,
+      DriverSpy.DumpSqlAddSemicolon);
+  }
+
+  private final boolean trimExtraBlankLines;
+
+  private final boolean trimLines;
+
+  private char[] buf;
+
+  private int pos;
+
+  // the line being copied into buf
+
+  /**
+   * Offset in buf where the current line starts.
+   */
+  private int lineStart;
+
+  /**
+   * True if the current line has only chars &lt;= ' ' (what String.trim() removes) so far.
+   */
+  private boolean lineBlank = true;
+
+  /**
+   * Offset in buf just past the last char in the current line that isn't whitespace.
+   */
+  private int lineEnd;
+
+  /**
+   * True right after a '\r', so that a '\n' that follows it isn't taken as another line.
+   */
+  private boolean skipLf;
+
+  /**
+   * Number of blank lines in a row just seen.
+   */
+  private int blankLines;
+
+  // the lines, recorded only when trimming lines
+
+  private int lineCount;
+
+  private int[] lineStarts;
+
+  private int[] lineEnds;
+
+  /**
+   * Offset in buf of the first line that isn't blank, or -1 if there isn't one yet.
+   */
+  private int rootStart = -1;
+
+  /**
+   * Number of whitespace chars that every line that isn't blank starts with, identically.
+   */
+  private int commonIndent;
+
+  private SqlFormatter(boolean trimExtraBlankLines, boolean trimLines, int length)
+  {
+    this.trimExtraBlankLines = trimExtraBlankLines;
+    this.trimLines = trimLines;
+    buf = new char[length + (length >> 3) + 16];
+    if (trimLines)
+    {
+      lineStarts = new int[8];
+      lineEnds = new int[8];
+    }
+  }
+
+  private String format(String sql, boolean trim, int maxLineLength, boolean addSemicolon)
+  {
+    int start = 0;
+    int end = sql.length();
+    if (trim)
+    {
+      while (start < end && sql.charAt(start) <= ' ')
+      {
+        start++;
+      }
+      while (end > start && sql.charAt(end - 1) <= ' ')
+      {
+        end--;
+      }
+    }
+
+    if (maxLineLength <= 0)
+    {
+      for (int i = start; i < end; i++)
+      {
+        put(sql.charAt(i));
+      }
+    }
+    else
+    {
+      // break the sql into words (the same as a StringTokenizer would) and wrap them into lines
+      int lineLength = 0;
+      int i = start;
+      while (true)
+      {
+        while (i < end && isDelimiter(sql.charAt(i)))
+        {
+          i++;
+        }
+        if (i == end)
+        {
+          break;
+        }
+        int tokenStart = i;
+        while (i < end && !isDelimiter(sql.charAt(i)))
+        {
+          put(sql.charAt(i++));
+        }
+        put(' ');
+        lineLength += i - tokenStart + 1;
+        if (lineLength > maxLineLength)
+        {
+          put('\n');
+          lineLength = 0;
+        }
+      }
+    }
+
+    if (addSemicolon)
+    {
+      put(';');
+    }
+
+    // the last line, if it wasn't ended with a line terminator
+    if (pos > lineStart)
+    {
+      endLine();
+    }
+
+    return finish();
+  }
+
+  /**
+   * The delimiters used by a default StringTokenizer.
+   */
+  private static boolean isDelimiter(char c)
+  {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+  }
+
+  private void append(char c)
+  {
+    if (pos == buf.length)
+    {
+      buf = Arrays.copyOf(buf, pos * 2);
+    }
+    buf[pos++] = c;
+  }
+
+  /**
+   * Add the next char of the sql (after trimming and wrapping) splitting it into lines the same way
+   * that BufferedReader.readLine() does: at a '\n', a '\r' or a "\r\n".
+   */
+  private void put(char c)
+  {
+    if (skipLf)
+    {
+      skipLf = false;
+      if (c == '\n')
+      {
+        if (!trimExtraBlankLines)
+        {
+          append(c);
+          lineStart = pos;
+          lineEnd = pos;
+        }
+        return;
+      }
+    }
+    if (c == '\n' || c == '\r')
+    {
+      skipLf = c == '\r';
+      endLine();
+      if (!trimExtraBlankLines)
+      {
+        append(c);
+        lineStart = pos;
+        lineEnd = pos;
+      }
+      return;
+    }
+    append(c);
+    if (c > ' ')
+    {
+      lineBlank = false;
+    }
+    if (!Character.isWhitespace(c))
+    {
+      lineEnd = pos;
+    }
+  }
+
+  /**
+   * End the current line.  When trimming extra blank lines the line terminator is written here
+   * (always as a '\n') and a blank line is emptied or, if it follows another blank line, dropped.
+   */
+  private void endLine()
+  {
+    if (trimExtraBlankLines)
+    {
+      if (lineBlank)
+      {
+        pos = lineStart;
+        lineEnd = lineStart;
+        if (++blankLines > 1)
+        {
+          lineBlank = true;
+          return;
+        }
+      }
+      else
+      {
+        blankLines = 0;
+      }
+    }
+    if (trimLines)
+    {
+      addLine(lineStart, lineEnd);
+    }
+    if (trimExtraBlankLines)
+    {
+      append('\n');
+      lineStart = pos;
+      lineEnd = pos;
+    }
+    lineBlank = true;
+  }
+
+  /**
+   * Record a line (with the whitespace at the end of it trimmed) and narrow down the whitespace
+   * that can be trimmed from the start of every line to what this line starts with too.
+   */
+  private void addLine(int start, int end)
+  {
+    if (lineCount == lineStarts.length)
+    {
+      lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+      lineEnds = Arrays.copyOf(lineEnds, lineCount * 2);
+    }
+    lineStarts[lineCount] = start;
+    lineEnds[lineCount++] = end;
+
+    if (end > start)
+    {
+      if (rootStart < 0)
+      {
+        rootStart = start;
+        while (Character.isWhitespace(buf[start + commonIndent]))
+        {
+          commonIndent++;
+        }
+      }
+      else
+      {
+        int i = 0;
+        while (i < commonIndent && Character.isWhitespace(buf[start + i]) &&
+          buf[start + i] == buf[rootStart + i])
+        {
+          i++;
+        }
+        commonIndent = i;
+      }
+    }
+  }
+
+  private String finish()
+  {
+    if (trimLines)
+    {
+      if (rootStart < 0 || lineCount <= 1)
+      {
+        // only one line, or no output: just trim it
+        int start = 0;
+        int end = pos;
+        while (start < end && buf[start] <= ' ')
+        {
+          start++;
+        }
+        while (end > start && buf[end - 1] <= ' ')
+        {
+          end--;
+        }
+        return new String(buf, start, end - start);
+      }
+      if (commonIndent > 0)
+      {
+        int size = lineCount * nl.length();
+        for (int i = 0; i < lineCount; i++)
+        {
+          if (lineEnds[i] > lineStarts[i])
+          {
+            size += lineEnds[i] - lineStarts[i] - commonIndent;
+          }
+        }
+        StringBuilder out = new StringBuilder(size);
+        for (int i = 0; i < lineCount; i++)
+        {
+          if (lineEnds[i] > lineStarts[i])
+          {
+            out.append(buf, lineStarts[i] + commonIndent, lineEnds[i] - lineStarts[i] -
+              commonIndent);
+          }
+          out.append(nl);
+        }
+        return out.toString();
+      }
+    }
+    return new String(buf, 0, pos);
+  }
+}
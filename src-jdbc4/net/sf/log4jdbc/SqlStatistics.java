@@ -0,0 +1,392 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In memory statistics for each distinct SQL statement that is run, kept when the
+ * log4jdbc.statistics option is on.  This gives the same kind of information as running the
+ * PostLogProfilerProcessor over the sqltiming log, but live, and without having to log anything.
+ *
+ * SQL is grouped by its template, which is the SqlFingerprint of the SQL: the literal values in SQL
+ * run with a plain Statement are taken out so that it's grouped with the same SQL run with other
+ * values (or prepared for a PreparedStatement with a ? for each bind variable.)  A batch is
+ * counted as one execution of the SQL in it (or of the template "(batch)" if it holds different
+ * SQL statements.)  Up to log4jdbc.statistics.max.sql templates are kept
+ * (default 1000) after which any new SQL is counted under the template "(other)".
+ *
+ * All of the counters are LongAdders (or LongAccumulators for the minimum and maximum time) so
+ * that any number of threads can record SQL at once without contending with each other.
+ *
+ * The execution times are also recorded in a LatencyHistogram for each template, and another for
+ * each open connection, for percentiles.  A connection's histogram is created when the connection
+ * is opened (if statistics are on then) and dropped when it is closed, so SQL run on a connection
+ * after (or while) it is being closed can't bring it back.
+ *
+ * The rows fetched from the ResultSets the SQL produces, and the time spent fetching them, are
+ * added up separately from the execution time.
+ *
+ * @author Arthur Blake
+ */
+public final class SqlStatistics
+{
+  /**
+   * Template that SQL is counted under once the maximum number of templates is reached.
+   */
+  public static final String OtherTemplate = "(other)";
+
+  /**
+   * Template that a batch with more than one distinct SQL statement in it is counted under.
+   */
+  public static final String MixedBatchTemplate = "(batch)";
+
+  private static final ConcurrentMap<String, SqlStatistics> registry = new ConcurrentHashMap<>();
+
+  private static final ConcurrentMap<Integer, LatencyHistogram> connectionLatencies =
+    new ConcurrentHashMap<>();
+
+  /**
+   * Get the statistics for a SQL template, creating them if they don't exist yet.
+   *
+   * @param template SQL template.
+   * @return the statistics for the template.
+   */
+  static SqlStatistics get(String template)
+  {
+    SqlStatistics stats = registry.get(template);
+    if (stats == null)
+    {
+      if (registry.size() >= DriverSpy.StatisticsMaxSql && !OtherTemplate.equals(template))
+      {
+        return get(OtherTemplate);
+      }
+      stats = registry.computeIfAbsent(template, SqlStatistics::new);
+    }
+    return stats;
+  }
+
+  /**
+   * Start keeping an execution time histogram for a connection that was opened.
+   *
+   * @param connectionNumber number of the connection.
+   */
+  static void connectionOpened(Integer connectionNumber)
+  {
+    connectionLatencies.put(connectionNumber, new LatencyHistogram());
+  }
+
+  /**
+   * Record the execution time of some SQL run on a connection, if a histogram is being kept for
+   * the connection.
+   *
+   * @param connectionNumber number of the connection that ran the SQL.
+   * @param execTimeNanos    time the SQL took to run (or to fail), in nanoseconds.
+   */
+  static void recordConnection(Integer connectionNumber, long execTimeNanos)
+  {
+    LatencyHistogram latency = connectionLatencies.get(connectionNumber);
+    if (latency != null)
+    {
+      latency.record(execTimeNanos);
+    }
+  }
+
+  /**
+   * Drop the execution time histogram for a connection that was closed.
+   *
+   * @param connectionNumber number of the connection.
+   */
+  static void connectionClosed(Integer connectionNumber)
+  {
+    connectionLatencies.remove(connectionNumber);
+  }
+
+  /**
+   * Get a snapshot of the execution time histogram for every SQL template.
+   *
+   * @param interval true to get only what was recorded since the last time intervals were read
+   *                 (see LatencyHistogram.getIntervalSnapshot()) or false to get everything.
+   * @return the histogram snapshot for each SQL template.
+   */
+  public static Map<String, LatencyHistogram.Snapshot> getLatencies(boolean interval)
+  {
+    Map<String, LatencyHistogram.Snapshot> latencies = new LinkedHashMap<>();
+    for (SqlStatistics stats : registry.values())
+    {
+      latencies.put(stats.template, interval ? stats.latency.getIntervalSnapshot() :
+        stats.latency.getSnapshot());
+    }
+    return latencies;
+  }
+
+  /**
+   * Get a snapshot of the execution time histogram for every open connection (that was opened
+   * while statistics were on.)
+   *
+   * @param interval true to get only what was recorded since the last time intervals were read
+   *                 (see LatencyHistogram.getIntervalSnapshot()) or false to get everything.
+   * @return the histogram snapshot for each connection, by connection number.
+   */
+  public static Map<Integer, LatencyHistogram.Snapshot> getConnectionLatencies(boolean interval)
+  {
+    Map<Integer, LatencyHistogram.Snapshot> latencies = new TreeMap<>();
+    for (Map.Entry<Integer, LatencyHistogram> e : connectionLatencies.entrySet())
+    {
+      latencies.put(e.getKey(), interval ? e.getValue().getIntervalSnapshot() :
+        e.getValue().getSnapshot());
+    }
+    return latencies;
+  }
+
+  /**
+   * Get a snapshot of the statistics for every SQL template, with the templates that have taken
+   * the most time in total first.
+   *
+   * @return snapshot of the statistics for each SQL template.
+   */
+  public static List<Snapshot> getSnapshots()
+  {
+    List<Snapshot> snapshots = new ArrayList<>(registry.size());
+    for (SqlStatistics stats : registry.values())
+    {
+      snapshots.add(stats.getSnapshot());
+    }
+    snapshots.sort((a, b) -> Long.compare(b.getTotalTimeNanos(), a.getTotalTimeNanos()));
+    return snapshots;
+  }
+
+  /**
+   * Forget all the statistics that have been kept so far.
+   */
+  public static void reset()
+  {
+    registry.clear();
+    connectionLatencies.replaceAll((n, latency) -> new LatencyHistogram());
+  }
+
+  private final String template;
+
+  private final LongAdder count = new LongAdder();
+
+  private final LongAdder errorCount = new LongAdder();
+
+  private final LongAdder totalTimeNanos = new LongAdder();
+
+  private final LongAccumulator minTimeNanos = new LongAccumulator(Math::min, Long.MAX_VALUE);
+
+  private final LongAccumulator maxTimeNanos = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+  private final LongAdder rowsAffected = new LongAdder();
+
+  private final LongAdder rowsFetched = new LongAdder();
+
+  private final LongAdder fetchTimeNanos = new LongAdder();
+
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  private SqlStatistics(String template)
+  {
+    this.template = template;
+  }
+
+  /**
+   * Record one execution of the SQL.
+   *
+   * @param execTimeNanos time the SQL took to run (or to fail), in nanoseconds.
+   * @param rows          number of rows affected, or -1 if not known.
+   * @param failed        true if the SQL failed with an exception.
+   */
+  void record(long execTimeNanos, long rows, boolean failed)
+  {
+    count.increment();
+    if (failed)
+    {
+      errorCount.increment();
+    }
+    totalTimeNanos.add(execTimeNanos);
+    minTimeNanos.accumulate(execTimeNanos);
+    maxTimeNanos.accumulate(execTimeNanos);
+    latency.record(execTimeNanos);
+    if (rows > 0)
+    {
+      rowsAffected.add(rows);
+    }
+  }
+
+  /**
+   * Record the rows fetched from a ResultSet that the SQL produced.
+   *
+   * @param fetch how the rows were fetched.
+   */
+  void recordFetch(FetchSummary fetch)
+  {
+    rowsFetched.add(fetch.getRows());
+    fetchTimeNanos.add(fetch.getFetchTimeNanos());
+  }
+
+  /**
+   * Get a snapshot of these statistics.  Each counter is read separately while SQL may still be
+   * running, so the counters in a snapshot are not necessarily exactly consistent with each other.
+   *
+   * @return snapshot of these statistics.
+   */
+  Snapshot getSnapshot()
+  {
+    long n = count.sum();
+    return new Snapshot(template, n, errorCount.sum(), totalTimeNanos.sum(),
+      n == 0 ? 0L : minTimeNanos.get(), n == 0 ? 0L : maxTimeNanos.get(), rowsAffected.sum(),
+      rowsFetched.sum(), fetchTimeNanos.sum(), latency.getSnapshot());
+  }
+
+  /**
+   * The statistics for one SQL template at one point in time.
+   */
+  public static final class Snapshot
+  {
+    private final String template;
+    private final long count;
+    private final long errorCount;
+    private final long totalTimeNanos;
+    private final long minTimeNanos;
+    private final long maxTimeNanos;
+    private final long rowsAffected;
+    private final long rowsFetched;
+    private final long fetchTimeNanos;
+    private final LatencyHistogram.Snapshot latency;
+
+    Snapshot(String template, long count, long errorCount, long totalTimeNanos,
+      long minTimeNanos, long maxTimeNanos, long rowsAffected, long rowsFetched,
+      long fetchTimeNanos, LatencyHistogram.Snapshot latency)
+    {
+      this.template = template;
+      this.count = count;
+      this.errorCount = errorCount;
+      this.totalTimeNanos = totalTimeNanos;
+      this.minTimeNanos = minTimeNanos;
+      this.maxTimeNanos = maxTimeNanos;
+      this.rowsAffected = rowsAffected;
+      this.rowsFetched = rowsFetched;
+      this.fetchTimeNanos = fetchTimeNanos;
+      this.latency = latency;
+    }
+
+    /**
+     * @return the SQL template these statistics are for.
+     */
+    public String getTemplate()
+    {
+      return template;
+    }
+
+    /**
+     * @return the number of times the SQL was run (including the times it failed.)
+     */
+    public long getCount()
+    {
+      return count;
+    }
+
+    /**
+     * @return the number of times the SQL failed with an exception.
+     */
+    public long getErrorCount()
+    {
+      return errorCount;
+    }
+
+    /**
+     * @return the total time spent running the SQL, in nanoseconds.
+     */
+    public long getTotalTimeNanos()
+    {
+      return totalTimeNanos;
+    }
+
+    /**
+     * @return the shortest time the SQL took to run, in nanoseconds.
+     */
+    public long getMinTimeNanos()
+    {
+      return minTimeNanos;
+    }
+
+    /**
+     * @return the longest time the SQL took to run, in nanoseconds.
+     */
+    public long getMaxTimeNanos()
+    {
+      return maxTimeNanos;
+    }
+
+    /**
+     * @return the average time the SQL took to run, in nanoseconds.
+     */
+    public long getAverageTimeNanos()
+    {
+      return count == 0 ? 0L : totalTimeNanos / count;
+    }
+
+    /**
+     * @return the total number of rows affected by the SQL (for updates and batches.)
+     */
+    public long getRowsAffected()
+    {
+      return rowsAffected;
+    }
+
+    /**
+     * @return the total number of rows fetched from the ResultSets the SQL produced.
+     */
+    public long getRowsFetched()
+    {
+      return rowsFetched;
+    }
+
+    /**
+     * @return the total time spent fetching rows from the ResultSets the SQL produced, in
+     *         nanoseconds.
+     */
+    public long getFetchTimeNanos()
+    {
+      return fetchTimeNanos;
+    }
+
+    /**
+     * @return the histogram of the times the SQL took to run, for percentiles.
+     */
+    public LatencyHistogram.Snapshot getLatency()
+    {
+      return latency;
+    }
+
+    public String toString()
+    {
+      return template + " count=" + count + " errors=" + errorCount + " total=" +
+        totalTimeNanos + "ns min=" + minTimeNanos + "ns max=" + maxTimeNanos + "ns rows=" +
+        rowsAffected + " fetched=" + rowsFetched + " fetch=" + fetchTimeNanos + "ns p50=" +
+        latency.getP50() + "ns p99=" + latency.getP99() + "ns";
+    }
+  }
+}
@@ -0,0 +1,327 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A PreparedStatement SQL string that has been parsed once to find the positions of its bind
+ * variable placeholders, so that bind variables can be merged into it for logging without scanning
+ * the SQL again.
+ *
+ * Only a ? that is really a placeholder is found: a ? inside a 'string literal', a "quoted
+ * identifier", a `MySQL quoted identifier`, a -- line comment or a /* block comment *&#47; is left
+ * alone.  Quotes are escaped by doubling them, as in standard SQL.  For a database where a
+ * backslash escapes the character after it in a 'string literal' (MySQL, see
+ * RdbmsSpecifics.isBackslashEscapes) an escaped quote is skipped over too, but a backslash is never
+ * an escape in a quoted identifier.
+ *
+ * Templates are kept in a cache shared by all connections, so that the SQL for a statement that is
+ * run over and over again is only ever parsed once.  The cache holds up to the number of templates
+ * set with the log4jdbc.sql.template.cache.size property (default 1000).  When it's full, the
+ * templates that haven't been used recently are dropped to make room, using the CLOCK algorithm:
+ * each template is marked when it's used, and a "hand" sweeps around the cache, dropping the first
+ * template that isn't marked and unmarking the ones that are.  Looking up a template never takes a
+ * lock.
+ *
+ * @author Arthur Blake
+ */
+public final class SqlTemplate
+{
+  private static final ConcurrentMap<String, SqlTemplate> cache = new ConcurrentHashMap<>();
+
+  /**
+   * The clock hand, where the last sweep for a template to drop left off.  Guarded by handLock.
+   */
+  private static Iterator<SqlTemplate> hand;
+
+  private static final Object handLock = new Object();
+
+  /**
+   * Get the template for some standard SQL, parsing it if it isn't already in the cache.
+   *
+   * @param sql PreparedStatement SQL, with a ? for each bind variable.
+   * @return the template for the SQL.
+   */
+  public static SqlTemplate get(String sql)
+  {
+    return get(sql, false);
+  }
+
+  /**
+   * Get the template for some SQL, parsing it if it isn't already in the cache.
+   *
+   * @param sql              PreparedStatement SQL, with a ? for each bind variable.
+   * @param backslashEscapes true if a backslash escapes the character after it in a string literal
+   *                         in the SQL (see RdbmsSpecifics.isBackslashEscapes.)
+   * @return the template for the SQL.
+   */
+  public static SqlTemplate get(String sql, boolean backslashEscapes)
+  {
+    SqlTemplate template = cache.get(sql);
+    if (template != null && template.backslashEscapes == backslashEscapes)
+    {
+      // only write the mark when it changes, so busy templates aren't written to on every use
+      if (!template.used)
+      {
+        template.used = true;
+      }
+      return template;
+    }
+    SqlTemplate other = template;
+    template = new SqlTemplate(sql, backslashEscapes);
+    int maxSize = DriverSpy.SqlTemplateCacheSize;
+    if (maxSize > 0)
+    {
+      if (other != null)
+      {
+        // the same SQL parsed for another kind of database; the latest one takes its place
+        cache.replace(sql, other, template);
+        return template;
+      }
+      if (cache.size() >= maxSize)
+      {
+        evict(maxSize);
+      }
+      SqlTemplate existing = cache.putIfAbsent(sql, template);
+      if (existing != null && existing.backslashEscapes == backslashEscapes)
+      {
+        template = existing;
+      }
+    }
+    return template;
+  }
+
+  /**
+   * Drop templates until there is room for one more, moving the clock hand around the cache and
+   * dropping each template that hasn't been used since the hand last passed it.
+   *
+   * @param maxSize the most templates to keep.
+   */
+  private static void evict(int maxSize)
+  {
+    synchronized (handLock)
+    {
+      // two times around unmarks everything, so it's always enough to find a template to drop
+      int steps = 2 * cache.size() + 2;
+      while (cache.size() >= maxSize && steps-- > 0)
+      {
+        if (hand == null || !hand.hasNext())
+        {
+          hand = cache.values().iterator();
+          if (!hand.hasNext())
+          {
+            break;
+          }
+        }
+        SqlTemplate template = hand.next();
+        if (template.used)
+        {
+          template.used = false;
+        }
+        else
+        {
+          hand.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the number of templates currently in the cache.
+   *
+   * @return the number of templates in the cache.
+   */
+  public static int getCacheSize()
+  {
+    return cache.size();
+  }
+
+  private final String sql;
+
+  /**
+   * True if a backslash escapes the character after it in a string literal in the SQL.
+   */
+  private final boolean backslashEscapes;
+
+  /**
+   * Offset in sql of each bind variable placeholder, in order.
+   */
+  private final int[] placeholders;
+
+  /**
+   * The SqlFingerprint of the SQL, made the first time it's needed.
+   */
+  private volatile String fingerprint;
+
+  /**
+   * Set each time the template is taken from the cache, and cleared as the clock hand passes it.
+   */
+  private volatile boolean used;
+
+  /**
+   * Parse some SQL into a template.  Use get() so that the template is cached.
+   *
+   * @param sql              PreparedStatement SQL, with a ? for each bind variable.
+   * @param backslashEscapes true if a backslash escapes the character after it in a string
+   *                         literal.
+   */
+  private SqlTemplate(String sql, boolean backslashEscapes)
+  {
+    this.sql = sql;
+    this.backslashEscapes = backslashEscapes;
+    this.placeholders = findPlaceholders(sql, backslashEscapes);
+  }
+
+  /**
+   * Find the offset of each bind variable placeholder in some SQL, skipping over string literals,
+   * quoted identifiers and comments.
+   */
+  private static int[] findPlaceholders(String sql, boolean backslashEscapes)
+  {
+    int[] found = new int[8];
+    int count = 0;
+    int len = sql.length();
+    int i = 0;
+    while (i < len)
+    {
+      char c = sql.charAt(i);
+      if (c == '?')
+      {
+        if (count == found.length)
+        {
+          found = Arrays.copyOf(found, count * 2);
+        }
+        found[count++] = i++;
+      }
+      else if (c == '\'' || c == '"' || c == '`')
+      {
+        // skip to the closing quote; a doubled quote is an escaped quote and is skipped too, as
+        // is the character after a backslash in a 'string' if the database escapes with one
+        boolean backslash = backslashEscapes && c == '\'';
+        i++;
+        while (i < len)
+        {
+          char q = sql.charAt(i++);
+          if (q == '\\' && backslash)
+          {
+            i++;
+          }
+          else if (q == c)
+          {
+            if (i < len && sql.charAt(i) == c)
+            {
+              i++;
+            }
+            else
+            {
+              break;
+            }
+          }
+        }
+      }
+      else if (c == '-' && i + 1 < len && sql.charAt(i + 1) == '-')
+      {
+        i = sql.indexOf('\n', i + 2);
+        if (i == -1)
+        {
+          i = len;
+        }
+      }
+      else if (c == '/' && i + 1 < len && sql.charAt(i + 1) == '*')
+      {
+        i = sql.indexOf("*/", i + 2);
+        i = i == -1 ? len : i + 2;
+      }
+      else
+      {
+        i++;
+      }
+    }
+    return Arrays.copyOf(found, count);
+  }
+
+  /**
+   * Get the SQL that this template was parsed from.
+   *
+   * @return the SQL, with a ? for each bind variable.
+   */
+  public String getSql()
+  {
+    return sql;
+  }
+
+  /**
+   * Get the fingerprint of the SQL (see SqlFingerprint), so that the SQL for a PreparedStatement
+   * is grouped with the same SQL run with literal values in a Statement.
+   *
+   * @return the fingerprint of the SQL.
+   */
+  public String getFingerprint()
+  {
+    String f = fingerprint;
+    if (f == null)
+    {
+      fingerprint = f = SqlFingerprint.fingerprint(sql, backslashEscapes);
+    }
+    return f;
+  }
+
+  /**
+   * Get the number of bind variable placeholders in the SQL.
+   *
+   * @return the number of bind variable placeholders.
+   */
+  public int getPlaceholderCount()
+  {
+    return placeholders.length;
+  }
+
+  /**
+   * Merge bind variables into the SQL.
+   *
+   * @param bindValues the bind variables, already formatted for the log, in order.  A null value
+   *                   (or a missing one) is shown as ?.
+   * @return the SQL with the bind variables merged into it.
+   */
+  public String render(String[] bindValues)
+  {
+    int n = placeholders.length;
+    if (n == 0)
+    {
+      return sql;
+    }
+    int size = sql.length() - n;
+    for (int i = 0; i < n; i++)
+    {
+      String arg = i < bindValues.length ? bindValues[i] : null;
+      size += arg == null ? 1 : arg.length();
+    }
+    StringBuilder out = new StringBuilder(size);
+    int lastPos = 0;
+    for (int i = 0; i < n; i++)
+    {
+      int pos = placeholders[i];
+      String arg = i < bindValues.length ? bindValues[i] : null;
+      out.append(sql, lastPos, pos).append(arg == null ? "?" : arg);
+      lastPos = pos + 1;
+    }
+    return out.append(sql, lastPos, sql.length()).toString();
+  }
+}
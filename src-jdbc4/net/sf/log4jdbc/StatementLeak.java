@@ -0,0 +1,118 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+/**
+ * A Statement or ResultSet that was never closed, and so may have held a cursor open on the
+ * database for longer than it had to.  It's reported either when its connection is closed (or
+ * returned to its pool) with it still open, or when it has been open for longer than
+ * log4jdbc.connection.leak.threshold.
+ *
+ * The connection's OpenCursors tracks these, when the log4jdbc.statement.leak option is on.  A
+ * StatementLeak is immutable.
+ *
+ * @author Arthur Blake
+ */
+public final class StatementLeak
+{
+  private final Integer connectionNumber;
+  private final String type;
+  private final Object sql;
+  private final long heldNanos;
+  private final boolean collected;
+  private final boolean connectionClosed;
+  private final CallSite openedAt;
+
+  StatementLeak(Integer connectionNumber, OpenCursors.Cursor cursor, long heldNanos,
+    boolean connectionClosed)
+  {
+    this.connectionNumber = connectionNumber;
+    this.type = cursor.type;
+    this.sql = cursor.sql;
+    this.heldNanos = heldNanos;
+    this.collected = cursor.get() == null;
+    this.connectionClosed = connectionClosed;
+    this.openedAt = cursor.openedAt;
+  }
+
+  /**
+   * @return the connection number of the connection that the Statement or ResultSet belongs to.
+   */
+  public Integer getConnectionNumber()
+  {
+    return connectionNumber;
+  }
+
+  /**
+   * @return "Statement", "PreparedStatement", "CallableStatement" or "ResultSet".
+   */
+  public String getType()
+  {
+    return type;
+  }
+
+  /**
+   * @return the SQL that the Statement last ran (or was prepared with) or that produced the
+   *         ResultSet, or null if there isn't any.
+   */
+  public String getSql()
+  {
+    return sql == null ? null : sql.toString();
+  }
+
+  /**
+   * @return how long the Statement or ResultSet had been open for when it was reported, in
+   *         nanoseconds.
+   */
+  public long getHeldNanos()
+  {
+    return heldNanos;
+  }
+
+  /**
+   * @return true if the StatementSpy or ResultSetSpy has already been garbage collected without
+   *         being closed.
+   */
+  public boolean isCollected()
+  {
+    return collected;
+  }
+
+  /**
+   * @return true if this is being reported because its connection was closed, false if because
+   *         it has been open for longer than the threshold.
+   */
+  public boolean isConnectionClosed()
+  {
+    return connectionClosed;
+  }
+
+  /**
+   * @return where the Statement or ResultSet was created, in the form
+   *         <code>class.method(file:line)</code>, or null if that isn't known.
+   */
+  public String getOpenedAt()
+  {
+    return openedAt == null ? null : openedAt.toString();
+  }
+
+  public String toString()
+  {
+    return "connection=" + connectionNumber + " type=" + type + " held=" + heldNanos + "ns" +
+      (collected ? " collected" : "") + (connectionClosed ? " connectionClosed" : "") +
+      " openedAt=" + getOpenedAt() + " sql=" + getSql();
+  }
+}
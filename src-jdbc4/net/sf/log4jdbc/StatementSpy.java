@@ -46,6 +46,34 @@ public class StatementSpy implements Statement, Spy
    */
   protected Statement realStatement;
 
+  /**
+   * The SQL (a String or a DumpedSql) that this Statement last ran successfully, for the ResultSets
+   * it produces to report the rows fetched from them against.
+   */
+  private Object lastSql;
+
+  /**
+   * How long lastSql took to run, in nanoseconds.
+   */
+  private long lastExecTimeNanos;
+
+  /**
+   * This Statement, as its connection's OpenCursors tracks it, or null if they aren't being
+   * tracked.
+   */
+  final OpenCursors.Cursor cursor;
+
+  /**
+   * The ResultSet that this Statement last produced, if it hasn't been closed yet and the
+   * connection's OpenCursors are being tracked.
+   */
+  private OpenCursors.Cursor resultSetCursor;
+
+  /**
+   * Set by closeOnCompletion(), after which closing the last ResultSet closes this Statement.
+   */
+  private boolean closeOnCompletion;
+
   /**
    * Get the real Statement that this StatementSpy wraps.
    *
@@ -77,6 +105,8 @@ public class StatementSpy implements Statement, Spy
     this.connectionSpy = connectionSpy;
 
     log = SpyLogFactory.getSpyLogDelegator();
+    OpenCursors cursors = connectionSpy.getOpenCursors();
+    cursor = cursors == null ? null : cursors.opened(this, null, null);
 
     if (realStatement instanceof CallableStatement)
     {
@@ -108,13 +138,33 @@ public class StatementSpy implements Statement, Spy
    * exception.
    * @param exception exception that was generated
    * @param sql SQL associated with the call.
-   * @param execTime amount of time that the jdbc driver was chugging on the SQL before it threw an
+   * @param execTimeNanos amount of time in nanoseconds that the jdbc driver was chugging on the SQL
+   * before it threw an exception.
+   */
+  protected void reportException(MethodCall methodCall, SQLException exception, String sql,
+    long execTimeNanos)
+  {
+    EventCounts.exception(exception);
+    recordExecution(sql, execTimeNanos, -1L, true);
+    log.exceptionOccuredNanos(this, methodCall, exception, sql, execTimeNanos);
+  }
+
+  /**
+   * Report an exception to be logged which includes timing data on a sql failure, where the SQL
+   * is only rendered if it is logged.
+   * @param methodCall description of method call and arguments passed to it that generated the
    * exception.
+   * @param exception exception that was generated
+   * @param sql SQL associated with the call.
+   * @param execTimeNanos amount of time in nanoseconds that the jdbc driver was chugging on the SQL
+   * before it threw an exception.
    */
-  protected void reportException(String methodCall, SQLException exception, String sql,
-    long execTime)
+  protected void reportException(MethodCall methodCall, SQLException exception, DumpedSql sql,
+    long execTimeNanos)
   {
-    log.exceptionOccured(this, methodCall, exception, sql, execTime);
+    EventCounts.exception(exception);
+    recordExecution(sql, execTimeNanos, -1L, true);
+    log.exceptionOccuredNanos(this, methodCall, exception, sql, execTimeNanos);
   }
 
   /**
@@ -124,8 +174,9 @@ public class StatementSpy implements Statement, Spy
    * @param exception exception that was generated
    * @param sql SQL associated with the call.
    */
-  protected void reportException(String methodCall, SQLException exception, String sql)
+  protected void reportException(MethodCall methodCall, SQLException exception, String sql)
   {
+    EventCounts.exception(exception);
     log.exceptionOccured(this, methodCall, exception, sql, -1L);
   }
 
@@ -136,14 +187,17 @@ public class StatementSpy implements Statement, Spy
    * exception.
    * @param exception exception that was generated
    */
-  protected void reportException(String methodCall, SQLException exception)
+  protected void reportException(MethodCall methodCall, SQLException exception)
   {
+    EventCounts.exception(exception);
     log.exceptionOccured(this, methodCall, exception, null, -1L);
   }
 
   /**
-   * Report (for logging) that a method returned.  All the other reportReturn methods are
-   * conveniance methods that call this method.
+   * Report (for logging) that a method returned.  The void reportReturn methods are conveniance
+   * methods that call this method.  The reportReturn methods for typed return values pass the value
+   * straight to the SpyLogDelegator instead, so that it is only converted to a String if it is
+   * actually going to be logged.
    *
    * @param methodCall description of method call and arguments passed to it that returned.
    * @param msg description of what the return value that was returned.  may be an empty String for
@@ -154,6 +208,30 @@ public class StatementSpy implements Statement, Spy
     log.methodReturned(this, methodCall, msg);
   }
 
+  /**
+   * Report (for logging) that a method returned, using a deferred description of the method call.
+   *
+   * @param methodCall description of method call and arguments passed to it that returned.
+   * @param msg description of what the return value that was returned.  may be an empty String for
+   * void return types.
+   */
+  protected void reportAllReturns(MethodCall methodCall, String msg)
+  {
+    log.methodReturned(this, methodCall, msg);
+  }
+
+  /**
+   * Determine if method returns on this Spy will actually be logged.  This is checked before the
+   * MethodCall for a return is created, so that nothing at all is allocated for the report when
+   * the logger for this Spy is turned off.
+   *
+   * @return true if method returns on this Spy should be reported.
+   */
+  protected boolean isReturnReported()
+  {
+    return log.isMethodReturnedEnabled(this);
+  }
+
   /**
    * Conveniance method to report (for logging) that a method returned a boolean value.
    *
@@ -161,9 +239,9 @@ public class StatementSpy implements Statement, Spy
    * @param value boolean return value.
    * @return the boolean return value as passed in.
    */
-  protected boolean reportReturn(String methodCall, boolean value)
+  protected boolean reportReturn(MethodCall methodCall, boolean value)
   {
-    reportAllReturns(methodCall, "" + value);
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
@@ -174,9 +252,9 @@ public class StatementSpy implements Statement, Spy
    * @param value byte return value.
    * @return the byte return value as passed in.
    */
-  protected byte reportReturn(String methodCall, byte value)
+  protected byte reportReturn(MethodCall methodCall, byte value)
   {
-    reportAllReturns(methodCall, "" + value);
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
@@ -187,9 +265,9 @@ public class StatementSpy implements Statement, Spy
    * @param value int return value.
    * @return the int return value as passed in.
    */
-  protected int reportReturn(String methodCall, int value)
+  protected int reportReturn(MethodCall methodCall, int value)
   {
-    reportAllReturns(methodCall, "" + value);
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
@@ -200,9 +278,9 @@ public class StatementSpy implements Statement, Spy
    * @param value double return value.
    * @return the double return value as passed in.
    */
-  protected double reportReturn(String methodCall, double value)
+  protected double reportReturn(MethodCall methodCall, double value)
   {
-    reportAllReturns(methodCall, "" + value);
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
@@ -213,9 +291,9 @@ public class StatementSpy implements Statement, Spy
    * @param value short return value.
    * @return the short return value as passed in.
    */
-  protected short reportReturn(String methodCall, short value)
+  protected short reportReturn(MethodCall methodCall, short value)
   {
-    reportAllReturns(methodCall, "" + value);
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
@@ -226,9 +304,9 @@ public class StatementSpy implements Statement, Spy
    * @param value long return value.
    * @return the long return value as passed in.
    */
-  protected long reportReturn(String methodCall, long value)
+  protected long reportReturn(MethodCall methodCall, long value)
   {
-    reportAllReturns(methodCall, "" + value);
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
@@ -239,9 +317,9 @@ public class StatementSpy implements Statement, Spy
    * @param value float return value.
    * @return the float return value as passed in.
    */
-  protected float reportReturn(String methodCall, float value)
+  protected float reportReturn(MethodCall methodCall, float value)
   {
-    reportAllReturns(methodCall, "" + value);
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
@@ -252,9 +330,9 @@ public class StatementSpy implements Statement, Spy
    * @param value return Object.
    * @return the return Object as passed in.
    */
-  protected Object reportReturn(String methodCall, Object value)
+  protected Object reportReturn(MethodCall methodCall, Object value)
   {
-    reportAllReturns(methodCall, "" + value);
+    log.methodReturned(this, methodCall, value);
     return value;
   }
 
@@ -268,6 +346,27 @@ public class StatementSpy implements Statement, Spy
     reportAllReturns(methodCall, "");
   }
 
+  /**
+   * Conveniance method to report (for logging) that a method returned (void return type).
+   *
+   * @param methodCall description of method call and arguments passed to it that returned.
+   */
+  protected void reportReturn(MethodCall methodCall)
+  {
+    reportAllReturns(methodCall, "");
+  }
+
+  /**
+   * Descriptions of the execute methods that take no arguments.  These never change, so they are
+   * shared rather than created for every execution.  They are also what the SQL of a Statement's
+   * execute methods is reported with (the SQL is reported on its own), so that the description
+   * with all the arguments is only made if the return is reported or an exception occurs.
+   */
+  static final MethodCall ExecuteCall = new MethodCall("execute");
+  static final MethodCall ExecuteQueryCall = new MethodCall("executeQuery");
+  static final MethodCall ExecuteUpdateCall = new MethodCall("executeUpdate");
+  static final MethodCall ExecuteBatchCall = new MethodCall("executeBatch");
+
   /**
    * Running one-off statement sql is generally inefficient and a bad idea for various reasons,
    * so give a warning when this is done.
@@ -280,41 +379,258 @@ public class StatementSpy implements Statement, Spy
    * @param sql        the SQL being run
    * @param methodCall the name of the method that was running the SQL
    */
-  protected void reportStatementSql(String sql, String methodCall)
+  protected void reportStatementSql(String sql, MethodCall methodCall)
   {
     // redirect to one more method call ONLY so that stack trace search is consistent
     // with the reportReturn calls
-    _reportSql((DriverSpy.StatementUsageWarn?StatementSqlWarning:"") +
-      sql, methodCall);
+    _reportSql(DriverSpy.StatementUsageWarn ? StatementSqlWarning + sql : sql, methodCall);
   }
 
   /**
    * Report SQL for logging with a warning that it was generated from a statement.
    *
-   * @param execTime   execution time in msec.
-   * @param sql        the SQL being run
-   * @param methodCall the name of the method that was running the SQL
+   * @param execTimeNanos execution time in nanoseconds.
+   * @param sql           the SQL being run
+   * @param methodCall    the name of the method that was running the SQL
+   */
+  protected void reportStatementSqlTiming(long execTimeNanos, String sql, MethodCall methodCall)
+  {
+    reportStatementSqlTiming(execTimeNanos, sql, methodCall, -1L);
+  }
+
+  /**
+   * Report SQL that affected some rows for logging with a warning that it was generated from a
+   * statement.
+   *
+   * @param execTimeNanos execution time in nanoseconds.
+   * @param sql           the SQL being run
+   * @param methodCall    the name of the method that was running the SQL
+   * @param rowsAffected  number of rows affected by the SQL, or -1 if not known.
    */
-  protected void reportStatementSqlTiming(long execTime, String sql, String methodCall)
+  protected void reportStatementSqlTiming(long execTimeNanos, String sql, MethodCall methodCall,
+    long rowsAffected)
   {
+    recordExecution(sql, execTimeNanos, rowsAffected, false);
     // redirect to one more method call ONLY so that stack trace search is consistent
     // with the reportReturn calls
-    _reportSqlTiming(execTime, (DriverSpy.StatementUsageWarn?StatementSqlWarning:"") +
-      sql, methodCall);
+    _reportSqlTiming(execTimeNanos, DriverSpy.StatementUsageWarn ? StatementSqlWarning + sql : sql,
+      methodCall);
   }
 
   /**
    * Report SQL for logging.
    *
-   * @param execTime   execution time in msec.
-   * @param sql        the SQL being run
-   * @param methodCall the name of the method that was running the SQL
+   * @param execTimeNanos execution time in nanoseconds.
+   * @param sql           the SQL being run
+   * @param methodCall    the name of the method that was running the SQL
    */
-  protected void reportSqlTiming(long execTime, String sql, String methodCall)
+  protected void reportSqlTiming(long execTimeNanos, String sql, MethodCall methodCall)
   {
+    recordExecution(sql, execTimeNanos, -1L, false);
     // redirect to one more method call ONLY so that stack trace search is consistent
     // with the reportReturn calls
-    _reportSqlTiming(execTime, sql, methodCall);
+    _reportSqlTiming(execTimeNanos, sql, methodCall);
+  }
+
+  /**
+   * Report SQL for logging, where the SQL is only rendered if it is logged.
+   *
+   * @param execTimeNanos execution time in nanoseconds.
+   * @param sql           the SQL being run, or null if it isn't going to be logged.
+   * @param methodCall    the name of the method that was running the SQL
+   */
+  protected void reportSqlTiming(long execTimeNanos, DumpedSql sql, MethodCall methodCall)
+  {
+    reportSqlTiming(execTimeNanos, sql, methodCall, -1L);
+  }
+
+  /**
+   * Report SQL that affected some rows for logging, where the SQL is only rendered if it is logged.
+   *
+   * @param execTimeNanos execution time in nanoseconds.
+   * @param sql           the SQL being run, or null if it isn't going to be logged (it's still
+   *                      counted.)
+   * @param methodCall    the name of the method that was running the SQL
+   * @param rowsAffected  number of rows affected by the SQL, or -1 if not known.
+   */
+  protected void reportSqlTiming(long execTimeNanos, DumpedSql sql, MethodCall methodCall,
+    long rowsAffected)
+  {
+    recordExecution(sql, execTimeNanos, rowsAffected, false);
+    if (sql != null)
+    {
+      // redirect to one more method call ONLY so that stack trace search is consistent
+      // with the reportReturn calls
+      _reportSqlTiming(execTimeNanos, sql, methodCall);
+    }
+  }
+
+  /**
+   * Count an execution of some SQL in the EventCounts and record it in the SqlStatistics (for the
+   * SQL and for the connection) if statistics are being kept.
+   *
+   * @param sql           the SQL that was run, as a String or a DumpedSql.
+   * @param execTimeNanos execution time in nanoseconds.
+   * @param rowsAffected  number of rows affected by the SQL, or -1 if not known.
+   * @param failed        true if the SQL failed.
+   */
+  private void recordExecution(Object sql, long execTimeNanos, long rowsAffected,
+    boolean failed)
+  {
+    long start = EventCounts.overheadStart();
+    if (!failed)
+    {
+      lastSql = sql;
+      lastExecTimeNanos = execTimeNanos;
+      if (cursor != null)
+      {
+        cursor.sql = sql;
+      }
+    }
+    EventCounts.sqlExecuted(execTimeNanos, failed);
+    String template = null;
+    if (DriverSpy.StatisticsEnabled && sql != null)
+    {
+      template = getTemplate(sql, isBackslashEscapes());
+      SqlStatistics.get(template).record(execTimeNanos, rowsAffected, failed);
+      SqlStatistics.recordConnection(connectionSpy.getConnectionNumber(), execTimeNanos);
+    }
+
+    // a batch counts towards the transaction but isn't checked for duplicates
+    connectionSpy.sqlExecuted(sql instanceof DumpedBatchSql ? null : sql, execTimeNanos, failed);
+
+    // a batch is how N+1 queries are avoided, so it doesn't count as one of them
+    if (DriverSpy.NPlusOneThreshold > 0 && sql != null && !(sql instanceof DumpedBatchSql))
+    {
+      if (template == null)
+      {
+        template = getTemplate(sql, isBackslashEscapes());
+      }
+      long elapsed = NPlusOneDetector.executed(template, System.nanoTime());
+      if (elapsed >= 0)
+      {
+        EventCounts.NPlusOneSuspected.increment();
+        log.sqlRepeatOccured(this, template, DriverSpy.NPlusOneThreshold, elapsed);
+      }
+    }
+    EventCounts.overheadEnd(start);
+  }
+
+  /**
+   * Called by a ResultSetSpy that this Statement has produced, to track it with the connection's
+   * OpenCursors.  The ResultSet before it (if it wasn't closed) is no longer tracked, since JDBC
+   * drivers close it when the Statement produces a new one.
+   *
+   * @param resultSet the ResultSetSpy.
+   * @param sql       the SQL that produced the ResultSet.
+   * @return the ResultSet's Cursor, or null if the OpenCursors aren't being tracked.
+   */
+  OpenCursors.Cursor resultSetOpened(ResultSetSpy resultSet, Object sql)
+  {
+    if (cursor == null)
+    {
+      return null;
+    }
+    OpenCursors cursors = connectionSpy.getOpenCursors();
+    if (resultSetCursor != null)
+    {
+      cursors.closed(resultSetCursor);
+    }
+    resultSetCursor = cursors.opened(resultSet, cursor, sql);
+    return resultSetCursor;
+  }
+
+  /**
+   * Called when a ResultSetSpy that this Statement produced is closed.
+   *
+   * @param resultSet the ResultSet's Cursor.
+   */
+  void resultSetClosed(OpenCursors.Cursor resultSet)
+  {
+    OpenCursors cursors = connectionSpy.getOpenCursors();
+    cursors.closed(resultSet);
+    if (resultSetCursor == resultSet)
+    {
+      resultSetCursor = null;
+      if (closeOnCompletion)
+      {
+        cursors.closed(cursor);
+      }
+    }
+  }
+
+  /**
+   * @return the SQL (a String or a DumpedSql) that this Statement last ran successfully, or null if
+   *         it hasn't run any yet.
+   */
+  Object getLastSql()
+  {
+    return lastSql;
+  }
+
+  /**
+   * @return how long the SQL that this Statement last ran successfully took, in nanoseconds.
+   */
+  long getLastExecTimeNanos()
+  {
+    return lastExecTimeNanos;
+  }
+
+  /**
+   * Report the rows fetched from a ResultSet that this Statement produced, for logging along with
+   * the SQL that produced it, and record them in the SqlStatistics if statistics are being kept.
+   *
+   * @param resultSet the ResultSet the rows were fetched from.
+   * @param sql       the SQL that produced the ResultSet, as a String or a DumpedSql.
+   * @param fetch     how the rows were fetched.
+   */
+  void reportFetch(ResultSetSpy resultSet, Object sql, FetchSummary fetch)
+  {
+    long start = EventCounts.overheadStart();
+    if (DriverSpy.StatisticsEnabled)
+    {
+      SqlStatistics.get(getTemplate(sql, isBackslashEscapes())).recordFetch(fetch);
+    }
+    if (sql instanceof DumpedSql)
+    {
+      log.sqlFetchOccured(resultSet, fetch, (DumpedSql) sql);
+    }
+    else
+    {
+      log.sqlFetchOccured(resultSet, fetch, (String) sql);
+    }
+    EventCounts.overheadEnd(start);
+  }
+
+  /**
+   * Get the template that the statistics for some SQL are kept under.
+   *
+   * @param sql              the SQL, as a String (from a Statement) or a DumpedSql.
+   * @param backslashEscapes true if a backslash escapes the character after it in a string literal
+   *                         in SQL from a Statement (a DumpedSql knows this itself.)
+   * @return the template for the SQL.
+   */
+  private static String getTemplate(Object sql, boolean backslashEscapes)
+  {
+    if (sql instanceof DumpedSql)
+    {
+      return ((DumpedSql) sql).getTemplate();
+    }
+    String s = (String) sql;
+    if (s.startsWith(StatementSqlWarning))
+    {
+      s = s.substring(StatementSqlWarning.length());
+    }
+    return SqlFingerprint.fingerprint(s, backslashEscapes);
+  }
+
+  /**
+   * @return true if a backslash escapes the character after it in a string literal in the SQL for
+   *         the database this statement is for.
+   */
+  private boolean isBackslashEscapes()
+  {
+    return connectionSpy.getRdbmsSpecifics().isBackslashEscapes();
   }
 
   /**
@@ -323,129 +639,240 @@ public class StatementSpy implements Statement, Spy
    * @param sql        the SQL being run
    * @param methodCall the name of the method that was running the SQL
    */
-  protected void reportSql(String sql, String methodCall)
+  protected void reportSql(String sql, MethodCall methodCall)
   {
     // redirect to one more method call ONLY so that stack trace search is consistent
     // with the reportReturn calls
     _reportSql(sql, methodCall);
   }
 
-  private void _reportSql(String sql, String methodCall)
+  /**
+   * Report SQL for logging, where the SQL is only rendered if it is logged.
+   *
+   * @param sql        the SQL being run, or null if it isn't going to be logged.
+   * @param methodCall the name of the method that was running the SQL
+   */
+  protected void reportSql(DumpedSql sql, MethodCall methodCall)
+  {
+    if (sql != null)
+    {
+      // redirect to one more method call ONLY so that stack trace search is consistent
+      // with the reportReturn calls
+      _reportSql(sql, methodCall);
+    }
+  }
+
+  private void _reportSql(String sql, MethodCall methodCall)
   {
+    long start = EventCounts.overheadStart();
     log.sqlOccured(this, methodCall, sql);
+    EventCounts.overheadEnd(start);
   }
 
-  private void _reportSqlTiming(long execTime, String sql, String methodCall)
+  private void _reportSql(DumpedSql sql, MethodCall methodCall)
   {
-    log.sqlTimingOccured(this, execTime, methodCall, sql);
+    long start = EventCounts.overheadStart();
+    log.sqlOccured(this, methodCall, sql);
+    EventCounts.overheadEnd(start);
+  }
+
+  private void _reportSqlTiming(long execTimeNanos, String sql, MethodCall methodCall)
+  {
+    long start = EventCounts.overheadStart();
+    log.sqlTimingOccuredNanos(this, execTimeNanos, methodCall, sql);
+    EventCounts.overheadEnd(start);
+  }
+
+  private void _reportSqlTiming(long execTimeNanos, DumpedSql sql, MethodCall methodCall)
+  {
+    long start = EventCounts.overheadStart();
+    log.sqlTimingOccuredNanos(this, execTimeNanos, methodCall, sql);
+    EventCounts.overheadEnd(start);
   }
 
   // implementation of interface methods
   public SQLWarning getWarnings() throws SQLException
   {
-    String methodCall = "getWarnings()";
     try
     {
-      return (SQLWarning) reportReturn(methodCall, realStatement.getWarnings());
+      SQLWarning result = realStatement.getWarnings();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getWarnings"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getWarnings"), s);
       throw s;
     }
   }
 
   public int executeUpdate(String sql, String[] columnNames) throws SQLException
   {
-    String methodCall = "executeUpdate(" + sql + ", " + columnNames + ")";
-    reportStatementSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
+    reportStatementSql(sql, ExecuteUpdateCall);
+    long tstart = System.nanoTime();
     try
     {
       int result = realStatement.executeUpdate(sql, columnNames);
-      reportStatementSqlTiming(System.currentTimeMillis() - tstart, sql, methodCall);
-      return reportReturn(methodCall, result);
+      reportStatementSqlTiming(System.nanoTime() - tstart, sql, ExecuteUpdateCall, result);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("executeUpdate", sql, columnNames), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis() - tstart);
+      reportException(new MethodCall("executeUpdate", sql, columnNames), s, sql,
+        System.nanoTime() - tstart);
       throw s;
     }
   }
 
   public boolean execute(String sql, String[] columnNames) throws SQLException
   {
-    String methodCall = "execute(" + sql + ", " + columnNames + ")";
-    reportStatementSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
+    reportStatementSql(sql, ExecuteCall);
+    long tstart = System.nanoTime();
     try
     {
       boolean result = realStatement.execute(sql, columnNames);
-      reportStatementSqlTiming(System.currentTimeMillis() - tstart, sql, methodCall);
-      return reportReturn(methodCall, result);
+      reportStatementSqlTiming(System.nanoTime() - tstart, sql, ExecuteCall);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("execute", sql, columnNames), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis() - tstart);
+      reportException(new MethodCall("execute", sql, columnNames), s, sql,
+        System.nanoTime() - tstart);
       throw s;
     }
   }
 
   public void setMaxRows(int max) throws SQLException
   {
-    String methodCall = "setMaxRows(" + max + ")";
     try
     {
       realStatement.setMaxRows(max);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setMaxRows", max), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setMaxRows", max));
+    }
   }
 
   public boolean getMoreResults() throws SQLException
   {
-    String methodCall = "getMoreResults()";
-
     try
     {
-      return reportReturn(methodCall, realStatement.getMoreResults());
+      boolean result = realStatement.getMoreResults();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getMoreResults"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getMoreResults"), s);
       throw s;
     }
   }
 
   public void clearWarnings() throws SQLException
   {
-    String methodCall = "clearWarnings()";
     try
     {
       realStatement.clearWarnings();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("clearWarnings"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("clearWarnings"));
+    }
   }
 
   /**
    * Tracking of current batch (see addBatch, clearBatch and executeBatch)
+   * Holds the SQL for each statement in the batch, either as a String or as a
+   * DumpedSql that is rendered if and when the batch is logged.
    * //todo: should access to this List be synchronized?
    */
-  protected List<String> currentBatch = new ArrayList<>();
+  protected List<Object> currentBatch = new ArrayList<>();
 
-  public void addBatch(String sql) throws SQLException
+  /**
+   * The SQL for a batch of statements as it is to be dumped to the log.  The report listing the
+   * statements in the batch is only built if the batch is logged.
+   */
+  private static class DumpedBatchSql extends DumpedSql
   {
-    String methodCall = "addBatch(" + sql + ")";
+    private final Object[] batch;
+
+    private final boolean backslashEscapes;
+
+    DumpedBatchSql(Object[] batch, boolean backslashEscapes)
+    {
+      super("batching " + batch.length + " statements:", null);
+      this.batch = batch;
+      this.backslashEscapes = backslashEscapes;
+    }
+
+    /**
+     * Get the template of the SQL in the batch, if every statement in the batch has the same one.
+     */
+    String getTemplate()
+    {
+      String template = null;
+      for (Object sql : batch)
+      {
+        String t = StatementSpy.getTemplate(sql, backslashEscapes);
+        if (template == null)
+        {
+          template = t;
+        }
+        else if (!template.equals(t))
+        {
+          return SqlStatistics.MixedBatchTemplate;
+        }
+      }
+      return template == null ? SqlStatistics.MixedBatchTemplate : template;
+    }
+
+    protected String dump()
+    {
+      int j = batch.length;
+      StringBuffer batchReport = new StringBuffer(getSql());
+
+      int fieldSize = (""+j).length();
+
+      for (int i=0; i < j;)
+      {
+        Object sql = batch[i];
+        batchReport.append("\n");
+        batchReport.append(Utilities.rightJustify(fieldSize,""+(++i)));
+        batchReport.append(":  ");
+        batchReport.append(sql);
+      }
+
+      return batchReport.toString();
+    }
+  }
 
+  public void addBatch(String sql) throws SQLException
+  {
     currentBatch.add(StatementSqlWarning + sql);
     try
     {
@@ -453,150 +880,176 @@ public class StatementSpy implements Statement, Spy
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(new MethodCall("addBatch", sql), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("addBatch", sql));
+    }
   }
 
   public int getResultSetType() throws SQLException
   {
-    String methodCall = "getResultSetType()";
     try
     {
-      return reportReturn(methodCall, realStatement.getResultSetType());
+      int result = realStatement.getResultSetType();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getResultSetType"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getResultSetType"), s);
       throw s;
     }
   }
 
   public void clearBatch() throws SQLException
   {
-    String methodCall = "clearBatch()";
     try
     {
       realStatement.clearBatch();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("clearBatch"), s);
       throw s;
     }
     currentBatch.clear();
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("clearBatch"));
+    }
   }
 
   public void setFetchDirection(int direction) throws SQLException
   {
-    String methodCall = "setFetchDirection(" + direction + ")";
     try
     {
       realStatement.setFetchDirection(direction);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setFetchDirection", direction), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setFetchDirection", direction));
+    }
   }
 
   public int[] executeBatch() throws SQLException
   {
-    String methodCall = "executeBatch()";
-
-    int j=currentBatch.size();
-    StringBuffer batchReport = new StringBuffer("batching " + j + " statements:");
+    MethodCall methodCall = ExecuteBatchCall;
 
-    int fieldSize = (""+j).length();
-
-    String sql;
-    for (int i=0; i < j;)
-    {
-      sql = (String) currentBatch.get(i);
-      batchReport.append("\n");
-      batchReport.append(Utilities.rightJustify(fieldSize,""+(++i)));
-      batchReport.append(":  ");
-      batchReport.append(sql);
-    }
-
-    sql = batchReport.toString();
+    DumpedSql sql = new DumpedBatchSql(currentBatch.toArray(), isBackslashEscapes());
     reportSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
+    long tstart = System.nanoTime();
 
     int[] updateResults;
     try
     {
       updateResults = realStatement.executeBatch();
-      reportSqlTiming(System.currentTimeMillis()-tstart, sql, methodCall);
+      long execTimeNanos = System.nanoTime()-tstart;
+      long rowsAffected = 0L;
+      for (int updateCount : updateResults)
+      {
+        if (updateCount > 0)
+        {
+          rowsAffected += updateCount;
+        }
+      }
+      reportSqlTiming(execTimeNanos, sql, methodCall, rowsAffected);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis()-tstart);
+      reportException(methodCall, s, sql, System.nanoTime()-tstart);
       throw s;
     }
     currentBatch.clear();
-    return (int[])reportReturn(methodCall,updateResults);
+    if (isReturnReported())
+    {
+      reportReturn(methodCall, updateResults);
+    }
+    return updateResults;
   }
 
   public void setFetchSize(int rows) throws SQLException
   {
-    String methodCall = "setFetchSize(" + rows + ")";
     try
     {
       realStatement.setFetchSize(rows);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setFetchSize", rows), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setFetchSize", rows));
+    }
   }
 
   public int getQueryTimeout() throws SQLException
   {
-    String methodCall = "getQueryTimeout()";
     try
     {
-      return reportReturn(methodCall, realStatement.getQueryTimeout());
+      int result = realStatement.getQueryTimeout();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getQueryTimeout"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getQueryTimeout"), s);
       throw s;
     }
   }
 
   public Connection getConnection() throws SQLException
   {
-    String methodCall = "getConnection()";
-    return (Connection) reportReturn(methodCall, connectionSpy);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("getConnection"), connectionSpy);
+    }
+    return connectionSpy;
   }
 
   public ResultSet getGeneratedKeys() throws SQLException
   {
-    String methodCall = "getGeneratedKeys()";
     try
     {
       ResultSet r = realStatement.getGeneratedKeys();
       if (r == null)
       {
-        return (ResultSet) reportReturn(methodCall, r);
+        if (isReturnReported())
+        {
+          reportReturn(new MethodCall("getGeneratedKeys"), r);
+        }
+        return r;
       }
       else
       {
-        return (ResultSet) reportReturn(methodCall, new ResultSetSpy(this, r));
+        ResultSet result = new ResultSetSpy(this, r);
+        if (isReturnReported())
+        {
+          reportReturn(new MethodCall("getGeneratedKeys"), result);
+        }
+        return result;
       }
     }
     catch (SQLException s)
     {
       if (!DriverSpy.SuppressGetGeneratedKeysException)
       {
-        reportException(methodCall, s);
+        reportException(new MethodCall("getGeneratedKeys"), s);
       }
       throw s;
     }
@@ -604,427 +1057,525 @@ public class StatementSpy implements Statement, Spy
 
   public void setEscapeProcessing(boolean enable) throws SQLException
   {
-    String methodCall = "setEscapeProcessing(" + enable + ")";
     try
     {
       realStatement.setEscapeProcessing(enable);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setEscapeProcessing", enable), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setEscapeProcessing", enable));
+    }
   }
 
   public int getFetchDirection() throws SQLException
   {
-    String methodCall = "getFetchDirection()";
     try
     {
-      return reportReturn(methodCall, realStatement.getFetchDirection());
+      int result = realStatement.getFetchDirection();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getFetchDirection"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getFetchDirection"), s);
       throw s;
     }
   }
 
   public void setQueryTimeout(int seconds) throws SQLException
   {
-    String methodCall = "setQueryTimeout(" + seconds + ")";
     try
     {
       realStatement.setQueryTimeout(seconds);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setQueryTimeout", seconds), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setQueryTimeout", seconds));
+    }
   }
 
   public boolean getMoreResults(int current) throws SQLException
   {
-    String methodCall = "getMoreResults(" + current + ")";
-
     try
     {
-      return reportReturn(methodCall, realStatement.getMoreResults(current));
+      boolean result = realStatement.getMoreResults(current);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getMoreResults", current), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getMoreResults", current), s);
       throw s;
     }
   }
 
   public ResultSet executeQuery(String sql) throws SQLException
   {
-    String methodCall = "executeQuery(" + sql + ")";
-    reportStatementSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
+    reportStatementSql(sql, ExecuteQueryCall);
+    long tstart = System.nanoTime();
     try
     {
       ResultSet result = realStatement.executeQuery(sql);
-      reportStatementSqlTiming(System.currentTimeMillis() - tstart, sql, methodCall);
+      reportStatementSqlTiming(System.nanoTime() - tstart, sql, ExecuteQueryCall);
       ResultSetSpy r = new ResultSetSpy(this, result);
-      return (ResultSet) reportReturn(methodCall, r);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("executeQuery", sql), r);
+      }
+      return r;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis() - tstart);
+      reportException(new MethodCall("executeQuery", sql), s, sql,
+        System.nanoTime() - tstart);
       throw s;
     }
   }
 
   public int getMaxFieldSize() throws SQLException
   {
-    String methodCall = "getMaxFieldSize()";
     try
     {
-      return reportReturn(methodCall, realStatement.getMaxFieldSize());
+      int result = realStatement.getMaxFieldSize();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getMaxFieldSize"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getMaxFieldSize"), s);
       throw s;
     }
   }
 
   public int executeUpdate(String sql) throws SQLException
   {
-    String methodCall = "executeUpdate(" + sql + ")";
-    reportStatementSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
+    reportStatementSql(sql, ExecuteUpdateCall);
+    long tstart = System.nanoTime();
     try
     {
       int result = realStatement.executeUpdate(sql);
-      reportStatementSqlTiming(System.currentTimeMillis() - tstart, sql, methodCall);
-      return reportReturn(methodCall, result);
+      reportStatementSqlTiming(System.nanoTime() - tstart, sql, ExecuteUpdateCall, result);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("executeUpdate", sql), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis() - tstart);
+      reportException(new MethodCall("executeUpdate", sql), s, sql,
+        System.nanoTime() - tstart);
       throw s;
     }
   }
 
   public void cancel() throws SQLException
   {
-    String methodCall = "cancel()";
     try
     {
       realStatement.cancel();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("cancel"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("cancel"));
+    }
   }
 
   public void setCursorName(String name) throws SQLException
   {
-    String methodCall = "setCursorName(" + name + ")";
     try
     {
       realStatement.setCursorName(name);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setCursorName", name), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setCursorName", name));
+    }
   }
 
   public int getFetchSize() throws SQLException
   {
-    String methodCall = "getFetchSize()";
     try
     {
-      return reportReturn(methodCall, realStatement.getFetchSize());
+      int result = realStatement.getFetchSize();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getFetchSize"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getFetchSize"), s);
       throw s;
     }
   }
 
   public int getResultSetConcurrency() throws SQLException
   {
-    String methodCall = "getResultSetConcurrency()";
     try
     {
-      return reportReturn(methodCall, realStatement.getResultSetConcurrency());
+      int result = realStatement.getResultSetConcurrency();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getResultSetConcurrency"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getResultSetConcurrency"), s);
       throw s;
     }
   }
 
   public int getResultSetHoldability() throws SQLException
   {
-    String methodCall = "getResultSetHoldability()";
     try
     {
-      return reportReturn(methodCall, realStatement.getResultSetHoldability());
+      int result = realStatement.getResultSetHoldability();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getResultSetHoldability"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getResultSetHoldability"), s);
       throw s;
     }
   }
 
   public boolean isClosed() throws SQLException
   {
-    String methodCall = "isClosed()";
     try
     {
-      return reportReturn(methodCall, realStatement.isClosed());
+      boolean result = realStatement.isClosed();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("isClosed"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("isClosed"), s);
       throw s;
     }
   }
 
   public void setPoolable(boolean poolable) throws SQLException
   {
-    String methodCall = "setPoolable(" + poolable + ")";
     try
     {
       realStatement.setPoolable(poolable);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setPoolable", poolable), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setPoolable", poolable));
+    }
   }
 
   public boolean isPoolable() throws SQLException
   {
-    String methodCall = "isPoolable()";
     try
     {
-      return reportReturn(methodCall, realStatement.isPoolable());
+      boolean result = realStatement.isPoolable();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("isPoolable"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("isPoolable"), s);
       throw s;
     }
   }
 
   public void setMaxFieldSize(int max) throws SQLException
   {
-    String methodCall = "setMaxFieldSize(" + max + ")";
     try
     {
       realStatement.setMaxFieldSize(max);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("setMaxFieldSize", max), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("setMaxFieldSize", max));
+    }
   }
 
   public boolean execute(String sql) throws SQLException
   {
-    String methodCall = "execute(" + sql + ")";
-    reportStatementSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
+    reportStatementSql(sql, ExecuteCall);
+    long tstart = System.nanoTime();
     try
     {
       boolean result = realStatement.execute(sql);
-      reportStatementSqlTiming(System.currentTimeMillis() - tstart, sql, methodCall);
-      return reportReturn(methodCall, result);
+      reportStatementSqlTiming(System.nanoTime() - tstart, sql, ExecuteCall);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("execute", sql), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis() - tstart);
+      reportException(new MethodCall("execute", sql), s, sql,
+        System.nanoTime() - tstart);
       throw s;
     }
   }
 
   public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException
   {
-    String methodCall = "executeUpdate(" + sql + ", " + autoGeneratedKeys + ")";
-    reportStatementSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
+    reportStatementSql(sql, ExecuteUpdateCall);
+    long tstart = System.nanoTime();
     try
     {
       int result = realStatement.executeUpdate(sql, autoGeneratedKeys);
-      reportStatementSqlTiming(System.currentTimeMillis() - tstart, sql, methodCall);
-      return reportReturn(methodCall, result);
+      reportStatementSqlTiming(System.nanoTime() - tstart, sql, ExecuteUpdateCall, result);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("executeUpdate", sql, autoGeneratedKeys), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis() - tstart);
+      reportException(new MethodCall("executeUpdate", sql, autoGeneratedKeys), s, sql,
+        System.nanoTime() - tstart);
       throw s;
     }
   }
 
   public boolean execute(String sql, int autoGeneratedKeys) throws SQLException
   {
-    String methodCall = "execute(" + sql + ", " + autoGeneratedKeys + ")";
-    reportStatementSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
+    reportStatementSql(sql, ExecuteCall);
+    long tstart = System.nanoTime();
     try
     {
       boolean result = realStatement.execute(sql, autoGeneratedKeys);
-      reportStatementSqlTiming(System.currentTimeMillis() - tstart, sql, methodCall);
-      return reportReturn(methodCall, result);
+      reportStatementSqlTiming(System.nanoTime() - tstart, sql, ExecuteCall);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("execute", sql, autoGeneratedKeys), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis() - tstart);
+      reportException(new MethodCall("execute", sql, autoGeneratedKeys), s, sql,
+        System.nanoTime() - tstart);
       throw s;
     }
   }
 
   public int executeUpdate(String sql, int[] columnIndexes) throws SQLException
   {
-    String methodCall = "executeUpdate(" + sql + ", " + columnIndexes + ")";
-    reportStatementSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
+    reportStatementSql(sql, ExecuteUpdateCall);
+    long tstart = System.nanoTime();
     try
     {
       int result = realStatement.executeUpdate(sql, columnIndexes);
-      reportStatementSqlTiming(System.currentTimeMillis() - tstart, sql, methodCall);
-      return reportReturn(methodCall, result);
+      reportStatementSqlTiming(System.nanoTime() - tstart, sql, ExecuteUpdateCall, result);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("executeUpdate", sql, columnIndexes), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis() - tstart);
+      reportException(new MethodCall("executeUpdate", sql, columnIndexes), s, sql,
+        System.nanoTime() - tstart);
       throw s;
     }
   }
 
   public boolean execute(String sql, int[] columnIndexes) throws SQLException
   {
-    String methodCall = "execute(" + sql + ", " + columnIndexes + ")";
-    reportStatementSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
+    reportStatementSql(sql, ExecuteCall);
+    long tstart = System.nanoTime();
     try
     {
       boolean result = realStatement.execute(sql, columnIndexes);
-      reportStatementSqlTiming(System.currentTimeMillis() - tstart, sql, methodCall);
-      return reportReturn(methodCall, result);
+      reportStatementSqlTiming(System.nanoTime() - tstart, sql, ExecuteCall);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("execute", sql, columnIndexes), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis() - tstart);
+      reportException(new MethodCall("execute", sql, columnIndexes), s, sql,
+        System.nanoTime() - tstart);
       throw s;
     }
   }
 
   public ResultSet getResultSet() throws SQLException
   {
-    String methodCall = "getResultSet()";
     try
     {
       ResultSet r = realStatement.getResultSet();
       if (r == null)
       {
-        return (ResultSet) reportReturn(methodCall, r);
+        if (isReturnReported())
+        {
+          reportReturn(new MethodCall("getResultSet"), r);
+        }
+        return r;
       }
       else
       {
-        return (ResultSet) reportReturn(methodCall, new ResultSetSpy(this, r));
+        ResultSet result = new ResultSetSpy(this, r);
+        if (isReturnReported())
+        {
+          reportReturn(new MethodCall("getResultSet"), result);
+        }
+        return result;
       }
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getResultSet"), s);
       throw s;
     }
   }
 
   public int getMaxRows() throws SQLException
   {
-    String methodCall = "getMaxRows()";
     try
     {
-      return reportReturn(methodCall, realStatement.getMaxRows());
+      int result = realStatement.getMaxRows();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getMaxRows"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getMaxRows"), s);
       throw s;
     }
   }
 
   public void close() throws SQLException
   {
-    String methodCall = "close()";
     try
     {
       realStatement.close();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("close"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (cursor != null)
+    {
+      connectionSpy.getOpenCursors().closed(cursor);
+    }
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("close"));
+    }
   }
 
   public void closeOnCompletion() throws SQLException
   {
-    String methodCall = "closeOnCompletion()";
     try
     {
       realStatement.closeOnCompletion();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("closeOnCompletion"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    closeOnCompletion = true;
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("closeOnCompletion"));
+    }
   }
 
   public boolean isCloseOnCompletion() throws SQLException
   {
     boolean result;
-    String methodCall = "isCloseOnCompletion()";
     try
     {
       result = realStatement.isCloseOnCompletion();
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("isCloseOnCompletion"), s);
       throw s;
     }
-    reportReturn(methodCall);
+    if (isReturnReported())
+    {
+      reportReturn(new MethodCall("isCloseOnCompletion"));
+    }
     return result;
   }
 
   public int getUpdateCount() throws SQLException
   {
-    String methodCall = "getUpdateCount()";
     try
     {
-      return reportReturn(methodCall, realStatement.getUpdateCount());
+      int result = realStatement.getUpdateCount();
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("getUpdateCount"), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(new MethodCall("getUpdateCount"), s);
       throw s;
     }
   }
@@ -1032,32 +1583,41 @@ public class StatementSpy implements Statement, Spy
   @SuppressWarnings("unchecked")
   public <T> T unwrap(Class<T> iface) throws SQLException
   {
-    String methodCall = "unwrap(" + (iface==null?"null":iface.getName()) + ")";
     try
     {
       //todo: double check this logic
-      return (T)reportReturn(methodCall, (iface != null && (iface == Connection.class ||
-        iface == Spy.class))? (T)this : realStatement.unwrap(iface));
+      T result =
+        (iface != null && (iface == Connection.class ||
+        iface == Spy.class))? (T)this : realStatement.unwrap(iface);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("unwrap", iface==null?"null":iface.getName()), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(new MethodCall("unwrap", iface==null?"null":iface.getName()), s);
       throw s;
     }
   }
 
   public boolean isWrapperFor(Class<?> iface) throws SQLException
   {
-    String methodCall = "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")";
     try
     {
-      return reportReturn(methodCall,
+      boolean result =
         (iface != null && (iface == Statement.class || iface == Spy.class)) ||
-          realStatement.isWrapperFor(iface));
+          realStatement.isWrapperFor(iface);
+      if (isReturnReported())
+      {
+        reportReturn(new MethodCall("isWrapperFor", iface==null?"null":iface.getName()), result);
+      }
+      return result;
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(new MethodCall("isWrapperFor", iface==null?"null":iface.getName()), s);
       throw s;
     }
   }
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+/**
+ * How the time of one transaction on a connection was spent.  A transaction starts with the first
+ * statement run while auto-commit is off (after setAutoCommit(false) or after the previous
+ * transaction ended) and ends with commit(), rollback(), setAutoCommit(true) (which commits) or
+ * close().  What happens to a transaction still open on close() depends on the driver (most roll
+ * it back, but Oracle's commits it) so it's reported as ended by the close, rather than as
+ * committed or rolled back.
+ *
+ * The time between statements, when the transaction is open but the database isn't doing anything
+ * for it, is idle time.  A transaction with a lot of idle time holds its locks for far longer than
+ * its SQL needs them, which usually means the application is doing other work (or waiting on
+ * something else) inside the transaction.
+ *
+ * A ConnectionSpy reports one of these when each transaction ends.  A TransactionSummary is
+ * immutable.
+ *
+ * @author Arthur Blake
+ */
+public final class TransactionSummary
+{
+  /**
+   * How a transaction ended.
+   */
+  public enum Outcome
+  {
+    COMMITTED,
+    ROLLED_BACK,
+
+    /**
+     * The connection was closed with the transaction still open.
+     */
+    CLOSED
+  }
+
+  private final Outcome outcome;
+  private final int statements;
+  private final long durationNanos;
+  private final long sqlTimeNanos;
+  private final long endTimeNanos;
+
+  TransactionSummary(Outcome outcome, int statements, long durationNanos, long sqlTimeNanos,
+    long endTimeNanos)
+  {
+    this.outcome = outcome;
+    this.statements = statements;
+    this.durationNanos = durationNanos;
+    this.sqlTimeNanos = sqlTimeNanos;
+    this.endTimeNanos = endTimeNanos;
+  }
+
+  /**
+   * @return how the transaction ended.
+   */
+  public Outcome getOutcome()
+  {
+    return outcome;
+  }
+
+  /**
+   * @return true if the transaction was committed, false if it was rolled back or the connection
+   *         was closed.
+   */
+  public boolean isCommitted()
+  {
+    return outcome == Outcome.COMMITTED;
+  }
+
+  /**
+   * @return the number of statements (and batches) run in the transaction, including any that
+   *         failed.
+   */
+  public int getStatements()
+  {
+    return statements;
+  }
+
+  /**
+   * @return the time from the start of the first statement to the end of the commit or rollback,
+   *         in nanoseconds.
+   */
+  public long getDurationNanos()
+  {
+    return durationNanos;
+  }
+
+  /**
+   * @return the time spent running the statements, in nanoseconds.
+   */
+  public long getSqlTimeNanos()
+  {
+    return sqlTimeNanos;
+  }
+
+  /**
+   * @return the time the commit, rollback or close took, in nanoseconds.
+   */
+  public long getEndTimeNanos()
+  {
+    return endTimeNanos;
+  }
+
+  /**
+   * @return the time the transaction was open but not running a statement or ending, in
+   *         nanoseconds.
+   */
+  public long getIdleTimeNanos()
+  {
+    return Math.max(durationNanos - sqlTimeNanos - endTimeNanos, 0L);
+  }
+
+  public String toString()
+  {
+    return outcome + " statements=" + statements +
+      " duration=" + durationNanos + "ns sql=" + sqlTimeNanos + "ns idle=" + getIdleTimeNanos() +
+      "ns end=" + endTimeNanos + "ns";
+  }
+}
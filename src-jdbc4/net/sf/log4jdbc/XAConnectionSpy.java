@@ -0,0 +1,49 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.sql.SQLException;
+
+import javax.sql.XAConnection;
+import javax.transaction.xa.XAResource;
+
+/**
+ * Wraps a real XAConnection, from an XADataSourceSpy, so that the logical connections it hands
+ * out are logged.  The XAResource is the real one: the transaction manager's calls on it are not
+ * logged.
+ *
+ * @author Arthur Blake
+ */
+public class XAConnectionSpy extends PooledConnectionSpy implements XAConnection
+{
+  private final XAConnection realXAConnection;
+
+  /**
+   * Create an XAConnectionSpy that logs the connections from a real XAConnection.
+   *
+   * @param realXAConnection the real XAConnection to wrap.
+   */
+  public XAConnectionSpy(XAConnection realXAConnection)
+  {
+    super(realXAConnection);
+    this.realXAConnection = realXAConnection;
+  }
+
+  public XAResource getXAResource() throws SQLException
+  {
+    return realXAConnection.getXAResource();
+  }
+}
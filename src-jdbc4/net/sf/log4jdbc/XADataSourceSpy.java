@@ -0,0 +1,97 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.io.PrintWriter;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+import javax.sql.XAConnection;
+import javax.sql.XADataSource;
+
+/**
+ * Wraps a real XADataSource, the kind a transaction manager gets the connections for distributed
+ * transactions from.  Each XAConnection is wrapped in an XAConnectionSpy, so the connections
+ * handed out to the application are logged.
+ *
+ * @author Arthur Blake
+ */
+public class XADataSourceSpy implements XADataSource
+{
+  private final XADataSource realDataSource;
+
+  /**
+   * Create an XADataSourceSpy that logs the connections from a real XADataSource.
+   *
+   * @param realDataSource the real XADataSource to wrap.
+   */
+  public XADataSourceSpy(XADataSource realDataSource)
+  {
+    if (realDataSource == null)
+    {
+      throw new IllegalArgumentException("Must pass in a non null real XADataSource");
+    }
+    this.realDataSource = realDataSource;
+  }
+
+  /**
+   * Get the real XADataSource that this XADataSourceSpy wraps.
+   *
+   * @return the real XADataSource that this XADataSourceSpy wraps.
+   */
+  public XADataSource getRealDataSource()
+  {
+    return realDataSource;
+  }
+
+  public XAConnection getXAConnection() throws SQLException
+  {
+    XAConnection c = realDataSource.getXAConnection();
+    return c == null ? null : new XAConnectionSpy(c);
+  }
+
+  public XAConnection getXAConnection(String user, String password) throws SQLException
+  {
+    XAConnection c = realDataSource.getXAConnection(user, password);
+    return c == null ? null : new XAConnectionSpy(c);
+  }
+
+  public PrintWriter getLogWriter() throws SQLException
+  {
+    return realDataSource.getLogWriter();
+  }
+
+  public void setLogWriter(PrintWriter out) throws SQLException
+  {
+    realDataSource.setLogWriter(out);
+  }
+
+  public void setLoginTimeout(int seconds) throws SQLException
+  {
+    realDataSource.setLoginTimeout(seconds);
+  }
+
+  public int getLoginTimeout() throws SQLException
+  {
+    return realDataSource.getLoginTimeout();
+  }
+
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException
+  {
+    return realDataSource.getParentLogger();
+  }
+}
@@ -0,0 +1,316 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Checks the AsyncSpyLogDelegator full buffer policies: that BLOCK loses nothing, that DROP_NEWEST
+ * and SAMPLE drop and count the right events while the background thread is held up, and that
+ * events are logged directly, in order, after shutdown().  Also checks that SQL and exceptions
+ * aren't put into the ring buffer when the delegate wouldn't log them.
+ *
+ * @author Arthur Blake
+ */
+final class AsyncSpyLogDelegatorCheck
+{
+  /**
+   * How long to wait for the background thread before giving up on a check.
+   */
+  private static final long WAIT_MSEC = 10000L;
+
+  static void run() throws InterruptedException
+  {
+    checkBlock();
+    checkDropNewest();
+    checkSample();
+    checkShutdown();
+    checkDisabled();
+  }
+
+  /**
+   * With the BLOCK policy, a thread logging into a full ring buffer waits for room, and every
+   * event is logged in order.
+   */
+  private static void checkBlock() throws InterruptedException
+  {
+    Recorder recorder = new Recorder(true);
+    AsyncSpyLogDelegator async = new AsyncSpyLogDelegator(recorder, 2,
+      AsyncSpyLogDelegator.FullBufferPolicy.BLOCK, 1);
+    async.debug("hold");
+    recorder.awaitHeld();
+    Thread producer = new Thread(() -> {
+      for (int i = 1; i <= 5; i++)
+      {
+        async.debug("e" + i);
+      }
+    });
+    producer.start();
+    waitFor(() -> producer.getState() == Thread.State.TIMED_WAITING, "BLOCK producer waits");
+    recorder.release();
+    producer.join(WAIT_MSEC);
+    async.flush();
+    Checks.checkEquals(List.of("hold", "e1", "e2", "e3", "e4", "e5"), recorder.events(),
+      "BLOCK logs every event in order");
+    Checks.checkEquals(Long.valueOf(0), Long.valueOf(async.getDroppedEventCount()),
+      "BLOCK drops nothing");
+    async.shutdown();
+  }
+
+  /**
+   * With the DROP_NEWEST policy, events that find the ring buffer full are dropped, counted and
+   * reported once the background thread catches up.
+   */
+  private static void checkDropNewest()
+  {
+    Recorder recorder = new Recorder(true);
+    AsyncSpyLogDelegator async = new AsyncSpyLogDelegator(recorder, 2,
+      AsyncSpyLogDelegator.FullBufferPolicy.DROP_NEWEST, 1);
+    async.debug("hold");
+    recorder.awaitHeld();
+    // "hold" keeps its slot until it's logged, so only e1 fits in the other one
+    for (int i = 1; i <= 5; i++)
+    {
+      async.debug("e" + i);
+    }
+    Checks.checkEquals(Long.valueOf(4), Long.valueOf(async.getDroppedEventCount()),
+      "DROP_NEWEST drop count");
+    recorder.release();
+    async.flush();
+    waitFor(() -> recorder.reports().size() > 0, "DROP_NEWEST drops reported");
+    Checks.checkEquals(List.of("hold", "e1"), recorder.events(), "DROP_NEWEST logged events");
+    Checks.checkEquals(List.of("AsyncSpyLogDelegator dropped 4 events because the ring buffer " +
+      "was full (4 total)"), recorder.reports(), "DROP_NEWEST drop report");
+    async.shutdown();
+  }
+
+  /**
+   * With the SAMPLE policy, every Nth event that finds the ring buffer full waits for room and the
+   * rest are dropped.  Each event is logged from its own thread, so that the ones that wait don't
+   * keep the others from finding the ring buffer full.
+   */
+  private static void checkSample() throws InterruptedException
+  {
+    Recorder recorder = new Recorder(true);
+    AsyncSpyLogDelegator async = new AsyncSpyLogDelegator(recorder, 2,
+      AsyncSpyLogDelegator.FullBufferPolicy.SAMPLE, 3);
+    async.debug("hold");
+    recorder.awaitHeld();
+    async.debug("e1");
+    List<Thread> producers = new ArrayList<Thread>();
+    for (int i = 0; i < 6; i++)
+    {
+      Thread producer = new Thread(() -> async.debug("sampled"));
+      producers.add(producer);
+      producer.start();
+    }
+    waitFor(() -> async.getDroppedEventCount() == 4, "SAMPLE drops 4 of 6");
+    recorder.release();
+    for (Thread producer : producers)
+    {
+      producer.join(WAIT_MSEC);
+    }
+    async.flush();
+    Checks.checkEquals(List.of("hold", "e1", "sampled", "sampled"), recorder.events(),
+      "SAMPLE logs 1 in 3 of the events that found the ring buffer full");
+    Checks.checkEquals(Long.valueOf(4), Long.valueOf(async.getDroppedEventCount()),
+      "SAMPLE drop count");
+    async.shutdown();
+  }
+
+  /**
+   * After shutdown(), the events still in the ring buffer are logged first and then new events are
+   * logged directly on the thread that logs them.
+   */
+  private static void checkShutdown()
+  {
+    Recorder recorder = new Recorder(false);
+    AsyncSpyLogDelegator async = new AsyncSpyLogDelegator(recorder, 16,
+      AsyncSpyLogDelegator.FullBufferPolicy.BLOCK, 1);
+    async.debug("queued");
+    async.shutdown();
+    async.debug("direct");
+    Checks.checkEquals(List.of("queued", "direct"), recorder.events(),
+      "events logged in order across shutdown");
+    Checks.checkEquals(Thread.currentThread().getName(), recorder.lastThread,
+      "event after shutdown logged on the calling thread");
+    Checks.checkEquals(Long.valueOf(0), Long.valueOf(async.getPendingEventCount()),
+      "nothing pending after shutdown");
+  }
+
+  /**
+   * When the delegate has JDBC logging turned off, SQL and exceptions are never queued.
+   */
+  private static void checkDisabled()
+  {
+    Recorder recorder = new Recorder(false);
+    recorder.enabled = false;
+    AsyncSpyLogDelegator async = new AsyncSpyLogDelegator(recorder, 16,
+      AsyncSpyLogDelegator.FullBufferPolicy.BLOCK, 1);
+    async.sqlOccured(null, "executeQuery(String)", "select 1");
+    async.sqlTimingOccured(null, 1L, "executeQuery(String)", "select 1");
+    async.exceptionOccured(null, "executeQuery(String)", new Exception(), "select 1", 1L);
+    async.debug("last");
+    async.flush();
+    Checks.checkEquals(List.of("last"), recorder.events(),
+      "SQL and exceptions skipped when logging is off");
+    async.shutdown();
+  }
+
+  private static void waitFor(BooleanSupplier condition, String what)
+  {
+    long end = System.currentTimeMillis() + WAIT_MSEC;
+    while (!condition.getAsBoolean())
+    {
+      if (System.currentTimeMillis() > end)
+      {
+        Checks.check(false, what + " (timed out)");
+        return;
+      }
+      try
+      {
+        Thread.sleep(1L);
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  /**
+   * A SpyLogDelegator that records what it's given, and optionally holds up the background thread
+   * on the first event until it's released.
+   */
+  private static final class Recorder implements SpyLogDelegator
+  {
+    private final List<String> events = new ArrayList<String>();
+
+    private final List<String> reports = new ArrayList<String>();
+
+    private final CountDownLatch held = new CountDownLatch(1);
+
+    private final CountDownLatch released;
+
+    volatile boolean enabled = true;
+
+    volatile String lastThread;
+
+    Recorder(boolean hold)
+    {
+      released = new CountDownLatch(hold ? 1 : 0);
+    }
+
+    void awaitHeld()
+    {
+      waitFor(() -> held.getCount() == 0, "background thread picks up the first event");
+    }
+
+    void release()
+    {
+      released.countDown();
+    }
+
+    synchronized List<String> events()
+    {
+      return new ArrayList<String>(events);
+    }
+
+    synchronized List<String> reports()
+    {
+      return new ArrayList<String>(reports);
+    }
+
+    private void record(String event)
+    {
+      synchronized (this)
+      {
+        if (event.startsWith("AsyncSpyLogDelegator passing events"))
+        {
+          return;
+        }
+        if (event.startsWith("AsyncSpyLogDelegator"))
+        {
+          reports.add(event);
+          return;
+        }
+        events.add(event);
+        lastThread = Thread.currentThread().getName();
+      }
+      held.countDown();
+      try
+      {
+        released.await();
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    public boolean isJdbcLoggingEnabled()
+    {
+      return enabled;
+    }
+
+    public void exceptionOccured(Spy spy, String methodCall, Exception e, String sql,
+      long execTime)
+    {
+      record("exception " + methodCall);
+    }
+
+    public void methodReturned(Spy spy, String methodCall, String returnMsg)
+    {
+      record("returned " + methodCall);
+    }
+
+    public void constructorReturned(Spy spy, String constructionInfo)
+    {
+      record("constructed " + constructionInfo);
+    }
+
+    public void sqlOccured(Spy spy, String methodCall, String sql)
+    {
+      record("sql " + sql);
+    }
+
+    public void sqlTimingOccured(Spy spy, long execTime, String methodCall, String sql)
+    {
+      record("timing " + sql);
+    }
+
+    public void connectionOpened(Spy spy)
+    {
+    }
+
+    public void connectionClosed(Spy spy)
+    {
+    }
+
+    public void debug(String msg)
+    {
+      record(msg);
+    }
+  }
+
+  private AsyncSpyLogDelegatorCheck()
+  {
+  }
+}
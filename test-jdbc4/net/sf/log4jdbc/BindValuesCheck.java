@@ -0,0 +1,103 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Checks that a BindValues snapshot keeps the values it was taken with: that setting, clearing or
+ * growing the BindValues afterwards copies the arrays first, that a mutable value changed after it
+ * was set is still shown as it was bound, and that each row of a batch keeps its own values.
+ *
+ * @author Arthur Blake
+ */
+final class BindValuesCheck
+{
+  private static final RdbmsSpecifics RDBMS = new RdbmsSpecifics();
+
+  static void run()
+  {
+    BindValues values = new BindValues();
+    values.setInt(1, null, 1);
+    values.setObject(2, null, "a");
+    BindValues first = values.snapshot();
+    long firstHash = first.hash();
+    values.setInt(1, null, 2);
+    values.setObject(2, null, "b");
+    checkValues(first, "snapshot after the values are set again", "1", "'a'");
+    checkValues(values, "values set after a snapshot", "2", "'b'");
+    Checks.checkEquals(Long.valueOf(firstHash), Long.valueOf(first.hash()),
+      "snapshot hash after the values are set again");
+    Checks.check(!first.sameValues(values), "snapshot and changed values differ");
+    Checks.check(first.sameValues(first.snapshot()), "snapshot of a snapshot has the same values");
+
+    BindValues second = values.snapshot();
+    values.clear();
+    checkValues(second, "snapshot after clear()", "2", "'b'");
+    checkValues(values, "values after clear()");
+    values.setLong(12, null, 12L);
+    checkValues(second, "snapshot after the values grow", "2", "'b'");
+
+    // a Date or byte array changed after it's set is shown as it was bound
+    Date date = new Date(0L);
+    String bound = RDBMS.formatParameterObject(new Date(0L));
+    byte[] bytes = {1, 2};
+    values.clear();
+    values.setObject(1, null, date);
+    values.setBytes(2, null, bytes);
+    BindValues snapshot = values.snapshot();
+    date.setTime(86400000L);
+    bytes[0] = 9;
+    String[] formatted = snapshot.format(RDBMS);
+    Checks.checkEquals(bound, formatted[0], "Date changed after it was set");
+    Checks.checkEquals("'0102'", formatted[1], "byte array changed after it was set");
+
+    // an application may reuse one Date for every row of a batch
+    String sql = "insert into t (id, at) values (?, ?)";
+    DumpedSql[] rows = new DumpedSql[3];
+    String[] expected = new String[3];
+    values.clear();
+    for (int row = 0; row < rows.length; row++)
+    {
+      date.setTime(row * 86400000L);
+      values.setInt(1, null, row);
+      values.setObject(2, null, date);
+      rows[row] = new DumpedSql(sql, values.snapshot(), RDBMS);
+      expected[row] = "insert into t (id, at) values (" + row + ", " +
+        RDBMS.formatParameterObject(new Date(row * 86400000L)) + ")";
+    }
+    date.setTime(-1L);
+    values.clear();
+    for (int row = 0; row < rows.length; row++)
+    {
+      Checks.checkEquals(expected[row], rows[row].toString(), "batch row " + row);
+    }
+    Checks.check(!rows[0].sameBindValues(rows[1]), "batch rows have different values");
+
+    values.setObject(1, "(String)", "t");
+    checkValues(values.snapshot(), "type help", "(String)'t'");
+  }
+
+  private static void checkValues(BindValues values, String what, String... expected)
+  {
+    Checks.checkEquals(Arrays.asList(expected), Arrays.asList(values.format(RDBMS)), what);
+  }
+
+  private BindValuesCheck()
+  {
+  }
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.util.Objects;
+
+/**
+ * Runs the checks of the parts of log4jdbc that have exact expected results, such as the
+ * SqlFormatter golden output.  No database or test framework is needed.  Each check is a class in
+ * this package with a static run() method, which is added to the list in main().  The "test"
+ * target in scripts/build.xml runs them once with \n and once with \r\n as the line.separator,
+ * and fails the build if any check fails.
+ *
+ * With the system property log4jdbc.check.crlf set to true, \r\n is used as the line.separator.
+ *
+ * @author Arthur Blake
+ */
+public final class Checks
+{
+  /**
+   * The most failures that are shown, so that one broken rule doesn't bury the output.
+   */
+  private static final int MAX_SHOWN = 25;
+
+  private static int checks;
+
+  private static int failures;
+
+  public static void main(String[] args) throws Exception
+  {
+    if (Boolean.getBoolean("log4jdbc.check.crlf"))
+    {
+      // SqlFormatter reads the line.separator once, when it's loaded
+      System.setProperty("line.separator", "\r\n");
+    }
+    AsyncSpyLogDelegatorCheck.run();
+    SqlTemplateCheck.run();
+    BindValuesCheck.run();
+    SqlFormatterCheck.run();
+    DateFormatterCheck.run();
+    SqlFingerprintCheck.run();
+    LatencyHistogramCheck.run();
+    PrometheusExporterCheck.run();
+    NPlusOneDetectorCheck.run();
+    DuplicateSqlTrackerCheck.run();
+    ConnectionLeakCheck.run();
+    StatementLeakCheck.run();
+    PooledConnectionSpyCheck.run();
+
+    System.out.println(checks + " checks, " + failures + " failed");
+    if (failures > 0)
+    {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Check that something is true.
+   *
+   * @param ok   the result of the check.
+   * @param what what was checked, shown if it failed.
+   */
+  static void check(boolean ok, String what)
+  {
+    checks++;
+    if (!ok)
+    {
+      fail(what);
+    }
+  }
+
+  /**
+   * Check that a value is what was expected.
+   *
+   * @param expected the expected value.
+   * @param actual   the actual value.
+   * @param what     what was checked, shown if it failed.
+   */
+  static void checkEquals(Object expected, Object actual, String what)
+  {
+    checks++;
+    if (!Objects.equals(expected, actual))
+    {
+      fail(what + System.lineSeparator() + "  expected: " + show(expected) +
+        System.lineSeparator() + "  actual:   " + show(actual));
+    }
+  }
+
+  private static void fail(String what)
+  {
+    failures++;
+    if (failures <= MAX_SHOWN)
+    {
+      System.out.println("FAILED: " + what);
+    }
+    else if (failures == MAX_SHOWN + 1)
+    {
+      System.out.println("(more failures not shown)");
+    }
+  }
+
+  /**
+   * Show a value with its line breaks and other control characters escaped, between [ and ].
+   */
+  static String show(Object value)
+  {
+    return value == null ? "null" : "[" + escape(value.toString()) + "]";
+  }
+
+  /**
+   * Escape \\, line breaks, tabs, form feeds and any other character outside of printable ASCII,
+   * the same way as sqlformatter-golden.txt.
+   */
+  static String escape(String s)
+  {
+    StringBuilder out = new StringBuilder(s.length());
+    for (int i = 0; i < s.length(); i++)
+    {
+      char c = s.charAt(i);
+      switch (c)
+      {
+        case '\\':
+          out.append("\\\\");
+          break;
+        case '\n':
+          out.append("\\n");
+          break;
+        case '\r':
+          out.append("\\r");
+          break;
+        case '\t':
+          out.append("\\t");
+          break;
+        case '\f':
+          out.append("\\f");
+          break;
+        default:
+          if (c < ' ' || c > '~')
+          {
+            out.append(String.format("\\u%04x", Integer.valueOf(c)));
+          }
+          else
+          {
+            out.append(c);
+          }
+          break;
+      }
+    }
+    return out.toString();
+  }
+
+  /**
+   * Undo escape().
+   */
+  static String unescape(String s)
+  {
+    StringBuilder out = new StringBuilder(s.length());
+    for (int i = 0; i < s.length(); i++)
+    {
+      char c = s.charAt(i);
+      if (c != '\\')
+      {
+        out.append(c);
+        continue;
+      }
+      c = s.charAt(++i);
+      switch (c)
+      {
+        case 'n':
+          out.append('\n');
+          break;
+        case 'r':
+          out.append('\r');
+          break;
+        case 't':
+          out.append('\t');
+          break;
+        case 'f':
+          out.append('\f');
+          break;
+        case 'u':
+          out.append((char) Integer.parseInt(s.substring(i + 1, i + 5), 16));
+          i += 4;
+          break;
+        default:
+          out.append(c);
+          break;
+      }
+    }
+    return out.toString();
+  }
+
+  private Checks()
+  {
+  }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the ConnectionLeakDetector: that a connection held open for longer than the threshold is
+ * reported once, with where it was opened from, that a closed connection isn't reported, and that
+ * a connection that is garbage collected without being closed is reported and no longer counted as
+ * open.
+ *
+ * @author Arthur Blake
+ */
+final class ConnectionLeakCheck
+{
+  private static final long THRESHOLD_MSEC = 200L;
+
+  static void run() throws SQLException, InterruptedException
+  {
+    SpyLogDelegator saved = SpyLogFactory.getSpyLogDelegator();
+    long threshold = DriverSpy.ConnectionLeakThresholdNanos;
+    FakeJdbc.Log log = new FakeJdbc.Log();
+    SpyLogFactory.overrideSpyLogDelegator(log);
+    DriverSpy.ConnectionLeakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(THRESHOLD_MSEC);
+    try
+    {
+      ConnectionSpy held = open();
+      ConnectionSpy closed = open();
+      closed.close();
+      Integer lost = openAndLose();
+
+      FakeJdbc.await(() -> reports(log, held.getConnectionNumber(), false) > 0,
+        "connection held too long reported");
+      // a few more sweeps, which mustn't report it again
+      Thread.sleep(3 * THRESHOLD_MSEC);
+      Checks.checkEquals(Integer.valueOf(1), Integer.valueOf(reports(log,
+        held.getConnectionNumber(), false)), "connection held too long reported once");
+      Checks.checkEquals(Integer.valueOf(0), Integer.valueOf(reports(log,
+        closed.getConnectionNumber(), false)), "closed connection not reported");
+      for (ConnectionLeak leak : log.getConnectionLeaks())
+      {
+        if (leak.getConnectionNumber().equals(held.getConnectionNumber()))
+        {
+          Checks.check(leak.getOpenedAt() != null, "where the leaked connection was opened");
+          Checks.check(leak.getHeldNanos() >= DriverSpy.ConnectionLeakThresholdNanos,
+            "leaked connection held for " + leak.getHeldNanos());
+        }
+      }
+
+      FakeJdbc.await(() -> {
+        System.gc();
+        return reports(log, lost, true) > 0;
+      }, "garbage collected connection reported");
+      Checks.check(!Arrays.asList(ConnectionSpy.getOpenConnectionNumbers()).contains(lost),
+        "garbage collected connection no longer open");
+      held.close();
+      Checks.check(!Arrays.asList(ConnectionSpy.getOpenConnectionNumbers()).contains(
+        held.getConnectionNumber()), "closed connection no longer open");
+    }
+    finally
+    {
+      DriverSpy.ConnectionLeakThresholdNanos = 0L;
+      ConnectionLeakDetector.thresholdChanged();
+      DriverSpy.ConnectionLeakThresholdNanos = threshold;
+      SpyLogFactory.overrideSpyLogDelegator(saved);
+    }
+  }
+
+  /**
+   * Open a ConnectionSpy from outside of log4jdbc (by way of Optional.map), since connections
+   * opened from inside of log4jdbc have no call site to report, and aren't watched.
+   */
+  private static ConnectionSpy open()
+  {
+    return Optional.of(FakeJdbc.connection()).map(c -> new ConnectionSpy(c, null, false)).get();
+  }
+
+  /**
+   * Open a connection and lose it without closing it.
+   *
+   * @return its connection number.
+   */
+  private static Integer openAndLose()
+  {
+    return open().getConnectionNumber();
+  }
+
+  /**
+   * Count the reports of a connection.
+   */
+  private static int reports(FakeJdbc.Log log, Integer connectionNumber, boolean collected)
+  {
+    int reports = 0;
+    List<ConnectionLeak> leaks = log.getConnectionLeaks();
+    for (ConnectionLeak leak : leaks)
+    {
+      if (leak.getConnectionNumber().equals(connectionNumber) && leak.isCollected() == collected)
+      {
+        reports++;
+      }
+    }
+    return reports;
+  }
+
+  private ConnectionLeakCheck()
+  {
+  }
+}
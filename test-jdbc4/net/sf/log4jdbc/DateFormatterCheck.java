@@ -0,0 +1,101 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Checks DateFormatter against SimpleDateFormat (for java.util.Date and its java.sql subclasses)
+ * and DateTimeFormatter (for the java.time types) with each of the patterns the RdbmsSpecifics
+ * use, in time zones with daylight saving time, odd offsets and skipped days.
+ *
+ * @author Arthur Blake
+ */
+final class DateFormatterCheck
+{
+  private static final String[] PATTERNS = {"MM/dd/yyyy HH:mm:ss.SSS", "MM/dd/yyyy HH:mm:ss",
+    "yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd", "HH:mm:ss"};
+
+  private static final String[] ZONES = {"UTC", "America/New_York", "Europe/London",
+    "Australia/Lord_Howe", "Asia/Kolkata", "Pacific/Apia", "America/St_Johns"};
+
+  /**
+   * 1582-10-15, the first day of the Gregorian calendar, and 9999-12-31.
+   */
+  private static final long FIRST = -12219292800000L;
+
+  private static final long LAST = 253402214400000L;
+
+  static void run()
+  {
+    TimeZone defaultZone = TimeZone.getDefault();
+    try
+    {
+      for (String zone : ZONES)
+      {
+        TimeZone.setDefault(TimeZone.getTimeZone(zone));
+        Random random = new Random(zone.hashCode());
+        for (String pattern : PATTERNS)
+        {
+          DateFormatter formatter = new DateFormatter(pattern);
+          SimpleDateFormat expected = new SimpleDateFormat(pattern);
+          DateTimeFormatter expectedTime = DateTimeFormatter.ofPattern(pattern);
+          for (int i = 0; i < 2000; i++)
+          {
+            long millis = i < 1000 ? FIRST + (long) (random.nextDouble() * (LAST - FIRST)) :
+              // around now, where the daylight saving time rules get the most use
+              (long) (random.nextDouble() * 4000000000000L);
+            Date date = new Date(millis);
+            Checks.checkEquals(expected.format(date), formatter.format(date),
+              pattern + " " + zone + " " + millis);
+            Checks.checkEquals(expected.format(date), formatter.format(new java.sql.Timestamp(
+              millis)), pattern + " " + zone + " Timestamp " + millis);
+            Checks.checkEquals(expected.format(date), formatter.format(Instant.ofEpochMilli(
+              millis)), pattern + " " + zone + " Instant " + millis);
+            Checks.checkEquals(expected.format(date), formatter.format(OffsetDateTime.ofInstant(
+              Instant.ofEpochMilli(millis), ZoneOffset.ofHours(5))), pattern + " " + zone +
+              " OffsetDateTime " + millis);
+            LocalDateTime local = LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+              (int) Math.floorMod(millis, 1000L) * 1000000, ZoneOffset.UTC);
+            Checks.checkEquals(expectedTime.format(local), formatter.format(local),
+              pattern + " LocalDateTime " + local);
+            LocalDate day = local.toLocalDate();
+            Checks.checkEquals(expectedTime.format(day.atStartOfDay()), formatter.format(day),
+              pattern + " LocalDate " + day);
+          }
+        }
+      }
+    }
+    finally
+    {
+      TimeZone.setDefault(defaultZone);
+    }
+    Checks.check(!DateFormatter.isDateTime("2024-01-01"), "a String is not a date");
+  }
+
+  private DateFormatterCheck()
+  {
+  }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Checks that DuplicateSqlTracker counts SQL run more than once in a transaction with the same text
+ * and bind variables, and only that: different values (even ones with the same hash) and values
+ * that include a stream are never duplicates.
+ *
+ * @author Arthur Blake
+ */
+final class DuplicateSqlTrackerCheck
+{
+  private static final RdbmsSpecifics RDBMS = new RdbmsSpecifics();
+
+  private static final String SQL = "select * from t where a = ?";
+
+  static void run()
+  {
+    DuplicateSqlTracker tracker = new DuplicateSqlTracker();
+    tracker.executed("select 1", 5L);
+    tracker.executed("select 2", 5L);
+    tracker.executed("select 1", 7L);
+    tracker.executed("select 1", 9L);
+    check(tracker, "Statement SQL", "select 1 x3 wasted 16");
+    check(tracker, "nothing after end()");
+
+    BindValues values = new BindValues();
+    values.setInt(1, null, 1);
+    tracker.executed(bound(values), 1L);
+    tracker.executed(bound(values), 2L);
+    values.setInt(1, null, 2);
+    tracker.executed(bound(values), 3L);
+    check(tracker, "the same values", SQL + " x2 wasted 2");
+
+    // "Aa" and "BB" have the same hashCode, so the values hash the same but aren't the same
+    values.setObject(1, null, "Aa");
+    tracker.executed(bound(values), 1L);
+    values.setObject(1, null, "BB");
+    tracker.executed(bound(values), 1L);
+    check(tracker, "values with the same hash");
+
+    values.setBytes(1, null, new byte[] {1, 2});
+    tracker.executed(bound(values), 1L);
+    values.setBytes(1, null, new byte[] {1, 2});
+    tracker.executed(bound(values), 1L);
+    check(tracker, "byte arrays with the same contents", SQL + " x2 wasted 1");
+
+    values.setStream(1, null, "stream", 10L);
+    tracker.executed(bound(values), 1L);
+    tracker.executed(bound(values), 1L);
+    check(tracker, "streams");
+
+    values.clear();
+    tracker.executed(SQL, 1L);
+    tracker.executed(bound(values), 1L);
+    check(tracker, "Statement and PreparedStatement with the same text");
+  }
+
+  private static DumpedSql bound(BindValues values)
+  {
+    return new DumpedSql(SQL, values.snapshot(), RDBMS);
+  }
+
+  /**
+   * End the transaction and check the duplicates found in it.
+   *
+   * @param tracker  the tracker.
+   * @param what     the case, shown if it fails.
+   * @param expected each duplicate, as the SQL without its bind variables, the count and the
+   *                 wasted nanoseconds.
+   */
+  private static void check(DuplicateSqlTracker tracker, String what, String... expected)
+  {
+    List<DuplicateSqlTracker.Duplicate> duplicates = tracker.end();
+    List<String> actual = new ArrayList<String>();
+    if (duplicates != null)
+    {
+      for (DuplicateSqlTracker.Duplicate d : duplicates)
+      {
+        String sql = d.sql instanceof DumpedSql ? ((DumpedSql) d.sql).getSql() : (String) d.sql;
+        actual.add(sql + " x" + d.count + " wasted " + d.wastedNanos);
+      }
+    }
+    Collections.sort(actual);
+    List<String> wanted = new ArrayList<String>();
+    Collections.addAll(wanted, expected);
+    Checks.checkEquals(wanted, actual, what);
+  }
+
+  private DuplicateSqlTrackerCheck()
+  {
+  }
+}
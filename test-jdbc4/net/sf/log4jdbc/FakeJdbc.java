@@ -0,0 +1,220 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Fake JDBC objects for the checks that need a ConnectionSpy (or the other spies) to wrap
+ * something, and a SpyLogDelegator that records what it's given.  The fakes are dynamic proxies
+ * that do nothing: methods that return a Statement or ResultSet return a fake one, and all the
+ * others return a zero, false or null.
+ *
+ * @author Arthur Blake
+ */
+final class FakeJdbc
+{
+  /**
+   * How long to wait for something to happen on another thread before giving up on a check.
+   */
+  static final long WAIT_MSEC = 10000L;
+
+  /**
+   * Make a fake implementation of an interface.
+   *
+   * @param type    the interface.
+   * @param handler what to do when a method is called, or null to do nothing.
+   * @return the fake.
+   */
+  static <T> T proxy(Class<T> type, InvocationHandler handler)
+  {
+    InvocationHandler h = handler != null ? handler : FakeJdbc::invoke;
+    return type.cast(Proxy.newProxyInstance(FakeJdbc.class.getClassLoader(),
+      new Class<?>[] {type}, h));
+  }
+
+  /**
+   * @return a fake Connection.
+   */
+  static Connection connection()
+  {
+    return proxy(Connection.class, null);
+  }
+
+  private static Object invoke(Object proxy, Method method, Object[] args)
+  {
+    Class<?> type = method.getReturnType();
+    if (type == Statement.class || type == PreparedStatement.class ||
+      type == CallableStatement.class || type == ResultSet.class)
+    {
+      return proxy(type, null);
+    }
+    return defaultValue(type);
+  }
+
+  /**
+   * @return the value a method that does nothing returns: zero, false or null.
+   */
+  static Object defaultValue(Class<?> type)
+  {
+    if (!type.isPrimitive() || type == void.class)
+    {
+      return null;
+    }
+    if (type == boolean.class)
+    {
+      return Boolean.FALSE;
+    }
+    if (type == char.class)
+    {
+      return Character.valueOf((char) 0);
+    }
+    if (type == long.class)
+    {
+      return Long.valueOf(0L);
+    }
+    if (type == float.class)
+    {
+      return Float.valueOf(0F);
+    }
+    if (type == double.class)
+    {
+      return Double.valueOf(0D);
+    }
+    if (type == byte.class)
+    {
+      return Byte.valueOf((byte) 0);
+    }
+    if (type == short.class)
+    {
+      return Short.valueOf((short) 0);
+    }
+    return Integer.valueOf(0);
+  }
+
+  /**
+   * Wait for something to happen on another thread, failing the check if it doesn't happen within
+   * WAIT_MSEC.
+   *
+   * @param condition true once it has happened.
+   * @param what      what is waited for, shown if it doesn't happen.
+   * @return true if it happened.
+   */
+  static boolean await(BooleanSupplier condition, String what)
+  {
+    long end = System.currentTimeMillis() + WAIT_MSEC;
+    while (!condition.getAsBoolean())
+    {
+      if (System.currentTimeMillis() > end)
+      {
+        Checks.check(false, what + " (timed out)");
+        return false;
+      }
+      try
+      {
+        Thread.sleep(10L);
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * A SpyLogDelegator that records the leaks it's given and ignores everything else.
+   */
+  static final class Log implements SpyLogDelegator
+  {
+    private final List<ConnectionLeak> connectionLeaks = new ArrayList<ConnectionLeak>();
+
+    private final List<StatementLeak> statementLeaks = new ArrayList<StatementLeak>();
+
+    synchronized List<ConnectionLeak> getConnectionLeaks()
+    {
+      return new ArrayList<ConnectionLeak>(connectionLeaks);
+    }
+
+    synchronized List<StatementLeak> getStatementLeaks()
+    {
+      return new ArrayList<StatementLeak>(statementLeaks);
+    }
+
+    public synchronized void connectionLeakOccured(ConnectionLeak leak)
+    {
+      connectionLeaks.add(leak);
+    }
+
+    public synchronized void statementLeakOccured(StatementLeak leak)
+    {
+      statementLeaks.add(leak);
+    }
+
+    public boolean isJdbcLoggingEnabled()
+    {
+      return false;
+    }
+
+    public void exceptionOccured(Spy spy, String methodCall, Exception e, String sql,
+      long execTime)
+    {
+    }
+
+    public void methodReturned(Spy spy, String methodCall, String returnMsg)
+    {
+    }
+
+    public void constructorReturned(Spy spy, String constructionInfo)
+    {
+    }
+
+    public void sqlOccured(Spy spy, String methodCall, String sql)
+    {
+    }
+
+    public void sqlTimingOccured(Spy spy, long execTime, String methodCall, String sql)
+    {
+    }
+
+    public void connectionOpened(Spy spy)
+    {
+    }
+
+    public void connectionClosed(Spy spy)
+    {
+    }
+
+    public void debug(String msg)
+    {
+    }
+  }
+
+  private FakeJdbc()
+  {
+  }
+}
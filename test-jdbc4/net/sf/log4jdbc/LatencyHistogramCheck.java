@@ -0,0 +1,89 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.util.Random;
+
+/**
+ * Checks the LatencyHistogram bucket math: that the buckets cover every time with no gaps or
+ * overlaps, each within about 3% of its lowest time, and that a Snapshot's percentiles, max and
+ * counts come from the right buckets.
+ *
+ * @author Arthur Blake
+ */
+final class LatencyHistogramCheck
+{
+  static void run()
+  {
+    int last = LatencyHistogram.BUCKETS - 1;
+    for (int b = 0; b <= last; b++)
+    {
+      long low = LatencyHistogram.lowestValue(b);
+      long high = LatencyHistogram.highestValue(b);
+      Checks.check(low <= high, "bucket " + b + " lowest " + low + " <= highest " + high);
+      Checks.checkEquals(Integer.valueOf(b), Integer.valueOf(LatencyHistogram.bucket(low)),
+        "bucket(lowestValue(" + b + "))");
+      Checks.checkEquals(Integer.valueOf(b), Integer.valueOf(LatencyHistogram.bucket(high)),
+        "bucket(highestValue(" + b + "))");
+      if (b < last)
+      {
+        Checks.checkEquals(Long.valueOf(high + 1),
+          Long.valueOf(LatencyHistogram.lowestValue(b + 1)),
+          "bucket " + (b + 1) + " starts right after bucket " + b);
+      }
+      // every bucket is within 1/32 of its lowest time (the first 64 are exact)
+      Checks.check((high - low + 1) * 32 <= Math.max(low, 32), "bucket " + b + " width " +
+        (high - low + 1) + " for lowest " + low);
+    }
+    Checks.checkEquals(Integer.valueOf(0), Integer.valueOf(LatencyHistogram.bucket(-1)),
+      "bucket(-1)");
+    Checks.checkEquals(Integer.valueOf(last), Integer.valueOf(LatencyHistogram.bucket(
+      Long.MAX_VALUE)), "bucket(Long.MAX_VALUE)");
+
+    Random random = new Random(42);
+    for (int i = 0; i < 100000; i++)
+    {
+      long nanos = (random.nextLong() >>> 1) >>> random.nextInt(63);
+      int b = LatencyHistogram.bucket(nanos);
+      Checks.check(b == last || LatencyHistogram.lowestValue(b) <= nanos &&
+        nanos <= LatencyHistogram.highestValue(b), nanos + " is in its bucket " + b);
+    }
+
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long nanos = 1; nanos <= 1000; nanos++)
+    {
+      histogram.record(nanos * 1000);
+    }
+    LatencyHistogram.Snapshot s = histogram.getSnapshot();
+    Checks.checkEquals(Long.valueOf(1000), Long.valueOf(s.getCount()), "count");
+    Checks.checkEquals(Long.valueOf(LatencyHistogram.highestValue(
+      LatencyHistogram.bucket(500000))), Long.valueOf(s.getP50()), "p50");
+    Checks.checkEquals(Long.valueOf(LatencyHistogram.highestValue(
+      LatencyHistogram.bucket(990000))), Long.valueOf(s.getP99()), "p99");
+    Checks.checkEquals(Long.valueOf(LatencyHistogram.highestValue(
+      LatencyHistogram.bucket(1000000))), Long.valueOf(s.getMax()), "max");
+    Checks.checkEquals(Long.valueOf(1000), Long.valueOf(s.getCountAtOrBelow(s.getMax())),
+      "count at or below max");
+    Checks.checkEquals(Long.valueOf(2000), Long.valueOf(s.merge(
+      LatencyHistogram.Snapshot.fromCounts(s.getCounts())).getCount()), "merged count");
+    Checks.checkEquals(Long.valueOf(0), Long.valueOf(new LatencyHistogram().getSnapshot().getP99()),
+      "p99 of nothing");
+  }
+
+  private LatencyHistogramCheck()
+  {
+  }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that NPlusOneDetector reports SQL run log4jdbc.nplusone.threshold times within the window
+ * once, and starts the count over when the window runs out or the fingerprint has been pushed out
+ * by others.  Each case runs on a new thread, since the detector keeps its window per thread.
+ *
+ * @author Arthur Blake
+ */
+final class NPlusOneDetectorCheck
+{
+  static void run() throws InterruptedException
+  {
+    int threshold = DriverSpy.NPlusOneThreshold;
+    long window = DriverSpy.NPlusOneWindowNanos;
+    DriverSpy.NPlusOneThreshold = 3;
+    DriverSpy.NPlusOneWindowNanos = 1000L;
+    try
+    {
+      check("reported once at the threshold", new long[] {-1, -1, 20, -1, -1},
+        "a", 0, "a", 10, "a", 20, "a", 30, "a", 40);
+      check("count starts over after the window", new long[] {-1, -1, -1, -1, 20, -1, -1, 20},
+        "a", 0, "a", 10, "a", 2000, "a", 2010, "a", 2020,
+        "a", 4000, "a", 4010, "a", 4020);
+      check("a loop of different queries", new long[] {-1, -1, -1, -1, -1, -1, 6, 6, 6},
+        "x", 0, "y", 1, "z", 2, "x", 3, "y", 4, "z", 5, "x", 6, "y", 7, "z", 8);
+      check("same hash, different fingerprints", new long[] {-1, -1, -1, -1, 4},
+        "Aa", 0, "BB", 1, "Aa", 2, "BB", 3, "Aa", 4);
+      check("pushed out by 8 other fingerprints", new long[] {-1, -1, -1, -1, -1, -1, -1, -1,
+        -1, -1, -1, 2},
+        "a", 0, "b1", 1, "b2", 2, "b3", 3, "b4", 4, "b5", 5, "b6", 6, "b7", 7, "b8", 8,
+        "a", 9, "a", 10, "a", 11);
+    }
+    finally
+    {
+      DriverSpy.NPlusOneThreshold = threshold;
+      DriverSpy.NPlusOneWindowNanos = window;
+    }
+  }
+
+  /**
+   * Run fingerprints at the given times on a new thread, and check what NPlusOneDetector returns
+   * for each.
+   *
+   * @param what     the case, shown if it fails.
+   * @param expected the expected result of each execution.
+   * @param runs     pairs of a fingerprint and the time it's run at.
+   */
+  private static void check(String what, long[] expected, Object... runs)
+    throws InterruptedException
+  {
+    List<Long> actual = new ArrayList<Long>();
+    Thread thread = new Thread(() -> {
+      for (int i = 0; i < runs.length; i += 2)
+      {
+        actual.add(Long.valueOf(NPlusOneDetector.executed((String) runs[i],
+          ((Integer) runs[i + 1]).longValue())));
+      }
+    });
+    thread.start();
+    thread.join();
+    List<Long> wanted = new ArrayList<Long>();
+    for (long e : expected)
+    {
+      wanted.add(Long.valueOf(e));
+    }
+    Checks.checkEquals(wanted, actual, what);
+  }
+
+  private NPlusOneDetectorCheck()
+  {
+  }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.PooledConnection;
+import javax.sql.StatementEvent;
+import javax.sql.StatementEventListener;
+
+/**
+ * Checks that PooledConnectionSpy passes statement events on with the PreparedStatementSpy (or
+ * CallableStatementSpy) that the pool was handed in place of the real statement, and with itself
+ * as the source, and that a listener registered twice or removed is only called as it should be.
+ *
+ * @author Arthur Blake
+ */
+final class PooledConnectionSpyCheck
+{
+  static void run() throws SQLException
+  {
+    List<StatementEventListener> registered = new ArrayList<StatementEventListener>();
+    PooledConnection real = FakeJdbc.proxy(PooledConnection.class, (proxy, method, args) -> {
+      if (method.getName().equals("addStatementEventListener"))
+      {
+        registered.add((StatementEventListener) args[0]);
+      }
+      else if (method.getName().equals("removeStatementEventListener"))
+      {
+        registered.remove(args[0]);
+      }
+      return null;
+    });
+    PooledConnectionSpy pooled = new PooledConnectionSpy(real);
+    List<StatementEvent> closed = new ArrayList<StatementEvent>();
+    List<StatementEvent> failed = new ArrayList<StatementEvent>();
+    StatementEventListener listener = new StatementEventListener()
+    {
+      public void statementClosed(StatementEvent event)
+      {
+        closed.add(event);
+      }
+
+      public void statementErrorOccurred(StatementEvent event)
+      {
+        failed.add(event);
+      }
+    };
+    pooled.addStatementEventListener(listener);
+    pooled.addStatementEventListener(listener);
+    Checks.checkEquals(Integer.valueOf(1), Integer.valueOf(registered.size()),
+      "listener registered once");
+
+    ConnectionSpy connection = new ConnectionSpy(FakeJdbc.connection(), null, true, pooled);
+    PreparedStatementSpy prepared = (PreparedStatementSpy) connection.prepareStatement("select ?");
+    CallableStatementSpy callable = (CallableStatementSpy) connection.prepareCall("{call p(?)}");
+    PreparedStatement unknown = FakeJdbc.proxy(PreparedStatement.class, null);
+    SQLException error = new SQLException("broken");
+
+    StatementEventListener wrapper = registered.get(0);
+    wrapper.statementClosed(new StatementEvent(real, prepared.getRealPreparedStatement()));
+    wrapper.statementClosed(new StatementEvent(real, callable.getRealCallableStatement()));
+    wrapper.statementClosed(new StatementEvent(real, unknown));
+    wrapper.statementErrorOccurred(new StatementEvent(real, prepared.getRealPreparedStatement(),
+      error));
+
+    Checks.checkEquals(Integer.valueOf(3), Integer.valueOf(closed.size()), "closed events");
+    Checks.check(closed.get(0).getStatement() == prepared, "closed PreparedStatementSpy");
+    Checks.check(closed.get(1).getStatement() == callable,
+      "closed CallableStatementSpy");
+    Checks.check(closed.get(2).getStatement() == unknown, "closed statement without a spy");
+    Checks.checkEquals(Integer.valueOf(1), Integer.valueOf(failed.size()), "error events");
+    Checks.check(failed.get(0).getStatement() == prepared, "failed PreparedStatementSpy");
+    Checks.check(failed.get(0).getSQLException() == error, "exception of a failed statement");
+    for (StatementEvent event : closed)
+    {
+      Checks.check(event.getSource() == pooled, "event source is the PooledConnectionSpy");
+    }
+
+    pooled.removeStatementEventListener(listener);
+    Checks.checkEquals(Integer.valueOf(0), Integer.valueOf(registered.size()),
+      "listener removed from the real PooledConnection");
+    connection.close();
+  }
+
+  private PooledConnectionSpyCheck()
+  {
+  }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+/**
+ * Checks the escaping of label values in the Prometheus text format, and that every line of a
+ * scrape is a comment or a well formed sample.
+ *
+ * @author Arthur Blake
+ */
+final class PrometheusExporterCheck
+{
+  /**
+   * A sample: a metric name, optional labels with quoted values (in which only \\, \" and \n are
+   * escaped) and a number.
+   */
+  private static final String SAMPLE = "[a-zA-Z_:][a-zA-Z0-9_:]*" +
+    "(\\{[a-zA-Z_][a-zA-Z0-9_]*=\"([^\"\\\\\n]|\\\\[\\\\\"n])*\"" +
+    "(,[a-zA-Z_][a-zA-Z0-9_]*=\"([^\"\\\\\n]|\\\\[\\\\\"n])*\")*\\})? " +
+    "(-?[0-9]+(\\.[0-9]+)?(E-?[0-9]+)?|\\+Inf|NaN)";
+
+  static void run()
+  {
+    Checks.checkEquals("plain", PrometheusExporter.escape("plain"), "escape plain");
+    Checks.checkEquals("a\\\\b", PrometheusExporter.escape("a\\b"), "escape backslash");
+    Checks.checkEquals("say \\\"hi\\\"", PrometheusExporter.escape("say \"hi\""), "escape quote");
+    Checks.checkEquals("a\\nb", PrometheusExporter.escape("a\nb"), "escape line feed");
+    Checks.checkEquals("a\rb\tc", PrometheusExporter.escape("a\rb\tc"),
+      "carriage return and tab are not escaped");
+    Checks.checkEquals("\\\\\\\"\\n", PrometheusExporter.escape("\\\"\n"), "escape all three");
+
+    SqlStatistics.get("select \"a\\b\" from t\nwhere c = ?").record(1000000L, 1L, false);
+    String scrape = PrometheusExporter.scrape(20);
+    Checks.check(scrape.contains("sql=\"select \\\"a\\\\b\\\" from t\\nwhere c = ?\""),
+      "the SQL label is escaped in" + System.lineSeparator() + scrape);
+    for (String line : scrape.split("\n"))
+    {
+      Checks.check(line.startsWith("# HELP ") || line.startsWith("# TYPE ") ||
+        line.matches(SAMPLE), "well formed line " + Checks.show(line));
+    }
+    SqlStatistics.reset();
+  }
+
+  private PrometheusExporterCheck()
+  {
+  }
+}
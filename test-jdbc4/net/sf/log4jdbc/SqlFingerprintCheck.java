@@ -0,0 +1,92 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+/**
+ * Checks SqlFingerprint against a table of SQL and the fingerprint each should have, and that the
+ * hash agrees with the fingerprint text.
+ *
+ * @author Arthur Blake
+ */
+final class SqlFingerprintCheck
+{
+  /**
+   * Pairs of SQL and its fingerprint.
+   */
+  private static final String[] CASES = {
+    "SELECT * FROM t WHERE a = 'x'  AND b IN (1, 2, 3)",
+    "select * from t where a = ? and b in (?+)",
+
+    "select * from t where a = ? and b in (?, ?)",
+    "select * from t where a = ? and b in (?+)",
+
+    "SELECT a\n  FROM t\r\n WHERE b = -1.5e3",
+    "select a from t where b = ?",
+
+    "select a - 1 from t",
+    "select a - ? from t",
+
+    "select t1.a from t1",
+    "select t1.a from t1",
+
+    "insert into t (a, b) values (1, 'x'), (2, 'y'), (3, 'z')",
+    "insert into t (a, b) values (?+)",
+
+    "select \"Mixed Case\", `Also Mixed` from T",
+    "select \"Mixed Case\", `Also Mixed` from t",
+
+    "select 'it''s' from t -- trailing comment",
+    "select ? from t",
+
+    "select /* hint */ a from t",
+    "select a from t",
+
+    "select 'C:\\', 0x1F from t where x = 'a\\'",
+    "select ?, ? from t where x = ?",
+
+    "select a from t where b in (select c from u where d in (4, 5))",
+    "select a from t where b in (select c from u where d in (?+))",
+
+    "",
+    "",
+  };
+
+  static void run()
+  {
+    for (int i = 0; i < CASES.length; i += 2)
+    {
+      String sql = CASES[i];
+      String expected = CASES[i + 1];
+      Checks.checkEquals(expected, SqlFingerprint.fingerprint(sql),
+        "fingerprint of " + Checks.show(sql));
+      SqlFingerprint f = SqlFingerprint.of(sql);
+      Checks.checkEquals(expected, f.getText(), "SqlFingerprint.of(" + Checks.show(sql) + ")");
+      Checks.checkEquals(Long.valueOf(f.getHash()), Long.valueOf(SqlFingerprint.hash(sql)),
+        "hash of " + Checks.show(sql));
+    }
+    Checks.checkEquals(SqlFingerprint.of("select a from t where b = 1"),
+      SqlFingerprint.of("SELECT a FROM t WHERE b = 2"), "same fingerprint for other literals");
+    Checks.check(!SqlFingerprint.of("select a from t").equals(SqlFingerprint.of(
+      "select b from t")), "different fingerprint for other columns");
+    String sql = "select 'it\\'s', 1 from t where \"b\\\" = 2";
+    Checks.checkEquals("select ?, ? from t where \"b\\\" = ?", SqlFingerprint.fingerprint(sql,
+      true), "backslash escaped fingerprint of " + Checks.show(sql));
+  }
+
+  private SqlFingerprintCheck()
+  {
+  }
+}
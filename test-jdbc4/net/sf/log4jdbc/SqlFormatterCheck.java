@@ -0,0 +1,91 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Checks SqlFormatter against sqlformatter-golden.txt: the output of the formatter it replaced,
+ * for a corpus of SQL with each combination of the formatting options listed there.  Only the
+ * expected output for the line.separator in use is checked.
+ *
+ * @author Arthur Blake
+ */
+final class SqlFormatterCheck
+{
+  static void run() throws IOException
+  {
+    String nl = "\r\n".equals(System.getProperty("line.separator")) ? "nl=crlf" : "nl=lf";
+    int cases = 0;
+    try (InputStream in = SqlFormatterCheck.class.getResourceAsStream("sqlformatter-golden.txt"))
+    {
+      Checks.check(in != null, "sqlformatter-golden.txt is on the classpath");
+      if (in == null)
+      {
+        return;
+      }
+      BufferedReader reader = new BufferedReader(
+        new InputStreamReader(in, StandardCharsets.US_ASCII));
+      String sql = null;
+      String line;
+      while ((line = reader.readLine()) != null)
+      {
+        if (line.isEmpty() || line.startsWith("#"))
+        {
+          continue;
+        }
+        String value = Checks.unescape(line.substring(line.indexOf('[') + 1,
+          line.lastIndexOf(']')));
+        String[] settings = line.substring(0, line.indexOf('[')).trim().split(" ");
+        if (settings[0].equals("sql"))
+        {
+          sql = value;
+          cases++;
+        }
+        else if (settings[5].equals(nl))
+        {
+          DriverSpy.TrimSql = setting(settings[0], "trim=").equals("true");
+          DriverSpy.DumpSqlMaxLineLength = Integer.parseInt(setting(settings[1], "max="));
+          DriverSpy.DumpSqlAddSemicolon = setting(settings[2], "semicolon=").equals("true");
+          DriverSpy.TrimExtraBlankLinesInSql = setting(settings[3], "blank=").equals("true");
+          DriverSpy.TrimSqlLines = setting(settings[4], "lines=").equals("true");
+          Checks.checkEquals(value, SqlFormatter.format(sql),
+            "SqlFormatter.format(" + Checks.show(sql) + ") with " + line.substring(0,
+            line.indexOf('[')).trim());
+        }
+      }
+    }
+    Checks.check(cases > 0, "sqlformatter-golden.txt has cases");
+    Checks.checkEquals(null, SqlFormatter.format(null), "SqlFormatter.format(null)");
+  }
+
+  private static String setting(String setting, String name)
+  {
+    if (!setting.startsWith(name))
+    {
+      throw new IllegalArgumentException("expected " + name + " but got " + setting);
+    }
+    return setting.substring(name.length());
+  }
+
+  private SqlFormatterCheck()
+  {
+  }
+}
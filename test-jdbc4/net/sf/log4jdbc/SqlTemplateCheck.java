@@ -0,0 +1,105 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+/**
+ * Checks that SqlTemplate only finds the ? placeholders that are really bind variables, and
+ * merges bind variables into them.
+ *
+ * @author Arthur Blake
+ */
+final class SqlTemplateCheck
+{
+  /**
+   * Triples of SQL, the number of placeholders in it and the SQL with 1, 2, 3 ... merged in.
+   */
+  private static final String[] CASES = {
+    "select a from t where b = ? and c = ?",
+    "2",
+    "select a from t where b = 1 and c = 2",
+
+    "select '?', \"?\", `?` from t where b = ?",
+    "1",
+    "select '?', \"?\", `?` from t where b = 1",
+
+    "select a -- ?\nfrom t /* ? */ where b = ?",
+    "1",
+    "select a -- ?\nfrom t /* ? */ where b = 1",
+
+    "select 'it''s ?', ? from t where \"a\"\"?\" = ?",
+    "2",
+    "select 'it''s ?', 1 from t where \"a\"\"?\" = 2",
+
+    "select a from t where path = 'C:\\' and id = ?",
+    "1",
+    "select a from t where path = 'C:\\' and id = 1",
+
+    "select 'unterminated ?",
+    "0",
+    "select 'unterminated ?",
+  };
+
+  /**
+   * The same, for a database where a backslash escapes the character after it in a string.
+   */
+  private static final String[] BACKSLASH_CASES = {
+    "select 'it\\'s ?', ? from t where `a\\` = ? and \"b\\\" = ?",
+    "3",
+    "select 'it\\'s ?', 1 from t where `a\\` = 2 and \"b\\\" = 3",
+
+    "select a from t where path = 'C:\\\\' and id = ?",
+    "1",
+    "select a from t where path = 'C:\\\\' and id = 1",
+  };
+
+  static void run()
+  {
+    run(CASES, false);
+    run(BACKSLASH_CASES, true);
+    Checks.checkEquals("select ? from t where b = 1", SqlTemplate.get(
+      "select ? from t where b = ?").render(new String[] {null, "1"}), "render an unset value");
+    String sql = "select 'C:\\', ? from t where id = ?";
+    Checks.checkEquals(Integer.valueOf(2),
+      Integer.valueOf(SqlTemplate.get(sql).getPlaceholderCount()), "standard " + Checks.show(sql));
+    Checks.checkEquals(Integer.valueOf(0), Integer.valueOf(SqlTemplate.get(sql, true).
+      getPlaceholderCount()), "backslash escaped " + Checks.show(sql));
+    Checks.checkEquals(Integer.valueOf(2),
+      Integer.valueOf(SqlTemplate.get(sql).getPlaceholderCount()), "standard again " +
+      Checks.show(sql));
+  }
+
+  private static void run(String[] cases, boolean backslashEscapes)
+  {
+    for (int i = 0; i < cases.length; i += 3)
+    {
+      String sql = cases[i];
+      SqlTemplate template = SqlTemplate.get(sql, backslashEscapes);
+      int count = Integer.parseInt(cases[i + 1]);
+      Checks.checkEquals(Integer.valueOf(count), Integer.valueOf(template.getPlaceholderCount()),
+        "placeholders in " + Checks.show(sql));
+      String[] values = new String[count];
+      for (int v = 0; v < count; v++)
+      {
+        values[v] = String.valueOf(v + 1);
+      }
+      Checks.checkEquals(cases[i + 2], template.render(values), "render " + Checks.show(sql));
+    }
+  }
+
+  private SqlTemplateCheck()
+  {
+  }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright 2007-2024 Arthur Blake
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.log4jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the tracking of each connection's open Statements and ResultSets (OpenCursors): that the
+ * ones still open when the connection is closed are reported with their SQL, that the ones that
+ * are garbage collected without being closed are reported, and that the ones held open for longer
+ * than the connection leak threshold are reported by the sweeps.
+ *
+ * @author Arthur Blake
+ */
+final class StatementLeakCheck
+{
+  static void run() throws SQLException
+  {
+    SpyLogDelegator saved = SpyLogFactory.getSpyLogDelegator();
+    boolean statementLeakWarn = DriverSpy.StatementLeakWarn;
+    long threshold = DriverSpy.ConnectionLeakThresholdNanos;
+    DriverSpy.StatementLeakWarn = true;
+    try
+    {
+      checkConnectionClosed();
+      checkCollected();
+      checkHeldTooLong();
+    }
+    finally
+    {
+      DriverSpy.ConnectionLeakThresholdNanos = 0L;
+      ConnectionLeakDetector.thresholdChanged();
+      DriverSpy.ConnectionLeakThresholdNanos = threshold;
+      DriverSpy.StatementLeakWarn = statementLeakWarn;
+      SpyLogFactory.overrideSpyLogDelegator(saved);
+    }
+  }
+
+  /**
+   * The Statements and ResultSets still open when the connection is closed are reported, except
+   * for the ResultSets of closed Statements and ResultSets that were replaced by a newer one.
+   */
+  private static void checkConnectionClosed() throws SQLException
+  {
+    FakeJdbc.Log log = new FakeJdbc.Log();
+    SpyLogFactory.overrideSpyLogDelegator(log);
+    ConnectionSpy connection = new ConnectionSpy(FakeJdbc.connection(), null, false);
+    Statement open = connection.createStatement();
+    open.executeQuery("select 1");
+    open.executeQuery("select 2");
+    Statement closed = connection.createStatement();
+    closed.executeQuery("select 3");
+    closed.close();
+    Statement openWithClosedResults = connection.createStatement();
+    openWithClosedResults.executeQuery("select 4").close();
+    connection.prepareStatement("select ?");
+    Checks.checkEquals(Integer.valueOf(4), Integer.valueOf(connection.getOpenCursorCount()),
+      "open Statements and ResultSets");
+    connection.close();
+    check(log, "left open when the connection is closed",
+      "PreparedStatement select ? connection closed",
+      "ResultSet select 2 connection closed",
+      "Statement select 2 connection closed",
+      "Statement select 4 connection closed");
+  }
+
+  /**
+   * A Statement that is garbage collected without being closed is reported the next time a
+   * Statement is opened on its connection, and not again when the connection is closed.
+   */
+  private static void checkCollected() throws SQLException
+  {
+    FakeJdbc.Log log = new FakeJdbc.Log();
+    SpyLogFactory.overrideSpyLogDelegator(log);
+    ConnectionSpy connection = new ConnectionSpy(FakeJdbc.connection(), null, false);
+    openAndLose(connection);
+    FakeJdbc.await(() -> {
+      System.gc();
+      try
+      {
+        connection.createStatement().close();
+      }
+      catch (SQLException e)
+      {
+        return true;
+      }
+      return !log.getStatementLeaks().isEmpty();
+    }, "garbage collected Statement reported");
+    connection.close();
+    check(log, "garbage collected without being closed", "Statement select 5 collected");
+  }
+
+  /**
+   * A Statement and ResultSet held open for longer than the threshold are reported by the sweeps,
+   * once, and not again when they are closed.
+   */
+  private static void checkHeldTooLong() throws SQLException
+  {
+    FakeJdbc.Log log = new FakeJdbc.Log();
+    SpyLogFactory.overrideSpyLogDelegator(log);
+    DriverSpy.ConnectionLeakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(200L);
+    // opened from outside of log4jdbc, or it isn't watched (see ConnectionLeakCheck)
+    ConnectionSpy connection = Optional.of(FakeJdbc.connection()).map(c ->
+      new ConnectionSpy(c, null, false)).get();
+    Statement statement = connection.createStatement();
+    ResultSet resultSet = statement.executeQuery("select 6");
+    FakeJdbc.await(() -> log.getStatementLeaks().size() >= 2,
+      "Statement and ResultSet held too long reported");
+    resultSet.close();
+    statement.close();
+    connection.close();
+    check(log, "held open for longer than the threshold", "ResultSet select 6",
+      "Statement select 6");
+  }
+
+  private static void openAndLose(ConnectionSpy connection) throws SQLException
+  {
+    connection.createStatement().execute("select 5");
+  }
+
+  /**
+   * Check the Statements and ResultSets reported, each as its type, SQL and why it was reported.
+   */
+  private static void check(FakeJdbc.Log log, String what, String... expected)
+  {
+    List<String> actual = new ArrayList<String>();
+    for (StatementLeak leak : log.getStatementLeaks())
+    {
+      actual.add(leak.getType() + " " + leak.getSql() + (leak.isCollected() ? " collected" : "") +
+        (leak.isConnectionClosed() ? " connection closed" : ""));
+    }
+    Collections.sort(actual);
+    List<String> wanted = new ArrayList<String>();
+    Collections.addAll(wanted, expected);
+    Checks.checkEquals(wanted, actual, what);
+  }
+
+  private StatementLeakCheck()
+  {
+  }
+}